@@ -5,4 +5,5 @@ module no.laukvik.csv {
     exports no.laukvik.csv.query;
     exports no.laukvik.csv.report;
     exports no.laukvik.csv.statistics;
+    exports no.laukvik.csv.storage;
 }
\ No newline at end of file
@@ -18,8 +18,10 @@ package no.laukvik.csv;
 import no.laukvik.csv.columns.*;
 import no.laukvik.csv.io.*;
 import no.laukvik.csv.query.Query;
+import no.laukvik.csv.query.RowSorter;
 import no.laukvik.csv.query.ValueMatcher;
 import no.laukvik.csv.statistics.FrequencyDistribution;
+import no.laukvik.csv.storage.ColumnTable;
 
 import java.io.File;
 import java.io.Serializable;
@@ -27,7 +29,10 @@ import java.math.BigDecimal;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.Flow;
 import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -128,9 +133,9 @@ public final class CSV implements Serializable {
      */
     private final List<Column> columns;
     /**
-     * The list of Rows.
+     * The list of Rows, which are views created when read when the storage is columnar.
      */
-    private final List<Row> rows;
+    private List<Row> rows;
     /**
      * The Character setRaw.
      */
@@ -160,6 +165,15 @@ public final class CSV implements Serializable {
      * The file opened.
      */
     private File file;
+    /**
+     * The table with the values of the rows or null when each row keeps its own values.
+     */
+    private ColumnTable table;
+    /**
+     * The ordinal of the next column added. Ordinals are not used again, so a row never mistakes the value of a
+     * removed column for one of a new column.
+     */
+    private int nextOrdinal;
 
     /**
      * Opens an empty file.
@@ -193,6 +207,39 @@ public final class CSV implements Serializable {
         return rows.stream();
     }
 
+    /**
+     * Returns the values of the column in the order of the rows, leaving out the null values. The values of a
+     * columnar CSV are read without boxing them.
+     *
+     * @param integerColumn the column
+     * @return the values
+     */
+    public IntStream getInts(final IntegerColumn integerColumn) {
+        return rows.stream().filter(r -> !r.isNull(integerColumn)).mapToInt(r -> r.getInt(integerColumn, 0));
+    }
+
+    /**
+     * Returns the values of the column in the order of the rows, leaving out the null values. The values of a
+     * columnar CSV are read without boxing them.
+     *
+     * @param doubleColumn the column
+     * @return the values
+     */
+    public DoubleStream getDoubles(final DoubleColumn doubleColumn) {
+        return rows.stream().filter(r -> !r.isNull(doubleColumn)).mapToDouble(r -> r.getDouble(doubleColumn, 0));
+    }
+
+    /**
+     * Returns the values of the column as doubles in the order of the rows, leaving out the null values. The values
+     * of a columnar CSV are read without boxing them.
+     *
+     * @param floatColumn the column
+     * @return the values
+     */
+    public DoubleStream getDoubles(final FloatColumn floatColumn) {
+        return rows.stream().filter(r -> !r.isNull(floatColumn)).mapToDouble(r -> r.getFloat(floatColumn, 0));
+    }
+
 
     /**
      * Automatically detects charset using BOM (Byte Order Mark).
@@ -432,20 +479,26 @@ public final class CSV implements Serializable {
             throw new ColumnAlreadyExistException(column);
         }
         columns.add(column);
+        column.setOrdinal(nextOrdinal++);
         return column;
     }
 
     /**
-     * Removes the column.
+     * Removes the column and its values. The column keeps its ordinal, which tells the rows it is removed, so the
+     * rows have no value for the column afterwards.
      *
      * @param column the column to setNull
      */
     public void removeColumn(final Column column) {
+        if (table == null) {
+            for (Row row : rows) {
+                row.setNull(column);
+            }
+        } else {
+            table.remove(column);
+        }
         column.setCSV(null);
         columns.remove(column);
-        for (Row r : findRows()) {
-            r.setNull(column);
-        }
     }
 
     /**
@@ -503,8 +556,7 @@ public final class CSV implements Serializable {
      * @param columnIndex the column index
      */
     public void removeColumn(final int columnIndex) {
-        Column c = columns.get(columnIndex);
-        columns.remove(c);
+        removeColumn(columns.get(columnIndex));
     }
 
     /**
@@ -621,8 +673,8 @@ public final class CSV implements Serializable {
      * @return the newly created row
      */
     public Row addRow() {
-        Row r = new Row();
-        addRow(r);
+        Row r = createRow();
+        rows.add(r);
         return r;
     }
 
@@ -633,20 +685,147 @@ public final class CSV implements Serializable {
      * @return the newly created row
      */
     public Row addRow(final int rowIndex) {
-        Row r = new Row();
+        Row r = createRow();
         rows.add(rowIndex, r);
         return r;
     }
 
     /**
-     * Adds a new row.
+     * Adds a new row. When the storage is columnar, the values of a row from elsewhere are copied into the table
+     * and the row of the table is added instead.
      *
      * @param row the row to add
      * @return the row being added
      */
-    private Row addRow(final Row row) {
-        rows.add(row);
-        return row;
+    public Row addRow(final Row row) {
+        Row r = table == null || row.getTable() == table ? row : row.copy(columns, table);
+        rows.add(r);
+        return r;
+    }
+
+    /**
+     * Adds all the rows after the last row.
+     *
+     * @param rowsToAdd the rows to add
+     */
+    public void addRows(final List<Row> rowsToAdd) {
+        if (table == null) {
+            rows.addAll(rowsToAdd);
+        } else {
+            for (Row row : rowsToAdd) {
+                addRow(row);
+            }
+        }
+    }
+
+    /**
+     * Creates an empty row in the table, or with values of its own.
+     *
+     * @return the row
+     */
+    private Row createRow() {
+        return table == null ? new Row() : new Row(table, table.addRow());
+    }
+
+    /**
+     * Returns whether the values are kept column by column.
+     *
+     * @return true when the storage is columnar
+     */
+    public boolean isColumnar() {
+        return table != null;
+    }
+
+    /**
+     * Sets whether the values are kept column by column in a ColumnTable instead of in each row. Numbers and dates
+     * are then kept in primitive arrays and Strings as dictionary codes, which takes a fraction of the memory. No
+     * object is kept for each row, as the rows are created as views of the table when read, so two reads of the same
+     * row give equal but not identical rows. The rows already added are copied into the new storage.
+     *
+     * @param columnar whether to keep the values column by column
+     * @see ColumnTable
+     */
+    public void setColumnar(final boolean columnar) {
+        if (columnar == isColumnar()) {
+            return;
+        }
+        setTable(columnar ? new ColumnTable() : null);
+    }
+
+    /**
+     * Returns whether the values are kept column by column in direct memory outside of the heap.
+     *
+     * @return true when the storage is off heap
+     */
+    public boolean isOffHeap() {
+        return table != null && table.isOffHeap();
+    }
+
+    /**
+     * Sets whether the values are kept column by column in direct memory instead of on the heap. Numbers, dates and
+     * Strings are then kept where the garbage collector does not visit them, which keeps large data sets from
+     * making each collection slower. The memory is released by releaseStorage or removeRows. The rows already added are
+     * copied into the new storage, and the storage stays columnar when set to false.
+     *
+     * @param offHeap whether to keep the values in direct memory
+     * @see #releaseStorage()
+     */
+    public void setOffHeap(final boolean offHeap) {
+        if (offHeap == isOffHeap()) {
+            return;
+        }
+        setTable(new ColumnTable(offHeap));
+    }
+
+    /**
+     * Returns the amount of bytes the pages of rows in memory may take.
+     *
+     * @return the memory budget or -1 when the rows are not paged
+     */
+    public long getMemoryBudget() {
+        return table == null ? -1 : table.getMemoryBudget();
+    }
+
+    /**
+     * Sets the amount of bytes the values of the rows in memory may take. The values are then kept column by column
+     * in pages of {@link ColumnTable#DEFAULT_PAGE_SIZE} rows, and the least recently used pages are spilled to a
+     * temporary file when the pages in memory take more than the budget, so a data set larger than the heap can be
+     * read. Reading the rows in order reads each page once. The file is deleted by releaseStorage or removeRows. The
+     * rows already added are copied into the new storage. Each read of a row uses the pages synchronized, so the rows
+     * can be read from many threads, although threads reading rows of different pages take turns.
+     *
+     * @param memoryBudget the amount of bytes
+     * @see #releaseStorage()
+     */
+    public void setMemoryBudget(final long memoryBudget) {
+        setTable(new ColumnTable(memoryBudget, ColumnTable.DEFAULT_PAGE_SIZE));
+    }
+
+    /**
+     * Copies the rows into the table and releases the direct memory or file of the previous table.
+     *
+     * @param next the table or null to keep the values in each row
+     */
+    private void setTable(final ColumnTable next) {
+        ColumnTable previous = table;
+        List<Row> previousRows = rows;
+        table = next;
+        rows = next == null ? new ArrayList<>(previousRows.size()) : new TableRows(next);
+        for (Row row : previousRows) {
+            rows.add(row.copy(columns, next));
+        }
+        if (previous != null && (previous.isOffHeap() || previous.isPaged())) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Removes all rows and releases the storage that outlives them: the direct memory of the values is freed at
+     * once when the storage is off heap, and the file of spilled pages is deleted when the rows are paged. The
+     * columns and the storage mode are kept, so the CSV may be used again.
+     */
+    public void releaseStorage() {
+        removeRows();
     }
 
     /**
@@ -673,14 +852,20 @@ public final class CSV implements Serializable {
      */
     public void removeRows() {
         rows.clear();
+        if (table != null) {
+            table.clear();
+        }
     }
 
     /**
      * Removes all rows and columns.
      */
     public void clear() {
+        for (Column column : columns) {
+            column.setCSV(null);
+        }
         columns.clear();
-        rows.clear();
+        removeRows();
     }
 
     /**
@@ -885,12 +1070,168 @@ public final class CSV implements Serializable {
         readDatasetFile(csvFile, reader);
     }
 
+    /**
+     * Reads only the columns with the specified names from the CSV file. The other columns are skipped while
+     * parsing and are not added.
+     *
+     * @param csvFile     the file to read
+     * @param columnNames the names of the columns to read
+     * @throws CsvReaderException when the file could not be read
+     */
+    public void readFile(final File csvFile, final Collection<String> columnNames) throws CsvReaderException {
+        CsvReader reader = new CsvReader(charset, separatorChar, quoteChar);
+        reader.setColumnNames(columnNames);
+        readDatasetFile(csvFile, reader);
+    }
+
+    /**
+     * Reads only the columns at the specified indexes from the CSV file. The other columns are skipped while
+     * parsing and are not added.
+     *
+     * @param csvFile       the file to read
+     * @param columnIndexes the indexes of the columns in the file to read
+     * @throws CsvReaderException when the file could not be read
+     */
+    public void readFile(final File csvFile, final int... columnIndexes) throws CsvReaderException {
+        CsvReader reader = new CsvReader(charset, separatorChar, quoteChar);
+        reader.setColumnIndexes(columnIndexes);
+        readDatasetFile(csvFile, reader);
+    }
+
+    /**
+     * Reads only the rows of the CSV file that match the query. The query is evaluated while the file is parsed, so
+     * rows that do not match are never created. The rows are sorted by the sort orders of the query.
+     *
+     * @param csvFile the file to read
+     * @param query   the query the rows must match
+     * @throws CsvReaderException when the file could not be read
+     */
+    public void readFile(final File csvFile, final Query query) throws CsvReaderException {
+        CsvReader reader = new CsvReader(charset, separatorChar, quoteChar);
+        reader.setQuery(query);
+        readDatasetFile(csvFile, reader);
+        if (!query.getSorters().isEmpty()) {
+            rows.sort(new RowSorter(query.getSorters()));
+        }
+    }
+
+    /**
+     * Reads the CSV file using the specified reader.
+     *
+     * @param csvFile the file to read
+     * @param reader  the reader to use
+     * @throws CsvReaderException when the file could not be read
+     */
+    public void readFile(final File csvFile, final DatasetFileReader reader) throws CsvReaderException {
+        readDatasetFile(csvFile, reader);
+    }
+
+    /**
+     * Reads the CSV file by parsing chunks of it concurrently in the common ForkJoinPool.
+     *
+     * @param csvFile the file to read
+     * @throws CsvReaderException when the file could not be read
+     */
+    public void readFileParallel(final File csvFile) throws CsvReaderException {
+        readDatasetFile(csvFile, new ParallelCsvReader(charset, separatorChar, quoteChar));
+    }
+
+    /**
+     * Reads the files in the directory matching the glob pattern, which must all have the same header, by parsing
+     * them concurrently. The rows are added in the order of the file names.
+     * <pre>{@code
+     *     csv.readFiles(new File("exports"), "part-*.csv");
+     * }</pre>
+     *
+     * @param directory the directory
+     * @param glob      the glob pattern of the files
+     * @throws CsvReaderException when a file could not be read or has another header than the first file
+     */
+    public void readFiles(final File directory, final String glob) throws CsvReaderException {
+        ShardedCsvReader reader = new ShardedCsvReader(charset, separatorChar, quoteChar);
+        reader.setGlob(glob);
+        readDatasetFile(directory, reader);
+    }
+
+    /**
+     * Reads the file, inferring the types of the columns without a type in the header from the first rows. The
+     * values are then kept as numbers, booleans and dates instead of Strings.
+     *
+     * @param csvFile    the file to read
+     * @param sampleSize the amount of rows to infer the types from
+     * @throws CsvReaderException when the file could not be read
+     */
+    public void readFileInferringTypes(final File csvFile, final int sampleSize) throws CsvReaderException {
+        CsvReader reader = new CsvReader(charset, separatorChar, quoteChar);
+        reader.setTypeInference(sampleSize);
+        readDatasetFile(csvFile, reader);
+    }
+
+    /**
+     * Reads the CSV file, keeping the records that can not be read aside instead of failing. A record is malformed
+     * when it has another amount of fields than the header or when a value fails to parse.
+     *
+     * @param csvFile     the file to read
+     * @param errorBudget the maximum amount of malformed records
+     * @return the malformed records with their line numbers
+     * @throws CsvReaderException when the file could not be read or has more malformed records than the budget
+     */
+    public List<MalformedRow> readFileLeniently(final File csvFile, final int errorBudget)
+            throws CsvReaderException {
+        CsvReader reader = new CsvReader(charset, separatorChar, quoteChar);
+        reader.setErrorBudget(errorBudget);
+        readDatasetFile(csvFile, reader);
+        return reader.getMalformedRows();
+    }
+
+    /**
+     * Reads the CSV file without parsing the values. Each value is parsed the first time it is read from its row,
+     * synchronized on the row so the rows can be read from many threads.
+     *
+     * @param csvFile the file to read
+     * @throws CsvReaderException when the file could not be read
+     */
+    public void readFileLazy(final File csvFile) throws CsvReaderException {
+        CsvReader reader = new CsvReader(charset, separatorChar, quoteChar);
+        reader.setLazy(true);
+        readDatasetFile(csvFile, reader);
+    }
+
+    /**
+     * Reads the columns of the CSV file and returns a lazily populated stream of its rows. The rows are parsed on
+     * demand and are not kept in this CSV. The stream should be closed to close the file.
+     * <pre>{@code
+     *     try (Stream<Row> rows = csv.readFileStream(new File("very_large.csv"))) {
+     *         long count = rows.filter(r -> r.get(party) != null).count();
+     *     }
+     * }</pre>
+     *
+     * @param csvFile the file to read
+     * @return the stream of rows
+     * @throws CsvReaderException when the file could not be opened
+     */
     public Stream<Row> readFileStream(final File csvFile) throws CsvReaderException {
+        clear();
+        this.file = csvFile;
         CsvReader reader = new CsvReader(charset, separatorChar, quoteChar);
-        return null;
+        return reader.readFileStream(csvFile, this);
     }
 
 
+    /**
+     * Reads the columns of the CSV file and returns a publisher of its rows for a single subscriber. Rows are only
+     * parsed when the subscriber requests them, on the thread requesting them, and are not kept in this CSV.
+     *
+     * @param csvFile the file to read
+     * @return the publisher of rows
+     */
+    public Flow.Publisher<Row> readFilePublisher(final File csvFile) {
+        clear();
+        this.file = csvFile;
+        CsvReader reader = new CsvReader(charset, separatorChar, quoteChar);
+        return new RowPublisher(() -> reader.readFileStream(csvFile, this));
+    }
+
     /**
      * Reads the csvFile and appends the rows after the last row.
      *
@@ -915,6 +1256,24 @@ public final class CSV implements Serializable {
         reader.readFile(file, this);
     }
 
+    /**
+     * Reads the rows of the csvFile after the checkpoint and appends them after the last row. The file is read from
+     * the byte offset of the checkpoint, so the rows before it are not parsed again. When the last row was read from
+     * a record without its line feed, that row is removed and the record read again.
+     *
+     * @param file       the file to open
+     * @param checkpoint the checkpoint after the rows already read
+     * @return the checkpoint after the rows appended
+     * @throws CsvReaderException when the csv file is corrupt or could not be read
+     */
+    public Checkpoint appendFile(final File file, final Checkpoint checkpoint) throws CsvReaderException {
+        CsvReader reader = new CsvReader(checkpoint.getCharset(), checkpoint.getSeparator(), checkpoint.getQuote());
+        reader.setAppendMode(true);
+        reader.setCheckpoint(checkpoint);
+        reader.readFile(file, this);
+        return reader.getCheckpoint();
+    }
+
     /**
      * Writes the contents to a file using the specified Writer.
      *
@@ -967,14 +1326,34 @@ public final class CSV implements Serializable {
     }
 
     /**
-     * Builds a FrequencyDistribution table for the specified column.
+     * Builds a FrequencyDistribution table for the specified column. When the column has a dictionary the values are
+     * counted by their codes.
      *
      * @param column the column
      * @return a FrequencyDistribution table
      */
     public FrequencyDistribution<String> buildFrequencyDistribution(final StringColumn column) {
         FrequencyDistribution<String> cv = new FrequencyDistribution<>(column);
-        rows.stream().forEach(r -> cv.addValue(r.get(column)));
+        StringDictionary dictionary = column.getDictionary();
+        if (dictionary == null) {
+            rows.stream().forEach(r -> cv.addValue(r.get(column)));
+            return cv;
+        }
+        int[] counts = new int[dictionary.size()];
+        for (Row r : rows) {
+            String value = r.get(column);
+            int code = dictionary.codeOf(value);
+            if (code >= 0 && code < counts.length) {
+                counts[code]++;
+            } else {
+                cv.addValue(value);
+            }
+        }
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                cv.addValue(dictionary.getValue(code), counts[code]);
+            }
+        }
         return cv;
     }
 
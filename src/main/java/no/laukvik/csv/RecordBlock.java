@@ -0,0 +1,353 @@
+/*
+ * Copyright 2015 Laukviks Bedrifter.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package no.laukvik.csv;
+
+import no.laukvik.csv.columns.BooleanColumn;
+import no.laukvik.csv.columns.Column;
+import no.laukvik.csv.columns.DoubleColumn;
+import no.laukvik.csv.columns.FloatColumn;
+import no.laukvik.csv.columns.IntegerColumn;
+
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Keeps the unparsed characters or bytes of many records in one shared block.
+ *
+ * <p>Rows created from a block only refer to their record by index. A value is parsed by its column the first time
+ * it is asked for, so values that are never read are never parsed.</p>
+ *
+ * <p>A block created with a charset keeps the raw bytes of the records instead. A field is then only decoded when
+ * its value is asked for, and integers, decimals and booleans written in ASCII are parsed straight from the bytes
+ * without decoding a String.</p>
+ * <pre>{@code
+ *     RecordBlock block = new RecordBlock(columns, RecordBlock.DEFAULT_CAPACITY);
+ *     if (block.hasRoom(length)) {
+ *         csv.addRow(new Row(block, block.add(chars, ends, fieldCount)));
+ *     }
+ * }</pre>
+ */
+public final class RecordBlock implements Serializable {
+
+    /**
+     * The default amount of characters in a block.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+    /**
+     * The initial amount of records in a block.
+     */
+    private static final int INITIAL_RECORD_COUNT = 1 << 10;
+    /**
+     * The maximum number of digits that always fits in an integer.
+     */
+    private static final int MAX_INTEGER_DIGITS = 9;
+    /**
+     * The value of ten.
+     */
+    private static final int TEN = 10;
+    /**
+     * The characters of a true boolean.
+     */
+    private static final String TRUE = "true";
+
+    /**
+     * The column of each field, or null for fields that are not read.
+     */
+    private final Column[] columns;
+    /**
+     * The characters of all records, or null when the block keeps bytes.
+     */
+    private final char[] chars;
+    /**
+     * The bytes of all records, or null when the block keeps characters.
+     */
+    private final byte[] bytes;
+    /**
+     * The name of the charset of the bytes, or null when the block keeps characters.
+     */
+    private final String charsetName;
+    /**
+     * The charset of the bytes, looked up again after deserialization.
+     */
+    private transient Charset charset;
+    /**
+     * The amount of characters or bytes used.
+     */
+    private int length;
+    /**
+     * The end offset in chars or bytes of each field of all records.
+     */
+    private int[] ends;
+    /**
+     * The amount of field ends used.
+     */
+    private int endCount;
+    /**
+     * The index in ends of the first field of each record, followed by the index after the last record.
+     */
+    private int[] records;
+    /**
+     * The amount of records.
+     */
+    private int recordCount;
+
+    /**
+     * Creates an empty block.
+     *
+     * @param columns  the column of each field, or null for fields that are not read
+     * @param capacity the amount of characters the block can hold
+     */
+    public RecordBlock(final Column[] columns, final int capacity) {
+        this.columns = columns;
+        this.chars = new char[capacity];
+        this.bytes = null;
+        this.charsetName = null;
+        this.ends = new int[INITIAL_RECORD_COUNT * Math.max(1, columns.length)];
+        this.records = new int[INITIAL_RECORD_COUNT + 1];
+    }
+
+    /**
+     * Creates an empty block keeping the raw bytes of the records.
+     *
+     * @param columns  the column of each field, or null for fields that are not read
+     * @param capacity the amount of bytes the block can hold
+     * @param charset  the charset of the bytes
+     */
+    public RecordBlock(final Column[] columns, final int capacity, final Charset charset) {
+        this.columns = columns;
+        this.chars = null;
+        this.bytes = new byte[capacity];
+        this.charsetName = charset.name();
+        this.charset = charset;
+        this.ends = new int[INITIAL_RECORD_COUNT * Math.max(1, columns.length)];
+        this.records = new int[INITIAL_RECORD_COUNT + 1];
+    }
+
+    /**
+     * Returns whether a record with the amount of characters or bytes fits in the block.
+     *
+     * @param recordLength the amount of characters or bytes in the record
+     * @return true when the record fits
+     */
+    public boolean hasRoom(final int recordLength) {
+        return length + recordLength <= (chars == null ? bytes.length : chars.length);
+    }
+
+    /**
+     * Copies a record into the block.
+     *
+     * @param source     the characters of the record
+     * @param sourceEnds the end offset in source of each field
+     * @param fieldCount the amount of fields
+     * @return the index of the record in the block
+     */
+    public int add(final char[] source, final int[] sourceEnds, final int fieldCount) {
+        int recordLength = fieldCount == 0 ? 0 : sourceEnds[fieldCount - 1];
+        System.arraycopy(source, 0, chars, length, recordLength);
+        return addEnds(sourceEnds, fieldCount, recordLength);
+    }
+
+    /**
+     * Copies the raw bytes of a record into a block created with a charset.
+     *
+     * @param source     the bytes of the record
+     * @param sourceEnds the end offset in source of each field
+     * @param fieldCount the amount of fields
+     * @return the index of the record in the block
+     */
+    public int add(final byte[] source, final int[] sourceEnds, final int fieldCount) {
+        int recordLength = fieldCount == 0 ? 0 : sourceEnds[fieldCount - 1];
+        System.arraycopy(source, 0, bytes, length, recordLength);
+        return addEnds(sourceEnds, fieldCount, recordLength);
+    }
+
+    /**
+     * Keeps the field ends of a record copied into the block.
+     *
+     * @param sourceEnds   the end offset in the source of each field
+     * @param fieldCount   the amount of fields
+     * @param recordLength the amount of characters or bytes in the record
+     * @return the index of the record in the block
+     */
+    private int addEnds(final int[] sourceEnds, final int fieldCount, final int recordLength) {
+        if (endCount + fieldCount > ends.length) {
+            ends = Arrays.copyOf(ends, Math.max(ends.length * 2, endCount + fieldCount));
+        }
+        for (int x = 0; x < fieldCount; x++) {
+            ends[endCount + x] = length + sourceEnds[x];
+        }
+        if (recordCount + 2 > records.length) {
+            records = Arrays.copyOf(records, records.length * 2);
+        }
+        records[recordCount] = endCount;
+        endCount += fieldCount;
+        length += recordLength;
+        records[recordCount + 1] = endCount;
+        return recordCount++;
+    }
+
+    /**
+     * Returns the amount of fields in the record.
+     *
+     * @param record the record index
+     * @return the amount of fields
+     */
+    public int getFieldCount(final int record) {
+        return records[record + 1] - records[record];
+    }
+
+    /**
+     * Returns the index of the field for the column, or -1 when the column is not read.
+     *
+     * @param column the column
+     * @return the field index
+     */
+    public int indexOf(final Column column) {
+        for (int x = 0; x < columns.length; x++) {
+            if (columns[x] == column) {
+                return x;
+            }
+        }
+        for (int x = 0; x < columns.length; x++) {
+            if (columns[x] != null && columns[x].compareTo(column) == 0) {
+                return x;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Parses the value of the field in the record with the column of the field.
+     *
+     * @param record the record index
+     * @param field  the field index
+     * @return the value
+     */
+    public Object parse(final int record, final int field) {
+        int index = records[record] + field;
+        int start = index == 0 ? 0 : ends[index - 1];
+        if (chars == null) {
+            return parse(columns[field], start, ends[index] - start);
+        }
+        return columns[field].parse(chars, start, ends[index] - start);
+    }
+
+    /**
+     * Parses the value of the bytes with the column, decoding them only when they are not plain ASCII.
+     *
+     * @param column the column
+     * @param offset the offset of the first byte
+     * @param count  the amount of bytes
+     * @return the value
+     */
+    private Object parse(final Column column, final int offset, final int count) {
+        if (isAscii(offset, count)) {
+            if (column instanceof BooleanColumn) {
+                return count == 0 ? null : isTrue(offset, count);
+            }
+            if (column instanceof IntegerColumn && isInteger(offset, count)) {
+                return parseInteger(offset, count);
+            }
+            if (column instanceof IntegerColumn || column instanceof DoubleColumn || column instanceof FloatColumn) {
+                char[] digits = new char[count];
+                for (int i = 0; i < count; i++) {
+                    digits[i] = (char) bytes[offset + i];
+                }
+                return column.parse(digits, 0, count);
+            }
+        }
+        if (charset == null) {
+            charset = Charset.forName(charsetName);
+        }
+        return column.parse(new String(bytes, offset, count, charset));
+    }
+
+    /**
+     * Returns whether all the bytes are ASCII.
+     *
+     * @param offset the offset of the first byte
+     * @param count  the amount of bytes
+     * @return true when all bytes are ASCII
+     */
+    private boolean isAscii(final int offset, final int count) {
+        for (int i = offset; i < offset + count; i++) {
+            if (bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the bytes are true in any case, the same way as Boolean.parseBoolean.
+     *
+     * @param offset the offset of the first byte
+     * @param count  the amount of bytes
+     * @return true when the bytes are true
+     */
+    private boolean isTrue(final int offset, final int count) {
+        if (count != TRUE.length()) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (Character.toLowerCase((char) bytes[offset + i]) != TRUE.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns whether the bytes are a plain integer that can be parsed without overflow.
+     *
+     * @param offset the offset of the first byte
+     * @param count  the amount of bytes
+     * @return true when the bytes can be parsed as an integer
+     */
+    private boolean isInteger(final int offset, final int count) {
+        int start = offset;
+        int end = offset + count;
+        if (start < end && bytes[start] == '-') {
+            start++;
+        }
+        if (start == end || end - start > MAX_INTEGER_DIGITS) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (bytes[i] < '0' || bytes[i] > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the digits of a plain integer.
+     *
+     * @param offset the offset of the first byte
+     * @param count  the amount of bytes
+     * @return the value
+     */
+    private int parseInteger(final int offset, final int count) {
+        boolean negative = bytes[offset] == '-';
+        int value = 0;
+        for (int i = negative ? offset + 1 : offset; i < offset + count; i++) {
+            value = value * TEN + bytes[i] - '0';
+        }
+        return negative ? -value : value;
+    }
+}
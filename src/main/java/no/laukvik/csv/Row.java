@@ -25,11 +25,15 @@ import no.laukvik.csv.columns.FloatColumn;
 import no.laukvik.csv.columns.IntegerColumn;
 import no.laukvik.csv.columns.StringColumn;
 import no.laukvik.csv.columns.UrlColumn;
+import no.laukvik.csv.storage.ColumnTable;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -57,15 +61,276 @@ import java.util.TreeMap;
 public final class Row implements Serializable {
 
     /**
-     * The Map containing the column data.
+     * The values indexed by the ordinal of their column, or null when the values are in a table.
      */
-    private final Map<Column, Object> map;
+    private Object[] values;
+    /**
+     * The slots with a value parsed from the block or set, or null when the row has no block.
+     */
+    private final BitSet parsed;
+    /**
+     * The CSV the ordinals belong to or null until a value of a column in a CSV is kept.
+     */
+    private CSV csv;
+    /**
+     * The values of columns without an ordinal, created when needed.
+     */
+    private Map<Column, Object> others;
+    /**
+     * The block with the unparsed values or null when all values are in the row.
+     */
+    private final RecordBlock block;
+    /**
+     * The index of the record in the block.
+     */
+    private final int record;
+    /**
+     * The table with the values or null when the values are in the row.
+     */
+    private final ColumnTable table;
+    /**
+     * The index of the row in the table.
+     */
+    private final int index;
 
     /**
      * Creates a new Row.
      */
     public Row() {
-        this.map = new TreeMap<>();
+        this((RecordBlock) null, 0);
+    }
+
+    /**
+     * Creates a new Row with the unparsed values of a record in the block. Each value is parsed the first time it is
+     * read, and kept in the row afterwards. The first read is synchronized on the row, so the row is safe to read
+     * from many threads.
+     *
+     * @param block  the block
+     * @param record the index of the record in the block
+     */
+    public Row(final RecordBlock block, final int record) {
+        this.values = new Object[0];
+        this.parsed = block == null ? null : new BitSet();
+        this.block = block;
+        this.record = record;
+        this.table = null;
+        this.index = 0;
+    }
+
+    /**
+     * Creates a new Row viewing the values of a row in the table. The values are read from and written to the
+     * table, so the row holds no values of its own.
+     *
+     * @param table the table
+     * @param index the index of the row in the table
+     */
+    public Row(final ColumnTable table, final int index) {
+        this.values = null;
+        this.parsed = null;
+        this.block = null;
+        this.record = 0;
+        this.table = table;
+        this.index = index;
+    }
+
+    /**
+     * Returns the slot of the value of the column. A column of another CSV is found by its name in the CSV of the
+     * row, which lets rows be read with the columns of a CSV with the same header.
+     *
+     * @param column the column
+     * @return the slot or -1 when the value is kept by column
+     */
+    private int slot(final Column column) {
+        int ordinal = column.getOrdinal();
+        CSV owner = column.getCSV();
+        if (ordinal >= 0 && owner != null) {
+            if (csv == null) {
+                csv = owner;
+            }
+            if (owner == csv) {
+                return ordinal;
+            }
+        }
+        if (csv != null) {
+            Column same = csv.getColumn(column.getName());
+            if (same != null && same.getOrdinal() >= 0 && same.compareTo(column) == 0) {
+                return same.getOrdinal();
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the value of the column, parsing it from the block the first time. A column removed from its CSV
+     * is not parsed, so it has no value. Reading a row with a block is synchronized, as the first read of a value
+     * keeps it in the row, so the row can be read by many threads just like a row without a block.
+     *
+     * @param column the column
+     * @return the value
+     */
+    private Object value(final Column column) {
+        if (table != null) {
+            return table.get(index, column);
+        }
+        if (block != null) {
+            synchronized (this) {
+                return kept(column);
+            }
+        }
+        return kept(column);
+    }
+
+    /**
+     * Returns the value of the column kept in the row, parsing and keeping it first when it is still in the block.
+     *
+     * @param column the column
+     * @return the value
+     */
+    private Object kept(final Column column) {
+        int slot = slot(column);
+        if (slot < 0) {
+            if (others != null) {
+                Object value = others.get(column);
+                if (value != null || others.containsKey(column)) {
+                    return value;
+                }
+            }
+            if (block == null || column.getOrdinal() >= 0) {
+                return null;
+            }
+        } else if (block == null || parsed.get(slot)) {
+            return slot < values.length ? values[slot] : null;
+        }
+        Object value = parse(column);
+        keep(column, value);
+        return value;
+    }
+
+    /**
+     * Parses the value of the column from the block.
+     *
+     * @param column the column
+     * @return the value or null
+     */
+    private Object parse(final Column column) {
+        int field = block.indexOf(column);
+        if (field >= 0 && field < block.getFieldCount(record)) {
+            return block.parse(record, field);
+        }
+        return null;
+    }
+
+    /**
+     * Keeps the value of the column in the row, marking it as parsed when the row has a block.
+     *
+     * @param column the column
+     * @param value  the value or null
+     */
+    private void keep(final Column column, final Object value) {
+        int slot = slot(column);
+        if (slot < 0) {
+            if (others == null) {
+                others = new TreeMap<>();
+            }
+            if (value == null && block == null) {
+                others.remove(column);
+            } else {
+                others.put(column, value);
+            }
+            return;
+        }
+        if (block != null) {
+            parsed.set(slot);
+        }
+        if (slot >= values.length) {
+            if (value == null) {
+                return;
+            }
+            values = Arrays.copyOf(values, Math.max(slot + 1, values.length * 2));
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Keeps the value of the column.
+     *
+     * @param column the column
+     * @param value  the value
+     */
+    private void put(final Column column, final Object value) {
+        if (table == null) {
+            keep(column, value);
+        } else {
+            table.set(index, column, value);
+        }
+    }
+
+    /**
+     * Returns the table with the values.
+     *
+     * @return the table or null when the values are in the row
+     */
+    ColumnTable getTable() {
+        return table;
+    }
+
+    /**
+     * Returns the index of the row in the table.
+     *
+     * @return the index
+     */
+    int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns whether the object is the same row. Rows of a table are created as views when read, and views of the
+     * same row in the same table are equal.
+     *
+     * @param object the object
+     * @return true when the same row
+     */
+    @Override
+    public boolean equals(final Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (table == null || !(object instanceof Row)) {
+            return false;
+        }
+        Row row = (Row) object;
+        return row.table == table && row.index == index;
+    }
+
+    /**
+     * Returns the hash code of the row, which is the same for views of the same row in a table.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        if (table == null) {
+            return System.identityHashCode(this);
+        }
+        return System.identityHashCode(table) * 31 + index;
+    }
+
+    /**
+     * Copies the values of the columns into a new row in the table, or into a new row of its own.
+     *
+     * @param columns the columns to copy
+     * @param target  the table or null to keep the values in the new row
+     * @return the new row
+     */
+    Row copy(final List<Column> columns, final ColumnTable target) {
+        Row copy = target == null ? new Row() : new Row(target, target.addRow());
+        for (Column column : columns) {
+            Object value = value(column);
+            if (value != null) {
+                copy.put(column, value);
+            }
+        }
+        return copy;
     }
 
     /**
@@ -76,7 +341,21 @@ public final class Row implements Serializable {
      * @return the row
      */
     public Row setRaw(final Column column, final String value) {
-        map.put(column, column.parse(value));
+        put(column, column.parse(value));
+        return this;
+    }
+
+    /**
+     * Sets the value for the column by parsing the characters.
+     *
+     * @param column the column to set
+     * @param chars  the characters
+     * @param offset the offset of the first character
+     * @param length the amount of characters
+     * @return the row
+     */
+    public Row setRaw(final Column column, final char[] chars, final int offset, final int length) {
+        put(column, column.parse(chars, offset, length));
         return this;
     }
 
@@ -88,7 +367,7 @@ public final class Row implements Serializable {
      * @return the row
      */
     public Row set(final ByteColumn column, final byte[] value) {
-        map.put(column, value);
+        put(column, value);
         return this;
     }
 
@@ -100,7 +379,7 @@ public final class Row implements Serializable {
      * @return the row
      */
     public Row set(final BigDecimalColumn column, final BigDecimal value) {
-        map.put(column, value);
+        put(column, value);
         return this;
     }
 
@@ -112,7 +391,7 @@ public final class Row implements Serializable {
      * @return the row
      */
     public Row set(final IntegerColumn column, final Integer value) {
-        map.put(column, value);
+        put(column, value);
         return this;
     }
 
@@ -124,7 +403,7 @@ public final class Row implements Serializable {
      * @return the row
      */
     public Row set(final FloatColumn column, final Float value) {
-        map.put(column, value);
+        put(column, value);
         return this;
     }
 
@@ -136,7 +415,7 @@ public final class Row implements Serializable {
      * @return the row
      */
     public Row set(final DoubleColumn column, final Double value) {
-        map.put(column, value);
+        put(column, value);
         return this;
     }
 
@@ -148,7 +427,7 @@ public final class Row implements Serializable {
      * @return the row
      */
     public Row set(final BooleanColumn column, final Boolean value) {
-        map.put(column, value);
+        put(column, value);
         return this;
     }
 
@@ -160,7 +439,7 @@ public final class Row implements Serializable {
      * @return the row
      */
     public Row set(final StringColumn column, final String value) {
-        map.put(column, value);
+        put(column, value);
         return this;
     }
 
@@ -172,7 +451,7 @@ public final class Row implements Serializable {
      * @return the row
      */
     public Row set(final UrlColumn column, final URL value) {
-        map.put(column, value);
+        put(column, value);
         return this;
     }
 
@@ -184,7 +463,7 @@ public final class Row implements Serializable {
      * @return the row
      */
     public Row set(final DateColumn column, final Date value) {
-        map.put(column, value);
+        put(column, value);
         return this;
     }
 
@@ -195,7 +474,70 @@ public final class Row implements Serializable {
      * @return true if column is null
      */
     public boolean isNull(final Column column) {
-        return map.get(column) == null;
+        if (table != null) {
+            return table.isNull(index, column);
+        }
+        return value(column) == null;
+    }
+
+    /**
+     * Returns the value of the column as an int. Rows in a columnar CSV read the value without boxing it.
+     *
+     * @param integerColumn the column
+     * @param defaultIfNull the value returned when the column is null
+     * @return the value
+     */
+    public int getInt(final IntegerColumn integerColumn, final int defaultIfNull) {
+        if (table != null) {
+            return table.getInt(index, integerColumn, defaultIfNull);
+        }
+        Integer value = (Integer) value(integerColumn);
+        return value == null ? defaultIfNull : value;
+    }
+
+    /**
+     * Returns the value of the column as a float. Rows in a columnar CSV read the value without boxing it.
+     *
+     * @param floatColumn   the column
+     * @param defaultIfNull the value returned when the column is null
+     * @return the value
+     */
+    public float getFloat(final FloatColumn floatColumn, final float defaultIfNull) {
+        if (table != null) {
+            return table.getFloat(index, floatColumn, defaultIfNull);
+        }
+        Float value = (Float) value(floatColumn);
+        return value == null ? defaultIfNull : value;
+    }
+
+    /**
+     * Returns the value of the column as a double. Rows in a columnar CSV read the value without boxing it.
+     *
+     * @param doubleColumn  the column
+     * @param defaultIfNull the value returned when the column is null
+     * @return the value
+     */
+    public double getDouble(final DoubleColumn doubleColumn, final double defaultIfNull) {
+        if (table != null) {
+            return table.getDouble(index, doubleColumn, defaultIfNull);
+        }
+        Double value = (Double) value(doubleColumn);
+        return value == null ? defaultIfNull : value;
+    }
+
+    /**
+     * Returns the value of the column as a boolean. Rows in a columnar CSV read the value without boxing it.
+     *
+     * @param booleanColumn the column
+     * @param defaultIfNull the value returned when the column is null
+     * @return the value
+     */
+    public boolean getBoolean(final BooleanColumn booleanColumn, final boolean defaultIfNull) {
+        if (table != null) {
+            return table.getBoolean(index, booleanColumn, defaultIfNull);
+        }
+        Boolean value = (Boolean) value(booleanColumn);
+        return value == null ? defaultIfNull : value;
     }
 
     /**
@@ -205,7 +547,7 @@ public final class Row implements Serializable {
      * @return the column as a String
      */
     public String getRaw(final Column column) {
-        Object value = map.get(column);
+        Object value = value(column);
         if (value == null) {
             return "";
         } else {
@@ -220,7 +562,7 @@ public final class Row implements Serializable {
      * @return the value
      */
     public String get(final StringColumn stringColumn) {
-        return (String) map.get(stringColumn);
+        return (String) value(stringColumn);
     }
 
     /**
@@ -230,7 +572,7 @@ public final class Row implements Serializable {
      * @return the value
      */
     public Date get(final DateColumn dateColumn) {
-        return (Date) map.get(dateColumn);
+        return (Date) value(dateColumn);
     }
 
     /**
@@ -240,7 +582,7 @@ public final class Row implements Serializable {
      * @return the value
      */
     public Float get(final FloatColumn floatColumn) {
-        return (Float) map.get(floatColumn);
+        return (Float) value(floatColumn);
     }
 
     /**
@@ -250,7 +592,7 @@ public final class Row implements Serializable {
      * @return the value
      */
     public BigDecimal get(final BigDecimalColumn bigDecimalColumn) {
-        return (BigDecimal) map.get(bigDecimalColumn);
+        return (BigDecimal) value(bigDecimalColumn);
     }
 
     /**
@@ -260,7 +602,7 @@ public final class Row implements Serializable {
      * @return the value
      */
     public Integer get(final IntegerColumn integerColumn) {
-        return (Integer) map.get(integerColumn);
+        return (Integer) value(integerColumn);
     }
 
     /**
@@ -269,7 +611,11 @@ public final class Row implements Serializable {
      * @param column the column
      */
     public void setNull(final Column column) {
-        map.remove(column);
+        if (table != null) {
+            table.set(index, column, null);
+        } else {
+            keep(column, null);
+        }
     }
 
     /**
@@ -279,7 +625,7 @@ public final class Row implements Serializable {
      * @return the value
      */
     public Object getObject(final Column column) {
-        return map.get(column);
+        return value(column);
     }
 
     /**
@@ -289,7 +635,7 @@ public final class Row implements Serializable {
      * @return the value
      */
     public Boolean get(final BooleanColumn booleanColumn) {
-        return (Boolean) map.get(booleanColumn);
+        return (Boolean) value(booleanColumn);
     }
 
     /**
@@ -299,7 +645,7 @@ public final class Row implements Serializable {
      * @return the value
      */
     public byte[] get(final ByteColumn byteColumn) {
-        return (byte[]) map.get(byteColumn);
+        return (byte[]) value(byteColumn);
     }
 
     /**
@@ -309,7 +655,7 @@ public final class Row implements Serializable {
      * @return the value
      */
     public Double get(final DoubleColumn doubleColumn) {
-        return (Double) map.get(doubleColumn);
+        return (Double) value(doubleColumn);
     }
 
     /**
@@ -319,6 +665,6 @@ public final class Row implements Serializable {
      * @return the value
      */
     public URL get(final UrlColumn urlColumn) {
-        return (URL) map.get(urlColumn);
+        return (URL) value(urlColumn);
     }
 }
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2015 Laukviks Bedrifter.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package no.laukvik.csv;
+
+import no.laukvik.csv.storage.ColumnTable;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * The rows of a columnar CSV, which are created as views of the table when they are read instead of being kept.
+ *
+ * <p>While the rows are in the order of the table no memory is used for each row. Moving, inserting or removing a
+ * row keeps the index in the table of each row in an int array instead. A removed row is left unused in the table
+ * until the rows are cleared.</p>
+ */
+final class TableRows extends AbstractList<Row> implements RandomAccess, Serializable {
+
+    /**
+     * The initial amount of indexes kept when the rows are no longer in the order of the table.
+     */
+    private static final int INITIAL_ORDER_SIZE = 16;
+
+    /**
+     * The table with the values.
+     */
+    private final ColumnTable table;
+    /**
+     * The index in the table of each row, or null while each row has the same index in the table.
+     */
+    private int[] order;
+    /**
+     * The amount of rows.
+     */
+    private int size;
+
+    /**
+     * Creates an empty list of the rows of the table.
+     *
+     * @param table the table
+     */
+    TableRows(final ColumnTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Returns a view of the row.
+     *
+     * @param index the index of the row
+     * @return the row
+     */
+    @Override
+    public Row get(final int index) {
+        checkIndex(index, size);
+        return new Row(table, order == null ? index : order[index]);
+    }
+
+    /**
+     * Returns the amount of rows.
+     *
+     * @return the amount of rows
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Replaces the row at the index with a row of the table.
+     *
+     * @param index the index of the row
+     * @param row   a row of the table
+     * @return the row replaced
+     */
+    @Override
+    public Row set(final int index, final Row row) {
+        Row previous = get(index);
+        int tableIndex = indexInTable(row);
+        if (order != null || tableIndex != index) {
+            ensureOrder(size);
+            order[index] = tableIndex;
+        }
+        return previous;
+    }
+
+    /**
+     * Inserts a row of the table at the index.
+     *
+     * @param index the index of the row
+     * @param row   a row of the table
+     */
+    @Override
+    public void add(final int index, final Row row) {
+        checkIndex(index, size + 1);
+        int tableIndex = indexInTable(row);
+        modCount++;
+        if (order == null && index == size && tableIndex == size) {
+            size++;
+            return;
+        }
+        ensureOrder(size + 1);
+        System.arraycopy(order, index, order, index + 1, size - index);
+        order[index] = tableIndex;
+        size++;
+    }
+
+    /**
+     * Removes the row at the index.
+     *
+     * @param index the index of the row
+     * @return the row removed
+     */
+    @Override
+    public Row remove(final int index) {
+        Row previous = get(index);
+        removeRange(index, index + 1);
+        return previous;
+    }
+
+    /**
+     * Removes the rows from the first index to the index before the last.
+     *
+     * @param fromIndex the index of the first row
+     * @param toIndex   the index after the last row
+     */
+    @Override
+    protected void removeRange(final int fromIndex, final int toIndex) {
+        modCount++;
+        ensureOrder(size);
+        System.arraycopy(order, toIndex, order, fromIndex, size - toIndex);
+        size -= toIndex - fromIndex;
+    }
+
+    /**
+     * Removes all rows.
+     */
+    @Override
+    public void clear() {
+        modCount++;
+        order = null;
+        size = 0;
+    }
+
+    /**
+     * Returns the index of the row, found without creating views of the rows.
+     *
+     * @param object the row
+     * @return the index or -1 when not found
+     */
+    @Override
+    public int indexOf(final Object object) {
+        if (!(object instanceof Row) || ((Row) object).getTable() != table) {
+            return -1;
+        }
+        int tableIndex = ((Row) object).getIndex();
+        if (order == null) {
+            return tableIndex < size ? tableIndex : -1;
+        }
+        for (int y = 0; y < size; y++) {
+            if (order[y] == tableIndex) {
+                return y;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns whether the row is one of the rows.
+     *
+     * @param object the row
+     * @return true when found
+     */
+    @Override
+    public boolean contains(final Object object) {
+        return indexOf(object) >= 0;
+    }
+
+    /**
+     * Returns the index in the table of the row.
+     *
+     * @param row the row
+     * @return the index in the table
+     * @throws IllegalArgumentException when the row is not a row of the table
+     */
+    private int indexInTable(final Row row) {
+        if (row.getTable() != table) {
+            throw new IllegalArgumentException("The row is not a row of the table");
+        }
+        return row.getIndex();
+    }
+
+    /**
+     * Keeps the index in the table of each row, with room for the amount of rows.
+     *
+     * @param capacity the amount of rows
+     */
+    private void ensureOrder(final int capacity) {
+        if (order == null) {
+            order = new int[Math.max(INITIAL_ORDER_SIZE, capacity)];
+            for (int y = 0; y < size; y++) {
+                order[y] = y;
+            }
+        } else if (capacity > order.length) {
+            order = Arrays.copyOf(order, Math.max(capacity, order.length * 2));
+        }
+    }
+
+    /**
+     * Throws an exception unless the index is between 0 and the bound.
+     *
+     * @param index the index
+     * @param bound the index after the last valid index
+     */
+    private static void checkIndex(final int index, final int bound) {
+        if (index < 0 || index >= bound) {
+            throw new IndexOutOfBoundsException("Index " + index + " is not within 0 and " + bound);
+        }
+    }
+}
@@ -39,6 +39,9 @@ public final class BigDecimalColumn extends Column<BigDecimal> {
      */
     @Override
     public String asString(final BigDecimal value) {
+        if (value == null) {
+            return "";
+        }
         return value.toString();
     }
 
@@ -50,6 +53,9 @@ public final class BigDecimalColumn extends Column<BigDecimal> {
      */
     @Override
     public BigDecimal parse(final String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
         return new BigDecimal(value);
     }
 
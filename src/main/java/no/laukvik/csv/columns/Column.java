@@ -109,6 +109,10 @@ public abstract class Column<T> implements Comparable, Serializable {
      * The CSV the column belongs to.
      */
     private CSV csv;
+    /**
+     * The position of the values of the column in the rows of the CSV, or -1 when never added to a CSV.
+     */
+    private int ordinal = -1;
 
     /**
      * The name of the column.
@@ -161,6 +165,22 @@ public abstract class Column<T> implements Comparable, Serializable {
         return parseColumnDefinition(ColumnDefinition.parse(name));
     }
 
+    /**
+     * Parses a column name like parseName, but creates the column with the type inferred from its values when the
+     * name has no type.
+     *
+     * @param name      the name
+     * @param inference the inference of the type from the values of the column
+     * @return the column
+     */
+    public static Column parseName(final String name, final ColumnTypeInference inference) {
+        ColumnDefinition columnDefinition = ColumnDefinition.parse(name);
+        if (columnDefinition.get(TYPE) == null) {
+            return inference.createColumn(columnDefinition.getColumnName());
+        }
+        return parseColumnDefinition(columnDefinition);
+    }
+
     /**
      * Analyzes the column definition an builds a column.
      *
@@ -289,6 +309,26 @@ public abstract class Column<T> implements Comparable, Serializable {
         this.csv = csv;
     }
 
+    /**
+     * Returns the position of the values of the column in the rows of its CSV. The ordinal is given when the
+     * column is added and stays the same when the columns are moved or the column is removed, so it is not the
+     * index of the column.
+     *
+     * @return the ordinal or -1 when never added to a CSV
+     */
+    public final int getOrdinal() {
+        return ordinal;
+    }
+
+    /**
+     * Sets the position of the values of the column in the rows of its CSV.
+     *
+     * @param ordinal the ordinal or -1
+     */
+    public final void setOrdinal(final int ordinal) {
+        this.ordinal = ordinal;
+    }
+
     /**
      * Returns the width of the column in characters.
      *
@@ -323,6 +363,19 @@ public abstract class Column<T> implements Comparable, Serializable {
      */
     public abstract T parse(String value);
 
+    /**
+     * Parses the characters and returns the value of them. Columns of numbers override this to parse without
+     * creating a String.
+     *
+     * @param chars  the characters
+     * @param offset the offset of the first character
+     * @param length the amount of characters
+     * @return the value
+     */
+    public T parse(final char[] chars, final int offset, final int length) {
+        return parse(new String(chars, offset, length));
+    }
+
     /**
      * Compares two objects.
      *
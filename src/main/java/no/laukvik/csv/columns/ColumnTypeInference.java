@@ -0,0 +1,228 @@
+/*
+ * Copyright 2015 Laukviks Bedrifter.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package no.laukvik.csv.columns;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Infers the type of a column from a sample of its values.
+ *
+ * <p>Every value added rules out the types that can not hold it, and the column is created with the first type in
+ * the order Boolean, Integer, Double, BigDecimal, LocalDate and LocalDateTime that holds all of them, or as a String
+ * column when none does. Numbers and booleans must be written back exactly as they were read, so values like
+ * <code>007</code> or <code>1.50</code> keep their text in a String or BigDecimal column. Dates must be in the ISO
+ * format. Empty values fit any type.</p>
+ * <pre>{@code
+ *     ColumnTypeInference inference = new ColumnTypeInference();
+ *     inference.add("12");
+ *     inference.add("-3");
+ *     Column column = inference.createColumn("Amount"); // IntegerColumn
+ * }</pre>
+ */
+public final class ColumnTypeInference {
+
+    /**
+     * The values can be booleans.
+     */
+    private static final int BOOLEAN = 1;
+    /**
+     * The values can be integers.
+     */
+    private static final int INTEGER = 1 << 1;
+    /**
+     * The values can be doubles.
+     */
+    private static final int DOUBLE = 1 << 2;
+    /**
+     * The values can be BigDecimals.
+     */
+    private static final int BIGDECIMAL = 1 << 3;
+    /**
+     * The values can be dates.
+     */
+    private static final int LOCALDATE = 1 << 4;
+    /**
+     * The values can be dates with times.
+     */
+    private static final int LOCALDATETIME = 1 << 5;
+    /**
+     * All types.
+     */
+    private static final int ALL = BOOLEAN | INTEGER | DOUBLE | BIGDECIMAL | LOCALDATE | LOCALDATETIME;
+
+    /**
+     * The types that can hold all values added.
+     */
+    private int candidates = ALL;
+    /**
+     * Whether any value that is not empty is added.
+     */
+    private boolean hasValues;
+
+    /**
+     * Adds the value of the characters.
+     *
+     * @param chars  the characters
+     * @param offset the offset of the first character
+     * @param length the amount of characters
+     */
+    public void add(final char[] chars, final int offset, final int length) {
+        if (length > 0 && candidates != 0) {
+            add(new String(chars, offset, length));
+        }
+    }
+
+    /**
+     * Adds the value and rules out the types that can not hold it.
+     *
+     * @param value the value
+     */
+    public void add(final String value) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        hasValues = true;
+        if (has(BOOLEAN) && !value.equals(Boolean.TRUE.toString()) && !value.equals(Boolean.FALSE.toString())) {
+            candidates &= ~BOOLEAN;
+        }
+        if (has(INTEGER) && !isInteger(value)) {
+            candidates &= ~INTEGER;
+        }
+        if (has(DOUBLE) && !isDouble(value)) {
+            candidates &= ~DOUBLE;
+        }
+        if (has(BIGDECIMAL) && !isBigDecimal(value)) {
+            candidates &= ~BIGDECIMAL;
+        }
+        if (has(LOCALDATE) && !isLocalDate(value)) {
+            candidates &= ~LOCALDATE;
+        }
+        if (has(LOCALDATETIME) && !isLocalDateTime(value)) {
+            candidates &= ~LOCALDATETIME;
+        }
+    }
+
+    /**
+     * Returns whether the type can still hold all values.
+     *
+     * @param type the type
+     * @return true when the type is a candidate
+     */
+    private boolean has(final int type) {
+        return (candidates & type) != 0;
+    }
+
+    /**
+     * Returns whether the value is an integer written the way Integer writes it.
+     *
+     * @param value the value
+     * @return true when an integer
+     */
+    private static boolean isInteger(final String value) {
+        try {
+            return Integer.toString(Integer.parseInt(value)).equals(value);
+        } catch (final NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether the value is a double written the way Double writes it.
+     *
+     * @param value the value
+     * @return true when a double
+     */
+    private static boolean isDouble(final String value) {
+        try {
+            return Double.toString(Double.parseDouble(value)).equals(value);
+        } catch (final NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether the value is a decimal written the way BigDecimal writes it.
+     *
+     * @param value the value
+     * @return true when a decimal
+     */
+    private static boolean isBigDecimal(final String value) {
+        try {
+            return new BigDecimal(value).toString().equals(value);
+        } catch (final NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether the value is an ISO date.
+     *
+     * @param value the value
+     * @return true when a date
+     */
+    private static boolean isLocalDate(final String value) {
+        try {
+            LocalDate.parse(value);
+            return true;
+        } catch (final DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether the value is an ISO date with time.
+     *
+     * @param value the value
+     * @return true when a date with time
+     */
+    private static boolean isLocalDateTime(final String value) {
+        try {
+            LocalDateTime.parse(value);
+            return true;
+        } catch (final DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a column of the first type that holds all values added, or a StringColumn when none does or when
+     * only empty values are added.
+     *
+     * @param columnName the name of the column
+     * @return the column
+     */
+    public Column createColumn(final String columnName) {
+        if (!hasValues) {
+            return new StringColumn(columnName);
+        } else if (has(BOOLEAN)) {
+            return new BooleanColumn(columnName);
+        } else if (has(INTEGER)) {
+            return new IntegerColumn(columnName);
+        } else if (has(DOUBLE)) {
+            return new DoubleColumn(columnName);
+        } else if (has(BIGDECIMAL)) {
+            return new BigDecimalColumn(columnName);
+        } else if (has(LOCALDATE)) {
+            return new LocalDateColumn(columnName);
+        } else if (has(LOCALDATETIME)) {
+            return new LocalDateTimeColumn(columnName);
+        }
+        return new StringColumn(columnName);
+    }
+}
@@ -46,6 +46,10 @@ public final class DateColumn extends Column<Date> {
      * The DateFormat to use when reading and writing.
      */
     private DateFormat dateFormat;
+    /**
+     * A copy of the DateFormat for each thread parsing values.
+     */
+    private transient ThreadLocal<DateFormat> parsers;
     /**
      * The dateFormat as a String.
      */
@@ -441,6 +445,7 @@ public final class DateColumn extends Column<Date> {
     public void setFormat(final String dateFormatPattern) {
         this.format = dateFormatPattern;
         this.dateFormat = new SimpleDateFormat(format);
+        this.parsers = null;
     }
 
     /**
@@ -466,12 +471,27 @@ public final class DateColumn extends Column<Date> {
             return null;
         }
         try {
-            return dateFormat.parse(value);
+            return getParser().parse(value);
         } catch (ParseException ex) {
             return null;
         }
     }
 
+    /**
+     * Returns the DateFormat of the current thread, as DateFormat is not thread safe.
+     *
+     * @return the DateFormat
+     */
+    private DateFormat getParser() {
+        ThreadLocal<DateFormat> local = parsers;
+        if (local == null) {
+            final DateFormat master = dateFormat;
+            local = ThreadLocal.withInitial(() -> (DateFormat) master.clone());
+            parsers = local;
+        }
+        return local.get();
+    }
+
     /**
      * Compares date one and another.
      *
@@ -57,6 +57,22 @@ public final class DoubleColumn extends Column<Double> {
         return Double.parseDouble(value);
     }
 
+    /**
+     * Parses the characters without creating a String, with the same result as parse.
+     *
+     * @param chars  the characters
+     * @param offset the offset of the first character
+     * @param length the amount of characters
+     * @return the value or null when blank
+     */
+    @Override
+    public Double parse(final char[] chars, final int offset, final int length) {
+        if (NumberParser.isBlank(chars, offset, length)) {
+            return null;
+        }
+        return NumberParser.parseDouble(chars, offset, length);
+    }
+
     /**
      * Compares one and another.
      *
@@ -57,6 +57,22 @@ public final class FloatColumn extends Column<Float> {
         return Float.parseFloat(value);
     }
 
+    /**
+     * Parses the characters without creating a String, with the same result as parse.
+     *
+     * @param chars  the characters
+     * @param offset the offset of the first character
+     * @param length the amount of characters
+     * @return the value or null when blank
+     */
+    @Override
+    public Float parse(final char[] chars, final int offset, final int length) {
+        if (NumberParser.isBlank(chars, offset, length)) {
+            return null;
+        }
+        return NumberParser.parseFloat(chars, offset, length);
+    }
+
     /**
      * Compares two float values.
      *
@@ -171,6 +171,22 @@ public final class IntegerColumn extends Column<Integer> {
         return Integer.parseInt(value);
     }
 
+    /**
+     * Parses the characters without creating a String, with the same result as parse.
+     *
+     * @param chars  the characters
+     * @param offset the offset of the first character
+     * @param length the amount of characters
+     * @return the value or null when blank
+     */
+    @Override
+    public Integer parse(final char[] chars, final int offset, final int length) {
+        if (NumberParser.isBlank(chars, offset, length)) {
+            return null;
+        }
+        return NumberParser.parseInt(chars, offset, length);
+    }
+
     /**
      * Compares the two values.
      *
@@ -0,0 +1,534 @@
+/*
+ * Copyright 2015 Laukviks Bedrifter.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package no.laukvik.csv.columns;
+
+import java.math.BigInteger;
+
+/**
+ * Parses numbers straight from characters without creating a String.
+ *
+ * <p>The common forms of numbers are parsed by hand. Anything else, such as hexadecimal floating point, NaN or
+ * numbers with surrounding whitespace, is given to the parse methods of Integer, Long, Float and Double, so the
+ * results and exceptions are always the same as theirs.</p>
+ */
+public final class NumberParser {
+
+    /**
+     * The value of ten.
+     */
+    private static final int TEN = 10;
+    /**
+     * The maximum number of digits that always fits in an int.
+     */
+    private static final int MAX_INT_DIGITS = 9;
+    /**
+     * The maximum number of digits that always fits in a long.
+     */
+    private static final int MAX_LONG_DIGITS = 18;
+    /**
+     * The maximum number of significant digits kept in the mantissa.
+     */
+    private static final int MAX_MANTISSA_DIGITS = 18;
+    /**
+     * The largest mantissa that is exactly representable as a double.
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    /**
+     * The largest power of ten that is exactly representable as a double.
+     */
+    private static final int MAX_EXACT_POWER = 22;
+    /**
+     * The exponent limit beyond which the exponent digits are no longer accumulated.
+     */
+    private static final int MAX_EXPONENT = 100000;
+    /**
+     * The powers of ten that are exactly representable as a double.
+     */
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    /**
+     * The largest mantissa that is exactly representable as a float.
+     */
+    private static final long MAX_EXACT_FLOAT_MANTISSA = 1L << 24;
+    /**
+     * The largest power of ten that is exactly representable as a float.
+     */
+    private static final int MAX_EXACT_FLOAT_POWER = 10;
+    /**
+     * The powers of ten that are exactly representable as a float.
+     */
+    private static final float[] FLOAT_POWERS_OF_TEN = {
+            1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+    /**
+     * The smallest power of five in the table.
+     */
+    private static final int SMALLEST_POWER_OF_FIVE = -342;
+    /**
+     * The largest power of five in the table.
+     */
+    private static final int LARGEST_POWER_OF_FIVE = 308;
+    /**
+     * The amount of bits in each power of five in the table.
+     */
+    private static final int POWER_BITS = 128;
+    /**
+     * The smallest power of ten where the table is exact enough for any truncated product.
+     */
+    private static final int MIN_SAFE_EXPONENT = -27;
+    /**
+     * The largest power of ten where the table is exact enough for any truncated product.
+     */
+    private static final int MAX_SAFE_EXPONENT = 55;
+    /**
+     * The value of log2(10) multiplied by 2^16.
+     */
+    private static final int LOG2_OF_TEN_SCALED = 152170 + 65536;
+    /**
+     * The powers of five from 5^-342 to 5^308 as pairs of high and low 64 bits.
+     */
+    private static final long[] POWERS_OF_FIVE = powersOfFive();
+    /**
+     * The amount of explicit mantissa bits of a double.
+     */
+    private static final int DOUBLE_MANTISSA_BITS = 52;
+    /**
+     * The negated exponent bias of a double.
+     */
+    private static final int DOUBLE_MINIMUM_EXPONENT = -1023;
+    /**
+     * The biased exponent of an infinite double.
+     */
+    private static final int DOUBLE_INFINITE_POWER = 0x7FF;
+    /**
+     * Powers of ten below this are rounded to zero as a double.
+     */
+    private static final int DOUBLE_SMALLEST_POWER = SMALLEST_POWER_OF_FIVE;
+    /**
+     * Powers of ten above this are rounded to infinity as a double.
+     */
+    private static final int DOUBLE_LARGEST_POWER = LARGEST_POWER_OF_FIVE;
+    /**
+     * The smallest power of ten where a double can be exactly between two doubles.
+     */
+    private static final int DOUBLE_MIN_ROUND_TO_EVEN = -4;
+    /**
+     * The largest power of ten where a double can be exactly between two doubles.
+     */
+    private static final int DOUBLE_MAX_ROUND_TO_EVEN = 23;
+    /**
+     * The amount of explicit mantissa bits of a float.
+     */
+    private static final int FLOAT_MANTISSA_BITS = 23;
+    /**
+     * The negated exponent bias of a float.
+     */
+    private static final int FLOAT_MINIMUM_EXPONENT = -127;
+    /**
+     * The biased exponent of an infinite float.
+     */
+    private static final int FLOAT_INFINITE_POWER = 0xFF;
+    /**
+     * Powers of ten below this are rounded to zero as a float.
+     */
+    private static final int FLOAT_SMALLEST_POWER = -65;
+    /**
+     * Powers of ten above this are rounded to infinity as a float.
+     */
+    private static final int FLOAT_LARGEST_POWER = 38;
+    /**
+     * The smallest power of ten where a float can be exactly between two floats.
+     */
+    private static final int FLOAT_MIN_ROUND_TO_EVEN = -17;
+    /**
+     * The largest power of ten where a float can be exactly between two floats.
+     */
+    private static final int FLOAT_MAX_ROUND_TO_EVEN = 10;
+
+    /**
+     * Utility class.
+     */
+    private NumberParser() {
+    }
+
+    /**
+     * Parses the characters as a decimal int with the same result as Integer.parseInt.
+     *
+     * @param chars  the characters
+     * @param offset the offset of the first character
+     * @param length the amount of characters
+     * @return the value
+     * @throws NumberFormatException when the characters are not an int
+     */
+    public static int parseInt(final char[] chars, final int offset, final int length) {
+        int index = offset;
+        int end = offset + length;
+        boolean negative = false;
+        if (index < end && (chars[index] == '-' || chars[index] == '+')) {
+            negative = chars[index] == '-';
+            index++;
+        }
+        if (index == end || end - index > MAX_INT_DIGITS) {
+            return Integer.parseInt(new String(chars, offset, length));
+        }
+        int value = 0;
+        for (; index < end; index++) {
+            int digit = chars[index] - '0';
+            if (digit < 0 || digit > TEN - 1) {
+                return Integer.parseInt(new String(chars, offset, length));
+            }
+            value = value * TEN + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses the characters as a decimal long with the same result as Long.parseLong.
+     *
+     * @param chars  the characters
+     * @param offset the offset of the first character
+     * @param length the amount of characters
+     * @return the value
+     * @throws NumberFormatException when the characters are not a long
+     */
+    public static long parseLong(final char[] chars, final int offset, final int length) {
+        int index = offset;
+        int end = offset + length;
+        boolean negative = false;
+        if (index < end && (chars[index] == '-' || chars[index] == '+')) {
+            negative = chars[index] == '-';
+            index++;
+        }
+        if (index == end || end - index > MAX_LONG_DIGITS) {
+            return Long.parseLong(new String(chars, offset, length));
+        }
+        long value = 0;
+        for (; index < end; index++) {
+            int digit = chars[index] - '0';
+            if (digit < 0 || digit > TEN - 1) {
+                return Long.parseLong(new String(chars, offset, length));
+            }
+            value = value * TEN + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Returns whether all characters are whitespace, the same as String.trim().isEmpty().
+     *
+     * @param chars  the characters
+     * @param offset the offset of the first character
+     * @param length the amount of characters
+     * @return true when blank
+     */
+    public static boolean isBlank(final char[] chars, final int offset, final int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (chars[i] > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Parses the characters as a double with the same result as Double.parseDouble.
+     *
+     * @param chars  the characters
+     * @param offset the offset of the first character
+     * @param length the amount of characters
+     * @return the value
+     * @throws NumberFormatException when the characters are not a double
+     */
+    public static double parseDouble(final char[] chars, final int offset, final int length) {
+        return parseDecimal(chars, offset, length, false);
+    }
+
+    /**
+     * Parses the characters as a float with the same result as Float.parseFloat.
+     *
+     * @param chars  the characters
+     * @param offset the offset of the first character
+     * @param length the amount of characters
+     * @return the value
+     * @throws NumberFormatException when the characters are not a float
+     */
+    public static float parseFloat(final char[] chars, final int offset, final int length) {
+        return (float) parseDecimal(chars, offset, length, true);
+    }
+
+    /**
+     * Parses a decimal number as a double or float.
+     *
+     * <p>The digits are collected into a mantissa and a power of ten. Numbers with a small mantissa and exponent are
+     * calculated exactly with a single multiplication or division. Other numbers are rounded with the algorithm of
+     * Eisel and Lemire, which multiplies the mantissa by a 128 bit approximation of the power of ten. The few numbers
+     * it cannot round with certainty, subnormal numbers and numbers with more than 18 significant digits are parsed
+     * by Double.parseDouble or Float.parseFloat.</p>
+     *
+     * @param chars  the characters
+     * @param offset the offset of the first character
+     * @param length the amount of characters
+     * @param single whether to round to a float instead of a double
+     * @return the value, which is exactly a float when single
+     */
+    private static double parseDecimal(final char[] chars, final int offset, final int length,
+                                       final boolean single) {
+        int index = offset;
+        int end = offset + length;
+        boolean negative = false;
+        if (index < end && (chars[index] == '-' || chars[index] == '+')) {
+            negative = chars[index] == '-';
+            index++;
+        }
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean truncated = false;
+        for (; index < end && isDigit(chars[index]); index++, digits++) {
+            if (significantDigits < MAX_MANTISSA_DIGITS) {
+                mantissa = mantissa * TEN + chars[index] - '0';
+                if (mantissa > 0) {
+                    significantDigits++;
+                }
+            } else {
+                truncated |= chars[index] != '0';
+                exponent++;
+            }
+        }
+        if (index < end && chars[index] == '.') {
+            index++;
+            for (; index < end && isDigit(chars[index]); index++, digits++) {
+                if (significantDigits < MAX_MANTISSA_DIGITS) {
+                    mantissa = mantissa * TEN + chars[index] - '0';
+                    if (mantissa > 0) {
+                        significantDigits++;
+                    }
+                    exponent--;
+                } else {
+                    truncated |= chars[index] != '0';
+                }
+            }
+        }
+        if (digits == 0) {
+            return fallback(chars, offset, length, single);
+        }
+        if (index < end && (chars[index] == 'e' || chars[index] == 'E')) {
+            index++;
+            boolean negativeExponent = false;
+            if (index < end && (chars[index] == '-' || chars[index] == '+')) {
+                negativeExponent = chars[index] == '-';
+                index++;
+            }
+            if (index == end) {
+                return fallback(chars, offset, length, single);
+            }
+            int value = 0;
+            for (; index < end && isDigit(chars[index]); index++) {
+                if (value < MAX_EXPONENT) {
+                    value = value * TEN + chars[index] - '0';
+                }
+            }
+            exponent += negativeExponent ? -value : value;
+        }
+        if (index != end || truncated) {
+            return fallback(chars, offset, length, single);
+        }
+        if (mantissa == 0) {
+            return negative ? -0.0 : 0.0;
+        }
+        double value = single ? toFloat(mantissa, exponent) : toDouble(mantissa, exponent);
+        if (Double.isNaN(value)) {
+            return fallback(chars, offset, length, single);
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Returns the double closest to mantissa * 10^exponent.
+     *
+     * @param mantissa the positive mantissa
+     * @param exponent the power of ten
+     * @return the value or NaN when it could not be decided
+     */
+    private static double toDouble(final long mantissa, final int exponent) {
+        if (mantissa <= MAX_EXACT_MANTISSA && exponent >= -MAX_EXACT_POWER && exponent <= MAX_EXACT_POWER) {
+            return exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+        }
+        if (exponent < DOUBLE_SMALLEST_POWER) {
+            return 0.0;
+        }
+        if (exponent > DOUBLE_LARGEST_POWER) {
+            return Double.POSITIVE_INFINITY;
+        }
+        long bits = eiselLemire(mantissa, exponent, DOUBLE_MANTISSA_BITS, DOUBLE_MINIMUM_EXPONENT,
+                DOUBLE_INFINITE_POWER, DOUBLE_MIN_ROUND_TO_EVEN, DOUBLE_MAX_ROUND_TO_EVEN);
+        return bits < 0 ? Double.NaN : Double.longBitsToDouble(bits);
+    }
+
+    /**
+     * Returns the float closest to mantissa * 10^exponent.
+     *
+     * @param mantissa the positive mantissa
+     * @param exponent the power of ten
+     * @return the value or NaN when it could not be decided
+     */
+    private static double toFloat(final long mantissa, final int exponent) {
+        if (mantissa <= MAX_EXACT_FLOAT_MANTISSA
+                && exponent >= -MAX_EXACT_FLOAT_POWER && exponent <= MAX_EXACT_FLOAT_POWER) {
+            float value = mantissa;
+            return exponent < 0 ? value / FLOAT_POWERS_OF_TEN[-exponent] : value * FLOAT_POWERS_OF_TEN[exponent];
+        }
+        if (exponent < FLOAT_SMALLEST_POWER) {
+            return 0.0;
+        }
+        if (exponent > FLOAT_LARGEST_POWER) {
+            return Double.POSITIVE_INFINITY;
+        }
+        long bits = eiselLemire(mantissa, exponent, FLOAT_MANTISSA_BITS, FLOAT_MINIMUM_EXPONENT,
+                FLOAT_INFINITE_POWER, FLOAT_MIN_ROUND_TO_EVEN, FLOAT_MAX_ROUND_TO_EVEN);
+        return bits < 0 ? Double.NaN : Float.intBitsToFloat((int) bits);
+    }
+
+    /**
+     * Rounds mantissa * 10^exponent to the binary floating point format with the algorithm of Eisel and Lemire.
+     *
+     * @param mantissa       the positive mantissa
+     * @param exponent       the power of ten within the range of the table
+     * @param mantissaBits   the amount of explicit mantissa bits of the format
+     * @param minimumExponent the exponent bias of the format negated
+     * @param infinitePower  the biased exponent of infinity
+     * @param minRoundToEven the smallest power of ten where ties can occur
+     * @param maxRoundToEven the largest power of ten where ties can occur
+     * @return the bits of the value or -1 when it could not be decided
+     */
+    private static long eiselLemire(final long mantissa, final int exponent, final int mantissaBits,
+                                    final int minimumExponent, final int infinitePower,
+                                    final int minRoundToEven, final int maxRoundToEven) {
+        int leadingZeros = Long.numberOfLeadingZeros(mantissa);
+        long w = mantissa << leadingZeros;
+        int index = 2 * (exponent - SMALLEST_POWER_OF_FIVE);
+        long high = unsignedMultiplyHigh(w, POWERS_OF_FIVE[index]);
+        long low = w * POWERS_OF_FIVE[index];
+        long precisionMask = -1L >>> (mantissaBits + 3);
+        if ((high & precisionMask) == precisionMask) {
+            long secondHigh = unsignedMultiplyHigh(w, POWERS_OF_FIVE[index + 1]);
+            low += secondHigh;
+            if (Long.compareUnsigned(secondHigh, low) > 0) {
+                high++;
+            }
+        }
+        if (low == -1L && (exponent < MIN_SAFE_EXPONENT || exponent > MAX_SAFE_EXPONENT)) {
+            return -1;
+        }
+        int upperBit = (int) (high >>> (Long.SIZE - 1));
+        int shift = upperBit + Long.SIZE - mantissaBits - 3;
+        long bits = high >>> shift;
+        int power2 = binaryExponent(exponent) + upperBit - leadingZeros - minimumExponent;
+        if (power2 <= 0) {
+            return -1;
+        }
+        if (Long.compareUnsigned(low, 1) <= 0 && exponent >= minRoundToEven && exponent <= maxRoundToEven
+                && (bits & 3) == 1 && (bits << shift) == high) {
+            bits &= ~1L;
+        }
+        bits += bits & 1;
+        bits >>>= 1;
+        if (bits >= (2L << mantissaBits)) {
+            bits = 1L << mantissaBits;
+            power2++;
+        }
+        bits &= ~(1L << mantissaBits);
+        if (power2 >= infinitePower) {
+            return (long) infinitePower << mantissaBits;
+        }
+        return (long) power2 << mantissaBits | bits;
+    }
+
+    /**
+     * Returns floor(log2(10^exponent)) + 63.
+     *
+     * @param exponent the power of ten
+     * @return the binary exponent
+     */
+    private static int binaryExponent(final int exponent) {
+        return ((LOG2_OF_TEN_SCALED * exponent) >> Character.SIZE) + Long.SIZE - 1;
+    }
+
+    /**
+     * Returns the high 64 bits of the unsigned 128 bit product.
+     *
+     * @param x one factor
+     * @param y another factor
+     * @return the high bits
+     */
+    private static long unsignedMultiplyHigh(final long x, final long y) {
+        return Math.multiplyHigh(x, y) + (x >> (Long.SIZE - 1) & y) + (y >> (Long.SIZE - 1) & x);
+    }
+
+    /**
+     * Calculates the 128 bit approximations of the powers of five, from 5^-342 to 5^308, normalized so the most
+     * significant bit is set. Each power is stored as its high 64 bits followed by its low 64 bits.
+     *
+     * @return the table
+     */
+    private static long[] powersOfFive() {
+        long[] table = new long[2 * (LARGEST_POWER_OF_FIVE - SMALLEST_POWER_OF_FIVE + 1)];
+        BigInteger five = BigInteger.valueOf(5);
+        for (int q = SMALLEST_POWER_OF_FIVE; q <= LARGEST_POWER_OF_FIVE; q++) {
+            BigInteger power = five.pow(Math.abs(q));
+            BigInteger value;
+            if (q < 0) {
+                int z = power.bitLength();
+                int b = q >= MIN_SAFE_EXPONENT ? z + POWER_BITS - 1 : 2 * z + POWER_BITS;
+                value = BigInteger.ONE.shiftLeft(b).divide(power).add(BigInteger.ONE);
+            } else {
+                value = power.shiftLeft(Math.max(0, POWER_BITS - power.bitLength()));
+            }
+            value = value.shiftRight(Math.max(0, value.bitLength() - POWER_BITS));
+            int index = 2 * (q - SMALLEST_POWER_OF_FIVE);
+            table[index] = value.shiftRight(Long.SIZE).longValue();
+            table[index + 1] = value.longValue();
+        }
+        return table;
+    }
+
+    /**
+     * Parses the characters with Double.parseDouble or Float.parseFloat.
+     *
+     * @param chars  the characters
+     * @param offset the offset of the first character
+     * @param length the amount of characters
+     * @param single whether to parse a float
+     * @return the value
+     */
+    private static double fallback(final char[] chars, final int offset, final int length, final boolean single) {
+        String value = new String(chars, offset, length);
+        return single ? Float.parseFloat(value) : Double.parseDouble(value);
+    }
+
+    /**
+     * Returns whether the character is an ASCII digit.
+     *
+     * @param c the character
+     * @return true when a digit
+     */
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -24,6 +24,10 @@ public final class StringColumn extends Column<String> {
      * The size of the column.
      */
     private int size;
+    /**
+     * The dictionary of the values parsed or null.
+     */
+    private StringDictionary dictionary;
 
     /**
      * Column with String as the data type.
@@ -127,6 +131,24 @@ public final class StringColumn extends Column<String> {
         this.size = columnSize;
     }
 
+    /**
+     * Returns the dictionary of the values parsed.
+     *
+     * @return the dictionary or null
+     */
+    public StringDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Sets the dictionary that values parsed from characters are looked up in, so repeated values share one String.
+     *
+     * @param dictionary the dictionary or null to create a String for each value
+     */
+    public void setDictionary(final StringDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
     /**
      * Returns the value.
      *
@@ -155,6 +177,22 @@ public final class StringColumn extends Column<String> {
         return value;
     }
 
+    /**
+     * Returns the value of the characters, from the dictionary when there is one.
+     *
+     * @param chars  the characters
+     * @param offset the offset of the first character
+     * @param length the amount of characters
+     * @return the value
+     */
+    @Override
+    public String parse(final char[] chars, final int offset, final int length) {
+        if (dictionary == null) {
+            return new String(chars, offset, length);
+        }
+        return dictionary.intern(chars, offset, length);
+    }
+
     /**
      * Compares the two values.
      *
@@ -0,0 +1,283 @@
+/*
+ * Copyright 2015 Laukviks Bedrifter.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package no.laukvik.csv.columns;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Keeps one String for each distinct value of a column and numbers them with codes.
+ *
+ * <p>Values are looked up straight from the characters being parsed, so a value that is already in the dictionary
+ * creates no String at all, and all rows with the same value share the same instance. Each distinct value gets the
+ * next code, starting at 0, which lets matchers and frequency distributions compare and count codes instead of
+ * Strings.</p>
+ *
+ * <p>Dictionaries only pay off for columns with few distinct values. The dictionary switches itself off when it
+ * holds the maximum amount of values, or when most of the values looked up are distinct. After that new values are
+ * no longer added and are parsed into new Strings, while the values already in it keep their codes.</p>
+ *
+ * <p>A dictionary is not thread safe.</p>
+ */
+public final class StringDictionary implements Serializable {
+
+    /**
+     * The default maximum amount of distinct values.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1 << 16;
+    /**
+     * The amount of values looked up before the share of distinct values is checked.
+     */
+    private static final int MIN_LOOKUPS = 1 << 10;
+    /**
+     * Indicates an empty slot in the hash table.
+     */
+    private static final int EMPTY = -1;
+    /**
+     * The initial amount of slots in the hash table.
+     */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /**
+     * The maximum amount of distinct values.
+     */
+    private final int maxSize;
+    /**
+     * The code in each slot of the hash table or EMPTY.
+     */
+    private int[] slots;
+    /**
+     * The value of each code.
+     */
+    private String[] values;
+    /**
+     * The hash of each code.
+     */
+    private int[] hashes;
+    /**
+     * The amount of codes.
+     */
+    private int size;
+    /**
+     * The amount of values looked up while adding.
+     */
+    private long lookups;
+    /**
+     * Whether new values are added.
+     */
+    private boolean enabled;
+
+    /**
+     * Creates a dictionary with the default maximum size.
+     */
+    public StringDictionary() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a dictionary which switches itself off after the amount of distinct values.
+     *
+     * @param maxSize the maximum amount of distinct values
+     */
+    public StringDictionary(final int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Max size must be positive");
+        }
+        this.maxSize = maxSize;
+        this.slots = new int[INITIAL_CAPACITY];
+        Arrays.fill(slots, EMPTY);
+        this.values = new String[INITIAL_CAPACITY / 2];
+        this.hashes = new int[INITIAL_CAPACITY / 2];
+        this.enabled = true;
+    }
+
+    /**
+     * Returns the String of the characters, adding it to the dictionary when new. New Strings are returned when the
+     * dictionary is switched off.
+     *
+     * @param chars  the characters
+     * @param offset the offset of the first character
+     * @param length the amount of characters
+     * @return the String of the value
+     */
+    public String intern(final char[] chars, final int offset, final int length) {
+        if (!enabled) {
+            return new String(chars, offset, length);
+        }
+        lookups++;
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + chars[i];
+        }
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+        while (slots[slot] != EMPTY) {
+            int code = slots[slot];
+            if (hashes[code] == hash && equals(values[code], chars, offset, length)) {
+                return values[code];
+            }
+            slot = (slot + 1) & mask;
+        }
+        String value = new String(chars, offset, length);
+        add(value, hash, slot);
+        if (size >= maxSize || lookups >= MIN_LOOKUPS && size > lookups / 2) {
+            enabled = false;
+        }
+        return value;
+    }
+
+    /**
+     * Returns the String of the value, adding it to the dictionary when new.
+     *
+     * @param value the value
+     * @return the String in the dictionary, or the value when the dictionary is switched off
+     */
+    public String intern(final String value) {
+        if (value == null) {
+            return null;
+        }
+        int code = codeOf(value);
+        if (code >= 0) {
+            return values[code];
+        }
+        return enabled ? intern(value.toCharArray(), 0, value.length()) : value;
+    }
+
+    /**
+     * Returns the code of the value or -1 when the value is not in the dictionary. Looking up a String from the
+     * dictionary compares references only.
+     *
+     * @param value the value
+     * @return the code or -1
+     */
+    public int codeOf(final String value) {
+        if (value == null) {
+            return -1;
+        }
+        int hash = value.hashCode();
+        int mask = slots.length - 1;
+        int slot = mix(hash) & mask;
+        while (slots[slot] != EMPTY) {
+            int code = slots[slot];
+            String candidate = values[code];
+            if (candidate == value || hashes[code] == hash && candidate.equals(value)) {
+                return code;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the value of the code.
+     *
+     * @param code the code
+     * @return the value
+     */
+    public String getValue(final int code) {
+        if (code < 0 || code >= size) {
+            throw new IndexOutOfBoundsException("No value with code " + code);
+        }
+        return values[code];
+    }
+
+    /**
+     * Returns the amount of distinct values, which is one more than the highest code.
+     *
+     * @return the amount of values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns whether new values are still added.
+     *
+     * @return true until the dictionary has switched itself off
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adds the value with the next code in the empty slot.
+     *
+     * @param value the value
+     * @param hash  the hash of the value
+     * @param slot  the empty slot
+     */
+    private void add(final String value, final int hash, final int slot) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        values[size] = value;
+        hashes[size] = hash;
+        slots[slot] = size;
+        size++;
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+    }
+
+    /**
+     * Doubles the hash table.
+     */
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        Arrays.fill(slots, EMPTY);
+        int mask = slots.length - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = mix(hashes[code]) & mask;
+            while (slots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = code;
+        }
+    }
+
+    /**
+     * Spreads the bits of the hash so similar values do not cluster in the table.
+     *
+     * @param hash the hash
+     * @return the mixed hash
+     */
+    private static int mix(final int hash) {
+        int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns whether the String has the characters.
+     *
+     * @param value  the String
+     * @param chars  the characters
+     * @param offset the offset of the first character
+     * @param length the amount of characters
+     * @return true when equal
+     */
+    private static boolean equals(final String value, final char[] chars, final int offset, final int length) {
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) != chars[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
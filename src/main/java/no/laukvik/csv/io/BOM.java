@@ -76,6 +76,33 @@ public enum BOM {
     }
 
 
+    /**
+     * Detects any encoding from the first bytes of the stream using BOM. The stream must support mark and is reset
+     * to where it was.
+     *
+     * @param input the stream
+     * @return the BOM
+     * @throws IOException when the stream could not be read
+     */
+    public static BOM findBom(final InputStream input) throws IOException {
+        byte[] bytes = new byte[MAX_BOM_SIZE];
+        input.mark(MAX_BOM_SIZE);
+        try {
+            int count = 0;
+            while (count < MAX_BOM_SIZE) {
+                int read = input.read(bytes, count, MAX_BOM_SIZE - count);
+                if (read < 0) {
+                    break;
+                }
+                count += read;
+            }
+        } finally {
+            input.reset();
+        }
+        return BOM.parse(bytes);
+    }
+
+
     /**
      * Parses and detects any BOM if present.
      *
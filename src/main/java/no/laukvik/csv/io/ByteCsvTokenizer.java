@@ -0,0 +1,344 @@
+package no.laukvik.csv.io;
+
+import no.laukvik.csv.CSV;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Splits raw bytes into records of fields without decoding them.
+ *
+ * <p>This is the byte level counterpart of CsvTokenizer and follows the same rules for quotes, separators and
+ * line endings. It only works for charsets where the special characters are encoded as the same single bytes as in
+ * ASCII and never appear within the encoding of other characters, such as UTF-8 and ISO-8859-1. The fields of the
+ * current record are kept undecoded in a reusable byte buffer.</p>
+ */
+final class ByteCsvTokenizer {
+
+    /**
+     * Returned when the record continues beyond the available bytes.
+     */
+    static final int INCOMPLETE = -1;
+    /**
+     * The initial capacity of the record buffer.
+     */
+    private static final int INITIAL_RECORD_SIZE = 256;
+    /**
+     * The initial amount of fields in the record buffer.
+     */
+    private static final int INITIAL_FIELD_COUNT = 16;
+    /**
+     * The highest character that is encoded as a single byte in all supported charsets.
+     */
+    private static final char MAX_ASCII = 127;
+    /**
+     * The characters that must be encoded as in ASCII.
+     */
+    private static final String SPECIAL_CHARACTERS = "\r\n\t,;|\"'";
+
+    /**
+     * The quote byte.
+     */
+    private final byte quoteByte;
+    /**
+     * The column separator byte.
+     */
+    private byte separatorByte;
+    /**
+     * Whether a column separator is known.
+     */
+    private boolean hasSeparator;
+    /**
+     * Whether column separator should be automatically detected or not.
+     */
+    private boolean autoDetectSeparator;
+    /**
+     * The number of records read.
+     */
+    private int lineCounter;
+    /**
+     * The bytes of all fields in the current record.
+     */
+    private byte[] bytes;
+    /**
+     * The amount of bytes in the current record.
+     */
+    private int length;
+    /**
+     * The end offset of each field in the current record.
+     */
+    private int[] ends;
+    /**
+     * The amount of fields in the current record.
+     */
+    private int fieldCount;
+
+    /**
+     * Creates a new tokenizer. The separator is detected from the first record when it is null.
+     *
+     * @param quote     the quote character
+     * @param separator the separator character or null
+     */
+    ByteCsvTokenizer(final char quote, final Character separator) {
+        this(quote, separator, separator == null);
+    }
+
+    /**
+     * Creates a new tokenizer with explicit separator detection, as needed when starting after the first line.
+     *
+     * @param quote               the quote character
+     * @param separator           the separator character or null
+     * @param autoDetectSeparator whether the separator should be detected from the first record
+     */
+    ByteCsvTokenizer(final char quote, final Character separator, final boolean autoDetectSeparator) {
+        this.quoteByte = (byte) quote;
+        this.hasSeparator = separator != null;
+        this.autoDetectSeparator = autoDetectSeparator;
+        if (separator != null) {
+            this.separatorByte = (byte) separator.charValue();
+        }
+        this.bytes = new byte[INITIAL_RECORD_SIZE];
+        this.ends = new int[INITIAL_FIELD_COUNT];
+    }
+
+    /**
+     * Returns whether files in the charset can be split on raw bytes with the quote and separator.
+     *
+     * @param charset   the charset
+     * @param quote     the quote character
+     * @param separator the separator character or null
+     * @return true when the charset is supported
+     */
+    static boolean supports(final Charset charset, final char quote, final Character separator) {
+        if (quote > MAX_ASCII || separator != null && separator > MAX_ASCII) {
+            return false;
+        }
+        if (charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII)
+                || charset.equals(StandardCharsets.ISO_8859_1)) {
+            return true;
+        }
+        if (!charset.canEncode() || charset.newEncoder().maxBytesPerChar() != 1) {
+            return false;
+        }
+        return Arrays.equals(SPECIAL_CHARACTERS.getBytes(charset),
+                SPECIAL_CHARACTERS.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Reads the record starting at the specified index of the buffer.
+     *
+     * @param buffer     the buffer
+     * @param from       the index of the first byte of the record
+     * @param to         the index after the last available byte
+     * @param endOfInput whether there are no more bytes after the available ones
+     * @return the index after the record or INCOMPLETE when more bytes are needed
+     */
+    int parse(final ByteBuffer buffer, final int from, final int to, final boolean endOfInput) {
+        length = 0;
+        fieldCount = 0;
+        boolean isNextLine = false;
+        boolean isWithinQuote = false;
+        int index = from;
+        while (!isNextLine && index < to) {
+            byte currentByte = buffer.get(index++);
+            boolean addValue = false;
+
+            if (lineCounter == 0 && autoDetectSeparator && isSeparatorCandidate(currentByte)) {
+                separatorByte = currentByte;
+                hasSeparator = true;
+                autoDetectSeparator = false;
+            }
+
+            if (currentByte == CSV.RETURN) {
+                // Ignored outside of quotes
+            } else if (currentByte == CSV.LINEFEED) {
+                addValue = true;
+                isNextLine = true;
+            } else if (currentByte == quoteByte) {
+                isWithinQuote = true;
+                int end = index;
+                while (end < to && buffer.get(end) != quoteByte) {
+                    end++;
+                }
+                if (end == to && !endOfInput) {
+                    return INCOMPLETE;
+                }
+                append(buffer, index, end - index);
+                if (end < to) {
+                    append(quoteByte);
+                    index = end + 1;
+                } else {
+                    append(end > index ? buffer.get(end - 1) : quoteByte);
+                    index = end;
+                }
+            } else if (hasSeparator && currentByte == separatorByte) {
+                addValue = true;
+            } else {
+                int end = index;
+                while (end < to && isPlain(buffer.get(end))) {
+                    end++;
+                }
+                append(buffer, index - 1, end - index + 1);
+                index = end;
+            }
+            if (index == to && !isNextLine) {
+                if (!endOfInput) {
+                    return INCOMPLETE;
+                }
+                addValue = true;
+            }
+            if (addValue) {
+                if (isWithinQuote) {
+                    length--;
+                    isWithinQuote = false;
+                }
+                addField();
+            }
+        }
+        lineCounter++;
+        return index;
+    }
+
+    /**
+     * Returns whether the byte needs no special treatment.
+     *
+     * @param b the byte
+     * @return true when the byte is part of a field
+     */
+    private boolean isPlain(final byte b) {
+        if (b == CSV.LINEFEED || b == CSV.RETURN || b == quoteByte) {
+            return false;
+        }
+        if (lineCounter == 0 && autoDetectSeparator) {
+            return !isSeparatorCandidate(b);
+        }
+        return !(hasSeparator && b == separatorByte);
+    }
+
+    /**
+     * Returns whether the byte is one of the supported column separators.
+     *
+     * @param b the byte
+     * @return true when the byte can be a separator
+     */
+    private static boolean isSeparatorCandidate(final byte b) {
+        return b == CSV.TAB || b == CSV.SEMICOLON || b == CSV.PIPE || b == CSV.COMMA;
+    }
+
+    /**
+     * Appends a single byte to the current field.
+     *
+     * @param b the byte
+     */
+    private void append(final byte b) {
+        if (length == bytes.length) {
+            bytes = Arrays.copyOf(bytes, bytes.length * 2);
+        }
+        bytes[length++] = b;
+    }
+
+    /**
+     * Appends bytes from the buffer to the current field.
+     *
+     * @param buffer the buffer
+     * @param offset the index of the first byte
+     * @param count  the amount of bytes
+     */
+    private void append(final ByteBuffer buffer, final int offset, final int count) {
+        if (length + count > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + count));
+        }
+        buffer.position(offset);
+        buffer.get(bytes, length, count);
+        length += count;
+    }
+
+    /**
+     * Ends the current field.
+     */
+    private void addField() {
+        if (fieldCount == ends.length) {
+            ends = Arrays.copyOf(ends, ends.length * 2);
+        }
+        ends[fieldCount++] = length;
+    }
+
+    /**
+     * Returns the amount of fields in the current record.
+     *
+     * @return the amount of fields
+     */
+    int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Returns the buffer holding the bytes of the current record.
+     *
+     * @return the bytes
+     */
+    byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the end offset of each field of the current record.
+     *
+     * @return the end offsets
+     */
+    int[] getEnds() {
+        return ends;
+    }
+
+    /**
+     * Returns the offset of the first byte of the field.
+     *
+     * @param index the field index
+     * @return the offset in the buffer
+     */
+    int getStart(final int index) {
+        return index == 0 ? 0 : ends[index - 1];
+    }
+
+    /**
+     * Returns the offset after the last byte of the field.
+     *
+     * @param index the field index
+     * @return the offset in the buffer
+     */
+    int getEnd(final int index) {
+        return ends[index];
+    }
+
+    /**
+     * Decodes the value of the field.
+     *
+     * @param index   the field index
+     * @param charset the charset
+     * @return the value
+     */
+    String getString(final int index, final Charset charset) {
+        int start = getStart(index);
+        return new String(bytes, start, ends[index] - start, charset);
+    }
+
+    /**
+     * Returns the number of records read.
+     *
+     * @return the number of records
+     */
+    int getLineCounter() {
+        return lineCounter;
+    }
+
+    /**
+     * Returns the separator character or null when not yet known.
+     *
+     * @return the separator character
+     */
+    Character getSeparator() {
+        return hasSeparator ? (char) separatorByte : null;
+    }
+}
@@ -0,0 +1,142 @@
+package no.laukvik.csv.io;
+
+import java.io.Serializable;
+import java.nio.charset.Charset;
+
+/**
+ * The position in a file after the last record read, together with the dialect needed to continue reading it.
+ *
+ * <p>A checkpoint lets rows appended to a file later be read by seeking straight to the byte offset, instead of
+ * parsing and skipping all rows read before. Checkpoints are immutable and serializable, so they can be kept between
+ * runs.</p>
+ *
+ * <p>A file may end with a record that is still being written. The checkpoint is then kept before that record, so
+ * it is read again in full once its line feed is written. When the record was added as a row it is marked as a
+ * partial row, which is replaced by the record read again.</p>
+ * <pre>{@code
+ *     CsvReader reader = new CsvReader(null, null, null);
+ *     reader.readFile(file, csv);
+ *     Checkpoint checkpoint = reader.getCheckpoint();
+ *     ...
+ *     checkpoint = csv.appendFile(file, checkpoint);
+ * }</pre>
+ */
+public final class Checkpoint implements Serializable {
+
+    /**
+     * The offset in bytes after the last record read.
+     */
+    private final long offset;
+    /**
+     * The amount of records read from the start of the file, including the header.
+     */
+    private final int lineNumber;
+    /**
+     * The name of the charset of the file.
+     */
+    private final String charsetName;
+    /**
+     * The column separator or null when not known.
+     */
+    private final Character separator;
+    /**
+     * The quote character.
+     */
+    private final char quote;
+    /**
+     * Whether the last row read is a record without its line feed.
+     */
+    private final boolean partialRow;
+
+    /**
+     * Creates a checkpoint.
+     *
+     * @param offset     the offset in bytes after the last record read
+     * @param lineNumber the amount of records read from the start of the file, including the header
+     * @param charset    the charset of the file
+     * @param separator  the column separator or null when not known
+     * @param quote      the quote character
+     */
+    public Checkpoint(final long offset, final int lineNumber, final Charset charset, final Character separator,
+                      final char quote) {
+        this(offset, lineNumber, charset, separator, quote, false);
+    }
+
+    /**
+     * Creates a checkpoint before a record without its line feed.
+     *
+     * @param offset     the offset in bytes after the last complete record read
+     * @param lineNumber the amount of complete records read from the start of the file, including the header
+     * @param charset    the charset of the file
+     * @param separator  the column separator or null when not known
+     * @param quote      the quote character
+     * @param partialRow whether the record after the offset was added as the last row
+     */
+    public Checkpoint(final long offset, final int lineNumber, final Charset charset, final Character separator,
+                      final char quote, final boolean partialRow) {
+        if (offset < 0) {
+            throw new IllegalArgumentException("Offset must not be negative");
+        }
+        this.offset = offset;
+        this.lineNumber = lineNumber;
+        this.charsetName = charset.name();
+        this.separator = separator;
+        this.quote = quote;
+        this.partialRow = partialRow;
+    }
+
+    /**
+     * Returns the offset in bytes after the last record read.
+     *
+     * @return the offset
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Returns the amount of records read from the start of the file, including the header.
+     *
+     * @return the line number
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Returns the charset of the file.
+     *
+     * @return the charset
+     */
+    public Charset getCharset() {
+        return Charset.forName(charsetName);
+    }
+
+    /**
+     * Returns the column separator or null when not known.
+     *
+     * @return the separator
+     */
+    public Character getSeparator() {
+        return separator;
+    }
+
+    /**
+     * Returns the quote character.
+     *
+     * @return the quote character
+     */
+    public char getQuote() {
+        return quote;
+    }
+
+    /**
+     * Returns whether the last row read is the record after the offset, read before its line feed was written.
+     * That row is removed when continuing from the checkpoint, since the record is read again.
+     *
+     * @return true when the last row is partial
+     */
+    public boolean hasPartialRow() {
+        return partialRow;
+    }
+}
@@ -0,0 +1,387 @@
+package no.laukvik.csv.io;
+
+import no.laukvik.csv.CSV;
+import no.laukvik.csv.Row;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Follows a file that is being appended to and delivers the rows as they are written.
+ *
+ * <p>Each poll parses only the bytes appended since the last one, starting from the Checkpoint after the last
+ * record delivered. A record is delivered once its line feed is written, so a record that is still being written is
+ * left for a later poll, also when a quoted value spans several lines. The file is watched with a WatchService when
+ * the file system supports it, and polled at a fixed interval otherwise.</p>
+ * <pre>{@code
+ *     BlockingQueue<Row> rows = new LinkedBlockingQueue<>();
+ *     try (CsvFollower follower = new CsvFollower(file, csv, null, rows)) {
+ *         follower.start();
+ *         Row row = rows.take();
+ *     }
+ * }</pre>
+ *
+ * <p>The file must be in a charset where the line feed and the quote are single bytes, like UTF-8 or ISO-8859-1.
+ * When the file becomes shorter than the checkpoint it is considered replaced and read again from the start.</p>
+ */
+public final class CsvFollower implements Closeable {
+
+    /**
+     * The default milliseconds between polls when no change is reported.
+     */
+    public static final long DEFAULT_POLL_INTERVAL = 100;
+    /**
+     * The size of the buffer used to find the end of the last complete record.
+     */
+    private static final int SCAN_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The file being followed.
+     */
+    private final File file;
+    /**
+     * The csv with the columns.
+     */
+    private final CSV csv;
+    /**
+     * Receives the rows read.
+     */
+    private final Consumer<Row> consumer;
+    /**
+     * The checkpoint after the last record delivered or null when nothing is read.
+     */
+    private volatile Checkpoint checkpoint;
+    /**
+     * The milliseconds between polls when no change is reported.
+     */
+    private long pollInterval = DEFAULT_POLL_INTERVAL;
+    /**
+     * The thread following the file or null when not started.
+     */
+    private volatile Thread thread;
+    /**
+     * Whether the follower is closed.
+     */
+    private volatile boolean closed;
+    /**
+     * The failure that stopped the thread or null.
+     */
+    private volatile CsvReaderException failure;
+    /**
+     * The buffer used to find the end of the last complete record.
+     */
+    private final ByteBuffer scanBuffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+
+    /**
+     * Follows the file, passing the rows to the consumer. The header is read into the CSV unless a checkpoint is
+     * given or the CSV already has columns.
+     *
+     * @param file       the file
+     * @param csv        the csv with the dialect and columns
+     * @param checkpoint the checkpoint to start after or null to start at the beginning of the file
+     * @param consumer   receives the rows
+     */
+    public CsvFollower(final File file, final CSV csv, final Checkpoint checkpoint, final Consumer<Row> consumer) {
+        this.file = file;
+        this.csv = csv;
+        this.checkpoint = checkpoint;
+        this.consumer = consumer;
+    }
+
+    /**
+     * Follows the file, putting the rows into the queue. A bounded queue makes the follower wait for room.
+     *
+     * @param file       the file
+     * @param csv        the csv with the dialect and columns
+     * @param checkpoint the checkpoint to start after or null to start at the beginning of the file
+     * @param queue      receives the rows
+     */
+    public CsvFollower(final File file, final CSV csv, final Checkpoint checkpoint, final BlockingQueue<Row> queue) {
+        this(file, csv, checkpoint, row -> put(queue, row));
+    }
+
+    /**
+     * Puts the row into the queue, waiting for room.
+     *
+     * @param queue the queue
+     * @param row   the row
+     */
+    private static void put(final BlockingQueue<Row> queue, final Row row) {
+        try {
+            queue.put(row);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted while waiting for room"));
+        }
+    }
+
+    /**
+     * Sets the milliseconds between polls when no change is reported. Changes reported by the WatchService are
+     * read at once.
+     *
+     * @param pollInterval the milliseconds
+     */
+    public void setPollInterval(final long pollInterval) {
+        if (pollInterval < 1) {
+            throw new IllegalArgumentException("Poll interval must be positive");
+        }
+        this.pollInterval = pollInterval;
+    }
+
+    /**
+     * Returns the checkpoint after the last record delivered, which can be kept to continue following later.
+     *
+     * @return the checkpoint or null when nothing is read
+     */
+    public Checkpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Returns the failure that stopped the thread following the file.
+     *
+     * @return the failure or null
+     */
+    public CsvReaderException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Starts following the file on a separate thread, which polls until the follower is closed or a poll fails.
+     */
+    public synchronized void start() {
+        if (thread != null) {
+            throw new IllegalStateException("Already started");
+        }
+        thread = new Thread(this::follow, "follow-" + file.getName());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Polls each time the directory of the file changes, or at the poll interval.
+     */
+    private void follow() {
+        WatchService watcher = openWatcher();
+        try {
+            while (!closed) {
+                poll();
+                if (watcher == null) {
+                    Thread.sleep(pollInterval);
+                } else {
+                    WatchKey key = watcher.poll(pollInterval, TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        key.pollEvents();
+                        key.reset();
+                    }
+                }
+            }
+        } catch (CsvReaderException e) {
+            if (!closed) {
+                failure = e;
+            }
+        } catch (InterruptedException e) {
+            // Closed
+        } finally {
+            if (watcher != null) {
+                try {
+                    watcher.close();
+                } catch (IOException e) {
+                    // Nothing more to watch
+                }
+            }
+        }
+    }
+
+    /**
+     * Watches the directory of the file, or returns null when the file system can not be watched.
+     *
+     * @return the watcher or null
+     */
+    private WatchService openWatcher() {
+        Path directory = file.getAbsoluteFile().toPath().getParent();
+        WatchService watcher = null;
+        try {
+            watcher = FileSystems.getDefault().newWatchService();
+            directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            return watcher;
+        } catch (IOException | UnsupportedOperationException e) {
+            if (watcher != null) {
+                try {
+                    watcher.close();
+                } catch (IOException ignore) {
+                    // Falls back to polling
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Reads the records appended since the last poll and passes their rows to the consumer. A trailing record
+     * without its line feed is left for a later poll.
+     *
+     * @return the amount of rows read
+     * @throws CsvReaderException when the file could not be read
+     */
+    public synchronized int poll() throws CsvReaderException {
+        if (!file.exists()) {
+            return 0;
+        }
+        if (Gzip.isGzip(file)) {
+            throw new CsvReaderException(file, new IOException("Can not follow compressed file"));
+        }
+        long end;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (checkpoint != null && size < checkpoint.getOffset()) {
+                checkpoint = null;
+            }
+            long offset = checkpoint == null ? 0 : checkpoint.getOffset();
+            end = findRecordsEnd(channel, offset, size, getQuote(getCharset()));
+            if (end <= offset) {
+                return 0;
+            }
+        } catch (IOException e) {
+            throw new CsvReaderException(file, e);
+        }
+        return read(end);
+    }
+
+    /**
+     * Reads the records from the checkpoint until the offset and moves the checkpoint to the offset.
+     *
+     * @param end the offset after the last complete record
+     * @return the amount of rows read
+     * @throws CsvReaderException when the file could not be read
+     */
+    private int read(final long end) throws CsvReaderException {
+        CsvReader reader = new CsvReader(getCharset(), csv.getSeparatorChar(), csv.getQuoteChar());
+        reader.setEndOffset(end);
+        int lines = 1;
+        if (checkpoint != null) {
+            reader.setCheckpoint(checkpoint);
+            lines = checkpoint.getLineNumber();
+        } else if (csv.getColumnCount() > 0) {
+            reader.setAppendMode(true);
+            reader.setSkipRows(1);
+        }
+        int count = 0;
+        try (Stream<Row> rows = reader.readFileStream(file, csv)) {
+            Iterator<Row> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next());
+                count++;
+            }
+        } catch (UncheckedIOException e) {
+            throw new CsvReaderException(file, e.getCause());
+        }
+        checkpoint = new Checkpoint(end, lines + count, getCharset(), csv.getSeparatorChar(), csv.getQuoteChar());
+        return count;
+    }
+
+    /**
+     * Returns the charset of the file, which is the charset of the checkpoint, or of the CSV, or found by the BOM.
+     *
+     * @return the charset
+     */
+    private Charset getCharset() {
+        if (checkpoint != null) {
+            return checkpoint.getCharset();
+        }
+        if (csv.getCharset() != null) {
+            return csv.getCharset();
+        }
+        BOM bom = BOM.findBom(file);
+        return bom == null ? StandardCharsets.UTF_8 : bom.getCharset();
+    }
+
+    /**
+     * Returns the byte of the quote character in the charset.
+     *
+     * @param charset the charset
+     * @return the byte
+     * @throws CsvReaderException when the line feed or quote are not single bytes in the charset
+     */
+    private byte getQuote(final Charset charset) throws CsvReaderException {
+        char quote = csv.getQuoteChar() == null ? CSV.QUOTE_DOUBLE : csv.getQuoteChar();
+        byte[] bytes = new String(new char[]{CSV.LINEFEED, quote}).getBytes(charset);
+        if (quote > Byte.MAX_VALUE || bytes.length != 2 || bytes[0] != CSV.LINEFEED || bytes[1] != quote) {
+            throw new CsvReaderException(file, new IOException("Can not follow file in " + charset.name()));
+        }
+        return bytes[1];
+    }
+
+    /**
+     * Returns the offset after the line feed ending the last complete record between the offsets. Line feeds within
+     * quotes are part of the value and do not end a record.
+     *
+     * @param channel the channel of the file
+     * @param offset  the offset of the first record
+     * @param size    the size of the file
+     * @param quote   the quote byte
+     * @return the offset after the last complete record, or the offset when there is none
+     * @throws IOException when the file could not be read
+     */
+    private long findRecordsEnd(final FileChannel channel, final long offset, final long size, final byte quote)
+            throws IOException {
+        long end = offset;
+        long position = offset;
+        boolean withinQuote = false;
+        while (position < size) {
+            scanBuffer.clear();
+            if (size - position < scanBuffer.capacity()) {
+                scanBuffer.limit((int) (size - position));
+            }
+            int count = channel.read(scanBuffer, position);
+            if (count <= 0) {
+                break;
+            }
+            byte[] bytes = scanBuffer.array();
+            for (int i = 0; i < count; i++) {
+                if (bytes[i] == quote) {
+                    withinQuote = !withinQuote;
+                } else if (bytes[i] == CSV.LINEFEED && !withinQuote) {
+                    end = position + i + 1;
+                }
+            }
+            position += count;
+        }
+        return end;
+    }
+
+    /**
+     * Stops following the file and waits for the thread to end.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Thread following = thread;
+        if (following != null) {
+            following.interrupt();
+            try {
+                following.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
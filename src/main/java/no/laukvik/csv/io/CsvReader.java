@@ -1,22 +1,50 @@
 package no.laukvik.csv.io;
 
 import no.laukvik.csv.CSV;
+import no.laukvik.csv.RecordBlock;
 import no.laukvik.csv.Row;
 import no.laukvik.csv.columns.Column;
+import no.laukvik.csv.columns.ColumnTypeInference;
+import no.laukvik.csv.columns.StringColumn;
+import no.laukvik.csv.columns.StringDictionary;
+import no.laukvik.csv.query.Query;
 
+import java.io.BufferedInputStream;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Reads a data setRaw in the CSV format.
  */
 public final class CsvReader implements DatasetFileReader {
 
+    /**
+     * The amount of bytes read at a time when searching back for the start of the last record.
+     */
+    private static final int SCAN_BUFFER_SIZE = 1 << 13;
+
     /**
      * Automatically detect charset through BOM.
      */
@@ -29,10 +57,6 @@ public final class CsvReader implements DatasetFileReader {
      * Whether column separator should be automatically detected or not.
      */
     private boolean autoDetectColumnSeparator;
-    /**
-     * The number of lines read.
-     */
-    private int lineCounter;
     /**
      * The column separator character.
      */
@@ -44,6 +68,90 @@ public final class CsvReader implements DatasetFileReader {
     private Charset charset;
     private int skipRows;
     private boolean appendMode;
+    /**
+     * The names of the columns to read or null.
+     */
+    private Set<String> projectedNames;
+    /**
+     * The indexes of the columns to read or null.
+     */
+    private Set<Integer> projectedIndexes;
+    /**
+     * The index in the CSV of the column for each field of the file, or null when all fields are read.
+     */
+    private int[] fieldColumns;
+    /**
+     * Whether the values are parsed when first read instead of while reading the file.
+     */
+    private boolean lazy;
+    /**
+     * The query that rows must match to be read or null.
+     */
+    private Query query;
+    /**
+     * The query bound to the fields of the file or null when all rows are read.
+     */
+    private RecordFilter filter;
+    /**
+     * Whether the file is read ahead on a separate thread.
+     */
+    private boolean readAhead;
+    /**
+     * The size in bytes of each read ahead buffer.
+     */
+    private int readAheadBufferSize = ReadAheadInputStream.DEFAULT_BUFFER_SIZE;
+    /**
+     * The amount of buffers read ahead.
+     */
+    private int readAheadBufferCount = ReadAheadInputStream.DEFAULT_BUFFER_COUNT;
+    /**
+     * Measures the reading of the file being read.
+     */
+    private Metered metered;
+    /**
+     * Whether the file being read is compressed with gzip.
+     */
+    private boolean compressed;
+    /**
+     * Whether the String columns of the header look up their values in dictionaries.
+     */
+    private boolean dictionaryEncoding;
+    /**
+     * The amount of records sampled to infer the types of the columns, or 0 to not infer types.
+     */
+    private int sampleSize;
+    /**
+     * The checkpoint to continue reading from or null.
+     */
+    private Checkpoint resumeFrom;
+    /**
+     * The checkpoint after the last read or null.
+     */
+    private Checkpoint checkpoint;
+    /**
+     * The offset in bytes to stop reading at, or -1 to read to the end of the file.
+     */
+    private long endOffset = -1;
+    /**
+     * The names of the columns the first row skipped must have, or null.
+     */
+    private List<String> expectedHeader;
+    /**
+     * The maximum amount of malformed rows to quarantine, or -1 to fail on the first one.
+     */
+    private int errorBudget = -1;
+    /**
+     * The malformed rows of the last read or null when reading strictly.
+     */
+    private Quarantine quarantine;
+    /**
+     * The nanoseconds the last read waited for bytes from the file.
+     */
+    private long ioWaitNanos;
+    /**
+     * The nanoseconds the last read spent parsing.
+     */
+    private long parseNanos;
 
     /**
      * Reads CSV from the specified reader using the separator and quote characters.
@@ -76,165 +184,941 @@ public final class CsvReader implements DatasetFileReader {
      */
     @Override
     public void readFile(final File file, final CSV csv) throws CsvReaderException {
-        BOM bom = null;
-        if (!appendMode){
-            if (autoDetectCharset) {
-                bom = BOM.findBom(file);
-                if (bom == null) {
-                    csv.setCharset(BOM.UTF8.getCharset());
-                } else {
-                    csv.setCharset(bom.getCharset());
+        long start = System.nanoTime();
+        checkpoint = null;
+        try (CsvTokenizer tokenizer = open(file, csv)) {
+            if (resumeFrom != null && resumeFrom.hasPartialRow() && csv.getRowCount() > 0) {
+                csv.removeRow(csv.getRowCount() - 1);
+            }
+            int lastRecordRows = readRows(csv, tokenizer, start);
+            if (!compressed) {
+                checkpoint = createCheckpoint(file, csv, tokenizer, lastRecordRows);
+            }
+        } catch (IOException e) {
+            throw new CsvReaderException(file, e);
+        }
+    }
+
+    /**
+     * Reads the stream, which may come from a pipe, a socket or memory. The charset is detected from any BOM at the
+     * start of the stream when no charset is specified, and streams compressed with gzip are decompressed. The
+     * stream is closed when read.
+     *
+     * @param input the stream
+     * @param csv   the csv
+     * @throws CsvReaderException when the stream could not be read
+     */
+    public void read(final InputStream input, final CSV csv) throws CsvReaderException {
+        long start = System.nanoTime();
+        checkpoint = null;
+        try (CsvTokenizer tokenizer = open(input, csv)) {
+            readRows(csv, tokenizer, start);
+        } catch (IOException e) {
+            throw new CsvReaderException(e);
+        }
+    }
+
+    /**
+     * Reads the channel. The channel is closed when read.
+     *
+     * @param channel the channel
+     * @param csv     the csv
+     * @throws CsvReaderException when the channel could not be read
+     * @see #read(InputStream, CSV)
+     */
+    public void read(final ReadableByteChannel channel, final CSV csv) throws CsvReaderException {
+        read(Channels.newInputStream(channel), csv);
+    }
+
+    /**
+     * Reads the records of the tokenizer into rows of the CSV and measures the time spent.
+     *
+     * @param csv       the csv
+     * @param tokenizer the tokenizer positioned at the first row
+     * @param start     the nanoTime when the read started
+     * @return the amount of rows added by the last record, or -1 when no records were read
+     * @throws IOException when the records could not be read
+     */
+    private int readRows(final CSV csv, final CsvTokenizer tokenizer, final long start) throws IOException {
+        ioWaitNanos = 0;
+        parseNanos = 0;
+        Column[] columns = lazy ? getFieldColumns(csv) : null;
+        RecordBlock block = null;
+        quarantine = createQuarantine(csv);
+        int lastRecordRows = -1;
+        while (tokenizer.next()) {
+            int rowCount = csv.getRowCount();
+            if (quarantine != null && !quarantine.accepts(tokenizer)) {
+                // Quarantined
+            } else if (lazy) {
+                if (matches(tokenizer, filter, quarantine)) {
+                    int length = tokenizer.getEnd(tokenizer.getFieldCount() - 1);
+                    if (block == null || !block.hasRoom(length)) {
+                        block = new RecordBlock(columns, Math.max(RecordBlock.DEFAULT_CAPACITY, length));
+                    }
+                    csv.addRow(new Row(block, block.add(tokenizer.getChars(), tokenizer.getEnds(),
+                            tokenizer.getFieldCount())));
+                }
+            } else if (quarantine == null) {
+                if (filter == null || filter.accepts(tokenizer)) {
+                    readRow(csv.addRow(), csv, tokenizer, fieldColumns);
                 }
             } else {
-                csv.setCharset(this.charset);
+                Row row = readLeniently(csv, tokenizer, fieldColumns, filter, quarantine);
+                if (row != null) {
+                    csv.addRow(row);
+                }
+            }
+            lastRecordRows = csv.getRowCount() - rowCount;
+        }
+        ioWaitNanos = metered.getWaitNanos();
+        parseNanos = System.nanoTime() - start - ioWaitNanos;
+        return lastRecordRows;
+    }
+
+    /**
+     * Reads the columns of the file and returns a lazily populated stream of its rows. The rows are parsed on
+     * demand and not added to the CSV, so the memory used does not depend on the size of the file. The file is
+     * closed when the stream is closed.
+     *
+     * @param file the file
+     * @param csv  the csv to add the columns to
+     * @return the stream of rows
+     * @throws CsvReaderException when the file could not be opened
+     */
+    public Stream<Row> readFileStream(final File file, final CSV csv) throws CsvReaderException {
+        try {
+            return stream(open(file, csv), csv);
+        } catch (IOException e) {
+            throw new CsvReaderException(file, e);
+        }
+    }
+
+    /**
+     * Reads the columns of the stream and returns a lazily populated stream of its rows. The input is closed when
+     * the stream of rows is closed.
+     *
+     * @param input the stream
+     * @param csv   the csv to add the columns to
+     * @return the stream of rows
+     * @throws CsvReaderException when the stream could not be opened
+     * @see #readFileStream(File, CSV)
+     */
+    public Stream<Row> readStream(final InputStream input, final CSV csv) throws CsvReaderException {
+        try {
+            return stream(open(input, csv), csv);
+        } catch (IOException e) {
+            throw new CsvReaderException(e);
+        }
+    }
+
+    /**
+     * Returns a publisher of the rows of the file for a single subscriber. The file is opened and the columns are
+     * added to the CSV when the subscriber first requests rows, and rows are only parsed when requested. The rows
+     * are not added to the CSV.
+     *
+     * @param file     the file
+     * @param csv      the csv to add the columns to
+     * @param executor the executor to parse the rows in
+     * @return the publisher of rows
+     * @see RowPublisher
+     */
+    public Flow.Publisher<Row> readFilePublisher(final File file, final CSV csv, final Executor executor) {
+        return new RowPublisher(() -> readFileStream(file, csv), executor);
+    }
+
+    /**
+     * Returns a stream of the rows of the tokenizer, which closes the tokenizer when closed.
+     *
+     * @param tokenizer the tokenizer positioned at the first row
+     * @param csv       the csv with the columns
+     * @return the stream of rows
+     */
+    private Stream<Row> stream(final CsvTokenizer tokenizer, final CSV csv) {
+        quarantine = createQuarantine(csv);
+        RowSpliterator rows = new RowSpliterator(csv, tokenizer, fieldColumns, filter, quarantine);
+        return StreamSupport.stream(rows, false).onClose(() -> {
+            try {
+                tokenizer.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * Reads the columns of the file and returns a cursor over its records. The cursor reuses the same buffers for
+     * every record and creates no rows, which suits scanning through files without keeping the values.
+     *
+     * @param file the file
+     * @param csv  the csv to add the columns to
+     * @return the cursor positioned before the first record
+     * @throws CsvReaderException when the file could not be opened
+     */
+    public RowCursor readFileCursor(final File file, final CSV csv) throws CsvReaderException {
+        try {
+            return cursor(file, open(file, csv), csv);
+        } catch (IOException e) {
+            throw new CsvReaderException(file, e);
+        }
+    }
+
+    /**
+     * Reads the columns of the stream and returns a cursor over its records. The input is closed when the cursor is
+     * closed.
+     *
+     * @param input the stream
+     * @param csv   the csv to add the columns to
+     * @return the cursor positioned before the first record
+     * @throws CsvReaderException when the stream could not be opened
+     * @see #readFileCursor(File, CSV)
+     */
+    public RowCursor readCursor(final InputStream input, final CSV csv) throws CsvReaderException {
+        try {
+            return cursor(null, open(input, csv), csv);
+        } catch (IOException e) {
+            throw new CsvReaderException(e);
+        }
+    }
+
+    /**
+     * Returns a cursor over the records of the tokenizer.
+     *
+     * @param file      the file being read or null for streams
+     * @param tokenizer the tokenizer positioned at the first row
+     * @param csv       the csv with the columns
+     * @return the cursor
+     */
+    private RowCursor cursor(final File file, final CsvTokenizer tokenizer, final CSV csv) {
+        int[] columnFields = null;
+        if (fieldColumns != null) {
+            columnFields = new int[csv.getColumnCount()];
+            for (int x = 0; x < fieldColumns.length; x++) {
+                if (fieldColumns[x] >= 0) {
+                    columnFields[fieldColumns[x]] = x;
+                }
             }
         }
+        return new RowCursor(file, tokenizer, columnFields, filter);
+    }
 
-        this.lineCounter = 0;
-        try (InputStreamReader reader = new InputStreamReader(new FileInputStream(file), csv.getCharset())) {
+    /**
+     * Opens the file and reads the header, or skips the rows when appending, or seeks to the checkpoint. Files
+     * compressed with gzip are recognized by their first bytes and decompressed while they are read.
+     *
+     * @param file the file
+     * @param csv  the csv
+     * @return the tokenizer positioned at the first row
+     * @throws IOException when the file could not be read
+     */
+    private CsvTokenizer open(final File file, final CSV csv) throws IOException {
+        if (resumeFrom != null) {
+            return resume(file);
+        }
+        return openBuffered(new BufferedInputStream(openInput(file, 0)), csv);
+    }
+
+    /**
+     * Opens the stream, decompressing it on a separate thread when it starts with the magic bytes of gzip, and
+     * reads the header or skips the rows when appending. The first bytes are peeked from a buffer.
+     *
+     * @param source the stream
+     * @param csv    the csv
+     * @return the tokenizer positioned at the first row
+     * @throws IOException when the stream could not be read
+     */
+    private CsvTokenizer open(final InputStream source, final CSV csv) throws IOException {
+        MeteredInputStream meteredInput = new MeteredInputStream(source);
+        BufferedInputStream input = new BufferedInputStream(meteredInput);
+        metered = meteredInput;
+        compressed = false;
+        try {
+            if (Gzip.isGzip(input)) {
+                ReadAheadInputStream inflated = Gzip.open(input, readAheadBufferSize, readAheadBufferCount,
+                        "gzip-stream");
+                metered = inflated;
+                compressed = true;
+                input = new BufferedInputStream(inflated);
+            }
+        } catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+        return openBuffered(input, csv);
+    }
+
+    /**
+     * Detects the charset of the buffered stream and reads the header, or skips the rows when appending.
+     *
+     * @param input the buffered stream
+     * @param csv   the csv
+     * @return the tokenizer positioned at the first row
+     * @throws IOException when the stream could not be read
+     */
+    private CsvTokenizer openBuffered(final BufferedInputStream input, final CSV csv) throws IOException {
+        BOM bom = null;
+        try {
+            if (!appendMode) {
+                if (autoDetectCharset) {
+                    bom = BOM.findBom(input);
+                    if (bom == null) {
+                        csv.setCharset(BOM.UTF8.getCharset());
+                    } else {
+                        csv.setCharset(bom.getCharset());
+                    }
+                } else {
+                    csv.setCharset(this.charset);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+        CsvTokenizer tokenizer = new CsvTokenizer(new InputStreamReader(input, csv.getCharset()),
+                quoteChar, columnSeparatorChar);
+        try {
             if (skipRows > 0) {
+                if (expectedHeader != null) {
+                    tokenizer.skipByteOrderMark();
+                }
                 int rowsSkippedCount = 0;
-                while (reader.ready() && rowsSkippedCount < skipRows) {
-                    skipRow(csv, reader);
+                while (rowsSkippedCount < skipRows && tokenizer.next()) {
+                    if (rowsSkippedCount == 0 && expectedHeader != null) {
+                        checkHeader(tokenizer);
+                    }
                     rowsSkippedCount++;
                 }
+                updateSeparator(csv, tokenizer);
             } else {
                 if (autoDetectCharset && bom != null) {
-                    reader.skip(bom.getBytes().length);
+                    tokenizer.skipByteOrderMark();
                 }
-                csv.setSeparator(columnSeparatorChar);
                 csv.setQuoteChar(this.quoteChar);
-                List<String> columns = parseRow(csv, reader);
-                for (String rawColumnName : columns) {
-                    csv.addColumn(Column.parseName(rawColumnName));
+                if (tokenizer.next()) {
+                    readHeader(csv, tokenizer);
                 }
+                updateSeparator(csv, tokenizer);
+                csv.setSeparator(columnSeparatorChar);
             }
-            while (reader.ready()) {
-                readRow(csv, reader);
-            }
-        } catch (IOException e) {
-            throw new CsvReaderException(file, e);
+        } catch (IOException | RuntimeException e) {
+            tokenizer.close();
+            throw e;
         }
+        return tokenizer;
     }
 
     /**
-     * Reads the next row.
+     * Throws an exception unless the names of the columns in the header are the expected names.
      *
-     * @param csv    the csv
-     * @param reader the reader
-     * @throws IOException when the row could not be read
+     * @param tokenizer the tokenizer holding the header
+     * @throws IOException when the header has other names
      */
-    private void readRow(final CSV csv, final InputStreamReader reader) throws IOException {
-        Row row = csv.addRow();
-        List<String> values = parseRow(csv, reader);
-        for (int x = 0; x < values.size(); x++) {
-            String value = values.get(x);
-            Column c = csv.getColumn(x);
-            row.setRaw(c, value);
+    private void checkHeader(final CsvTokenizer tokenizer) throws IOException {
+        List<String> names = new ArrayList<>(tokenizer.getFieldCount());
+        for (int x = 0; x < tokenizer.getFieldCount(); x++) {
+            names.add(Column.parseName(tokenizer.getString(x)).getName());
+        }
+        if (!names.equals(expectedHeader)) {
+            throw new IOException("The header " + names + " differs from " + expectedHeader);
         }
     }
 
-    private void skipRow(final CSV csv, final InputStreamReader reader) throws IOException{
-        parseRow(csv, reader);
+    /**
+     * Opens the file positioned at the checkpoint to continue reading from, using the dialect of the checkpoint.
+     *
+     * @param file the file
+     * @return the tokenizer positioned at the first record after the checkpoint
+     * @throws IOException when the file could not be read
+     */
+    private CsvTokenizer resume(final File file) throws IOException {
+        if (Gzip.isGzip(file)) {
+            throw new IOException("Can not continue reading compressed file from an offset");
+        }
+        if (resumeFrom.getSeparator() != null) {
+            columnSeparatorChar = resumeFrom.getSeparator();
+            autoDetectColumnSeparator = false;
+        }
+        quoteChar = resumeFrom.getQuote();
+        InputStream input = new BufferedInputStream(openInput(file, resumeFrom.getOffset()));
+        return new CsvTokenizer(new InputStreamReader(input, resumeFrom.getCharset()), quoteChar,
+                columnSeparatorChar);
     }
 
     /**
-     * Parses one row of CSV data.
+     * Returns the checkpoint after the last record read by the tokenizer. When the file ends with a record without
+     * its line feed, the checkpoint is kept before that record so it is read again once complete.
      *
-     * @param csv    the csv
-     * @param reader the reader
-     * @return a list of strings
-     * @throws IOException when the row could not be read
+     * @param file           the file
+     * @param csv            the csv
+     * @param tokenizer      the tokenizer at the end of the file
+     * @param lastRecordRows the amount of rows added by the last record, or -1 when no records were read
+     * @return the checkpoint
+     * @throws IOException when the file could not be read
+     */
+    private Checkpoint createCheckpoint(final File file, final CSV csv, final CsvTokenizer tokenizer,
+                                        final int lastRecordRows) throws IOException {
+        Charset fileCharset = resumeFrom == null ? csv.getCharset() : resumeFrom.getCharset();
+        long offset = metered.getByteCount();
+        int lines = tokenizer.getLineCounter();
+        if (resumeFrom != null) {
+            offset += resumeFrom.getOffset();
+            lines += resumeFrom.getLineNumber();
+        }
+        String unterminated = lastRecordRows < 0 ? null : tokenizer.getUnterminatedRecord();
+        if (unterminated != null) {
+            if (ByteCsvTokenizer.supports(fileCharset, quoteChar, null)) {
+                offset = findRecordStart(file, offset, unterminated);
+            } else {
+                offset -= unterminated.getBytes(fileCharset).length;
+            }
+            lines--;
+        }
+        return new Checkpoint(offset, lines, fileCharset, columnSeparatorChar, quoteChar,
+                unterminated != null && lastRecordRows > 0);
+    }
+
+    /**
+     * Returns the offset after the line feed before the record at the end of the file. The record has no line feed
+     * of its own, so the line feed before it is found by going back past as many line feeds in the raw bytes as
+     * there are within its quoted values. The characters of the record can not be encoded again to find its length,
+     * since a file cut within a character is decoded to a replacement character of another length.
+     *
+     * @param file   the file
+     * @param end    the offset after the record
+     * @param record the characters of the record
+     * @return the offset of the first byte of the record
+     * @throws IOException when the file could not be read
      */
-    private List<String> parseRow(final CSV csv, final InputStreamReader reader) throws IOException {
-        List<String> values = new ArrayList<>();
+    private static long findRecordStart(final File file, final long end, final String record) throws IOException {
+        int lineFeeds = 0;
+        for (int i = 0; i < record.length(); i++) {
+            if (record.charAt(i) == CSV.LINEFEED) {
+                lineFeeds++;
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+            long position = end;
+            while (position > 0) {
+                int count = (int) Math.min(SCAN_BUFFER_SIZE, position);
+                buffer.clear().limit(count);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, position - count + buffer.position()) < 0) {
+                        throw new IOException("The file is shorter than " + end + " bytes");
+                    }
+                }
+                byte[] bytes = buffer.array();
+                for (int i = count - 1; i >= 0; i--) {
+                    if (bytes[i] == CSV.LINEFEED && lineFeeds-- == 0) {
+                        return position - count + i + 1;
+                    }
+                }
+                position -= count;
+            }
+        }
+        return 0;
+    }
 
-        boolean isNextLine = false;
+    /**
+     * Opens the file at the offset, decompressing it on a separate thread when it is compressed with gzip. Other
+     * files are read ahead into direct buffers on a separate thread when read ahead is enabled.
+     *
+     * @param file   the file
+     * @param offset the offset in bytes to start reading from
+     * @return the stream of bytes
+     * @throws IOException when the file could not be opened
+     */
+    private InputStream openInput(final File file, final long offset) throws IOException {
+        compressed = Gzip.isGzip(file);
+        if (compressed) {
+            ReadAheadInputStream input = Gzip.open(file, readAheadBufferSize, readAheadBufferCount);
+            metered = input;
+            return input;
+        }
+        FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            fileChannel.position(offset);
+        } catch (IOException e) {
+            fileChannel.close();
+            throw e;
+        }
+        ReadableByteChannel channel = fileChannel;
+        if (endOffset >= 0) {
+            channel = new LimitedChannel(fileChannel, endOffset - offset);
+        }
+        if (readAhead) {
+            ReadAheadInputStream input = new ReadAheadInputStream(channel, readAheadBufferSize,
+                    readAheadBufferCount, true, "read-ahead-" + file.getName());
+            metered = input;
+            return input;
+        }
+        MeteredInputStream input = new MeteredInputStream(Channels.newInputStream(channel));
+        metered = input;
+        return input;
+    }
 
-        /* Current value */
-        StringBuilder currentValue = new StringBuilder();
+    /**
+     * Adds the columns of the header to the CSV, leaving out the columns that are not projected, and binds the
+     * query to the fields. When types are inferred, the first records are sampled and read again afterwards.
+     *
+     * @param csv       the csv
+     * @param tokenizer the tokenizer holding the header
+     * @throws IOException when the sample could not be read
+     */
+    private void readHeader(final CSV csv, final CsvTokenizer tokenizer) throws IOException {
+        fieldColumns = null;
+        filter = null;
+        List<String> names = new ArrayList<>();
+        List<Column> header = new ArrayList<>();
+        for (int x = 0; x < tokenizer.getFieldCount(); x++) {
+            names.add(tokenizer.getString(x));
+            header.add(Column.parseName(names.get(x)));
+        }
+        if (query != null) {
+            filter = new RecordFilter(query, header);
+        }
+        boolean projected = projectedNames != null || projectedIndexes != null;
+        boolean[] read = new boolean[header.size()];
+        boolean[] skipped = new boolean[header.size()];
+        for (int x = 0; x < header.size(); x++) {
+            read[x] = !projected || isProjected(x, header.get(x).getName());
+            skipped[x] = !read[x] && (filter == null || !filter.uses(x));
+        }
+        if (projected) {
+            tokenizer.setSkippedFields(skipped);
+        }
+        if (sampleSize > 0) {
+            inferTypes(tokenizer, names, header, read);
+        }
+        int[] columns = new int[header.size()];
+        for (int x = 0; x < header.size(); x++) {
+            if (read[x]) {
+                if (dictionaryEncoding && header.get(x) instanceof StringColumn) {
+                    ((StringColumn) header.get(x)).setDictionary(new StringDictionary());
+                }
+                csv.addColumn(header.get(x));
+                columns[x] = csv.getColumnCount() - 1;
+            } else {
+                columns[x] = -1;
+            }
+        }
+        if (projected) {
+            fieldColumns = columns;
+        }
+    }
 
-        boolean isWithinQuote = false;
+    /**
+     * Replaces the columns without a type in the header with columns of the types inferred from the first records.
+     * The records sampled are read again by the tokenizer.
+     *
+     * @param tokenizer the tokenizer positioned after the header
+     * @param names     the names of the columns in the header
+     * @param header    the columns of the header
+     * @param read      whether each column is read
+     * @throws IOException when the sample could not be read
+     */
+    private void inferTypes(final CsvTokenizer tokenizer, final List<String> names, final List<Column> header,
+                            final boolean[] read) throws IOException {
+        ColumnTypeInference[] inferences = new ColumnTypeInference[header.size()];
+        for (int x = 0; x < inferences.length; x++) {
+            if (read[x]) {
+                inferences[x] = new ColumnTypeInference();
+            }
+        }
+        tokenizer.mark();
+        for (int n = 0; n < sampleSize && tokenizer.next(); n++) {
+            int count = Math.min(tokenizer.getFieldCount(), inferences.length);
+            for (int x = 0; x < count; x++) {
+                if (inferences[x] != null) {
+                    int start = tokenizer.getStart(x);
+                    inferences[x].add(tokenizer.getChars(), start, tokenizer.getEnd(x) - start);
+                }
+            }
+        }
+        tokenizer.reset();
+        for (int x = 0; x < inferences.length; x++) {
+            if (inferences[x] != null) {
+                header.set(x, Column.parseName(names.get(x), inferences[x]));
+            }
+        }
+    }
 
-        /* Read until */
-        while (reader.ready() && !isNextLine) {
+    /**
+     * Returns whether the column should be read.
+     *
+     * @param index the index of the column in the file
+     * @param name  the name of the column
+     * @return true when the column is projected
+     */
+    private boolean isProjected(final int index, final String name) {
+        return projectedNames != null && projectedNames.contains(name)
+                || projectedIndexes != null && projectedIndexes.contains(index);
+    }
 
-            // Read next char
-            int intChar = reader.read();
+    /**
+     * Keeps the separator found by the tokenizer while reading the first line.
+     *
+     * @param csv       the csv
+     * @param tokenizer the tokenizer
+     */
+    private void updateSeparator(final CSV csv, final CsvTokenizer tokenizer) {
+        if (autoDetectColumnSeparator && !tokenizer.isAutoDetectSeparator()) {
+            columnSeparatorChar = tokenizer.getSeparator();
+            autoDetectColumnSeparator = false;
+            csv.setSeparator(columnSeparatorChar);
+        }
+    }
 
+    /**
+     * Returns the column of each field in the file, with null for the fields that are not read.
+     *
+     * @param csv the csv with the columns
+     * @return the columns
+     */
+    private Column[] getFieldColumns(final CSV csv) {
+        if (fieldColumns == null) {
+            return csv.getColumns().toArray(new Column[0]);
+        }
+        Column[] columns = new Column[fieldColumns.length];
+        for (int x = 0; x < fieldColumns.length; x++) {
+            columns[x] = fieldColumns[x] < 0 ? null : csv.getColumn(fieldColumns[x]);
+        }
+        return columns;
+    }
 
-            char currentChar = (char) intChar;
+    /**
+     * Reads the current record of the tokenizer into the row. The fields are parsed straight from the record
+     * buffer, so columns of numbers create no Strings.
+     *
+     * @param row          the row
+     * @param csv          the csv
+     * @param tokenizer    the tokenizer
+     * @param fieldColumns the index of the column for each field, or null when all fields are read
+     */
+    private static void readRow(final Row row, final CSV csv, final CsvTokenizer tokenizer,
+                                final int[] fieldColumns) {
+        char[] chars = tokenizer.getChars();
+        if (fieldColumns == null) {
+            for (int x = 0; x < tokenizer.getFieldCount(); x++) {
+                int start = tokenizer.getStart(x);
+                row.setRaw(csv.getColumn(x), chars, start, tokenizer.getEnd(x) - start);
+            }
+            return;
+        }
+        int count = Math.min(tokenizer.getFieldCount(), fieldColumns.length);
+        for (int x = 0; x < count; x++) {
+            if (fieldColumns[x] >= 0) {
+                int start = tokenizer.getStart(x);
+                row.setRaw(csv.getColumn(fieldColumns[x]), chars, start, tokenizer.getEnd(x) - start);
+            }
+        }
+    }
 
-            // Determines whether or not to add char
-            boolean addChar = false;
+    /**
+     * Returns the quarantine for the records of the CSV when reading leniently.
+     *
+     * @param csv the csv with the columns
+     * @return the quarantine or null when reading strictly
+     */
+    private Quarantine createQuarantine(final CSV csv) {
+        if (errorBudget < 0) {
+            return null;
+        }
+        int fieldCount = fieldColumns == null ? csv.getColumnCount() : fieldColumns.length;
+        int firstLine = resumeFrom == null ? 0 : resumeFrom.getLineNumber();
+        return new Quarantine(errorBudget, fieldCount, firstLine);
+    }
 
-            // Adds the currentValue
-            boolean addValue = false;
+    /**
+     * Returns whether the current record of the tokenizer matches the filter. When reading leniently a value that
+     * fails to parse quarantines the record.
+     *
+     * @param tokenizer  the tokenizer
+     * @param filter     the filter or null
+     * @param quarantine the quarantine or null when reading strictly
+     * @return true when the record matches
+     * @throws IOException when the error budget is exceeded
+     */
+    private static boolean matches(final CsvTokenizer tokenizer, final RecordFilter filter,
+                                   final Quarantine quarantine) throws IOException {
+        if (filter == null) {
+            return true;
+        }
+        if (quarantine == null) {
+            return filter.accepts(tokenizer);
+        }
+        try {
+            return filter.accepts(tokenizer);
+        } catch (RuntimeException e) {
+            quarantine.add(tokenizer, e.toString());
+            return false;
+        }
+    }
 
-            // Look for separator characters in first line
-            if (lineCounter == 0 && autoDetectColumnSeparator
-                    && (currentChar == CSV.TAB
-                    || currentChar == CSV.SEMICOLON
-                    || currentChar == CSV.PIPE
-                    || currentChar == CSV.COMMA)) {
-                    columnSeparatorChar = currentChar;
-                    autoDetectColumnSeparator = false;
-                    csv.setSeparator(columnSeparatorChar);
+    /**
+     * Reads the current record of the tokenizer into a new row, or quarantines the record when a value fails to
+     * parse. The row is only added to the CSV by the caller, so no half read rows are kept.
+     *
+     * @param csv          the csv
+     * @param tokenizer    the tokenizer
+     * @param fieldColumns the index of the column for each field, or null when all fields are read
+     * @param filter       the filter or null
+     * @param quarantine   the quarantine
+     * @return the row or null when the record is filtered out or quarantined
+     * @throws IOException when the error budget is exceeded
+     */
+    private static Row readLeniently(final CSV csv, final CsvTokenizer tokenizer, final int[] fieldColumns,
+                                     final RecordFilter filter, final Quarantine quarantine) throws IOException {
+        try {
+            if (filter != null && !filter.accepts(tokenizer)) {
+                return null;
             }
+            Row row = new Row();
+            readRow(row, csv, tokenizer, fieldColumns);
+            return row;
+        } catch (RuntimeException e) {
+            quarantine.add(tokenizer, e.toString());
+            return null;
+        }
+    }
 
-            // Check char
-            if (currentChar == CSV.RETURN) {
-                addChar = false;
-
-            } else if (currentChar == CSV.LINEFEED) {
+    /**
+     * Parses the next row of the tokenizer each time a row is requested.
+     */
+    private static final class RowSpliterator extends Spliterators.AbstractSpliterator<Row> {
 
-                addChar = false;
-                addValue = true;
-                isNextLine = true;
-                if (isWithinQuote) {
-                    currentValue.deleteCharAt(currentValue.length() - 1);
-                    isWithinQuote = false;
-                }
+        /**
+         * The csv with the columns.
+         */
+        private final CSV csv;
+        /**
+         * The tokenizer positioned after the header.
+         */
+        private final CsvTokenizer tokenizer;
+        /**
+         * The index of the column for each field, or null when all fields are read.
+         */
+        private final int[] fieldColumns;
+        /**
+         * The filter of the records or null when all records are read.
+         */
+        private final RecordFilter filter;
+        /**
+         * The quarantine of malformed records or null when reading strictly.
+         */
+        private final Quarantine quarantine;
 
-            } else if (currentChar == this.quoteChar) {
-                addChar = true;
-                isWithinQuote = true;
-                while (reader.ready()) {
-                    currentChar = (char) reader.read();
-                    if (currentChar == this.quoteChar) {
-                        break;
-                    } else {
-                        currentValue.append(currentChar);
-                    }
-                }
-            } else if (columnSeparatorChar != null && currentChar == columnSeparatorChar) {
-                addChar = false;
-                addValue = true;
+        /**
+         * Creates a new spliterator for the rows of the tokenizer.
+         *
+         * @param csv          the csv with the columns
+         * @param tokenizer    the tokenizer
+         * @param fieldColumns the index of the column for each field, or null when all fields are read
+         * @param filter       the filter of the records or null
+         * @param quarantine   the quarantine of malformed records or null
+         */
+        RowSpliterator(final CSV csv, final CsvTokenizer tokenizer, final int[] fieldColumns,
+                       final RecordFilter filter, final Quarantine quarantine) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.csv = csv;
+            this.tokenizer = tokenizer;
+            this.fieldColumns = fieldColumns;
+            this.filter = filter;
+            this.quarantine = quarantine;
+        }
 
-                if (isWithinQuote) {
-                    currentValue.deleteCharAt(currentValue.length() - 1);
-                    isWithinQuote = false;
-                }
-            } else {
-                addChar = true;
-            }
-            if (addChar) {
-                currentValue.append(currentChar);
+        /**
+         * Parses the next row and passes it to the action.
+         *
+         * @param action the action
+         * @return false when there are no more rows
+         */
+        @Override
+        public boolean tryAdvance(final Consumer<? super Row> action) {
+            if (quarantine != null) {
+                return tryAdvanceLeniently(action);
             }
-            if (!reader.ready()) {
-                addValue = true;
+            try {
+                do {
+                    if (!tokenizer.next()) {
+                        return false;
+                    }
+                } while (filter != null && !filter.accepts(tokenizer));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
-            if (addValue) {
-                if (!reader.ready() && isWithinQuote) {
-                        currentValue.deleteCharAt(currentValue.length() - 1);
-                        isWithinQuote = false;
+            Row row = new Row();
+            readRow(row, csv, tokenizer, fieldColumns);
+            action.accept(row);
+            return true;
+        }
+
+        /**
+         * Parses the next row that is not quarantined and passes it to the action.
+         *
+         * @param action the action
+         * @return false when there are no more rows
+         */
+        private boolean tryAdvanceLeniently(final Consumer<? super Row> action) {
+            try {
+                Row row = null;
+                while (row == null) {
+                    if (!tokenizer.next()) {
+                        return false;
+                    }
+                    if (quarantine.accepts(tokenizer)) {
+                        row = readLeniently(csv, tokenizer, fieldColumns, filter, quarantine);
+                    }
                 }
-                values.add(currentValue.toString());
-                currentValue = new StringBuilder();
+                action.accept(row);
+                return true;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
             }
         }
-        lineCounter++;
-        return values;
+    }
+
+    /**
+     * Reads the file ahead on a separate thread while it is parsed. The thread fills a ring of direct buffers from
+     * the file and the parser drains them, so the parser only waits when the file is read slower than it is parsed,
+     * which is common on network volumes. Files compressed with gzip are always decompressed ahead.
+     *
+     * @param readAhead whether to read the file ahead
+     */
+    public void setReadAhead(final boolean readAhead) {
+        this.readAhead = readAhead;
+    }
+
+    /**
+     * Sets the size and amount of the buffers read ahead.
+     *
+     * @param bufferSize  the size in bytes of each buffer
+     * @param bufferCount the amount of buffers read ahead
+     * @throws IllegalArgumentException when the size or amount is not positive
+     */
+    public void setReadAheadBuffers(final int bufferSize, final int bufferCount) {
+        if (bufferSize < 1 || bufferCount < 1) {
+            throw new IllegalArgumentException("Buffer size and count must be positive");
+        }
+        this.readAheadBufferSize = bufferSize;
+        this.readAheadBufferCount = bufferCount;
+    }
+
+    /**
+     * Returns the nanoseconds the last call to readFile waited for bytes from the file. Without read ahead this is
+     * the time spent reading the file, and with read ahead the time spent waiting for the reading thread.
+     *
+     * @return the nanoseconds
+     */
+    public long getIoWaitNanos() {
+        return ioWaitNanos;
+    }
+
+    /**
+     * Returns the nanoseconds the last call to readFile spent parsing, which is the time it took apart from the time
+     * waiting for bytes from the file.
+     *
+     * @return the nanoseconds
+     */
+    public long getParseNanos() {
+        return parseNanos;
+    }
+
+    /**
+     * Returns the checkpoint after the last record read by the last call to readFile, or null when the file was
+     * compressed or could not be read. Rows appended to the file later can be read from the checkpoint. When the
+     * file ends with a record without its line feed, the checkpoint is before that record.
+     *
+     * @return the checkpoint or null
+     */
+    public Checkpoint getCheckpoint() {
+        return checkpoint;
+    }
+
+    /**
+     * Continues reading from the checkpoint instead of from the start of the file. The file is opened at the byte
+     * offset of the checkpoint and read with its charset, separator and quote, and no header is read, so only the
+     * records after the checkpoint are parsed. The columns must already be in the CSV.
+     *
+     * @param checkpoint the checkpoint or null to read from the start
+     */
+    public void setCheckpoint(final Checkpoint checkpoint) {
+        this.resumeFrom = checkpoint;
+    }
+
+    /**
+     * Gives each String column of the header a dictionary, so repeated values share one String and are numbered by
+     * codes. Dictionaries switch themselves off for columns with many distinct values.
+     *
+     * @param dictionaryEncoding whether to look up String values in dictionaries
+     * @see StringDictionary
+     */
+    public void setDictionaryEncoding(final boolean dictionaryEncoding) {
+        this.dictionaryEncoding = dictionaryEncoding;
+    }
+
+    /**
+     * Reads leniently, keeping records that can not be read aside instead of failing the read. A record is
+     * malformed when it has another amount of fields than the header, or when a value fails to parse. The read
+     * fails when there are more malformed records than the budget. Lazy reads can not be lenient, since their
+     * values are not parsed while reading.
+     *
+     * @param errorBudget the maximum amount of malformed records, or -1 to fail on the first one
+     * @throws IllegalStateException when reading lazily
+     * @see #getMalformedRows()
+     */
+    public void setErrorBudget(final int errorBudget) {
+        if (errorBudget < -1) {
+            throw new IllegalArgumentException("Error budget must be -1 or more");
+        }
+        if (errorBudget >= 0 && lazy) {
+            throw new IllegalStateException("Can not read leniently when reading lazily");
+        }
+        this.errorBudget = errorBudget;
+    }
+
+    /**
+     * Returns the records of the last read that could not be read, when reading leniently. The rows of a stream
+     * are added while the stream is consumed.
+     *
+     * @return the malformed rows
+     */
+    public List<MalformedRow> getMalformedRows() {
+        return quarantine == null ? Collections.emptyList() : quarantine.getRows();
+    }
+
+    /**
+     * Infers the types of the columns without a type in the header from the first records, so the values are parsed
+     * into Integers, Doubles, BigDecimals, Booleans, LocalDates or LocalDateTimes instead of being kept as Strings.
+     * The sampled records are kept and read again from memory, so the file is still read once. A value after the
+     * sample that does not fit the inferred type fails the read like any other invalid value.
+     *
+     * @param sampleSize the amount of records to sample, or 0 to keep untyped columns as Strings
+     * @see ColumnTypeInference
+     */
+    public void setTypeInference(final int sampleSize) {
+        if (sampleSize < 0) {
+            throw new IllegalArgumentException("Sample size must not be negative");
+        }
+        this.sampleSize = sampleSize;
+    }
+
+    /**
+     * Stops reading at the offset as if the file ended there.
+     *
+     * @param endOffset the offset in bytes or -1 to read to the end of the file
+     */
+    void setEndOffset(final long endOffset) {
+        this.endOffset = endOffset;
+    }
+
+    /**
+     * Checks that the first row skipped is a header with the names, and fails the read otherwise.
+     *
+     * @param names the names of the columns or null to not check the header
+     */
+    void setExpectedHeader(final List<String> names) {
+        this.expectedHeader = names;
     }
 
     public void setAppendMode(boolean appendMode) {
@@ -244,4 +1128,60 @@ public final class CsvReader implements DatasetFileReader {
     public void setSkipRows(int skipRows) {
         this.skipRows = skipRows;
     }
+
+    /**
+     * Keeps the characters of the values and parses each value the first time it is read from its row. Reading the
+     * file then only splits it into fields, and values that are never read are never parsed. The characters of many
+     * rows share one block, which is kept in memory as long as any of its rows is. A value that fails to parse
+     * throws when read, so lazy reads can not be lenient. The first read of a value is synchronized on its row, so
+     * the rows can be read from many threads the same way as rows parsed when read from the file.
+     *
+     * @param lazy whether to parse the values when first read
+     * @throws IllegalStateException when reading leniently
+     * @see #setErrorBudget(int)
+     */
+    public void setLazy(final boolean lazy) {
+        if (lazy && errorBudget >= 0) {
+            throw new IllegalStateException("Can not read lazily when reading leniently");
+        }
+        this.lazy = lazy;
+    }
+
+    /**
+     * Reads only the rows matching the query. The matchers are evaluated while each record is parsed, using the
+     * columns of the matchers to parse the fields with the same names, and records that do not match are discarded
+     * before a row is created. Fields used by the query are parsed even when they are not projected.
+     *
+     * @param query the query or null to read all rows
+     */
+    public void setQuery(final Query query) {
+        this.query = query;
+    }
+
+    /**
+     * Reads only the columns with the specified names. The other fields are skipped while parsing and their columns
+     * are not added to the CSV. The projection is applied when the header is read.
+     *
+     * @param columnNames the names of the columns to read
+     */
+    public void setColumnNames(final Collection<String> columnNames) {
+        this.projectedNames = columnNames == null ? null : new HashSet<>(columnNames);
+    }
+
+    /**
+     * Reads only the columns at the specified indexes in the file. The other fields are skipped while parsing and
+     * their columns are not added to the CSV. The projection is applied when the header is read.
+     *
+     * @param columnIndexes the indexes of the columns to read
+     */
+    public void setColumnIndexes(final int... columnIndexes) {
+        if (columnIndexes == null) {
+            this.projectedIndexes = null;
+        } else {
+            this.projectedIndexes = new HashSet<>();
+            for (int index : columnIndexes) {
+                this.projectedIndexes.add(index);
+            }
+        }
+    }
 }
@@ -14,6 +14,16 @@ public final class CsvReaderException extends Exception {
      * @param throwable the throwable that occured
      */
     public CsvReaderException(final File file, final Throwable throwable) {
-        super("Failed to read the CSV from the file " + file == null ? "null" : file.getAbsolutePath(), throwable);
+        super(file == null ? "Failed to read the CSV from the stream"
+                : "Failed to read the CSV from the file " + file.getAbsolutePath(), throwable);
+    }
+
+    /**
+     * The stream could not be read.
+     *
+     * @param throwable the throwable that occured
+     */
+    public CsvReaderException(final Throwable throwable) {
+        this(null, throwable);
     }
 }
@@ -0,0 +1,656 @@
+package no.laukvik.csv.io;
+
+import no.laukvik.csv.CSV;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Splits characters from a Reader into records of fields.
+ *
+ * <p>The characters are decoded into a large reusable block and scanned with index arithmetic. The fields of the
+ * current record are kept in a single reusable character buffer together with the end offset of each field, so
+ * no Strings are created unless a field is asked for.</p>
+ *
+ * <pre>{@code
+ * try (CsvTokenizer tokenizer = new CsvTokenizer(reader, CSV.QUOTE_DOUBLE, CSV.COMMA)) {
+ *     while (tokenizer.next()) {
+ *         String first = tokenizer.getString(0);
+ *     }
+ * }
+ * }</pre>
+ */
+final class CsvTokenizer implements Closeable {
+
+    /**
+     * The default amount of characters to decode at a time.
+     */
+    static final int DEFAULT_BLOCK_SIZE = 1 << 16;
+    /**
+     * The byte order mark as decoded by any of the unicode charsets.
+     */
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+    /**
+     * The initial capacity of the record buffer.
+     */
+    private static final int INITIAL_RECORD_SIZE = 256;
+    /**
+     * The initial amount of fields in the record buffer.
+     */
+    private static final int INITIAL_FIELD_COUNT = 16;
+
+    /**
+     * The reader to read characters from.
+     */
+    private final Reader reader;
+    /**
+     * The block of decoded characters.
+     */
+    private final char[] block;
+    /**
+     * The position of the next character in the block.
+     */
+    private int position;
+    /**
+     * The amount of valid characters in the block.
+     */
+    private int limit;
+    /**
+     * Whether the end of the reader is reached.
+     */
+    private boolean endOfStream;
+    /**
+     * The quote character.
+     */
+    private final char quoteChar;
+    /**
+     * The column separator character.
+     */
+    private char separatorChar;
+    /**
+     * Whether a column separator is known.
+     */
+    private boolean hasSeparator;
+    /**
+     * Whether column separator should be automatically detected or not.
+     */
+    private boolean autoDetectSeparator;
+    /**
+     * The number of records read.
+     */
+    private int lineCounter;
+    /**
+     * The characters of all fields in the current record.
+     */
+    private char[] chars;
+    /**
+     * The amount of characters in the current record.
+     */
+    private int length;
+    /**
+     * The end offset of each field in the current record.
+     */
+    private int[] ends;
+    /**
+     * The amount of fields in the current record.
+     */
+    private int fieldCount;
+    /**
+     * Whether the field at each index is skipped, or null when all fields are kept.
+     */
+    private boolean[] skippedFields;
+    /**
+     * Whether the current field is skipped.
+     */
+    private boolean skipping;
+    /**
+     * The records read since mark was called, or null when not marked.
+     */
+    private List<SavedRecord> saved;
+    /**
+     * The records to return again before reading more, or null.
+     */
+    private List<SavedRecord> replay;
+    /**
+     * The index of the next record to return again.
+     */
+    private int replayIndex;
+    /**
+     * The index in the block where the record being read starts, or -1 when no record is being read.
+     */
+    private int recordStart = -1;
+    /**
+     * The characters of the record being read from blocks decoded before the current one.
+     */
+    private char[] carried;
+    /**
+     * The amount of characters carried.
+     */
+    private int carriedLength;
+    /**
+     * Whether the last record read from the reader ended with a line feed.
+     */
+    private boolean terminated = true;
+    /**
+     * The index in the block where the last record read from the reader starts, after any characters carried.
+     */
+    private int lastRecordStart;
+    /**
+     * The index in the block after the last record read from the reader.
+     */
+    private int lastRecordEnd;
+    /**
+     * The characters of the current record when it is read again, or null.
+     */
+    private String replayedRecord;
+
+    /**
+     * Creates a new tokenizer reading from the reader. The separator is detected from the first record when it is
+     * null.
+     *
+     * @param reader    the reader
+     * @param quote     the quote character
+     * @param separator the separator character or null
+     */
+    CsvTokenizer(final Reader reader, final char quote, final Character separator) {
+        this(reader, quote, separator, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates a new tokenizer reading from the reader using the specified block size.
+     *
+     * @param reader    the reader
+     * @param quote     the quote character
+     * @param separator the separator character or null
+     * @param blockSize the amount of characters to decode at a time
+     */
+    CsvTokenizer(final Reader reader, final char quote, final Character separator, final int blockSize) {
+        this.reader = reader;
+        this.block = new char[blockSize];
+        this.quoteChar = quote;
+        this.hasSeparator = separator != null;
+        this.autoDetectSeparator = separator == null;
+        if (separator != null) {
+            this.separatorChar = separator;
+        }
+        this.chars = new char[INITIAL_RECORD_SIZE];
+        this.ends = new int[INITIAL_FIELD_COUNT];
+    }
+
+    /**
+     * Returns whether there are more characters to read.
+     *
+     * @return true when more characters are available
+     * @throws IOException when the reader fails
+     */
+    boolean hasMore() throws IOException {
+        return position < limit || fill();
+    }
+
+    /**
+     * Decodes the next block of characters.
+     *
+     * @return true when more characters became available
+     * @throws IOException when the reader fails
+     */
+    private boolean fill() throws IOException {
+        if (endOfStream) {
+            return false;
+        }
+        if (recordStart >= 0) {
+            carry(recordStart, limit);
+            recordStart = 0;
+        }
+        int count = reader.read(block, 0, block.length);
+        while (count == 0) {
+            count = reader.read(block, 0, block.length);
+        }
+        if (count < 0) {
+            endOfStream = true;
+            position = 0;
+            limit = 0;
+            return false;
+        }
+        position = 0;
+        limit = count;
+        return true;
+    }
+
+    /**
+     * Skips the first character when it is the byte order mark.
+     *
+     * @throws IOException when the reader fails
+     */
+    void skipByteOrderMark() throws IOException {
+        if (hasMore() && block[position] == BYTE_ORDER_MARK) {
+            position++;
+        }
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return true when a record was read
+     * @throws IOException when the reader fails
+     */
+    boolean next() throws IOException {
+        if (replay != null) {
+            if (replayIndex < replay.size()) {
+                restore(replay.get(replayIndex++));
+                return true;
+            }
+            replay = null;
+        }
+        replayedRecord = null;
+        length = 0;
+        fieldCount = 0;
+        if (!hasMore()) {
+            return false;
+        }
+        skipping = isSkipped(0);
+        recordStart = position;
+        carriedLength = 0;
+        boolean isNextLine = false;
+        boolean isWithinQuote = false;
+        while (!isNextLine && hasMore()) {
+            char currentChar = block[position++];
+            boolean addValue = false;
+
+            if (lineCounter == 0 && autoDetectSeparator && isSeparatorCandidate(currentChar)) {
+                separatorChar = currentChar;
+                hasSeparator = true;
+                autoDetectSeparator = false;
+            }
+
+            if (currentChar == CSV.RETURN) {
+                // Ignored outside of quotes
+            } else if (currentChar == CSV.LINEFEED) {
+                addValue = true;
+                isNextLine = true;
+            } else if (currentChar == quoteChar) {
+                isWithinQuote = true;
+                char last = readQuoted();
+                if (!skipping) {
+                    append(last);
+                }
+            } else if (hasSeparator && currentChar == separatorChar) {
+                addValue = true;
+            } else {
+                appendPlain(position - 1);
+            }
+            if (!hasMore()) {
+                addValue = true;
+            }
+            if (addValue) {
+                if (isWithinQuote) {
+                    if (!skipping) {
+                        length--;
+                    }
+                    isWithinQuote = false;
+                }
+                addField();
+                skipping = isSkipped(fieldCount);
+            }
+        }
+        lastRecordStart = recordStart;
+        lastRecordEnd = position;
+        recordStart = -1;
+        terminated = isNextLine;
+        lineCounter++;
+        if (saved != null) {
+            saved.add(new SavedRecord(Arrays.copyOf(chars, length), Arrays.copyOf(ends, fieldCount), getRecord()));
+        }
+        return true;
+    }
+
+    /**
+     * Starts keeping a copy of each record read, so they can be read again after reset.
+     */
+    void mark() {
+        saved = new ArrayList<>();
+    }
+
+    /**
+     * Makes the following calls to next return the records read since mark again before reading more records.
+     * Records read again are not counted as lines.
+     */
+    void reset() {
+        if (saved == null) {
+            throw new IllegalStateException("Not marked");
+        }
+        replay = saved;
+        replayIndex = 0;
+        saved = null;
+    }
+
+    /**
+     * Makes the saved record the current record.
+     *
+     * @param record the saved record
+     */
+    private void restore(final SavedRecord record) {
+        length = record.chars.length;
+        fieldCount = record.ends.length;
+        if (length > chars.length) {
+            chars = new char[length];
+        }
+        if (fieldCount > ends.length) {
+            ends = new int[fieldCount];
+        }
+        System.arraycopy(record.chars, 0, chars, 0, length);
+        System.arraycopy(record.ends, 0, ends, 0, fieldCount);
+        replayedRecord = record.record;
+    }
+
+    /**
+     * Appends the quoted characters until the closing quote, unless the field is skipped, and returns the last
+     * character read.
+     *
+     * @return the closing quote or the last character before the end of the stream
+     * @throws IOException when the reader fails
+     */
+    private char readQuoted() throws IOException {
+        char last = quoteChar;
+        while (hasMore()) {
+            int start = position;
+            int end = limit;
+            int index = start;
+            while (index < end && block[index] != quoteChar) {
+                index++;
+            }
+            if (!skipping) {
+                append(block, start, index - start);
+            }
+            if (index > start) {
+                last = block[index - 1];
+            }
+            if (index < end) {
+                position = index + 1;
+                return quoteChar;
+            }
+            position = end;
+        }
+        return last;
+    }
+
+    /**
+     * Appends a run of ordinary characters starting at the specified index, unless the field is skipped.
+     *
+     * @param start the index of the first character
+     */
+    private void appendPlain(final int start) {
+        int index = position;
+        int end = limit;
+        if (lineCounter == 0 && autoDetectSeparator) {
+            while (index < end && isPlain(block[index]) && !isSeparatorCandidate(block[index])) {
+                index++;
+            }
+        } else {
+            while (index < end && isPlain(block[index])) {
+                index++;
+            }
+        }
+        if (!skipping) {
+            append(block, start, index - start);
+        }
+        position = index;
+    }
+
+    /**
+     * Sets the fields to skip. The characters of skipped fields are not kept, so they are always empty. Fields after
+     * the last index are skipped as well.
+     *
+     * @param skippedFields whether the field at each index is skipped, or null to keep all fields
+     */
+    void setSkippedFields(final boolean[] skippedFields) {
+        this.skippedFields = skippedFields;
+    }
+
+    /**
+     * Returns whether the field at the index is skipped.
+     *
+     * @param index the field index
+     * @return true when skipped
+     */
+    private boolean isSkipped(final int index) {
+        return skippedFields != null && (index >= skippedFields.length || skippedFields[index]);
+    }
+
+    /**
+     * Returns whether the character needs no special treatment.
+     *
+     * @param c the character
+     * @return true when the character is part of a field
+     */
+    private boolean isPlain(final char c) {
+        return c != CSV.LINEFEED && c != CSV.RETURN && c != quoteChar && !(hasSeparator && c == separatorChar);
+    }
+
+    /**
+     * Returns whether the character is one of the supported column separators.
+     *
+     * @param c the character
+     * @return true when the character can be a separator
+     */
+    private static boolean isSeparatorCandidate(final char c) {
+        return c == CSV.TAB || c == CSV.SEMICOLON || c == CSV.PIPE || c == CSV.COMMA;
+    }
+
+    /**
+     * Keeps the characters of the record being read before the block is decoded again.
+     *
+     * @param from the index of the first character
+     * @param to   the index after the last character
+     */
+    private void carry(final int from, final int to) {
+        int count = to - from;
+        if (carried == null || carriedLength + count > carried.length) {
+            carried = Arrays.copyOf(carried == null ? new char[0] : carried,
+                    Math.max(INITIAL_RECORD_SIZE, Math.max(carriedLength * 2, carriedLength + count)));
+        }
+        System.arraycopy(block, from, carried, carriedLength, count);
+        carriedLength += count;
+    }
+
+    /**
+     * Appends a single character to the current field.
+     *
+     * @param c the character
+     */
+    private void append(final char c) {
+        if (length == chars.length) {
+            chars = Arrays.copyOf(chars, chars.length * 2);
+        }
+        chars[length++] = c;
+    }
+
+    /**
+     * Appends characters to the current field.
+     *
+     * @param source the characters
+     * @param offset the offset of the first character
+     * @param count  the amount of characters
+     */
+    private void append(final char[] source, final int offset, final int count) {
+        if (length + count > chars.length) {
+            chars = Arrays.copyOf(chars, Math.max(chars.length * 2, length + count));
+        }
+        System.arraycopy(source, offset, chars, length, count);
+        length += count;
+    }
+
+    /**
+     * Ends the current field.
+     */
+    private void addField() {
+        if (fieldCount == ends.length) {
+            ends = Arrays.copyOf(ends, ends.length * 2);
+        }
+        ends[fieldCount++] = length;
+    }
+
+    /**
+     * Returns the amount of fields in the current record.
+     *
+     * @return the amount of fields
+     */
+    int getFieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Returns the buffer holding the characters of the current record.
+     *
+     * @return the characters
+     */
+    char[] getChars() {
+        return chars;
+    }
+
+    /**
+     * Returns the end offset of each field of the current record.
+     *
+     * @return the end offsets
+     */
+    int[] getEnds() {
+        return ends;
+    }
+
+    /**
+     * Returns the offset of the first character of the field.
+     *
+     * @param index the field index
+     * @return the offset in the buffer
+     */
+    int getStart(final int index) {
+        return index == 0 ? 0 : ends[index - 1];
+    }
+
+    /**
+     * Returns the offset after the last character of the field.
+     *
+     * @param index the field index
+     * @return the offset in the buffer
+     */
+    int getEnd(final int index) {
+        return ends[index];
+    }
+
+    /**
+     * Returns the value of the field.
+     *
+     * @param index the field index
+     * @return the value
+     */
+    String getString(final int index) {
+        int start = getStart(index);
+        return new String(chars, start, ends[index] - start);
+    }
+
+    /**
+     * Returns the number of records read.
+     *
+     * @return the number of records
+     */
+    int getLineCounter() {
+        return lineCounter;
+    }
+
+    /**
+     * Returns the characters of the current record as they were in the stream, with quotes and line endings within
+     * quotes and fields that are skipped, but without the line feed ending it.
+     *
+     * @return the characters of the record
+     */
+    String getRecord() {
+        if (replayedRecord != null) {
+            return replayedRecord;
+        }
+        StringBuilder b = new StringBuilder(carriedLength + lastRecordEnd - lastRecordStart);
+        if (carriedLength > 0) {
+            b.append(carried, 0, carriedLength);
+        }
+        b.append(block, lastRecordStart, lastRecordEnd - lastRecordStart);
+        if (terminated) {
+            b.setLength(b.length() - 1);
+            if (b.length() > 0 && b.charAt(b.length() - 1) == CSV.RETURN) {
+                b.setLength(b.length() - 1);
+            }
+        }
+        return b.toString();
+    }
+
+    /**
+     * Returns the characters of the last record read from the reader when the stream ended before its line feed,
+     * as they were in the stream. Such a record may still be being written.
+     *
+     * @return the characters of the record or null when it ended with a line feed
+     */
+    String getUnterminatedRecord() {
+        return terminated ? null : new String(carried, 0, carriedLength);
+    }
+
+    /**
+     * Returns the separator character or null when not yet known.
+     *
+     * @return the separator character
+     */
+    Character getSeparator() {
+        return hasSeparator ? separatorChar : null;
+    }
+
+    /**
+     * Returns whether the separator is still being detected.
+     *
+     * @return true when detecting
+     */
+    boolean isAutoDetectSeparator() {
+        return autoDetectSeparator;
+    }
+
+    /**
+     * Closes the underlying reader.
+     *
+     * @throws IOException when the reader could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * A copy of a record kept to be read again.
+     */
+    private static final class SavedRecord {
+
+        /**
+         * The characters of the fields.
+         */
+        private final char[] chars;
+        /**
+         * The end offset of each field.
+         */
+        private final int[] ends;
+        /**
+         * The characters of the record as they were in the stream.
+         */
+        private final String record;
+
+        /**
+         * Keeps the record.
+         *
+         * @param chars  the characters of the fields
+         * @param ends   the end offset of each field
+         * @param record the characters of the record as they were in the stream
+         */
+        SavedRecord(final char[] chars, final int[] ends, final String record) {
+            this.chars = chars;
+            this.ends = ends;
+            this.record = record;
+        }
+    }
+}
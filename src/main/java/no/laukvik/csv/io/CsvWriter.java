@@ -23,6 +23,7 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
@@ -66,23 +67,36 @@ public final class CsvWriter implements DatasetFileWriter {
      */
     @Override
     public void writeCSV(final File file, final CSV csv) throws CsvWriterException {
-        final Charset cs = csv.getCharset() == null ? BOM.UTF8.getCharset() : csv.getCharset();
-        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
-                new FileOutputStream(file), cs))) {
-            // Columns
-            List<String> columns = buildColumns(csv);
-            writeValues(columns, writer);
-            // Rows
-            for (int y = 0; y < csv.getRowCount(); y++) {
-                Row r = csv.getRow(y);
-                List<String> items = buildRow(r, csv);
-                writeValues(items, writer);
-            }
+        try (OutputStream out = new FileOutputStream(file)) {
+            writeCSV(csv, out);
         } catch (final IOException e) {
             throw new CsvWriterException(file, e);
         }
     }
 
+    /**
+     * Writes the CSV to the stream in the charset of the CSV. The stream is flushed but not closed.
+     *
+     * @param csv the CSV to write
+     * @param out the stream
+     * @throws IOException when the stream could not be written
+     */
+    @Override
+    public void writeCSV(final CSV csv, final OutputStream out) throws IOException {
+        final Charset cs = csv.getCharset() == null ? BOM.UTF8.getCharset() : csv.getCharset();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, cs));
+        // Columns
+        List<String> columns = buildColumns(csv);
+        writeValues(columns, writer);
+        // Rows
+        for (int y = 0; y < csv.getRowCount(); y++) {
+            Row r = csv.getRow(y);
+            List<String> items = buildRow(r, csv);
+            writeValues(items, writer);
+        }
+        writer.flush();
+    }
+
 
     /**
      * Builds a list of String for each value in the row.
@@ -14,7 +14,8 @@ public final class CsvWriterException extends Exception {
      * @param throwable the throwable that occured
      */
     public CsvWriterException(final File file, final Throwable throwable) {
-        super("Failed to read the CSV from the file " + file == null ? "null" : file.getAbsolutePath(), throwable);
+        super(file == null ? "Failed to write the CSV to the stream"
+                : "Failed to write the CSV to the file " + file.getAbsolutePath(), throwable);
     }
 
 
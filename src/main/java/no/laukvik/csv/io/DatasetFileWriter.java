@@ -17,7 +17,13 @@ package no.laukvik.csv.io;
 
 import no.laukvik.csv.CSV;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
 
 /**
  * An interface for writing data sets.
@@ -33,4 +39,38 @@ public interface DatasetFileWriter {
      */
     void writeCSV(File file, CSV csv) throws CsvWriterException;
 
+    /**
+     * Writes the CSV to the stream. The stream is flushed but not closed. Writers that only write files write the
+     * CSV to a temporary file first, which is copied to the stream and deleted.
+     *
+     * @param csv the CSV to write
+     * @param out the stream
+     * @throws IOException when the stream can't be fully written
+     */
+    default void writeCSV(final CSV csv, final OutputStream out) throws IOException {
+        File file = File.createTempFile("dataset", ".tmp");
+        try {
+            writeCSV(file, csv);
+            Files.copy(file.toPath(), out);
+            out.flush();
+        } catch (CsvWriterException e) {
+            throw new IOException(e);
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    /**
+     * Writes the CSV to the channel through a buffer. The channel is not closed.
+     *
+     * @param csv     the CSV to write
+     * @param channel the channel
+     * @throws IOException when the channel can't be fully written
+     */
+    default void writeCSV(final CSV csv, final WritableByteChannel channel) throws IOException {
+        OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+        writeCSV(csv, out);
+        out.flush();
+    }
+
 }
@@ -0,0 +1,103 @@
+package no.laukvik.csv.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Detects and opens files compressed with gzip.
+ *
+ * <p>The decompressed bytes are produced by a separate thread which reads ahead while the caller parses them, so
+ * inflating and parsing overlap.</p>
+ */
+final class Gzip {
+
+    /**
+     * The first byte of the gzip format.
+     */
+    private static final int MAGIC_FIRST = 0x1F;
+    /**
+     * The second byte of the gzip format.
+     */
+    private static final int MAGIC_SECOND = 0x8B;
+    /**
+     * The size of the compressed input buffer.
+     */
+    private static final int INPUT_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Utility class.
+     */
+    private Gzip() {
+    }
+
+    /**
+     * Returns whether the file starts with the magic bytes of gzip.
+     *
+     * @param file the file
+     * @return true when the file is compressed with gzip
+     */
+    static boolean isGzip(final File file) {
+        try (InputStream input = new FileInputStream(file)) {
+            return input.read() == MAGIC_FIRST && input.read() == MAGIC_SECOND;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns whether the stream starts with the magic bytes of gzip. The stream must support mark and is reset to
+     * where it was.
+     *
+     * @param input the stream
+     * @return true when the stream is compressed with gzip
+     * @throws IOException when the stream could not be read
+     */
+    static boolean isGzip(final InputStream input) throws IOException {
+        input.mark(2);
+        try {
+            return input.read() == MAGIC_FIRST && input.read() == MAGIC_SECOND;
+        } finally {
+            input.reset();
+        }
+    }
+
+    /**
+     * Opens the compressed file and starts decompressing it ahead on a separate thread.
+     *
+     * @param file        the file
+     * @param bufferSize  the size in bytes of each buffer of decompressed bytes
+     * @param bufferCount the amount of buffers decompressed ahead
+     * @return the stream of decompressed bytes
+     * @throws IOException when the file could not be opened
+     */
+    static ReadAheadInputStream open(final File file, final int bufferSize, final int bufferCount)
+            throws IOException {
+        return open(new FileInputStream(file), bufferSize, bufferCount, "gzip-" + file.getName());
+    }
+
+    /**
+     * Starts decompressing the stream ahead on a separate thread. The stream is closed when the returned stream is
+     * closed, or when it could not be opened.
+     *
+     * @param input       the compressed stream
+     * @param bufferSize  the size in bytes of each buffer of decompressed bytes
+     * @param bufferCount the amount of buffers decompressed ahead
+     * @param name        the name of the thread
+     * @return the stream of decompressed bytes
+     * @throws IOException when the stream could not be opened
+     */
+    static ReadAheadInputStream open(final InputStream input, final int bufferSize, final int bufferCount,
+                                     final String name) throws IOException {
+        try {
+            return new ReadAheadInputStream(Channels.newChannel(new GZIPInputStream(input, INPUT_BUFFER_SIZE)),
+                    bufferSize, bufferCount, false, name);
+        } catch (IOException | RuntimeException e) {
+            input.close();
+            throw e;
+        }
+    }
+}
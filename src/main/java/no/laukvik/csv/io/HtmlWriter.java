@@ -19,6 +19,7 @@ import no.laukvik.csv.CSV;
 import no.laukvik.csv.Row;
 import no.laukvik.csv.columns.Column;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -47,7 +48,7 @@ public final class HtmlWriter implements DatasetFileWriter {
      */
     @Override
     public void writeCSV(final File file, final CSV csv) throws CsvWriterException {
-        try (FileOutputStream out = new FileOutputStream(file)) {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
             writeCSV(csv, out);
         } catch (final IOException e) {
             throw new CsvWriterException(file, e);
@@ -55,12 +56,13 @@ public final class HtmlWriter implements DatasetFileWriter {
     }
 
     /**
-     * Write the CSV to the outputStream.
+     * Write the CSV to the outputStream. The stream is flushed but not closed.
      *
      * @param csv the CSV to write
      * @param out outputStream
      * @throws IOException when the csv could not be written
      */
+    @Override
     public void writeCSV(final CSV csv, final OutputStream out) throws IOException {
         Charset charset = csv.getCharset();
 
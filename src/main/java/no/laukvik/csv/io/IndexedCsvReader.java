@@ -0,0 +1,180 @@
+package no.laukvik.csv.io;
+
+import no.laukvik.csv.CSV;
+import no.laukvik.csv.Row;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads any row of a file by seeking to it with a RowIndex, instead of parsing all rows before it.
+ *
+ * <p>The index is read from its sidecar file or built the first time, and built again when the size or
+ * modification time of the file changes. A row is read by seeking to the last indexed row before it and skipping
+ * the rows between, so reading a row costs the same anywhere in the file. The rows are not added to the CSV.</p>
+ * <pre>{@code
+ *     IndexedCsvReader reader = new IndexedCsvReader(file, csv);
+ *     Row row = reader.getRow(40000000);
+ *     List<Row> page = reader.getRows(500, 50);
+ * }</pre>
+ */
+public final class IndexedCsvReader {
+
+    /**
+     * The file.
+     */
+    private final File file;
+    /**
+     * The csv with the dialect and columns.
+     */
+    private final CSV csv;
+    /**
+     * The charset of the file.
+     */
+    private final Charset charset;
+    /**
+     * The quote character.
+     */
+    private final char quote;
+    /**
+     * The amount of rows between each offset in the index.
+     */
+    private final int interval;
+    /**
+     * The index of the file.
+     */
+    private RowIndex index;
+
+    /**
+     * Opens the file with an index of every {@link RowIndex#DEFAULT_INTERVAL} rows.
+     *
+     * @param file the file
+     * @param csv  the csv with the dialect, which gets the columns of the header unless it has columns
+     * @throws CsvReaderException when the file could not be read or indexed
+     */
+    public IndexedCsvReader(final File file, final CSV csv) throws CsvReaderException {
+        this(file, csv, RowIndex.DEFAULT_INTERVAL);
+    }
+
+    /**
+     * Opens the file with an index of every interval rows. A shorter interval makes the index larger and each row
+     * faster to reach.
+     *
+     * @param file     the file
+     * @param csv      the csv with the dialect, which gets the columns of the header unless it has columns
+     * @param interval the amount of rows between each offset in the index
+     * @throws CsvReaderException when the file could not be read or indexed
+     */
+    public IndexedCsvReader(final File file, final CSV csv, final int interval) throws CsvReaderException {
+        this.file = file;
+        this.csv = csv;
+        this.interval = interval;
+        this.quote = csv.getQuoteChar() == null ? CSV.QUOTE_DOUBLE : csv.getQuoteChar();
+        if (csv.getCharset() != null) {
+            this.charset = csv.getCharset();
+        } else {
+            BOM bom = BOM.findBom(file);
+            this.charset = bom == null ? StandardCharsets.UTF_8 : bom.getCharset();
+        }
+        RowIndex rowIndex = getIndex();
+        if (csv.getColumnCount() == 0) {
+            CsvReader reader = new CsvReader(charset, csv.getSeparatorChar(), quote);
+            reader.setEndOffset(rowIndex.getHeaderEnd());
+            reader.readFile(file, csv);
+        }
+    }
+
+    /**
+     * Returns the index of the file, building it again when the file has changed.
+     *
+     * @return the index
+     * @throws CsvReaderException when the file could not be indexed
+     */
+    public synchronized RowIndex getIndex() throws CsvReaderException {
+        if (index == null || !index.isCurrent(file)) {
+            try {
+                index = RowIndex.open(file, charset, quote, interval);
+            } catch (IOException e) {
+                throw new CsvReaderException(file, e);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the amount of rows after the header.
+     *
+     * @return the amount of rows
+     * @throws CsvReaderException when the file could not be indexed
+     */
+    public int getRowCount() throws CsvReaderException {
+        return getIndex().getRowCount();
+    }
+
+    /**
+     * Returns the checkpoint before the last indexed row at or before the row, which lets CSV.appendFile continue
+     * from there.
+     *
+     * @param row the row index
+     * @return the checkpoint
+     * @throws CsvReaderException when the file could not be indexed
+     * @see CSV#appendFile(File, Checkpoint)
+     */
+    public Checkpoint getCheckpoint(final int row) throws CsvReaderException {
+        RowIndex rowIndex = getIndex();
+        return new Checkpoint(rowIndex.getOffset(row), 1 + rowIndex.getIndexedRow(row), charset,
+                csv.getSeparatorChar(), quote);
+    }
+
+    /**
+     * Returns a stream of the rows from the row to the end of the file. The file is closed when the stream is
+     * closed.
+     *
+     * @param row the row index of the first row
+     * @return the stream of rows
+     * @throws CsvReaderException when the file could not be read
+     */
+    public Stream<Row> readRows(final int row) throws CsvReaderException {
+        RowIndex rowIndex = getIndex();
+        CsvReader reader = new CsvReader(charset, csv.getSeparatorChar(), quote);
+        reader.setCheckpoint(getCheckpoint(row));
+        return reader.readFileStream(file, csv).skip(row - rowIndex.getIndexedRow(row));
+    }
+
+    /**
+     * Returns the rows from the row.
+     *
+     * @param row   the row index of the first row
+     * @param count the maximum amount of rows
+     * @return the rows
+     * @throws CsvReaderException when the file could not be read
+     */
+    public List<Row> getRows(final int row, final int count) throws CsvReaderException {
+        try (Stream<Row> rows = readRows(row)) {
+            return rows.limit(count).collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw new CsvReaderException(file, e.getCause());
+        }
+    }
+
+    /**
+     * Returns the row.
+     *
+     * @param row the row index
+     * @return the row
+     * @throws CsvReaderException when the file could not be read
+     */
+    public Row getRow(final int row) throws CsvReaderException {
+        List<Row> rows = getRows(row, 1);
+        if (rows.isEmpty()) {
+            throw new CsvReaderException(file, new IOException("Row " + row + " is missing"));
+        }
+        return rows.get(0);
+    }
+}
@@ -19,6 +19,7 @@ import no.laukvik.csv.CSV;
 import no.laukvik.csv.Row;
 import no.laukvik.csv.columns.Column;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -83,7 +84,7 @@ public final class JsonWriter implements DatasetFileWriter {
      */
     @Override
     public void writeCSV(final File file, final CSV csv) throws CsvWriterException {
-        try (FileOutputStream out = new FileOutputStream(file)) {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
             writeCSV(csv, out);
         } catch (final IOException e) {
             throw new CsvWriterException(file, e);
@@ -91,12 +92,13 @@ public final class JsonWriter implements DatasetFileWriter {
     }
 
     /**
-     * Writes the CSV to the file.
+     * Writes the CSV to the stream. The stream is flushed but not closed.
      *
      * @param csv the CSV to write
      * @param out outputStream
      * @throws IOException when the file could not be written to
      */
+    @Override
     public void writeCSV(final CSV csv, final OutputStream out) throws IOException {
         out.write(BRACKET_LEFT);
         out.write(LINEFEED);
@@ -0,0 +1,78 @@
+package no.laukvik.csv.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads no more than a fixed amount of bytes from a channel.
+ */
+final class LimitedChannel implements ReadableByteChannel {
+
+    /**
+     * The channel to read from.
+     */
+    private final ReadableByteChannel channel;
+    /**
+     * The amount of bytes left to read.
+     */
+    private long remaining;
+
+    /**
+     * Limits the channel to the amount of bytes.
+     *
+     * @param channel the channel
+     * @param limit   the maximum amount of bytes to read
+     */
+    LimitedChannel(final ReadableByteChannel channel, final long limit) {
+        this.channel = channel;
+        this.remaining = limit;
+    }
+
+    /**
+     * Reads bytes into the buffer until the limit is reached.
+     *
+     * @param buffer the buffer
+     * @return the amount of bytes read or -1 when the limit or the end of the channel is reached
+     * @throws IOException when the channel could not be read
+     */
+    @Override
+    public int read(final ByteBuffer buffer) throws IOException {
+        if (remaining <= 0) {
+            return -1;
+        }
+        int limit = buffer.limit();
+        if (buffer.remaining() > remaining) {
+            buffer.limit(buffer.position() + (int) remaining);
+        }
+        try {
+            int count = channel.read(buffer);
+            if (count > 0) {
+                remaining -= count;
+            }
+            return count;
+        } finally {
+            buffer.limit(limit);
+        }
+    }
+
+    /**
+     * Returns whether the channel is open.
+     *
+     * @return true when open
+     */
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    /**
+     * Closes the channel.
+     *
+     * @throws IOException when the channel could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
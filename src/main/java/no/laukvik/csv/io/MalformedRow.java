@@ -0,0 +1,76 @@
+package no.laukvik.csv.io;
+
+import java.io.Serializable;
+
+/**
+ * A record that could not be read into a row, kept aside by a lenient CsvReader instead of failing the read.
+ *
+ * @see CsvReader#setErrorBudget(int)
+ */
+public final class MalformedRow implements Serializable {
+
+    /**
+     * The number of the record in the file, where the header is 1.
+     */
+    private final int lineNumber;
+    /**
+     * The characters of the record as they were in the file.
+     */
+    private final String text;
+    /**
+     * Why the record could not be read.
+     */
+    private final String reason;
+
+    /**
+     * Creates a malformed row.
+     *
+     * @param lineNumber the number of the record in the file, where the header is 1
+     * @param text       the characters of the record as they were in the file
+     * @param reason     why the record could not be read
+     */
+    public MalformedRow(final int lineNumber, final String text, final String reason) {
+        this.lineNumber = lineNumber;
+        this.text = text;
+        this.reason = reason;
+    }
+
+    /**
+     * Returns the number of the record in the file, where the header is 1. A record with line feeds within quotes
+     * is counted once.
+     *
+     * @return the line number
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Returns the characters of the record as they were in the file, without the line feed ending it. Quotes, line
+     * endings within quotes and fields that are not read are kept.
+     *
+     * @return the text
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * Returns why the record could not be read.
+     *
+     * @return the reason
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * Returns the line number, reason and text.
+     *
+     * @return the description
+     */
+    @Override
+    public String toString() {
+        return "Line " + lineNumber + ": " + reason + ": " + text;
+    }
+}
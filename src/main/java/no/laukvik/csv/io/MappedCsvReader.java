@@ -0,0 +1,152 @@
+package no.laukvik.csv.io;
+
+import no.laukvik.csv.CSV;
+import no.laukvik.csv.RecordBlock;
+import no.laukvik.csv.Row;
+import no.laukvik.csv.columns.Column;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a data set in the CSV format by memory mapping the file.
+ *
+ * <p>The file is mapped in windows and the records are split on the raw bytes. The bytes of each record are kept in
+ * a RecordBlock, so a field is only decoded the first time its value is read, and integers, decimals and booleans
+ * are parsed straight from the bytes. Files in UTF-8, ASCII or any other
+ * charset where the special characters are single ASCII bytes are split without a CharsetDecoder. Other charsets,
+ * such as UTF-16, and files compressed with gzip are read by CsvReader instead.</p>
+ * <pre>{@code
+ *     CSV csv = new CSV();
+ *     csv.readFile(new File("very_large.csv"), new MappedCsvReader(null, null, null));
+ * }</pre>
+ */
+public final class MappedCsvReader implements DatasetFileReader {
+
+    /**
+     * The default size in bytes of each mapped window.
+     */
+    static final int DEFAULT_WINDOW_SIZE = 1 << 26;
+
+    /**
+     * The charset or null when it should be detected through BOM.
+     */
+    private final Charset charset;
+    /**
+     * The column separator character or null when it should be detected.
+     */
+    private final Character separatorChar;
+    /**
+     * The quote character.
+     */
+    private final Character quoteChar;
+    /**
+     * The size in bytes of each mapped window.
+     */
+    private int windowSize;
+
+    /**
+     * Reads CSV from files using the separator and quote characters.
+     *
+     * @param charset   the charset
+     * @param separator the separator character
+     * @param quote     the quote character
+     */
+    public MappedCsvReader(final Charset charset, final Character separator, final Character quote) {
+        this.charset = charset;
+        this.separatorChar = separator;
+        this.quoteChar = quote == null ? CSV.QUOTE_DOUBLE : quote;
+        this.windowSize = DEFAULT_WINDOW_SIZE;
+    }
+
+    /**
+     * Returns the size in bytes of each mapped window.
+     *
+     * @return the window size
+     */
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    /**
+     * Sets the size in bytes of each mapped window. A window grows automatically when a single record is larger.
+     *
+     * @param windowSize the window size
+     */
+    public void setWindowSize(final int windowSize) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Window size must be positive");
+        }
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Reads the file.
+     *
+     * @param file the file
+     * @param csv  the csv
+     * @throws CsvReaderException when the file could not be read
+     */
+    @Override
+    public void readFile(final File file, final CSV csv) throws CsvReaderException {
+        BOM bom = null;
+        if (charset == null) {
+            bom = BOM.findBom(file);
+            csv.setCharset(bom == null ? BOM.UTF8.getCharset() : bom.getCharset());
+        } else {
+            csv.setCharset(charset);
+        }
+        if (!ByteCsvTokenizer.supports(csv.getCharset(), quoteChar, separatorChar) || Gzip.isGzip(file)) {
+            new CsvReader(charset, separatorChar, quoteChar).readFile(file, csv);
+            return;
+        }
+        csv.setQuoteChar(quoteChar);
+        ByteCsvTokenizer tokenizer = new ByteCsvTokenizer(quoteChar, separatorChar);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long position = bom == null ? 0 : bom.getBytes().length;
+            long size = channel.size();
+            MappedRecords records = new MappedRecords(channel, position, size, windowSize, tokenizer);
+            if (records.next()) {
+                for (int x = 0; x < tokenizer.getFieldCount(); x++) {
+                    csv.addColumn(Column.parseName(tokenizer.getString(x, csv.getCharset())));
+                }
+                csv.setSeparator(tokenizer.getSeparator());
+            }
+            Column[] columns = csv.getColumns().toArray(new Column[0]);
+            RecordBlock block = null;
+            while (records.next()) {
+                block = nextBlock(block, columns, csv.getCharset(), tokenizer, size - records.getPosition());
+                csv.addRow(new Row(block, block.add(tokenizer.getBytes(), tokenizer.getEnds(),
+                        tokenizer.getFieldCount())));
+            }
+        } catch (IOException e) {
+            throw new CsvReaderException(file, e);
+        }
+    }
+
+    /**
+     * Returns the block to copy the current record of the tokenizer into, which is a new block when the record does
+     * not fit. A new block is no larger than the record and the bytes left to read after it, unless the record is
+     * larger than a block.
+     *
+     * @param block     the block or null when there is none yet
+     * @param columns   the column of each field
+     * @param charset   the charset of the bytes
+     * @param tokenizer the tokenizer
+     * @param remaining the amount of bytes left to read after the record
+     * @return the block for the record
+     */
+    static RecordBlock nextBlock(final RecordBlock block, final Column[] columns, final Charset charset,
+                                 final ByteCsvTokenizer tokenizer, final long remaining) {
+        int fieldCount = tokenizer.getFieldCount();
+        int length = fieldCount == 0 ? 0 : tokenizer.getEnd(fieldCount - 1);
+        if (block != null && block.hasRoom(length)) {
+            return block;
+        }
+        int capacity = (int) Math.min(RecordBlock.DEFAULT_CAPACITY, remaining + length);
+        return new RecordBlock(columns, Math.max(capacity, length), charset);
+    }
+}
@@ -0,0 +1,109 @@
+package no.laukvik.csv.io;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Iterates the records in a region of a file by mapping it in windows.
+ *
+ * <p>Each record is split by the ByteCsvTokenizer, which holds the fields of the current record. A window is
+ * remapped from the start of a record that crosses its end, and grows when a single record is larger than the
+ * window. The end of the region is treated as the end of input.</p>
+ */
+final class MappedRecords {
+
+    /**
+     * The channel of the file.
+     */
+    private final FileChannel channel;
+    /**
+     * The offset after the last byte of the region.
+     */
+    private final long to;
+    /**
+     * The tokenizer splitting the records.
+     */
+    private final ByteCsvTokenizer tokenizer;
+    /**
+     * The size of the next window to map.
+     */
+    private int windowSize;
+    /**
+     * The file offset of the current window.
+     */
+    private long windowStart;
+    /**
+     * The current window or null before the first record.
+     */
+    private MappedByteBuffer buffer;
+    /**
+     * The amount of bytes in the current window.
+     */
+    private int length;
+    /**
+     * The index in the window after the current record.
+     */
+    private int index;
+    /**
+     * Whether the current window ends at the end of the region.
+     */
+    private boolean endOfInput;
+
+    /**
+     * Iterates the records between the offsets.
+     *
+     * @param channel    the channel of the file
+     * @param from       the offset of the first record
+     * @param to         the offset after the last record
+     * @param windowSize the size in bytes of each window
+     * @param tokenizer  the tokenizer
+     */
+    MappedRecords(final FileChannel channel, final long from, final long to, final int windowSize,
+                  final ByteCsvTokenizer tokenizer) {
+        this.channel = channel;
+        this.to = to;
+        this.windowSize = windowSize;
+        this.tokenizer = tokenizer;
+        this.windowStart = from;
+    }
+
+    /**
+     * Reads the next record into the tokenizer.
+     *
+     * @return true when a record was read
+     * @throws IOException when the file could not be mapped
+     */
+    boolean next() throws IOException {
+        while (true) {
+            if (buffer != null && index < length) {
+                int end = tokenizer.parse(buffer, index, length, endOfInput);
+                if (end != ByteCsvTokenizer.INCOMPLETE) {
+                    index = end;
+                    return true;
+                }
+                if (index == 0) {
+                    windowSize = (int) Math.min((long) windowSize * 2, Integer.MAX_VALUE);
+                }
+            }
+            long position = getPosition();
+            if (position >= to) {
+                return false;
+            }
+            length = (int) Math.min(windowSize, to - position);
+            endOfInput = position + length == to;
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+            windowStart = position;
+            index = 0;
+        }
+    }
+
+    /**
+     * Returns the file offset after the current record.
+     *
+     * @return the offset
+     */
+    long getPosition() {
+        return windowStart + index;
+    }
+}
@@ -0,0 +1,21 @@
+package no.laukvik.csv.io;
+
+/**
+ * A source of bytes that measures how it is read.
+ */
+interface Metered {
+
+    /**
+     * Returns the nanoseconds spent waiting for bytes.
+     *
+     * @return the nanoseconds
+     */
+    long getWaitNanos();
+
+    /**
+     * Returns the amount of bytes consumed.
+     *
+     * @return the amount of bytes
+     */
+    long getByteCount();
+}
@@ -0,0 +1,116 @@
+package no.laukvik.csv.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Measures the time spent reading from the underlying stream and the amount of bytes read.
+ */
+final class MeteredInputStream extends FilterInputStream implements Metered {
+
+    /**
+     * The nanoseconds spent reading from the underlying stream.
+     */
+    private long waitNanos;
+    /**
+     * The amount of bytes read.
+     */
+    private long byteCount;
+
+    /**
+     * Measures the reads of the stream.
+     *
+     * @param input the stream
+     */
+    MeteredInputStream(final InputStream input) {
+        super(input);
+    }
+
+    /**
+     * Reads the next byte.
+     *
+     * @return the byte or -1 at the end of the stream
+     * @throws IOException when the stream could not be read
+     */
+    @Override
+    public int read() throws IOException {
+        long start = System.nanoTime();
+        try {
+            int b = in.read();
+            if (b >= 0) {
+                byteCount++;
+            }
+            return b;
+        } finally {
+            waitNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Reads bytes into the array.
+     *
+     * @param bytes  the array
+     * @param offset the offset of the first byte
+     * @param length the maximum amount of bytes
+     * @return the amount of bytes read or -1 at the end of the stream
+     * @throws IOException when the stream could not be read
+     */
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+        long start = System.nanoTime();
+        try {
+            int count = in.read(bytes, offset, length);
+            if (count > 0) {
+                byteCount += count;
+            }
+            return count;
+        } finally {
+            waitNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Skips bytes of the underlying stream.
+     *
+     * @param count the maximum amount of bytes to skip
+     * @return the amount of bytes skipped
+     * @throws IOException when the stream could not be read
+     */
+    @Override
+    public long skip(final long count) throws IOException {
+        long skipped = in.skip(count);
+        byteCount += skipped;
+        return skipped;
+    }
+
+    /**
+     * Returns the nanoseconds spent reading from the underlying stream.
+     *
+     * @return the nanoseconds
+     */
+    @Override
+    public long getWaitNanos() {
+        return waitNanos;
+    }
+
+    /**
+     * Returns the amount of bytes read.
+     *
+     * @return the amount of bytes
+     */
+    @Override
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * Marking is not supported since the amount of bytes read could not be rewound.
+     *
+     * @return false
+     */
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+}
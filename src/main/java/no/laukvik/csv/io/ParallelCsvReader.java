@@ -0,0 +1,344 @@
+package no.laukvik.csv.io;
+
+import no.laukvik.csv.CSV;
+import no.laukvik.csv.RecordBlock;
+import no.laukvik.csv.Row;
+import no.laukvik.csv.columns.Column;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Reads a data set in the CSV format by parsing chunks of the file concurrently.
+ *
+ * <p>The header is read the same way as CsvReader does. The rest of the file is split into byte ranges which are
+ * parsed on a ForkJoinPool, and the rows are added to the CSV in their original order. A range rarely starts at the
+ * beginning of a record, so each range first finds its first record boundary: a line feed outside quotes. Whether a
+ * position is inside quotes depends on the number of quote characters before it, which is counted for all ranges
+ * in a first parallel pass.</p>
+ *
+ * <p>Only charsets that can be split on single ASCII bytes are read in parallel, such as UTF-8 and ISO-8859-1.
+ * Other charsets and files compressed with gzip are read by CsvReader.</p>
+ * <pre>{@code
+ *     CSV csv = new CSV();
+ *     csv.readFileParallel(new File("very_large.csv"));
+ * }</pre>
+ */
+public final class ParallelCsvReader implements DatasetFileReader {
+
+    /**
+     * The smallest range to parse as a separate task.
+     */
+    static final long MIN_CHUNK_SIZE = 1 << 20;
+    /**
+     * The largest range to parse as a separate task.
+     */
+    private static final long MAX_CHUNK_SIZE = 1 << 28;
+    /**
+     * The amount of ranges per thread, for balancing uneven ranges.
+     */
+    private static final int CHUNKS_PER_THREAD = 4;
+    /**
+     * Indicates that no record boundary was found in a range.
+     */
+    private static final long NOT_FOUND = -1;
+
+    /**
+     * The charset or null when it should be detected through BOM.
+     */
+    private final Charset charset;
+    /**
+     * The column separator character or null when it should be detected.
+     */
+    private final Character separatorChar;
+    /**
+     * The quote character.
+     */
+    private final Character quoteChar;
+    /**
+     * The pool to parse the ranges in.
+     */
+    private final ForkJoinPool pool;
+    /**
+     * The size in bytes of each range.
+     */
+    private long chunkSize;
+
+    /**
+     * Reads CSV from files using the separator and quote characters in the common ForkJoinPool.
+     *
+     * @param charset   the charset
+     * @param separator the separator character
+     * @param quote     the quote character
+     */
+    public ParallelCsvReader(final Charset charset, final Character separator, final Character quote) {
+        this(charset, separator, quote, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Reads CSV from files using the separator and quote characters in the specified ForkJoinPool.
+     *
+     * @param charset   the charset
+     * @param separator the separator character
+     * @param quote     the quote character
+     * @param pool      the pool to parse in
+     */
+    public ParallelCsvReader(final Charset charset, final Character separator, final Character quote,
+                             final ForkJoinPool pool) {
+        this.charset = charset;
+        this.separatorChar = separator;
+        this.quoteChar = quote == null ? CSV.QUOTE_DOUBLE : quote;
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the size in bytes of each range, or 0 when it is calculated from the file size.
+     *
+     * @return the chunk size
+     */
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Sets the size in bytes of each range. When 0 the size is calculated from the file size and parallelism.
+     *
+     * @param chunkSize the chunk size
+     */
+    public void setChunkSize(final long chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reads the file.
+     *
+     * @param file the file
+     * @param csv  the csv
+     * @throws CsvReaderException when the file could not be read
+     */
+    @Override
+    public void readFile(final File file, final CSV csv) throws CsvReaderException {
+        BOM bom = null;
+        if (charset == null) {
+            bom = BOM.findBom(file);
+            csv.setCharset(bom == null ? BOM.UTF8.getCharset() : bom.getCharset());
+        } else {
+            csv.setCharset(charset);
+        }
+        if (!ByteCsvTokenizer.supports(csv.getCharset(), quoteChar, separatorChar) || Gzip.isGzip(file)) {
+            new CsvReader(charset, separatorChar, quoteChar).readFile(file, csv);
+            return;
+        }
+        csv.setQuoteChar(quoteChar);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteCsvTokenizer tokenizer = new ByteCsvTokenizer(quoteChar, separatorChar);
+            long position = bom == null ? 0 : bom.getBytes().length;
+            MappedRecords header = new MappedRecords(channel, position, size,
+                    MappedCsvReader.DEFAULT_WINDOW_SIZE, tokenizer);
+            if (!header.next()) {
+                return;
+            }
+            for (int x = 0; x < tokenizer.getFieldCount(); x++) {
+                csv.addColumn(Column.parseName(tokenizer.getString(x, csv.getCharset())));
+            }
+            csv.setSeparator(tokenizer.getSeparator());
+            for (List<Row> rows : readChunks(channel, header.getPosition(), size, csv)) {
+                csv.addRows(rows);
+            }
+        } catch (IOException e) {
+            throw new CsvReaderException(file, e);
+        } catch (ExecutionException e) {
+            throw new CsvReaderException(file, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CsvReaderException(file, e);
+        }
+    }
+
+    /**
+     * Splits the data into ranges and parses them concurrently.
+     *
+     * @param channel the channel
+     * @param from    the offset of the first record after the header
+     * @param to      the size of the file
+     * @param csv     the csv with the columns
+     * @return the rows of each range in order
+     * @throws ExecutionException   when a range could not be parsed
+     * @throws InterruptedException when interrupted while waiting
+     */
+    private List<List<Row>> readChunks(final FileChannel channel, final long from, final long to, final CSV csv)
+            throws ExecutionException, InterruptedException {
+        long[] starts = split(from, to);
+        int count = starts.length - 1;
+        List<ForkJoinTask<Boundary>> scans = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long scanStart = i == 0 ? from : starts[i] - 1;
+            long scanEnd = i == count - 1 ? to : starts[i + 1] - 1;
+            scans.add(pool.submit(() -> scan(channel, scanStart, scanEnd)));
+        }
+        long[] boundaries = new long[count + 1];
+        boundaries[0] = from;
+        boundaries[count] = to;
+        long quotes = 0;
+        List<Boundary> found = new ArrayList<>(count);
+        for (ForkJoinTask<Boundary> scan : scans) {
+            found.add(scan.get());
+        }
+        for (int i = 0; i < count; i++) {
+            Boundary boundary = found.get(i);
+            if (i > 0) {
+                boundaries[i] = quotes % 2 == 0 ? boundary.even : boundary.odd;
+            }
+            quotes += boundary.quotes;
+        }
+        for (int i = count - 1; i > 0; i--) {
+            if (boundaries[i] == NOT_FOUND) {
+                boundaries[i] = boundaries[i + 1];
+            }
+        }
+        List<ForkJoinTask<List<Row>>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long start = boundaries[i];
+            long end = boundaries[i + 1];
+            tasks.add(pool.submit(() -> parse(channel, start, end, csv)));
+        }
+        List<List<Row>> chunks = new ArrayList<>(count);
+        for (ForkJoinTask<List<Row>> task : tasks) {
+            chunks.add(task.get());
+        }
+        return chunks;
+    }
+
+    /**
+     * Returns the start offset of each range followed by the end offset.
+     *
+     * @param from the first offset
+     * @param to   the last offset
+     * @return the offsets
+     */
+    private long[] split(final long from, final long to) {
+        long length = to - from;
+        long size = chunkSize;
+        if (size <= 0) {
+            size = Math.max(MIN_CHUNK_SIZE, length / ((long) pool.getParallelism() * CHUNKS_PER_THREAD));
+        }
+        size = Math.min(MAX_CHUNK_SIZE, size);
+        int count = (int) Math.max(1, (length + size - 1) / size);
+        long[] starts = new long[count + 1];
+        for (int i = 0; i < count; i++) {
+            starts[i] = from + i * size;
+        }
+        starts[count] = to;
+        return starts;
+    }
+
+    /**
+     * Counts the quotes in the range and finds the first line feed after an even and an odd number of quotes.
+     *
+     * @param channel the channel
+     * @param from    the first offset
+     * @param to      the offset after the last byte
+     * @return the boundary candidates
+     */
+    private Boundary scan(final FileChannel channel, final long from, final long to) {
+        Boundary boundary = new Boundary();
+        if (from >= to) {
+            return boundary;
+        }
+        MappedByteBuffer buffer = map(channel, from, to);
+        byte quote = (byte) quoteChar.charValue();
+        int length = (int) (to - from);
+        long quotes = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = buffer.get(i);
+            if (b == quote) {
+                quotes++;
+            } else if (b == CSV.LINEFEED) {
+                if (quotes % 2 == 0) {
+                    if (boundary.even == NOT_FOUND) {
+                        boundary.even = from + i + 1;
+                    }
+                } else if (boundary.odd == NOT_FOUND) {
+                    boundary.odd = from + i + 1;
+                }
+            }
+        }
+        boundary.quotes = quotes;
+        return boundary;
+    }
+
+    /**
+     * Parses the records in the range into rows.
+     *
+     * @param channel the channel
+     * @param from    the offset of the first record
+     * @param to      the offset after the last record
+     * @param csv     the csv with the columns
+     * @return the rows
+     */
+    private List<Row> parse(final FileChannel channel, final long from, final long to, final CSV csv) {
+        List<Row> rows = new ArrayList<>();
+        ByteCsvTokenizer tokenizer = new ByteCsvTokenizer(quoteChar, csv.getSeparatorChar(), false);
+        MappedRecords records = new MappedRecords(channel, from, to, MappedCsvReader.DEFAULT_WINDOW_SIZE,
+                tokenizer);
+        Column[] columns = csv.getColumns().toArray(new Column[0]);
+        RecordBlock block = null;
+        try {
+            while (records.next()) {
+                block = MappedCsvReader.nextBlock(block, columns, csv.getCharset(), tokenizer,
+                        to - records.getPosition());
+                rows.add(new Row(block, block.add(tokenizer.getBytes(), tokenizer.getEnds(),
+                        tokenizer.getFieldCount())));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    /**
+     * Maps the range of the file.
+     *
+     * @param channel the channel
+     * @param from    the first offset
+     * @param to      the offset after the last byte
+     * @return the buffer
+     */
+    private static MappedByteBuffer map(final FileChannel channel, final long from, final long to) {
+        try {
+            return channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * The quote count of a range and its first record boundary for each quote parity before the range.
+     */
+    private static final class Boundary {
+
+        /**
+         * The offset after the first line feed preceded by an even number of quotes in the range.
+         */
+        private long even = NOT_FOUND;
+        /**
+         * The offset after the first line feed preceded by an odd number of quotes in the range.
+         */
+        private long odd = NOT_FOUND;
+        /**
+         * The number of quotes in the range.
+         */
+        private long quotes;
+    }
+}
@@ -0,0 +1,85 @@
+package no.laukvik.csv.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Keeps the records a lenient CsvReader could not read, and fails the read when there are more than the budget.
+ *
+ * <p>Records are only checked for their field count before they are parsed, which is a single comparison. Values
+ * that fail to parse are caught around the whole row, so rows without errors pay nothing for the check.</p>
+ */
+final class Quarantine {
+
+    /**
+     * The maximum amount of malformed rows.
+     */
+    private final int budget;
+    /**
+     * The amount of fields expected in each record.
+     */
+    private final int fieldCount;
+    /**
+     * The line number of the record before the first record read, or of the checkpoint.
+     */
+    private final int firstLine;
+    /**
+     * The malformed rows.
+     */
+    private final List<MalformedRow> rows = new ArrayList<>();
+
+    /**
+     * Creates an empty quarantine.
+     *
+     * @param budget     the maximum amount of malformed rows
+     * @param fieldCount the amount of fields expected in each record
+     * @param firstLine  the amount of records before the tokenizer started counting lines
+     */
+    Quarantine(final int budget, final int fieldCount, final int firstLine) {
+        this.budget = budget;
+        this.fieldCount = fieldCount;
+        this.firstLine = firstLine;
+    }
+
+    /**
+     * Returns whether the current record of the tokenizer has the expected amount of fields, and quarantines it
+     * when it does not.
+     *
+     * @param tokenizer the tokenizer holding the record
+     * @return true when the record can be read
+     * @throws IOException when the budget is exceeded
+     */
+    boolean accepts(final CsvTokenizer tokenizer) throws IOException {
+        if (tokenizer.getFieldCount() == fieldCount) {
+            return true;
+        }
+        add(tokenizer, "Expected " + fieldCount + " fields but found " + tokenizer.getFieldCount());
+        return false;
+    }
+
+    /**
+     * Quarantines the current record of the tokenizer.
+     *
+     * @param tokenizer the tokenizer holding the record
+     * @param reason    why the record could not be read
+     * @throws IOException when the budget is exceeded
+     */
+    void add(final CsvTokenizer tokenizer, final String reason) throws IOException {
+        MalformedRow row = new MalformedRow(firstLine + tokenizer.getLineCounter(), tokenizer.getRecord(), reason);
+        if (rows.size() >= budget) {
+            throw new IOException("More than " + budget + " malformed rows. " + row);
+        }
+        rows.add(row);
+    }
+
+    /**
+     * Returns the malformed rows.
+     *
+     * @return the malformed rows
+     */
+    List<MalformedRow> getRows() {
+        return Collections.unmodifiableList(rows);
+    }
+}
@@ -0,0 +1,273 @@
+package no.laukvik.csv.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Reads ahead from a channel on a separate thread while the bytes are consumed.
+ *
+ * <p>A producer thread fills a fixed ring of buffers from the channel and hands them over through a bounded queue.
+ * Consumed buffers are given back to the producer and reused, so the producer is never more than the ring ahead of
+ * the consumer. The time spent by the producer reading and by the consumer waiting for bytes are measured, which
+ * tells whether reading or consuming is the slower of the two.</p>
+ */
+final class ReadAheadInputStream extends InputStream implements Metered {
+
+    /**
+     * The default size in bytes of each buffer.
+     */
+    static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    /**
+     * The default amount of buffers in the ring.
+     */
+    static final int DEFAULT_BUFFER_COUNT = 4;
+    /**
+     * Marks the end of the channel in the queue of filled buffers.
+     */
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    /**
+     * The channel to read from.
+     */
+    private final ReadableByteChannel channel;
+    /**
+     * The buffers that are ready to be filled.
+     */
+    private final BlockingQueue<ByteBuffer> free;
+    /**
+     * The buffers that are filled and ready to be consumed.
+     */
+    private final BlockingQueue<ByteBuffer> filled;
+    /**
+     * The thread filling the buffers.
+     */
+    private final Thread producer;
+    /**
+     * The buffer being consumed or null.
+     */
+    private ByteBuffer current;
+    /**
+     * The failure of the producer or null.
+     */
+    private volatile IOException failure;
+    /**
+     * Whether the end of the channel has been consumed.
+     */
+    private boolean endOfStream;
+    /**
+     * Whether the stream is closed.
+     */
+    private volatile boolean closed;
+    /**
+     * The nanoseconds the producer spent reading from the channel.
+     */
+    private volatile long readNanos;
+    /**
+     * The nanoseconds the consumer spent waiting for filled buffers.
+     */
+    private long waitNanos;
+    /**
+     * The amount of bytes consumed.
+     */
+    private long byteCount;
+
+    /**
+     * Starts reading ahead from the channel.
+     *
+     * @param channel     the channel to read from
+     * @param bufferSize  the size in bytes of each buffer
+     * @param bufferCount the amount of buffers in the ring
+     * @param direct      whether to use direct buffers
+     * @param name        the name of the producer thread
+     */
+    ReadAheadInputStream(final ReadableByteChannel channel, final int bufferSize, final int bufferCount,
+                         final boolean direct, final String name) {
+        if (bufferSize < 1 || bufferCount < 1) {
+            throw new IllegalArgumentException("Buffer size and count must be positive");
+        }
+        this.channel = channel;
+        this.free = new ArrayBlockingQueue<>(bufferCount);
+        this.filled = new ArrayBlockingQueue<>(bufferCount + 1);
+        for (int i = 0; i < bufferCount; i++) {
+            free.add(direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize));
+        }
+        this.producer = new Thread(this::produce, name);
+        this.producer.setDaemon(true);
+        this.producer.start();
+    }
+
+    /**
+     * Fills free buffers from the channel until the end of it is reached.
+     */
+    private void produce() {
+        try {
+            boolean end = false;
+            while (!end && !closed) {
+                ByteBuffer buffer = free.take();
+                buffer.clear();
+                long start = System.nanoTime();
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer) < 0) {
+                        end = true;
+                        break;
+                    }
+                }
+                readNanos += System.nanoTime() - start;
+                buffer.flip();
+                if (buffer.hasRemaining()) {
+                    filled.put(buffer);
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        } catch (InterruptedException e) {
+            failure = new InterruptedIOException("Read ahead was interrupted");
+        } finally {
+            filled.offer(END);
+        }
+    }
+
+    /**
+     * Returns the next buffer with remaining bytes or null at the end of the channel.
+     *
+     * @return the buffer or null
+     * @throws IOException when the channel could not be read
+     */
+    private ByteBuffer next() throws IOException {
+        if (current != null && current.hasRemaining()) {
+            return current;
+        }
+        if (endOfStream) {
+            return null;
+        }
+        if (current != null) {
+            free.offer(current);
+            current = null;
+        }
+        ByteBuffer buffer = filled.poll();
+        if (buffer == null) {
+            long start = System.nanoTime();
+            try {
+                buffer = filled.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for bytes");
+            } finally {
+                waitNanos += System.nanoTime() - start;
+            }
+        }
+        if (buffer == END) {
+            endOfStream = true;
+            if (failure != null) {
+                throw failure;
+            }
+            return null;
+        }
+        current = buffer;
+        return current;
+    }
+
+    /**
+     * Reads the next byte.
+     *
+     * @return the byte or -1 at the end of the stream
+     * @throws IOException when the channel could not be read
+     */
+    @Override
+    public int read() throws IOException {
+        ByteBuffer buffer = next();
+        if (buffer == null) {
+            return -1;
+        }
+        byteCount++;
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Reads bytes into the array.
+     *
+     * @param bytes  the array
+     * @param offset the offset of the first byte
+     * @param length the maximum amount of bytes
+     * @return the amount of bytes read or -1 at the end of the stream
+     * @throws IOException when the channel could not be read
+     */
+    @Override
+    public int read(final byte[] bytes, final int offset, final int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = next();
+        if (buffer == null) {
+            return -1;
+        }
+        int count = Math.min(length, buffer.remaining());
+        buffer.get(bytes, offset, count);
+        byteCount += count;
+        return count;
+    }
+
+    /**
+     * Returns the amount of bytes that can be read without waiting.
+     *
+     * @return the amount of bytes
+     */
+    @Override
+    public int available() {
+        return current == null ? 0 : current.remaining();
+    }
+
+    /**
+     * Returns the nanoseconds the producer has spent reading from the channel.
+     *
+     * @return the nanoseconds
+     */
+    long getReadNanos() {
+        return readNanos;
+    }
+
+    /**
+     * Returns the nanoseconds spent waiting for the producer to fill a buffer.
+     *
+     * @return the nanoseconds
+     */
+    @Override
+    public long getWaitNanos() {
+        return waitNanos;
+    }
+
+    /**
+     * Returns the amount of bytes consumed.
+     *
+     * @return the amount of bytes
+     */
+    @Override
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * Stops the producer and closes the channel.
+     *
+     * @throws IOException when the channel could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        producer.interrupt();
+        try {
+            producer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+}
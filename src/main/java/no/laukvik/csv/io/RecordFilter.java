@@ -0,0 +1,90 @@
+package no.laukvik.csv.io;
+
+import no.laukvik.csv.columns.Column;
+import no.laukvik.csv.query.Query;
+import no.laukvik.csv.query.ValueMatcher;
+
+import java.util.List;
+
+/**
+ * Evaluates the matchers of a Query against the current record of a CsvTokenizer before any row is created.
+ *
+ * <p>Each matcher is bound to the field in the file with the same name as its column, and the field is parsed by the
+ * column of the matcher. The matchers are evaluated in order and the first one that fails rejects the record, so
+ * only the fields needed to decide are parsed. Matchers whose column is not in the file see null values.</p>
+ */
+final class RecordFilter {
+
+    /**
+     * Indicates that the column of a matcher is not in the file.
+     */
+    private static final int MISSING = -1;
+
+    /**
+     * The matchers of the query.
+     */
+    private final ValueMatcher[] matchers;
+    /**
+     * The field index of each matcher.
+     */
+    private final int[] fields;
+
+    /**
+     * Binds the matchers of the query to the fields with the same names in the header.
+     *
+     * @param query   the query
+     * @param columns the columns of the header in the order of the fields
+     */
+    RecordFilter(final Query query, final List<Column> columns) {
+        List<ValueMatcher> list = query.getMatchers();
+        this.matchers = list.toArray(new ValueMatcher[0]);
+        this.fields = new int[matchers.length];
+        for (int i = 0; i < matchers.length; i++) {
+            fields[i] = MISSING;
+            String name = matchers[i].getColumn().getName();
+            for (int x = 0; x < columns.size() && fields[i] == MISSING; x++) {
+                if (columns.get(x).getName().equals(name)) {
+                    fields[i] = x;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether the field is used by any of the matchers.
+     *
+     * @param field the field index
+     * @return true when the field is needed to evaluate the query
+     */
+    boolean uses(final int field) {
+        for (int f : fields) {
+            if (f == field) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the current record of the tokenizer matches all matchers.
+     *
+     * @param tokenizer the tokenizer holding the record
+     * @return true when the record matches
+     */
+    @SuppressWarnings("unchecked")
+    boolean accepts(final CsvTokenizer tokenizer) {
+        for (int i = 0; i < matchers.length; i++) {
+            int field = fields[i];
+            Column column = matchers[i].getColumn();
+            Object value = null;
+            if (field != MISSING && field < tokenizer.getFieldCount()) {
+                int start = tokenizer.getStart(field);
+                value = column.parse(tokenizer.getChars(), start, tokenizer.getEnd(field) - start);
+            }
+            if (!matchers[i].matches(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
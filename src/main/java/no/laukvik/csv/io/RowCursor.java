@@ -0,0 +1,289 @@
+package no.laukvik.csv.io;
+
+import no.laukvik.csv.columns.NumberParser;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Moves through the records of a file one at a time without creating rows.
+ *
+ * <p>The fields of the current record are kept in a buffer that is reused for every record. The typed getters parse
+ * the values straight from the buffer, so scanning a file allocates nothing per record once the buffers have grown
+ * to fit the largest record.</p>
+ * <pre>{@code
+ *     CSV csv = new CSV();
+ *     long sum = 0;
+ *     try (RowCursor cursor = new CsvReader(null, null, null).readFileCursor(file, csv)) {
+ *         int column = csv.indexOf("Amount");
+ *         while (cursor.next()) {
+ *             sum += cursor.getLong(column);
+ *         }
+ *     }
+ * }</pre>
+ *
+ * <p>Values returned by getCharSequence are only valid until the next call to next.</p>
+ */
+public final class RowCursor implements Closeable {
+
+    /**
+     * The file being read.
+     */
+    private final File file;
+    /**
+     * The tokenizer holding the current record.
+     */
+    private final CsvTokenizer tokenizer;
+    /**
+     * The index of the field for each column, or null when all fields are read.
+     */
+    private final int[] columnFields;
+    /**
+     * The filter of the records or null when all records are read.
+     */
+    private final RecordFilter filter;
+    /**
+     * The reusable views of each field.
+     */
+    private FieldSequence[] sequences;
+
+    /**
+     * Creates a new cursor for the tokenizer positioned after the header.
+     *
+     * @param file         the file being read
+     * @param tokenizer    the tokenizer
+     * @param columnFields the index of the field for each column, or null when all fields are read
+     * @param filter       the filter of the records or null
+     */
+    RowCursor(final File file, final CsvTokenizer tokenizer, final int[] columnFields, final RecordFilter filter) {
+        this.file = file;
+        this.tokenizer = tokenizer;
+        this.columnFields = columnFields;
+        this.filter = filter;
+        this.sequences = new FieldSequence[0];
+    }
+
+    /**
+     * Moves to the next record, skipping the records that do not match the query of the reader.
+     *
+     * @return true when a record was read
+     * @throws CsvReaderException when the file could not be read
+     */
+    public boolean next() throws CsvReaderException {
+        try {
+            while (tokenizer.next()) {
+                if (filter == null || filter.accepts(tokenizer)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            throw new CsvReaderException(file, e);
+        }
+    }
+
+    /**
+     * Returns the amount of columns in the current record.
+     *
+     * @return the amount of columns
+     */
+    public int getFieldCount() {
+        if (columnFields == null) {
+            return tokenizer.getFieldCount();
+        }
+        int count = 0;
+        while (count < columnFields.length && columnFields[count] < tokenizer.getFieldCount()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Returns whether the field is missing or has no characters.
+     *
+     * @param column the column index
+     * @return true when empty
+     */
+    public boolean isEmpty(final int column) {
+        int field = getField(column);
+        return field >= tokenizer.getFieldCount() || getLength(field) == 0;
+    }
+
+    /**
+     * Returns the value of the field as an int.
+     *
+     * @param column the column index
+     * @return the value
+     * @throws NumberFormatException when the field is not an int
+     */
+    public int getInt(final int column) {
+        int field = getField(column);
+        return NumberParser.parseInt(tokenizer.getChars(), tokenizer.getStart(field), getLength(field));
+    }
+
+    /**
+     * Returns the value of the field as a long.
+     *
+     * @param column the column index
+     * @return the value
+     * @throws NumberFormatException when the field is not a long
+     */
+    public long getLong(final int column) {
+        int field = getField(column);
+        return NumberParser.parseLong(tokenizer.getChars(), tokenizer.getStart(field), getLength(field));
+    }
+
+    /**
+     * Returns the value of the field as a double.
+     *
+     * @param column the column index
+     * @return the value
+     * @throws NumberFormatException when the field is not a double
+     */
+    public double getDouble(final int column) {
+        int field = getField(column);
+        return NumberParser.parseDouble(tokenizer.getChars(), tokenizer.getStart(field), getLength(field));
+    }
+
+    /**
+     * Returns the value of the field as a float.
+     *
+     * @param column the column index
+     * @return the value
+     * @throws NumberFormatException when the field is not a float
+     */
+    public float getFloat(final int column) {
+        int field = getField(column);
+        return NumberParser.parseFloat(tokenizer.getChars(), tokenizer.getStart(field), getLength(field));
+    }
+
+    /**
+     * Returns the characters of the field without copying them. The returned sequence is reused and reflects the
+     * same column of the next record after next is called.
+     *
+     * @param column the column index
+     * @return the characters
+     */
+    public CharSequence getCharSequence(final int column) {
+        if (getField(column) >= tokenizer.getFieldCount()) {
+            throw new IndexOutOfBoundsException("Column " + column);
+        }
+        if (column >= sequences.length) {
+            int size = sequences.length;
+            sequences = Arrays.copyOf(sequences, column + 1);
+            for (int x = size; x < sequences.length; x++) {
+                sequences[x] = new FieldSequence(getField(x));
+            }
+        }
+        return sequences[column];
+    }
+
+    /**
+     * Returns the value of the field as a new String.
+     *
+     * @param column the column index
+     * @return the value
+     */
+    public String getString(final int column) {
+        return tokenizer.getString(getField(column));
+    }
+
+    /**
+     * Returns the index of the field in the record for the column.
+     *
+     * @param column the column index
+     * @return the field index
+     */
+    private int getField(final int column) {
+        return columnFields == null ? column : columnFields[column];
+    }
+
+    /**
+     * Returns the amount of characters in the field.
+     *
+     * @param field the field index
+     * @return the amount of characters
+     */
+    private int getLength(final int field) {
+        return tokenizer.getEnd(field) - tokenizer.getStart(field);
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException when the file could not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        tokenizer.close();
+    }
+
+    /**
+     * A view of the characters of one field in the current record.
+     */
+    private final class FieldSequence implements CharSequence {
+
+        /**
+         * The field index.
+         */
+        private final int field;
+
+        /**
+         * Creates a view of the field.
+         *
+         * @param field the field index
+         */
+        FieldSequence(final int field) {
+            this.field = field;
+        }
+
+        /**
+         * Returns the amount of characters.
+         *
+         * @return the length
+         */
+        @Override
+        public int length() {
+            return field < tokenizer.getFieldCount() ? getLength(field) : 0;
+        }
+
+        /**
+         * Returns the character at the index.
+         *
+         * @param index the index
+         * @return the character
+         */
+        @Override
+        public char charAt(final int index) {
+            if (index < 0 || index >= length()) {
+                throw new IndexOutOfBoundsException("Index " + index);
+            }
+            return tokenizer.getChars()[tokenizer.getStart(field) + index];
+        }
+
+        /**
+         * Returns a copy of the characters between the indexes.
+         *
+         * @param start the first index
+         * @param end   the index after the last character
+         * @return the characters
+         */
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            return toString().substring(start, end);
+        }
+
+        /**
+         * Returns a copy of the characters.
+         *
+         * @return the characters
+         */
+        @Override
+        public String toString() {
+            int length = length();
+            return length == 0 ? "" : new String(tokenizer.getChars(), tokenizer.getStart(field), length);
+        }
+    }
+}
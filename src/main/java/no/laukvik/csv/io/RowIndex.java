@@ -0,0 +1,423 @@
+package no.laukvik.csv.io;
+
+import no.laukvik.csv.CSV;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * The byte offset of every Nth row of a file, which lets a row be read without parsing the rows before it.
+ *
+ * <p>The index is built by scanning the bytes of the file for line feeds outside of quotes, without decoding or
+ * parsing any values. It is kept in a sidecar file next to the file together with the size and modification time of
+ * the file, and built again when either of them has changed. The offsets are stored as variable length
+ * differences, so an index of every 1024th row takes a few bytes per thousand rows.</p>
+ * <pre>{@code
+ *     RowIndex index = RowIndex.open(file, StandardCharsets.UTF_8, CSV.QUOTE_DOUBLE, RowIndex.DEFAULT_INTERVAL);
+ *     long offset = index.getOffset(40000000);
+ * }</pre>
+ *
+ * <p>The file must be in a charset where the line feed and the quote are single bytes, like UTF-8 or ISO-8859-1,
+ * and can not be compressed.</p>
+ *
+ * @see IndexedCsvReader
+ */
+public final class RowIndex {
+
+    /**
+     * The default amount of rows between each offset in the index.
+     */
+    public static final int DEFAULT_INTERVAL = 1024;
+    /**
+     * The extension added to the name of the file to get the name of the sidecar file.
+     */
+    public static final String EXTENSION = ".idx";
+    /**
+     * The first bytes of a sidecar file.
+     */
+    private static final int MAGIC = 0x43535649;
+    /**
+     * The version of the sidecar format.
+     */
+    private static final int VERSION = 1;
+    /**
+     * The size of the buffer used to scan the file.
+     */
+    private static final int SCAN_BUFFER_SIZE = 1 << 16;
+
+    /**
+     * The size in bytes of the file when indexed.
+     */
+    private final long fileLength;
+    /**
+     * The modification time of the file when indexed.
+     */
+    private final long lastModified;
+    /**
+     * The name of the charset of the file.
+     */
+    private final String charsetName;
+    /**
+     * The quote character.
+     */
+    private final char quote;
+    /**
+     * The amount of rows between each offset.
+     */
+    private final int interval;
+    /**
+     * The amount of rows after the header.
+     */
+    private final int rowCount;
+    /**
+     * The offset in bytes after the header.
+     */
+    private final long headerEnd;
+    /**
+     * The offset in bytes of every interval row.
+     */
+    private final long[] offsets;
+
+    /**
+     * Creates an index.
+     *
+     * @param fileLength   the size in bytes of the file when indexed
+     * @param lastModified the modification time of the file when indexed
+     * @param charsetName  the name of the charset of the file
+     * @param quote        the quote character
+     * @param interval     the amount of rows between each offset
+     * @param rowCount     the amount of rows after the header
+     * @param headerEnd    the offset in bytes after the header
+     * @param offsets      the offset in bytes of every interval row
+     */
+    private RowIndex(final long fileLength, final long lastModified, final String charsetName, final char quote,
+                     final int interval, final int rowCount, final long headerEnd, final long[] offsets) {
+        this.fileLength = fileLength;
+        this.lastModified = lastModified;
+        this.charsetName = charsetName;
+        this.quote = quote;
+        this.interval = interval;
+        this.rowCount = rowCount;
+        this.headerEnd = headerEnd;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Returns the sidecar file of the index of the file.
+     *
+     * @param file the file
+     * @return the sidecar file
+     */
+    public static File getSidecar(final File file) {
+        return new File(file.getPath() + EXTENSION);
+    }
+
+    /**
+     * Returns the index of the file from its sidecar file, or builds it and writes the sidecar file when it is
+     * missing, was made with other settings or the file has changed since. The index is still returned when the
+     * sidecar file can not be written.
+     *
+     * @param file     the file
+     * @param charset  the charset of the file
+     * @param quote    the quote character
+     * @param interval the amount of rows between each offset
+     * @return the index
+     * @throws IOException when the file could not be read
+     */
+    public static RowIndex open(final File file, final Charset charset, final char quote, final int interval)
+            throws IOException {
+        File sidecar = getSidecar(file);
+        if (sidecar.exists()) {
+            try {
+                RowIndex index = load(sidecar);
+                if (index.isCurrent(file) && index.interval == interval && index.quote == quote
+                        && index.charsetName.equals(charset.name())) {
+                    return index;
+                }
+            } catch (IOException e) {
+                // Built again below
+            }
+        }
+        RowIndex index = build(file, charset, quote, interval);
+        try {
+            index.write(sidecar);
+        } catch (IOException e) {
+            // The index is only kept in memory
+        }
+        return index;
+    }
+
+    /**
+     * Builds the index by scanning the file.
+     *
+     * @param file     the file
+     * @param charset  the charset of the file
+     * @param quote    the quote character
+     * @param interval the amount of rows between each offset
+     * @return the index
+     * @throws IOException when the file could not be read
+     */
+    public static RowIndex build(final File file, final Charset charset, final char quote, final int interval)
+            throws IOException {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Interval must be positive");
+        }
+        byte quoteByte = getQuoteByte(charset, quote);
+        if (Gzip.isGzip(file)) {
+            throw new IOException("Can not index compressed file " + file.getName());
+        }
+        long lastModified = file.lastModified();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+            byte[] bytes = buffer.array();
+            long[] offsets = new long[16];
+            int offsetCount = 0;
+            int records = size > 0 ? 1 : 0;
+            long headerEnd = size;
+            boolean withinQuote = false;
+            long position = 0;
+            while (position < size) {
+                buffer.clear();
+                int count = channel.read(buffer, position);
+                if (count <= 0) {
+                    break;
+                }
+                for (int i = 0; i < count; i++) {
+                    if (bytes[i] == quoteByte) {
+                        withinQuote = !withinQuote;
+                    } else if (bytes[i] == CSV.LINEFEED && !withinQuote) {
+                        long start = position + i + 1;
+                        if (records == 1) {
+                            headerEnd = start;
+                        }
+                        if (start < size) {
+                            int row = records - 1;
+                            if (row % interval == 0) {
+                                if (offsetCount == offsets.length) {
+                                    offsets = Arrays.copyOf(offsets, offsetCount * 2);
+                                }
+                                offsets[offsetCount++] = start;
+                            }
+                            records++;
+                        }
+                    }
+                }
+                position += count;
+            }
+            return new RowIndex(size, lastModified, charset.name(), quote, interval, Math.max(0, records - 1),
+                    headerEnd, Arrays.copyOf(offsets, offsetCount));
+        }
+    }
+
+    /**
+     * Returns the byte of the quote character in the charset.
+     *
+     * @param charset the charset
+     * @param quote   the quote character
+     * @return the byte
+     * @throws IOException when the line feed or quote are not single bytes in the charset
+     */
+    private static byte getQuoteByte(final Charset charset, final char quote) throws IOException {
+        byte[] bytes = new String(new char[]{CSV.LINEFEED, quote}).getBytes(charset);
+        if (quote > Byte.MAX_VALUE || bytes.length != 2 || bytes[0] != CSV.LINEFEED || bytes[1] != quote) {
+            throw new IOException("Can not index file in " + charset.name());
+        }
+        return bytes[1];
+    }
+
+    /**
+     * Reads the index from the sidecar file.
+     *
+     * @param sidecar the sidecar file
+     * @return the index
+     * @throws IOException when the sidecar file could not be read or is not an index
+     */
+    public static RowIndex load(final File sidecar) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(
+                sidecar.toPath())))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a row index " + sidecar.getName());
+            }
+            long fileLength = in.readLong();
+            long lastModified = in.readLong();
+            String charsetName = in.readUTF();
+            char quote = in.readChar();
+            int interval = in.readInt();
+            int rowCount = in.readInt();
+            long headerEnd = in.readLong();
+            if (interval < 1 || rowCount < 0) {
+                throw new IOException("Corrupt row index " + sidecar.getName());
+            }
+            long[] offsets = new long[(int) ((rowCount + (long) interval - 1) / interval)];
+            long offset = headerEnd;
+            for (int i = 0; i < offsets.length; i++) {
+                offset += readVarLong(in);
+                offsets[i] = offset;
+            }
+            return new RowIndex(fileLength, lastModified, charsetName, quote, interval, rowCount, headerEnd,
+                    offsets);
+        }
+    }
+
+    /**
+     * Writes the index to the sidecar file.
+     *
+     * @param sidecar the sidecar file
+     * @throws IOException when the sidecar file could not be written
+     */
+    public void write(final File sidecar) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(
+                sidecar.toPath())))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(fileLength);
+            out.writeLong(lastModified);
+            out.writeUTF(charsetName);
+            out.writeChar(quote);
+            out.writeInt(interval);
+            out.writeInt(rowCount);
+            out.writeLong(headerEnd);
+            long previous = headerEnd;
+            for (long offset : offsets) {
+                writeVarLong(out, offset - previous);
+                previous = offset;
+            }
+        }
+    }
+
+    /**
+     * Writes a non negative value in groups of seven bits, lowest first.
+     *
+     * @param out   the output
+     * @param value the value
+     * @throws IOException when the value could not be written
+     */
+    private static void writeVarLong(final DataOutputStream out, final long value) throws IOException {
+        long remaining = value;
+        while ((remaining & ~0x7FL) != 0) {
+            out.writeByte((int) (remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte((int) remaining);
+    }
+
+    /**
+     * Reads a value written by writeVarLong.
+     *
+     * @param in the input
+     * @return the value
+     * @throws IOException when the value could not be read
+     */
+    private static long readVarLong(final DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt row index");
+    }
+
+    /**
+     * Returns whether the file has the same size and modification time as when it was indexed.
+     *
+     * @param file the file
+     * @return true when the index is still valid for the file
+     */
+    public boolean isCurrent(final File file) {
+        return file.length() == fileLength && file.lastModified() == lastModified;
+    }
+
+    /**
+     * Returns the amount of rows after the header.
+     *
+     * @return the amount of rows
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the amount of rows between each offset in the index.
+     *
+     * @return the amount of rows
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Returns the charset of the file.
+     *
+     * @return the charset
+     */
+    public Charset getCharset() {
+        return Charset.forName(charsetName);
+    }
+
+    /**
+     * Returns the quote character.
+     *
+     * @return the quote character
+     */
+    public char getQuote() {
+        return quote;
+    }
+
+    /**
+     * Returns the offset in bytes after the header, where the first row starts.
+     *
+     * @return the offset
+     */
+    public long getHeaderEnd() {
+        return headerEnd;
+    }
+
+    /**
+     * Returns the row of the last offset in the index at or before the row.
+     *
+     * @param row the row index
+     * @return the row index of the offset
+     */
+    public int getIndexedRow(final int row) {
+        checkRow(row);
+        return row - row % interval;
+    }
+
+    /**
+     * Returns the offset in bytes of the last row in the index at or before the row. The rows between are parsed
+     * and skipped to reach the row.
+     *
+     * @param row the row index
+     * @return the offset
+     * @see #getIndexedRow(int)
+     */
+    public long getOffset(final int row) {
+        checkRow(row);
+        return offsets[row / interval];
+    }
+
+    /**
+     * Throws an exception when the row is not in the index.
+     *
+     * @param row the row index
+     */
+    private void checkRow(final int row) {
+        if (row < 0 || row >= rowCount) {
+            throw new IndexOutOfBoundsException("Row " + row + " is not within 0 and " + rowCount);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package no.laukvik.csv.io;
+
+import no.laukvik.csv.Row;
+
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Publishes the rows of a lazily parsed stream to a single subscriber, parsing only as many rows as requested.
+ *
+ * <p>The stream is opened when the subscriber first requests rows, and each row is parsed when the subscriber
+ * has demand for it. Without demand nothing is parsed and the file is not read further. The rows are parsed on the
+ * executor, or on the thread requesting them when no executor is given, and never on more than one thread at a
+ * time. The stream is closed when all rows are published, on failure and when the subscription is cancelled.</p>
+ * <pre>{@code
+ *     Flow.Publisher<Row> rows = new CsvReader(null, null, null).readFilePublisher(file, csv, executor);
+ *     rows.subscribe(subscriber);
+ * }</pre>
+ */
+public final class RowPublisher implements Flow.Publisher<Row> {
+
+    /**
+     * Opens the stream of rows.
+     */
+    private final Callable<Stream<Row>> source;
+    /**
+     * The executor to parse the rows in.
+     */
+    private final Executor executor;
+    /**
+     * Whether a subscriber has subscribed.
+     */
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    /**
+     * Publishes the rows, parsing them on the thread requesting them.
+     *
+     * @param source opens the stream of rows
+     */
+    public RowPublisher(final Callable<Stream<Row>> source) {
+        this(source, Runnable::run);
+    }
+
+    /**
+     * Publishes the rows, parsing them in the executor.
+     *
+     * @param source   opens the stream of rows
+     * @param executor the executor to parse the rows in
+     */
+    public RowPublisher(final Callable<Stream<Row>> source, final Executor executor) {
+        this.source = source;
+        this.executor = executor;
+    }
+
+    /**
+     * Subscribes to the rows. Only one subscriber is supported, since the stream is read once.
+     *
+     * @param subscriber the subscriber
+     */
+    @Override
+    public void subscribe(final Flow.Subscriber<? super Row> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber is null");
+        }
+        boolean first = subscribed.compareAndSet(false, true);
+        RowSubscription subscription = new RowSubscription(subscriber, source, executor,
+                first ? null : new IllegalStateException("The rows are already subscribed to"));
+        subscriber.onSubscribe(subscription);
+        if (!first) {
+            subscription.schedule();
+        }
+    }
+
+    /**
+     * Publishes the rows of the stream to the subscriber as they are requested.
+     */
+    private static final class RowSubscription implements Flow.Subscription, Runnable {
+
+        /**
+         * The subscriber.
+         */
+        private final Flow.Subscriber<? super Row> subscriber;
+        /**
+         * Opens the stream of rows.
+         */
+        private final Callable<Stream<Row>> source;
+        /**
+         * The executor to parse the rows in.
+         */
+        private final Executor executor;
+        /**
+         * The amount of rows requested and not yet published.
+         */
+        private final AtomicLong requested = new AtomicLong();
+        /**
+         * The amount of times the rows must be drained, which makes only one thread drain at a time.
+         */
+        private final AtomicInteger pending = new AtomicInteger();
+        /**
+         * Whether the subscription is cancelled.
+         */
+        private volatile boolean cancelled;
+        /**
+         * The failure to signal to the subscriber or null.
+         */
+        private volatile Throwable failure;
+        /**
+         * Whether the subscriber has been signalled completion, failure or cancellation.
+         */
+        private boolean done;
+        /**
+         * The stream of rows or null when not opened.
+         */
+        private Stream<Row> stream;
+        /**
+         * The iterator of the stream.
+         */
+        private Iterator<Row> rows;
+
+        /**
+         * Creates a subscription.
+         *
+         * @param subscriber the subscriber
+         * @param source     opens the stream of rows
+         * @param executor   the executor to parse the rows in
+         * @param failure    the failure to signal instead of rows or null
+         */
+        RowSubscription(final Flow.Subscriber<? super Row> subscriber, final Callable<Stream<Row>> source,
+                        final Executor executor, final Throwable failure) {
+            this.subscriber = subscriber;
+            this.source = source;
+            this.executor = executor;
+            this.failure = failure;
+        }
+
+        /**
+         * Requests more rows. The demand is unbounded once it reaches Long.MAX_VALUE.
+         *
+         * @param n the amount of rows
+         */
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("Must request a positive amount of rows but was " + n));
+                return;
+            }
+            long current;
+            long next;
+            do {
+                current = requested.get();
+                next = current + n < 0 ? Long.MAX_VALUE : current + n;
+            } while (!requested.compareAndSet(current, next));
+            schedule();
+        }
+
+        /**
+         * Stops publishing rows and closes the stream.
+         */
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        /**
+         * Signals the failure to the subscriber instead of more rows.
+         *
+         * @param throwable the failure
+         */
+        private void fail(final Throwable throwable) {
+            failure = throwable;
+            schedule();
+        }
+
+        /**
+         * Drains the rows in the executor unless they are being drained already.
+         */
+        void schedule() {
+            if (pending.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    failure = e;
+                    run();
+                }
+            }
+        }
+
+        /**
+         * Drains the rows until no more requests are pending.
+         */
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                drain();
+                missed = pending.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Publishes as many rows as requested, and completes when the stream has no more rows.
+         */
+        private void drain() {
+            if (done) {
+                return;
+            }
+            try {
+                long demand = requested.get();
+                long published = 0;
+                while (true) {
+                    if (cancelled) {
+                        finish();
+                        return;
+                    }
+                    Throwable throwable = failure;
+                    if (throwable != null) {
+                        finish();
+                        subscriber.onError(throwable);
+                        return;
+                    }
+                    if (published == demand) {
+                        break;
+                    }
+                    if (rows == null) {
+                        stream = source.call();
+                        rows = stream.iterator();
+                    }
+                    if (!rows.hasNext()) {
+                        finish();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    subscriber.onNext(rows.next());
+                    published++;
+                }
+                if (demand != Long.MAX_VALUE) {
+                    requested.addAndGet(-published);
+                }
+            } catch (UncheckedIOException e) {
+                finish();
+                subscriber.onError(e.getCause());
+            } catch (Exception e) {
+                finish();
+                subscriber.onError(e);
+            }
+        }
+
+        /**
+         * Marks the subscription as done and closes the stream.
+         */
+        private void finish() {
+            done = true;
+            if (stream != null) {
+                try {
+                    stream.close();
+                } catch (UncheckedIOException e) {
+                    // The rows are published already
+                }
+                stream = null;
+                rows = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package no.laukvik.csv.io;
+
+import no.laukvik.csv.CSV;
+import no.laukvik.csv.Row;
+import no.laukvik.csv.columns.Column;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads a data set split into many files with the same header, such as part-0000.csv, part-0001.csv and so on.
+ *
+ * <p>The files are found in a directory by a glob pattern and sorted by name. The header of the first file is read
+ * into the CSV, and the files are then parsed concurrently by CsvReader on an executor with a bounded amount of
+ * threads. Each file must have the same column names as the first one. The rows are added to the CSV in the order
+ * of the files, or in the order the files are finished when the order does not matter, which lets the rows of a
+ * file be added while slower files are still being parsed.</p>
+ * <pre>{@code
+ *     CSV csv = new CSV();
+ *     csv.readFile(new File("exports"), new ShardedCsvReader(StandardCharsets.UTF_8, null, null));
+ * }</pre>
+ */
+public final class ShardedCsvReader implements DatasetFileReader {
+
+    /**
+     * The default glob pattern of the files in the directory.
+     */
+    public static final String DEFAULT_GLOB = "*.csv";
+
+    /**
+     * The charset or null when it should be detected through BOM.
+     */
+    private final Charset charset;
+    /**
+     * The column separator character or null when it should be detected.
+     */
+    private final Character separatorChar;
+    /**
+     * The quote character or null for double quotes.
+     */
+    private final Character quoteChar;
+    /**
+     * The executor to parse the files in, or null to use a pool for each read.
+     */
+    private final ExecutorService executor;
+    /**
+     * The glob pattern of the files in the directory.
+     */
+    private String glob = DEFAULT_GLOB;
+    /**
+     * Whether the rows are added in the order of the files.
+     */
+    private boolean preserveOrder = true;
+    /**
+     * The maximum amount of files parsed at the same time when no executor is given.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Reads the files with a pool of threads created for each read.
+     *
+     * @param charset   the charset or null to detect it
+     * @param separator the separator character or null to detect it
+     * @param quote     the quote character or null for double quotes
+     */
+    public ShardedCsvReader(final Charset charset, final Character separator, final Character quote) {
+        this(charset, separator, quote, null);
+    }
+
+    /**
+     * Reads the files in the executor, which bounds the amount of files parsed at the same time. The executor is
+     * not shut down.
+     *
+     * @param charset   the charset or null to detect it
+     * @param separator the separator character or null to detect it
+     * @param quote     the quote character or null for double quotes
+     * @param executor  the executor to parse the files in
+     */
+    public ShardedCsvReader(final Charset charset, final Character separator, final Character quote,
+                            final ExecutorService executor) {
+        this.charset = charset;
+        this.separatorChar = separator;
+        this.quoteChar = quote;
+        this.executor = executor;
+    }
+
+    /**
+     * Sets the glob pattern of the files to read in the directory.
+     *
+     * @param glob the glob pattern
+     * @see java.nio.file.FileSystem#getPathMatcher(String)
+     */
+    public void setGlob(final String glob) {
+        this.glob = glob;
+    }
+
+    /**
+     * Sets whether the rows are added in the order of the files. When false, the rows of each file are added as
+     * soon as the file is parsed, though still in the order within the file.
+     *
+     * @param preserveOrder whether to keep the order of the files
+     */
+    public void setPreserveOrder(final boolean preserveOrder) {
+        this.preserveOrder = preserveOrder;
+    }
+
+    /**
+     * Sets the maximum amount of files parsed at the same time when no executor is given.
+     *
+     * @param parallelism the amount of threads
+     */
+    public void setParallelism(final int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns the files in the directory matching the glob pattern sorted by name, or the file itself when it is
+     * not a directory.
+     *
+     * @param directory the directory
+     * @return the files
+     * @throws CsvReaderException when the directory could not be listed
+     */
+    public List<File> listFiles(final File directory) throws CsvReaderException {
+        if (!directory.isDirectory()) {
+            return Collections.singletonList(directory);
+        }
+        List<File> files = new ArrayList<>();
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory.toPath(), glob)) {
+            for (Path path : paths) {
+                if (Files.isRegularFile(path)) {
+                    files.add(path.toFile());
+                }
+            }
+        } catch (IOException e) {
+            throw new CsvReaderException(directory, e);
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Reads the files in the directory matching the glob pattern.
+     *
+     * @param directory the directory
+     * @param csv       the csv
+     * @throws CsvReaderException when a file could not be read or has another header than the first file
+     */
+    @Override
+    public void readFile(final File directory, final CSV csv) throws CsvReaderException {
+        List<File> files = listFiles(directory);
+        if (files.isEmpty()) {
+            return;
+        }
+        readHeader(files.get(0), csv);
+        List<String> names = getNames(csv);
+        ExecutorService pool = executor == null
+                ? Executors.newFixedThreadPool(Math.min(parallelism, files.size()))
+                : executor;
+        CompletionService<List<Row>> completion = new ExecutorCompletionService<>(pool);
+        List<Future<List<Row>>> futures = new ArrayList<>(files.size());
+        try {
+            for (File file : files) {
+                futures.add(completion.submit(() -> readShard(file, csv, names)));
+            }
+            if (preserveOrder) {
+                for (Future<List<Row>> future : futures) {
+                    csv.addRows(future.get());
+                }
+            } else {
+                for (int i = 0; i < futures.size(); i++) {
+                    csv.addRows(completion.take().get());
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CsvReaderException) {
+                throw (CsvReaderException) e.getCause();
+            }
+            throw new CsvReaderException(directory, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CsvReaderException(directory, e);
+        } finally {
+            for (Future<List<Row>> future : futures) {
+                future.cancel(true);
+            }
+            if (executor == null) {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Reads the header of the file into the CSV.
+     *
+     * @param file the file
+     * @param csv  the csv
+     * @throws CsvReaderException when the file could not be read
+     */
+    private void readHeader(final File file, final CSV csv) throws CsvReaderException {
+        CsvReader reader = new CsvReader(charset, separatorChar, quoteChar);
+        RowCursor cursor = reader.readFileCursor(file, csv);
+        try {
+            cursor.close();
+        } catch (IOException e) {
+            throw new CsvReaderException(file, e);
+        }
+    }
+
+    /**
+     * Parses the rows of the file with the columns of the CSV, after checking that its header has the same names.
+     *
+     * @param file  the file
+     * @param csv   the csv with the columns of the first file
+     * @param names the column names of the first file
+     * @return the rows
+     * @throws CsvReaderException when the file could not be read or has another header
+     */
+    private List<Row> readShard(final File file, final CSV csv, final List<String> names)
+            throws CsvReaderException {
+        CsvReader reader = new CsvReader(csv.getCharset(), csv.getSeparatorChar(), csv.getQuoteChar());
+        reader.setAppendMode(true);
+        reader.setSkipRows(1);
+        reader.setExpectedHeader(names);
+        try (Stream<Row> rows = reader.readFileStream(file, csv)) {
+            return rows.collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw new CsvReaderException(file, e.getCause());
+        }
+    }
+
+    /**
+     * Returns the names of the columns of the CSV.
+     *
+     * @param csv the csv
+     * @return the names
+     */
+    private static List<String> getNames(final CSV csv) {
+        List<String> names = new ArrayList<>(csv.getColumnCount());
+        for (Column column : csv.getColumns()) {
+            names.add(column.getName());
+        }
+        return names;
+    }
+}
@@ -19,6 +19,7 @@ import no.laukvik.csv.CSV;
 import no.laukvik.csv.Row;
 import no.laukvik.csv.columns.Column;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -120,7 +121,7 @@ public final class XmlWriter implements DatasetFileWriter {
      */
     @Override
     public void writeCSV(final File file, final CSV csv) throws CsvWriterException {
-        try (FileOutputStream out = new FileOutputStream(file)) {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
             writeCSV(csv, out);
         } catch (final IOException e) {
             throw new CsvWriterException(file, e);
@@ -128,12 +129,13 @@ public final class XmlWriter implements DatasetFileWriter {
     }
 
     /**
-     * Writes the CSV.
+     * Writes the CSV. The stream is flushed but not closed.
      *
      * @param csv the CSV to write
      * @param out the outputStream
      * @throws IOException when the file cant be written
      */
+    @Override
     public void writeCSV(final CSV csv, final OutputStream out) throws IOException {
         Charset charset = csv.getCharset();
         out.write(("<?xml version=\"1.0\" encoding=\"" + charset.name() + "\" standalone=\"yes\"?>").getBytes());
@@ -245,7 +247,6 @@ public final class XmlWriter implements DatasetFileWriter {
         out.write(ROOT_ELEMENT_NAME.getBytes());
         out.write(CLOSE);
         out.flush();
-        out.close();
     }
 
 }
@@ -21,7 +21,7 @@ import no.laukvik.csv.columns.DoubleColumn;
 /**
  * Compares a DoubleColumn to be between to values.
  */
-public final class DoubleBetweenMatcher implements ValueMatcher<Double> {
+public final class DoubleBetweenMatcher implements DoubleValueMatcher {
 
     /**
      * The smallest allowed value.
@@ -74,4 +74,9 @@ public final class DoubleBetweenMatcher implements ValueMatcher<Double> {
     public boolean matches(final Double value) {
         return isBetween(value, min, max);
     }
+
+    @Override
+    public boolean matchesDouble(final double value) {
+        return value >= min && value < max;
+    }
 }
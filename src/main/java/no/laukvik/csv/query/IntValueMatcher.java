@@ -0,0 +1,31 @@
+/*
+ * Copyright 2015 Laukviks Bedrifter.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package no.laukvik.csv.query;
+
+/**
+ * A ValueMatcher that can also match a int value, which lets Query match the rows of a columnar CSV without
+ * boxing the values. A null value is matched by matches(null).
+ */
+public interface IntValueMatcher extends ValueMatcher<Integer> {
+
+    /**
+     * Returns true when the value matches.
+     *
+     * @param value the value to test against
+     * @return true when the value matches
+     */
+    boolean matchesInt(int value);
+}
@@ -21,7 +21,7 @@ import no.laukvik.csv.columns.IntegerColumn;
 /**
  * Compares a IntegerColumn to be between to values.
  */
-public final class IntegerBetweenMatcher implements ValueMatcher<Integer> {
+public final class IntegerBetweenMatcher implements IntValueMatcher {
 
     /**
      * The smallest allowed value.
@@ -74,4 +74,9 @@ public final class IntegerBetweenMatcher implements ValueMatcher<Integer> {
     public boolean matches(final Integer value) {
         return isBetween(value, min, max);
     }
+
+    @Override
+    public boolean matchesInt(final int value) {
+        return value >= min && value <= max;
+    }
 }
@@ -21,7 +21,7 @@ import no.laukvik.csv.columns.IntegerColumn;
 /**
  * Compares a IntegerColumn to be greater than a value.
  */
-public final class IntegerGreaterThanMatcher implements ValueMatcher<Integer> {
+public final class IntegerGreaterThanMatcher implements IntValueMatcher {
 
     /**
      * The minimum value.
@@ -67,4 +67,9 @@ public final class IntegerGreaterThanMatcher implements ValueMatcher<Integer> {
     public boolean matches(final Integer value) {
         return isGreaterThan(value, min);
     }
+
+    @Override
+    public boolean matchesInt(final int value) {
+        return value > min;
+    }
 }
@@ -794,7 +794,8 @@ public final class Query {
     }
 
     /**
-     * Returns true if the row matchesRow the query.
+     * Returns true if the row matchesRow the query. Matchers of int and double values read the values of a
+     * columnar CSV without boxing them.
      *
      * @param row the row
      * @return true when matchesRow
@@ -803,14 +804,35 @@ public final class Query {
         int matchCount = 0;
 
         for (ValueMatcher matcher : matchers) {
-            Column c = matcher.getColumn();
-            if (matcher.matches(row.getObject(c))) {
+            if (matches(matcher, row)) {
                 matchCount++;
             }
         }
         return matchCount == matchers.size();
     }
 
+    /**
+     * Returns true if the value of the column of the matcher in the row matches.
+     *
+     * @param matcher the matcher
+     * @param row     the row
+     * @return true when the value matches
+     */
+    @SuppressWarnings("unchecked")
+    private static boolean matches(final ValueMatcher matcher, final Row row) {
+        Column c = matcher.getColumn();
+        if (matcher instanceof IntValueMatcher && c instanceof IntegerColumn) {
+            IntegerColumn ic = (IntegerColumn) c;
+            return row.isNull(ic) ? matcher.matches(null)
+                    : ((IntValueMatcher) matcher).matchesInt(row.getInt(ic, 0));
+        } else if (matcher instanceof DoubleValueMatcher && c instanceof DoubleColumn) {
+            DoubleColumn dc = (DoubleColumn) c;
+            return row.isNull(dc) ? matcher.matches(null)
+                    : ((DoubleValueMatcher) matcher).matchesDouble(row.getDouble(dc, 0));
+        }
+        return matcher.matches(row.getObject(c));
+    }
+
     /**
      * Returns the matching rows.
      *
@@ -17,8 +17,10 @@ package no.laukvik.csv.query;
 
 import no.laukvik.csv.columns.Column;
 import no.laukvik.csv.columns.StringColumn;
+import no.laukvik.csv.columns.StringDictionary;
 
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -34,6 +36,18 @@ public final class StringInMatcher implements ValueMatcher<String> {
      * The Column to match.
      */
     private final StringColumn column;
+    /**
+     * The dictionary the codes are from or null.
+     */
+    private StringDictionary dictionary;
+    /**
+     * The codes of the values in the dictionary.
+     */
+    private BitSet codes;
+    /**
+     * The size of the dictionary when the codes were found.
+     */
+    private int codedSize;
 
     /**
      * The value of the column must be among the values.
@@ -88,8 +102,43 @@ public final class StringInMatcher implements ValueMatcher<String> {
         return column;
     }
 
+    /**
+     * Returns true if the value is among the values. When the column has a dictionary holding the value, the code
+     * of the value is compared with the codes of the values instead.
+     *
+     * @param value the value
+     * @return true if its among the values
+     */
     @Override
     public boolean matches(final String value) {
+        StringDictionary columnDictionary = column.getDictionary();
+        if (columnDictionary != null) {
+            int code = columnDictionary.codeOf(value);
+            if (code >= 0) {
+                if (columnDictionary != dictionary || code >= codedSize) {
+                    findCodes(columnDictionary);
+                }
+                return codes.get(code);
+            }
+        }
         return values.contains(value);
     }
+
+    /**
+     * Finds the codes of the values in the dictionary.
+     *
+     * @param columnDictionary the dictionary
+     */
+    private void findCodes(final StringDictionary columnDictionary) {
+        BitSet found = new BitSet(columnDictionary.size());
+        for (String v : values) {
+            int code = columnDictionary.codeOf(v);
+            if (code >= 0) {
+                found.set(code);
+            }
+        }
+        this.codes = found;
+        this.codedSize = columnDictionary.size();
+        this.dictionary = columnDictionary;
+    }
 }
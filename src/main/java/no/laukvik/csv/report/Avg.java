@@ -2,6 +2,7 @@ package no.laukvik.csv.report;
 
 import no.laukvik.csv.Row;
 import no.laukvik.csv.columns.Column;
+import no.laukvik.csv.columns.IntegerColumn;
 
 import java.math.BigDecimal;
 
@@ -15,6 +16,10 @@ public final class Avg extends Aggregate {
      * Container for the total.
      */
     private BigDecimal sum;
+    /**
+     * The sum of the int values not yet added to sum, which adds them without creating a BigDecimal for each.
+     */
+    private long intSum;
 
     /**
      * The amount of values.
@@ -38,6 +43,14 @@ public final class Avg extends Aggregate {
      */
     @Override
     public void aggregate(final Row row) {
+        if (getColumn() instanceof IntegerColumn) {
+            IntegerColumn integerColumn = (IntegerColumn) getColumn();
+            if (!row.isNull(integerColumn)) {
+                addInt(row.getInt(integerColumn, 0));
+            }
+            count++;
+            return;
+        }
         Object value = row.getObject(getColumn());
         if (value != null) {
             if (value instanceof Integer) {
@@ -63,7 +76,21 @@ public final class Avg extends Aggregate {
         if (count == 0) {
             return new BigDecimal(0);
         }
-        return sum.divideToIntegralValue(new BigDecimal(count));
+        return sum.add(BigDecimal.valueOf(intSum)).divideToIntegralValue(new BigDecimal(count));
+    }
+
+    /**
+     * Adds the int value, moving the sum into sum when it would overflow.
+     *
+     * @param value the value
+     */
+    private void addInt(final int value) {
+        try {
+            intSum = Math.addExact(intSum, value);
+        } catch (ArithmeticException e) {
+            sum = sum.add(BigDecimal.valueOf(intSum));
+            intSum = value;
+        }
     }
 
     /**
@@ -2,6 +2,7 @@ package no.laukvik.csv.report;
 
 import no.laukvik.csv.Row;
 import no.laukvik.csv.columns.Column;
+import no.laukvik.csv.columns.IntegerColumn;
 
 import java.math.BigDecimal;
 
@@ -41,6 +42,16 @@ public final class Max extends Aggregate {
      */
     @Override
     public void aggregate(final Row row) {
+        if (getColumn() instanceof IntegerColumn) {
+            IntegerColumn integerColumn = (IntegerColumn) getColumn();
+            if (!row.isNull(integerColumn)) {
+                int i = row.getInt(integerColumn, 0);
+                if (max == null || max.intValue() < i) {
+                    max = new BigDecimal(i);
+                }
+            }
+            return;
+        }
         Object value = row.getObject(getColumn());
         if (value != null) {
 
@@ -2,6 +2,7 @@ package no.laukvik.csv.report;
 
 import no.laukvik.csv.Row;
 import no.laukvik.csv.columns.Column;
+import no.laukvik.csv.columns.IntegerColumn;
 
 import java.math.BigDecimal;
 
@@ -42,6 +43,16 @@ public final class Min extends Aggregate {
      */
     @Override
     public void aggregate(final Row row) {
+        if (getColumn() instanceof IntegerColumn) {
+            IntegerColumn integerColumn = (IntegerColumn) getColumn();
+            if (!row.isNull(integerColumn)) {
+                int i = row.getInt(integerColumn, 0);
+                if (min == null || i < min.intValue()) {
+                    min = new BigDecimal(i);
+                }
+            }
+            return;
+        }
         Object value = row.getObject(getColumn());
         if (value != null) {
 
@@ -14,6 +14,10 @@ public final class Sum extends Aggregate {
      * Container for the sumValue.
      */
     private BigDecimal sumValue;
+    /**
+     * The sum of the int values not yet added to sumValue, which adds them without creating a BigDecimal for each.
+     */
+    private long intSum;
 
     /**
      * Creates a new SUM for the column.
@@ -27,6 +31,13 @@ public final class Sum extends Aggregate {
 
     @Override
     public void aggregate(final Row row) {
+        if (getColumn() instanceof IntegerColumn) {
+            IntegerColumn integerColumn = (IntegerColumn) getColumn();
+            if (!row.isNull(integerColumn)) {
+                addInt(row.getInt(integerColumn, 0));
+            }
+            return;
+        }
         Object value = row.getObject(getColumn());
         if (value instanceof Integer) {
             Integer i = (Integer) value;
@@ -74,7 +85,21 @@ public final class Sum extends Aggregate {
      */
     @Override
     public BigDecimal getValue() {
-        return sumValue;
+        return intSum == 0 ? sumValue : sumValue.add(BigDecimal.valueOf(intSum));
+    }
+
+    /**
+     * Adds the int value, moving the sum into sumValue when it would overflow.
+     *
+     * @param value the value
+     */
+    private void addInt(final int value) {
+        try {
+            intSum = Math.addExact(intSum, value);
+        } catch (ArithmeticException e) {
+            sumValue = sumValue.add(BigDecimal.valueOf(intSum));
+            intSum = value;
+        }
     }
 
     @Override
@@ -99,6 +99,20 @@ public final class FrequencyDistribution<T> {
         }
     }
 
+    /**
+     * Adds a value occurring the amount of times.
+     *
+     * @param value the value to add
+     * @param count the amount of times
+     */
+    public void addValue(final T value, final int count) {
+        if (value == null) {
+            this.nulls += count;
+        } else {
+            map.merge(value, count, Integer::sum);
+        }
+    }
+
     /**
      * Returns the amount of nulls found.
      *
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2015 Laukviks Bedrifter.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package no.laukvik.csv.storage;
+
+import java.util.BitSet;
+
+/**
+ * Keeps the values of a BooleanColumn as bits, which can be read without boxing.
+ */
+public final class BooleanStore extends ColumnStore {
+
+    /**
+     * The rows that are true.
+     */
+    private final BitSet values = new BitSet();
+
+    /**
+     * Creates an empty store.
+     */
+    BooleanStore() {
+        super();
+    }
+
+    /**
+     * Returns the value of the row without boxing it.
+     *
+     * @param row the row
+     * @return the value, or false when the row has no value
+     * @see #isNull(int)
+     */
+    public boolean getBoolean(final int row) {
+        return values.get(row) && !isNull(row);
+    }
+
+    /**
+     * Sets the value of the row without boxing it.
+     *
+     * @param row   the row
+     * @param value the value
+     */
+    public void setBoolean(final int row, final boolean value) {
+        values.set(row, value);
+        setPresent(row);
+    }
+
+    /**
+     * Returns the value of a row that has a value.
+     *
+     * @param row the row
+     * @return the value
+     */
+    @Override
+    Object getValue(final int row) {
+        return values.get(row);
+    }
+
+    /**
+     * Stores the value of the row.
+     *
+     * @param row   the row
+     * @param value the value
+     */
+    @Override
+    void setValue(final int row, final Object value) {
+        setBoolean(row, (Boolean) value);
+    }
+
+    /**
+     * Removes all values.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        values.clear();
+    }
+}
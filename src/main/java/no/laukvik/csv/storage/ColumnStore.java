@@ -0,0 +1,116 @@
+/*
+ * Copyright 2015 Laukviks Bedrifter.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package no.laukvik.csv.storage;
+
+import java.io.Serializable;
+import java.util.BitSet;
+
+/**
+ * Keeps the values of one column for all rows of a ColumnTable.
+ *
+ * <p>Each store keeps its values in a single array of the type of the column, which grows as rows are added, and
+ * marks which rows have a value in a bitmap. Rows without a value are null.</p>
+ */
+public abstract class ColumnStore implements Serializable {
+
+    /**
+     * The initial amount of values in a store.
+     */
+    static final int INITIAL_CAPACITY = 1 << 10;
+
+    /**
+     * The rows that have a value.
+     */
+    private final BitSet present = new BitSet();
+
+    /**
+     * Returns the capacity needed to hold the row, growing by doubling.
+     *
+     * @param capacity the current capacity
+     * @param row      the row
+     * @return the new capacity
+     */
+    static int grow(final int capacity, final int row) {
+        return Math.max(row + 1, Math.max(INITIAL_CAPACITY, capacity * 2));
+    }
+
+    /**
+     * Returns whether the row has no value.
+     *
+     * @param row the row
+     * @return true when the value is null
+     */
+    public final boolean isNull(final int row) {
+        return !present.get(row);
+    }
+
+    /**
+     * Returns the value of the row.
+     *
+     * @param row the row
+     * @return the value or null
+     */
+    public final Object get(final int row) {
+        return present.get(row) ? getValue(row) : null;
+    }
+
+    /**
+     * Sets the value of the row.
+     *
+     * @param row   the row
+     * @param value the value or null
+     */
+    public final void set(final int row, final Object value) {
+        if (value == null) {
+            present.clear(row);
+        } else {
+            setValue(row, value);
+            present.set(row);
+        }
+    }
+
+    /**
+     * Marks the row as having a value, for stores setting primitive values without going through set.
+     *
+     * @param row the row
+     */
+    final void setPresent(final int row) {
+        present.set(row);
+    }
+
+    /**
+     * Removes all values.
+     */
+    public void clear() {
+        present.clear();
+    }
+
+    /**
+     * Returns the value of a row that has a value.
+     *
+     * @param row the row
+     * @return the value
+     */
+    abstract Object getValue(int row);
+
+    /**
+     * Stores the value of the row, growing the array when needed.
+     *
+     * @param row   the row
+     * @param value the value
+     */
+    abstract void setValue(int row, Object value);
+}
@@ -0,0 +1,465 @@
+/*
+ * Copyright 2015 Laukviks Bedrifter.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package no.laukvik.csv.storage;
+
+import no.laukvik.csv.columns.BooleanColumn;
+import no.laukvik.csv.columns.Column;
+import no.laukvik.csv.columns.DateColumn;
+import no.laukvik.csv.columns.DoubleColumn;
+import no.laukvik.csv.columns.FloatColumn;
+import no.laukvik.csv.columns.IntegerColumn;
+import no.laukvik.csv.columns.LocalDateColumn;
+import no.laukvik.csv.columns.StringColumn;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Keeps the values of all rows column by column, with one ColumnStore for each column.
+ *
+ * <p>Rows of a table are views of an index in the stores, so a row holds no values of its own. Integers, floats,
+ * doubles and dates are kept in primitive arrays, booleans as bits and Strings as dictionary codes, and all of them
+ * mark their null values in a bitmap. Other types are kept as objects. A store is created the first time a value of
+ * its column is set. Integers, floats, doubles and booleans can be read without boxing with getInt, getFloat,
+ * getDouble and getBoolean.</p>
+ *
+ * <p>An off heap table keeps numbers and dates in direct memory and Strings as UTF-8 bytes, leaving only the null
+ * bitmaps, booleans and other types on the heap. Its memory is released by close.</p>
+ *
+ * <p>A paged table keeps the rows in pages of a fixed amount of rows, and spills the least recently used pages to a
+ * temporary file when the pages in memory take more than the memory budget. Its file is deleted by close. Reading a
+ * row may spill and read pages, so each use of the pages is synchronized on the pager.</p>
+ * <pre>{@code
+ *     ColumnTable table = new ColumnTable();
+ *     Row row = new Row(table, table.addRow());
+ *     row.set(salary, 250000);
+ * }</pre>
+ *
+ * <p>A table is not thread safe for writing. Its rows can be read from many threads.</p>
+ */
+public final class ColumnTable implements Serializable, AutoCloseable {
+
+    /**
+     * The default amount of rows in each page of a paged table.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 1 << 14;
+
+    /**
+     * The columns with a store.
+     */
+    private Column[] columns = new Column[0];
+    /**
+     * The store of each column.
+     */
+    private ColumnStore[] stores = new ColumnStore[0];
+    /**
+     * The index of the store plus one for each column ordinal, or zero when not looked up yet.
+     */
+    private int[] byOrdinal = new int[0];
+    /**
+     * The amount of rows.
+     */
+    private int rowCount;
+    /**
+     * Whether the values are kept in direct memory.
+     */
+    private final boolean offHeap;
+    /**
+     * The pages of the rows or null when the table is not paged.
+     */
+    private final Pager pager;
+
+    /**
+     * Creates a table keeping the values on the heap.
+     */
+    public ColumnTable() {
+        this(false);
+    }
+
+    /**
+     * Creates a table keeping the values on the heap or in direct memory. Numbers, dates and Strings are then
+     * kept outside of the heap, where the garbage collector does not visit them, and released by close.
+     *
+     * @param offHeap whether to keep the values in direct memory
+     */
+    public ColumnTable(final boolean offHeap) {
+        this.offHeap = offHeap;
+        this.pager = null;
+    }
+
+    /**
+     * Creates a table keeping the rows in pages of a fixed amount of rows, where the least recently used pages are
+     * spilled to a temporary file when the pages in memory take more than the memory budget. The amount of rows is
+     * then bounded by the disk rather than the heap. The file is deleted by close.
+     *
+     * @param memoryBudget the amount of bytes the pages in memory may take
+     * @param pageSize     the amount of rows in each page
+     */
+    public ColumnTable(final long memoryBudget, final int pageSize) {
+        this.offHeap = false;
+        this.pager = new Pager(memoryBudget, pageSize);
+    }
+
+    /**
+     * Returns whether the values are kept in direct memory.
+     *
+     * @return true when the values are off heap
+     */
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    /**
+     * Returns whether the rows are kept in pages that may be spilled to disk.
+     *
+     * @return true when the table is paged
+     */
+    public boolean isPaged() {
+        return pager != null;
+    }
+
+    /**
+     * Returns the amount of bytes the pages in memory may take.
+     *
+     * @return the memory budget or -1 when the table is not paged
+     */
+    public long getMemoryBudget() {
+        return pager == null ? -1 : pager.getMemoryBudget();
+    }
+
+    /**
+     * Returns the amount of pages in memory and in the file.
+     *
+     * @return the amount of pages or zero when the table is not paged
+     */
+    public int getPageCount() {
+        return pager == null ? 0 : pager.getPageCount();
+    }
+
+    /**
+     * Returns the amount of pages in memory.
+     *
+     * @return the amount of pages or zero when the table is not paged
+     */
+    public int getResidentPageCount() {
+        return pager == null ? 0 : pager.getResidentCount();
+    }
+
+    /**
+     * Adds a row without values.
+     *
+     * @return the index of the row
+     */
+    public int addRow() {
+        if (pager != null) {
+            synchronized (pager) {
+                pager.addRow(rowCount);
+            }
+        }
+        return rowCount++;
+    }
+
+    /**
+     * Returns the amount of rows added.
+     *
+     * @return the amount of rows
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Returns the value of the column in the row.
+     *
+     * @param row    the index of the row
+     * @param column the column
+     * @return the value or null
+     */
+    public Object get(final int row, final Column column) {
+        if (pager != null) {
+            synchronized (pager) {
+                return pager.read(row).get(pager.local(row), column);
+            }
+        }
+        int index = indexOf(column);
+        return index < 0 ? null : stores[index].get(row);
+    }
+
+    /**
+     * Returns whether the column has no value in the row.
+     *
+     * @param row    the index of the row
+     * @param column the column
+     * @return true when the value is null
+     */
+    public boolean isNull(final int row, final Column column) {
+        if (pager != null) {
+            synchronized (pager) {
+                return pager.read(row).isNull(pager.local(row), column);
+            }
+        }
+        ColumnStore store = getStore(column);
+        return store == null || store.isNull(row);
+    }
+
+    /**
+     * Returns the value of the column in the row without boxing it.
+     *
+     * @param row           the index of the row
+     * @param column        the column
+     * @param defaultIfNull the value returned when the row has no value
+     * @return the value
+     */
+    public int getInt(final int row, final IntegerColumn column, final int defaultIfNull) {
+        if (pager != null) {
+            synchronized (pager) {
+                return pager.read(row).getInt(pager.local(row), column, defaultIfNull);
+            }
+        }
+        ColumnStore store = getStore(column);
+        return store == null || store.isNull(row) ? defaultIfNull : ((IntStore) store).getInt(row);
+    }
+
+    /**
+     * Returns the value of the column in the row without boxing it.
+     *
+     * @param row           the index of the row
+     * @param column        the column
+     * @param defaultIfNull the value returned when the row has no value
+     * @return the value
+     */
+    public float getFloat(final int row, final FloatColumn column, final float defaultIfNull) {
+        if (pager != null) {
+            synchronized (pager) {
+                return pager.read(row).getFloat(pager.local(row), column, defaultIfNull);
+            }
+        }
+        ColumnStore store = getStore(column);
+        return store == null || store.isNull(row) ? defaultIfNull : ((FloatStore) store).getFloat(row);
+    }
+
+    /**
+     * Returns the value of the column in the row without boxing it.
+     *
+     * @param row           the index of the row
+     * @param column        the column
+     * @param defaultIfNull the value returned when the row has no value
+     * @return the value
+     */
+    public double getDouble(final int row, final DoubleColumn column, final double defaultIfNull) {
+        if (pager != null) {
+            synchronized (pager) {
+                return pager.read(row).getDouble(pager.local(row), column, defaultIfNull);
+            }
+        }
+        ColumnStore store = getStore(column);
+        return store == null || store.isNull(row) ? defaultIfNull : ((DoubleStore) store).getDouble(row);
+    }
+
+    /**
+     * Returns the value of the column in the row without boxing it.
+     *
+     * @param row           the index of the row
+     * @param column        the column
+     * @param defaultIfNull the value returned when the row has no value
+     * @return the value
+     */
+    public boolean getBoolean(final int row, final BooleanColumn column, final boolean defaultIfNull) {
+        if (pager != null) {
+            synchronized (pager) {
+                return pager.read(row).getBoolean(pager.local(row), column, defaultIfNull);
+            }
+        }
+        ColumnStore store = getStore(column);
+        return store == null || store.isNull(row) ? defaultIfNull : ((BooleanStore) store).getBoolean(row);
+    }
+
+    /**
+     * Sets the value of the column in the row.
+     *
+     * @param row    the index of the row
+     * @param column the column
+     * @param value  the value or null
+     */
+    public void set(final int row, final Column column, final Object value) {
+        if (pager != null) {
+            synchronized (pager) {
+                pager.write(row).set(pager.local(row), column, value);
+            }
+            return;
+        }
+        int index = indexOf(column);
+        if (index < 0) {
+            if (value == null) {
+                return;
+            }
+            index = columns.length;
+            columns = Arrays.copyOf(columns, index + 1);
+            stores = Arrays.copyOf(stores, index + 1);
+            columns[index] = column;
+            stores[index] = createStore(column, offHeap);
+        }
+        stores[index].set(row, value);
+    }
+
+    /**
+     * Returns the store of the column.
+     *
+     * @param column the column
+     * @return the store or null when no value is set for the column or the table is paged
+     */
+    public ColumnStore getStore(final Column column) {
+        if (pager != null) {
+            return null;
+        }
+        int index = indexOf(column);
+        return index < 0 ? null : stores[index];
+    }
+
+    /**
+     * Removes the store of the column.
+     *
+     * @param column the column
+     */
+    public void remove(final Column column) {
+        if (pager != null) {
+            synchronized (pager) {
+                pager.remove(column);
+            }
+            return;
+        }
+        int index = indexOf(column);
+        if (index < 0) {
+            return;
+        }
+        stores[index].clear();
+        Column[] remainingColumns = new Column[columns.length - 1];
+        ColumnStore[] remainingStores = new ColumnStore[stores.length - 1];
+        System.arraycopy(columns, 0, remainingColumns, 0, index);
+        System.arraycopy(columns, index + 1, remainingColumns, index, remainingColumns.length - index);
+        System.arraycopy(stores, 0, remainingStores, 0, index);
+        System.arraycopy(stores, index + 1, remainingStores, index, remainingStores.length - index);
+        columns = remainingColumns;
+        stores = remainingStores;
+        byOrdinal = new int[0];
+    }
+
+    /**
+     * Removes all rows and stores, releasing their direct memory.
+     */
+    public void clear() {
+        if (pager != null) {
+            synchronized (pager) {
+                pager.clear();
+            }
+        }
+        for (ColumnStore store : stores) {
+            store.clear();
+        }
+        columns = new Column[0];
+        stores = new ColumnStore[0];
+        byOrdinal = new int[0];
+        rowCount = 0;
+    }
+
+    /**
+     * Removes all rows and stores, releases their direct memory at once and deletes the file of a paged table. The
+     * table may be used again.
+     */
+    @Override
+    public void close() {
+        clear();
+    }
+
+    /**
+     * Returns the columns with a store.
+     *
+     * @return the columns
+     */
+    Column[] getColumns() {
+        return columns;
+    }
+
+    /**
+     * Returns the stores in the order of the columns.
+     *
+     * @return the stores
+     */
+    ColumnStore[] getStores() {
+        return stores;
+    }
+
+    /**
+     * Returns the index of the store of the column, by its ordinal when the column was looked up before, or by
+     * comparing the columns by identity first and then by name.
+     *
+     * @param column the column
+     * @return the index or -1 when the column has no store
+     */
+    private int indexOf(final Column column) {
+        int ordinal = column.getOrdinal();
+        if (ordinal >= 0 && ordinal < byOrdinal.length) {
+            int index = byOrdinal[ordinal] - 1;
+            if (index >= 0 && columns[index] == column) {
+                return index;
+            }
+        }
+        for (int x = 0; x < columns.length; x++) {
+            if (columns[x] == column) {
+                if (ordinal >= 0) {
+                    if (ordinal >= byOrdinal.length) {
+                        byOrdinal = Arrays.copyOf(byOrdinal, Math.max(ordinal + 1, byOrdinal.length * 2));
+                    }
+                    byOrdinal[ordinal] = x + 1;
+                }
+                return x;
+            }
+        }
+        for (int x = 0; x < columns.length; x++) {
+            if (columns[x].compareTo(column) == 0) {
+                return x;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Creates the most compact store for the type of the column. In direct memory, Strings are kept as UTF-8 bytes
+     * and types without a primitive form stay on the heap.
+     *
+     * @param column  the column
+     * @param offHeap whether to keep the values in direct memory
+     * @return the store
+     */
+    static ColumnStore createStore(final Column column, final boolean offHeap) {
+        if (column instanceof IntegerColumn) {
+            return new IntStore(offHeap);
+        } else if (column instanceof FloatColumn) {
+            return new FloatStore(offHeap);
+        } else if (column instanceof DoubleColumn) {
+            return new DoubleStore(offHeap);
+        } else if (column instanceof BooleanColumn) {
+            return new BooleanStore();
+        } else if (column instanceof DateColumn) {
+            return new DateStore(offHeap);
+        } else if (column instanceof LocalDateColumn) {
+            return new LocalDateStore(offHeap);
+        } else if (column instanceof StringColumn) {
+            return offHeap ? new DirectStringStore() : new StringStore(((StringColumn) column).getDictionary());
+        }
+        return new ObjectStore();
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015 Laukviks Bedrifter.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package no.laukvik.csv.storage;
+
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Keeps the values of a DateColumn as milliseconds since the epoch in a long array or in direct memory. Each value
+ * read is a new Date.
+ */
+final class DateStore extends ColumnStore {
+
+    /**
+     * The values or null when they are kept in direct memory.
+     */
+    private long[] values;
+    /**
+     * The direct memory with the values or null when they are kept in the array.
+     */
+    private final DirectBuffer direct;
+
+    /**
+     * Creates an empty store on the heap or in direct memory.
+     *
+     * @param offHeap whether to keep the values in direct memory
+     */
+    DateStore(final boolean offHeap) {
+        super();
+        this.values = offHeap ? null : new long[0];
+        this.direct = offHeap ? new DirectBuffer() : null;
+    }
+
+    /**
+     * Returns the value of a row that has a value.
+     *
+     * @param row the row
+     * @return the value
+     */
+    @Override
+    Object getValue(final int row) {
+        return new Date(read(row));
+    }
+
+    /**
+     * Stores the value of the row, growing the array when needed.
+     *
+     * @param row   the row
+     * @param value the value
+     */
+    @Override
+    void setValue(final int row, final Object value) {
+        write(row, ((Date) value).getTime());
+    }
+
+    /**
+     * Removes all values.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        if (direct == null) {
+            values = new long[0];
+        } else {
+            direct.close();
+        }
+    }
+
+    /**
+     * Returns the value of a row from the array or direct memory.
+     *
+     * @param row the row
+     * @return the value
+     */
+    private long read(final int row) {
+        return direct == null ? values[row] : direct.getLong((long) row << 3);
+    }
+
+    /**
+     * Writes the value of a row to the array or direct memory, growing it when needed.
+     *
+     * @param row   the row
+     * @param value the value
+     */
+    private void write(final int row, final long value) {
+        if (direct == null) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length, row));
+            }
+            values[row] = value;
+        } else {
+            long position = (long) row << 3;
+            direct.ensure(position + 8);
+            direct.putLong(position, value);
+        }
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright 2015 Laukviks Bedrifter.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package no.laukvik.csv.storage;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Memory outside of the Java heap, addressed by a long position and allocated in direct ByteBuffers of a fixed
+ * size as it is needed.
+ *
+ * <p>The first ByteBuffer starts small and is replaced by one twice the size until it reaches the fixed size, so a
+ * store with few rows reserves little memory. Values of up to eight bytes at a position that is a multiple of their
+ * size never cross two buffers, so they are read and written with a single call. Byte arrays may cross buffers.
+ * The memory is released when the buffer is closed, at once where the JVM allows it and otherwise when the garbage
+ * collector finds the buffers unreachable. A closed buffer is empty and may be used again.</p>
+ */
+final class DirectBuffer implements Serializable {
+
+    /**
+     * The amount of bits in the size of each direct ByteBuffer.
+     */
+    private static final int CHUNK_SHIFT = 20;
+    /**
+     * The size of each direct ByteBuffer.
+     */
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    /**
+     * The bits of a position within its direct ByteBuffer.
+     */
+    private static final long CHUNK_MASK = CHUNK_SIZE - 1;
+    /**
+     * The size of the first direct ByteBuffer.
+     */
+    private static final int FIRST_CHUNK_SIZE = 1 << 12;
+    /**
+     * The object that frees direct ByteBuffers or null when not available.
+     */
+    private static final Object UNSAFE;
+    /**
+     * The method that frees a direct ByteBuffer or null when not available.
+     */
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Left to the garbage collector
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    /**
+     * The direct ByteBuffers.
+     */
+    private transient ByteBuffer[] chunks = new ByteBuffer[0];
+
+    /**
+     * Returns the amount of bytes allocated.
+     *
+     * @return the amount of bytes
+     */
+    long capacity() {
+        if (chunks.length == 0) {
+            return 0;
+        }
+        return ((long) (chunks.length - 1) << CHUNK_SHIFT) + chunks[chunks.length - 1].capacity();
+    }
+
+    /**
+     * Allocates memory until the capacity is at least the amount of bytes.
+     *
+     * @param capacity the amount of bytes
+     */
+    void ensure(final long capacity) {
+        if (capacity <= capacity()) {
+            return;
+        }
+        if (capacity < CHUNK_SIZE) {
+            int size = chunks.length == 0 ? FIRST_CHUNK_SIZE : chunks[0].capacity();
+            while (size < capacity) {
+                size <<= 1;
+            }
+            growFirst(size);
+            return;
+        }
+        if (chunks.length == 1 && chunks[0].capacity() < CHUNK_SIZE) {
+            growFirst(CHUNK_SIZE);
+        }
+        int count = (int) ((capacity + CHUNK_MASK) >>> CHUNK_SHIFT);
+        if (count > chunks.length) {
+            int first = chunks.length;
+            chunks = Arrays.copyOf(chunks, count);
+            for (int x = first; x < count; x++) {
+                chunks[x] = allocate(CHUNK_SIZE);
+            }
+        }
+    }
+
+    /**
+     * Replaces the only direct ByteBuffer with a larger one holding the same bytes.
+     *
+     * @param size the size of the new ByteBuffer
+     */
+    private void growFirst(final int size) {
+        ByteBuffer grown = allocate(size);
+        if (chunks.length == 0) {
+            chunks = new ByteBuffer[]{grown};
+            return;
+        }
+        ByteBuffer previous = chunks[0];
+        ByteBuffer source = previous.duplicate();
+        source.clear();
+        grown.put(source);
+        grown.clear();
+        chunks[0] = grown;
+        free(previous);
+    }
+
+    /**
+     * Allocates a direct ByteBuffer in the native byte order.
+     *
+     * @param size the size in bytes
+     * @return the direct ByteBuffer
+     */
+    private static ByteBuffer allocate(final int size) {
+        return ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Returns the direct ByteBuffer with the position.
+     *
+     * @param position the position
+     * @return the direct ByteBuffer
+     */
+    private ByteBuffer chunk(final long position) {
+        return chunks[(int) (position >>> CHUNK_SHIFT)];
+    }
+
+    /**
+     * Returns the int at the position.
+     *
+     * @param position the position, a multiple of four
+     * @return the value
+     */
+    int getInt(final long position) {
+        return chunk(position).getInt((int) (position & CHUNK_MASK));
+    }
+
+    /**
+     * Writes the int at the position.
+     *
+     * @param position the position, a multiple of four
+     * @param value    the value
+     */
+    void putInt(final long position, final int value) {
+        chunk(position).putInt((int) (position & CHUNK_MASK), value);
+    }
+
+    /**
+     * Returns the long at the position.
+     *
+     * @param position the position, a multiple of eight
+     * @return the value
+     */
+    long getLong(final long position) {
+        return chunk(position).getLong((int) (position & CHUNK_MASK));
+    }
+
+    /**
+     * Writes the long at the position.
+     *
+     * @param position the position, a multiple of eight
+     * @param value    the value
+     */
+    void putLong(final long position, final long value) {
+        chunk(position).putLong((int) (position & CHUNK_MASK), value);
+    }
+
+    /**
+     * Returns the float at the position.
+     *
+     * @param position the position, a multiple of four
+     * @return the value
+     */
+    float getFloat(final long position) {
+        return chunk(position).getFloat((int) (position & CHUNK_MASK));
+    }
+
+    /**
+     * Writes the float at the position.
+     *
+     * @param position the position, a multiple of four
+     * @param value    the value
+     */
+    void putFloat(final long position, final float value) {
+        chunk(position).putFloat((int) (position & CHUNK_MASK), value);
+    }
+
+    /**
+     * Returns the double at the position.
+     *
+     * @param position the position, a multiple of eight
+     * @return the value
+     */
+    double getDouble(final long position) {
+        return chunk(position).getDouble((int) (position & CHUNK_MASK));
+    }
+
+    /**
+     * Writes the double at the position.
+     *
+     * @param position the position, a multiple of eight
+     * @param value    the value
+     */
+    void putDouble(final long position, final double value) {
+        chunk(position).putDouble((int) (position & CHUNK_MASK), value);
+    }
+
+    /**
+     * Reads bytes from the position.
+     *
+     * @param position the position
+     * @param bytes    the array to read into
+     * @param offset   the offset in the array
+     * @param length   the amount of bytes
+     */
+    void get(final long position, final byte[] bytes, final int offset, final int length) {
+        long from = position;
+        int done = 0;
+        while (done < length) {
+            ByteBuffer chunk = chunk(from).duplicate();
+            chunk.position((int) (from & CHUNK_MASK));
+            int count = Math.min(length - done, chunk.remaining());
+            chunk.get(bytes, offset + done, count);
+            done += count;
+            from += count;
+        }
+    }
+
+    /**
+     * Writes bytes at the position.
+     *
+     * @param position the position
+     * @param bytes    the array to write from
+     * @param offset   the offset in the array
+     * @param length   the amount of bytes
+     */
+    void put(final long position, final byte[] bytes, final int offset, final int length) {
+        long to = position;
+        int done = 0;
+        while (done < length) {
+            ByteBuffer chunk = chunk(to).duplicate();
+            chunk.position((int) (to & CHUNK_MASK));
+            int count = Math.min(length - done, chunk.remaining());
+            chunk.put(bytes, offset + done, count);
+            done += count;
+            to += count;
+        }
+    }
+
+    /**
+     * Releases the memory, leaving the buffer empty.
+     */
+    void close() {
+        ByteBuffer[] released = chunks;
+        chunks = new ByteBuffer[0];
+        for (ByteBuffer chunk : released) {
+            free(chunk);
+        }
+    }
+
+    /**
+     * Frees the memory of the direct ByteBuffer at once when the JVM allows it.
+     *
+     * @param buffer the direct ByteBuffer, which must not be used afterwards
+     */
+    private static void free(final ByteBuffer buffer) {
+        if (INVOKE_CLEANER != null) {
+            try {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // Left to the garbage collector
+            }
+        }
+    }
+
+    /**
+     * Writes the bytes of the buffer.
+     *
+     * @param out the stream
+     * @throws IOException when the bytes could not be written
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        long capacity = capacity();
+        out.writeLong(capacity);
+        byte[] bytes = new byte[(int) Math.min(capacity, CHUNK_SIZE)];
+        for (long position = 0; position < capacity; position += bytes.length) {
+            get(position, bytes, 0, bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads the bytes of the buffer into new direct ByteBuffers.
+     *
+     * @param in the stream
+     * @throws IOException            when the bytes could not be read
+     * @throws ClassNotFoundException when a class is not found
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        long capacity = in.readLong();
+        chunks = new ByteBuffer[0];
+        ensure(capacity);
+        byte[] bytes = new byte[(int) Math.min(capacity, CHUNK_SIZE)];
+        for (long position = 0; position < capacity; position += bytes.length) {
+            in.readFully(bytes);
+            put(position, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2015 Laukviks Bedrifter.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package no.laukvik.csv.storage;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Keeps the values of a StringColumn as UTF-8 bytes in direct memory.
+ *
+ * <p>The bytes of the values are appended one after another, and the offset and length of the bytes of each row are
+ * kept in direct memory as well, so the values take no room on the heap. A value set again is appended, leaving the
+ * bytes of the old value unused until the store is cleared. Each value read is a new String.</p>
+ */
+final class DirectStringStore extends ColumnStore {
+
+    /**
+     * The size in bytes of the offset and length of each row.
+     */
+    private static final int ENTRY_SIZE = 16;
+
+    /**
+     * The UTF-8 bytes of the values.
+     */
+    private final DirectBuffer bytes = new DirectBuffer();
+    /**
+     * The offset of the bytes of each row as a long, followed by the amount of bytes as an int.
+     */
+    private final DirectBuffer entries = new DirectBuffer();
+    /**
+     * The offset after the bytes of the last value appended.
+     */
+    private long end;
+
+    /**
+     * Returns the value of a row that has a value.
+     *
+     * @param row the row
+     * @return the value
+     */
+    @Override
+    Object getValue(final int row) {
+        long entry = (long) row * ENTRY_SIZE;
+        long offset = entries.getLong(entry);
+        int length = entries.getInt(entry + Long.BYTES);
+        byte[] value = new byte[length];
+        bytes.get(offset, value, 0, length);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Appends the bytes of the value and stores where they are for the row.
+     *
+     * @param row   the row
+     * @param value the value
+     */
+    @Override
+    void setValue(final int row, final Object value) {
+        byte[] utf8 = ((String) value).getBytes(StandardCharsets.UTF_8);
+        bytes.ensure(end + utf8.length);
+        bytes.put(end, utf8, 0, utf8.length);
+        long entry = (long) row * ENTRY_SIZE;
+        entries.ensure(entry + ENTRY_SIZE);
+        entries.putLong(entry, end);
+        entries.putInt(entry + Long.BYTES, utf8.length);
+        end += utf8.length;
+    }
+
+    /**
+     * Removes all values and releases the direct memory.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        bytes.close();
+        entries.close();
+        end = 0;
+    }
+}
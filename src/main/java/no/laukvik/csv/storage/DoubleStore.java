@@ -0,0 +1,131 @@
+/*
+ * Copyright 2015 Laukviks Bedrifter.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package no.laukvik.csv.storage;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the values of a DoubleColumn in a double array or in direct memory, which can be read without
+ * boxing.
+ */
+public final class DoubleStore extends ColumnStore {
+
+    /**
+     * The values or null when they are kept in direct memory.
+     */
+    private double[] values;
+    /**
+     * The direct memory with the values or null when they are kept in the array.
+     */
+    private final DirectBuffer direct;
+
+    /**
+     * Creates an empty store on the heap or in direct memory.
+     *
+     * @param offHeap whether to keep the values in direct memory
+     */
+    DoubleStore(final boolean offHeap) {
+        super();
+        this.values = offHeap ? null : new double[0];
+        this.direct = offHeap ? new DirectBuffer() : null;
+    }
+
+    /**
+     * Returns the value of the row without boxing it.
+     *
+     * @param row the row
+     * @return the value, or zero when the row has no value
+     * @see #isNull(int)
+     */
+    public double getDouble(final int row) {
+        return isNull(row) ? 0 : read(row);
+    }
+
+    /**
+     * Sets the value of the row without boxing it.
+     *
+     * @param row   the row
+     * @param value the value
+     */
+    public void setDouble(final int row, final double value) {
+        write(row, value);
+        setPresent(row);
+    }
+
+    /**
+     * Returns the value of a row that has a value.
+     *
+     * @param row the row
+     * @return the value
+     */
+    @Override
+    Object getValue(final int row) {
+        return read(row);
+    }
+
+    /**
+     * Stores the value of the row, growing the array when needed.
+     *
+     * @param row   the row
+     * @param value the value
+     */
+    @Override
+    void setValue(final int row, final Object value) {
+        setDouble(row, (Double) value);
+    }
+
+    /**
+     * Removes all values.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        if (direct == null) {
+            values = new double[0];
+        } else {
+            direct.close();
+        }
+    }
+
+    /**
+     * Returns the value of a row from the array or direct memory.
+     *
+     * @param row the row
+     * @return the value
+     */
+    private double read(final int row) {
+        return direct == null ? values[row] : direct.getDouble((long) row << 3);
+    }
+
+    /**
+     * Writes the value of a row to the array or direct memory, growing it when needed.
+     *
+     * @param row   the row
+     * @param value the value
+     */
+    private void write(final int row, final double value) {
+        if (direct == null) {
+            if (row >= values.length) {
+                values = Arrays.copyOf(values, grow(values.length, row));
+            }
+            values[row] = value;
+        } else {
+            long position = (long) row << 3;
+            direct.ensure(position + 8);
+            direct.putDouble(position, value);
+        }
+    }
+}
@@ -0,0 +1,614 @@
+/*
+ * Copyright 2015 Laukviks Bedrifter.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package no.laukvik.csv.storage;
+
+import no.laukvik.csv.columns.BooleanColumn;
+import no.laukvik.csv.columns.Column;
+import no.laukvik.csv.columns.DateColumn;
+import no.laukvik.csv.columns.DoubleColumn;
+import no.laukvik.csv.columns.FloatColumn;
+import no.laukvik.csv.columns.IntegerColumn;
+import no.laukvik.csv.columns.LocalDateColumn;
+import no.laukvik.csv.columns.StringColumn;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Keeps the rows of a ColumnTable in pages of a fixed amount of rows, spilling the least recently used pages to a
+ * temporary file when the pages in memory take more than the memory budget.
+ *
+ * <p>Each page is a ColumnTable of its own. A page is written to the file in a compact binary form when it is
+ * evicted, and read back the next time one of its rows is used. A page that has not changed since it was read is
+ * not written again. Rows read in order fault each page in once, so full scans read the file sequentially. The
+ * page in use is never evicted, so at least one page is always in memory.</p>
+ *
+ * <p>Every read changes the order of use and may spill or read pages, so a pager is not thread safe. ColumnTable
+ * synchronizes on the pager around each use of it, including the use of the page returned.</p>
+ */
+final class Pager implements Serializable {
+
+    /**
+     * The rough size in bytes of a String or other object together with its reference.
+     */
+    private static final int OBJECT_SIZE = 48;
+
+    /**
+     * The amount of rows in each page.
+     */
+    private final int pageSize;
+    /**
+     * The amount of bytes the pages in memory may take before the least recently used are spilled.
+     */
+    private final long memoryBudget;
+    /**
+     * The columns of all pages, which the pages in the file refer to by index.
+     */
+    private Column[] columns = new Column[0];
+    /**
+     * The columns that are removed, whose values in the file are skipped.
+     */
+    private BitSet removed = new BitSet();
+    /**
+     * The pages.
+     */
+    private transient List<Page> pages = new ArrayList<>();
+    /**
+     * The pages in memory from the least to the most recently used.
+     */
+    private transient LinkedHashMap<Integer, Page> resident = new LinkedHashMap<>(16, 0.75f, true);
+    /**
+     * The page used last, which is found without touching the order of use.
+     */
+    private transient Page last;
+    /**
+     * The file with the spilled pages or null when no page is spilled.
+     */
+    private transient File file;
+    /**
+     * The channel of the file.
+     */
+    private transient FileChannel channel;
+    /**
+     * The offset after the last page written to the file.
+     */
+    private transient long end;
+
+    /**
+     * Creates an empty pager.
+     *
+     * @param memoryBudget the amount of bytes the pages in memory may take
+     * @param pageSize     the amount of rows in each page
+     */
+    Pager(final long memoryBudget, final int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        this.memoryBudget = memoryBudget;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Returns the amount of bytes the pages in memory may take.
+     *
+     * @return the memory budget
+     */
+    long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Returns the index of the row within its page.
+     *
+     * @param row the index of the row in the table
+     * @return the index in the page
+     */
+    int local(final int row) {
+        return row % pageSize;
+    }
+
+    /**
+     * Adds a row to the last page, starting a new page when it is full.
+     *
+     * @param row the index of the row in the table
+     */
+    void addRow(final int row) {
+        int index = row / pageSize;
+        if (index == pages.size()) {
+            Page page = new Page(index);
+            page.table = new ColumnTable();
+            page.dirty = true;
+            pages.add(page);
+            resident.put(index, page);
+            last = page;
+            evict();
+        }
+        Page page = use(index);
+        page.dirty = true;
+        page.table.addRow();
+    }
+
+    /**
+     * Returns the page with the row for reading, reading it from the file when spilled.
+     *
+     * @param row the index of the row in the table
+     * @return the table of the page
+     */
+    ColumnTable read(final int row) {
+        return use(row / pageSize).table;
+    }
+
+    /**
+     * Returns the page with the row for writing, which is then written to the file again when evicted.
+     *
+     * @param row the index of the row in the table
+     * @return the table of the page
+     */
+    ColumnTable write(final int row) {
+        Page page = use(row / pageSize);
+        page.dirty = true;
+        return page.table;
+    }
+
+    /**
+     * Returns the page, reading it from the file and evicting others when it is not in memory.
+     *
+     * @param index the index of the page
+     * @return the page
+     */
+    private Page use(final int index) {
+        Page page = last;
+        if (page != null && page.index == index) {
+            return page;
+        }
+        page = pages.get(index);
+        if (page.table == null) {
+            page.table = load(page);
+            page.dirty = false;
+            resident.put(index, page);
+            last = page;
+            evict();
+        } else {
+            resident.get(index);
+            last = page;
+        }
+        return page;
+    }
+
+    /**
+     * Spills the least recently used pages until the pages in memory fit within the budget.
+     */
+    private void evict() {
+        long size = 0;
+        for (Page page : resident.values()) {
+            size += sizeOf(page.table);
+        }
+        Iterator<Page> iterator = resident.values().iterator();
+        while (size > memoryBudget && iterator.hasNext()) {
+            Page page = iterator.next();
+            if (page == last) {
+                break;
+            }
+            size -= sizeOf(page.table);
+            spill(page);
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Writes the page to the file when it has changed, and removes it from memory.
+     *
+     * @param page the page
+     */
+    private void spill(final Page page) {
+        if (page.dirty || page.length < 0) {
+            byte[] bytes = encode(page.table);
+            page.offset = append(bytes);
+            page.length = bytes.length;
+        }
+        page.table.clear();
+        page.table = null;
+        page.dirty = false;
+    }
+
+    /**
+     * Removes the column from all pages.
+     *
+     * @param column the column
+     */
+    void remove(final Column column) {
+        for (int x = 0; x < columns.length; x++) {
+            if (columns[x] == column) {
+                removed.set(x);
+            }
+        }
+        for (Page page : resident.values()) {
+            page.table.remove(column);
+        }
+    }
+
+    /**
+     * Removes all pages and deletes the file.
+     */
+    void clear() {
+        for (Page page : resident.values()) {
+            page.table.clear();
+        }
+        pages.clear();
+        resident.clear();
+        last = null;
+        columns = new Column[0];
+        removed.clear();
+        end = 0;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // Deleted below
+            }
+            channel = null;
+        }
+        if (file != null) {
+            file.delete();
+            file = null;
+        }
+    }
+
+    /**
+     * Returns the amount of pages written to the file or in memory.
+     *
+     * @return the amount of pages
+     */
+    int getPageCount() {
+        return pages.size();
+    }
+
+    /**
+     * Returns the amount of pages in memory.
+     *
+     * @return the amount of pages
+     */
+    int getResidentCount() {
+        return resident.size();
+    }
+
+    /**
+     * Returns a rough size in bytes of the values of the page on the heap.
+     *
+     * @param table the table of the page
+     * @return the size in bytes
+     */
+    static long sizeOf(final ColumnTable table) {
+        long rows = table.getRowCount();
+        long size = 0;
+        for (ColumnStore store : table.getStores()) {
+            size += rows / Byte.SIZE;
+            if (store instanceof IntStore || store instanceof FloatStore) {
+                size += rows * Integer.BYTES;
+            } else if (store instanceof DoubleStore || store instanceof DateStore || store instanceof LocalDateStore) {
+                size += rows * Long.BYTES;
+            } else if (store instanceof StringStore && ((StringStore) store).isEncoded()) {
+                size += rows * Integer.BYTES;
+            } else if (!(store instanceof BooleanStore)) {
+                size += rows * OBJECT_SIZE;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the index of the column among the columns of all pages, adding it when missing.
+     *
+     * @param column the column
+     * @return the index
+     */
+    private int indexOf(final Column column) {
+        for (int x = 0; x < columns.length; x++) {
+            if (columns[x] == column && !removed.get(x)) {
+                return x;
+            }
+        }
+        columns = Arrays.copyOf(columns, columns.length + 1);
+        columns[columns.length - 1] = column;
+        return columns.length - 1;
+    }
+
+    /**
+     * Encodes the values of the page column by column, with a bitmap of the rows with a value followed by the
+     * values of those rows.
+     *
+     * @param table the table of the page
+     * @return the bytes
+     */
+    private byte[] encode(final ColumnTable table) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            int rows = table.getRowCount();
+            Column[] pageColumns = table.getColumns();
+            ColumnStore[] stores = table.getStores();
+            out.writeInt(rows);
+            out.writeInt(pageColumns.length);
+            for (int x = 0; x < pageColumns.length; x++) {
+                out.writeInt(indexOf(pageColumns[x]));
+                BitSet present = new BitSet(rows);
+                for (int row = 0; row < rows; row++) {
+                    if (!stores[x].isNull(row)) {
+                        present.set(row);
+                    }
+                }
+                long[] words = present.toLongArray();
+                out.writeInt(words.length);
+                for (long word : words) {
+                    out.writeLong(word);
+                }
+                for (int row = present.nextSetBit(0); row >= 0; row = present.nextSetBit(row + 1)) {
+                    writeValue(out, pageColumns[x], stores[x].get(row));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the page from the file.
+     *
+     * @param page the page
+     * @return the table of the page
+     */
+    private ColumnTable load(final Page page) {
+        byte[] bytes = new byte[page.length];
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, page.offset + buffer.position()) < 0) {
+                    throw new IOException("Page " + page.index + " is truncated");
+                }
+            }
+            return decode(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Decodes the values of a page written by encode, leaving out removed columns.
+     *
+     * @param bytes the bytes
+     * @return the table of the page
+     * @throws IOException when the bytes could not be decoded
+     */
+    private ColumnTable decode(final byte[] bytes) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            ColumnTable table = new ColumnTable();
+            int rows = in.readInt();
+            for (int row = 0; row < rows; row++) {
+                table.addRow();
+            }
+            int count = in.readInt();
+            for (int x = 0; x < count; x++) {
+                int index = in.readInt();
+                Column column = columns[index];
+                long[] words = new long[in.readInt()];
+                for (int w = 0; w < words.length; w++) {
+                    words[w] = in.readLong();
+                }
+                BitSet present = BitSet.valueOf(words);
+                for (int row = present.nextSetBit(0); row >= 0; row = present.nextSetBit(row + 1)) {
+                    Object value = readValue(in, column);
+                    if (!removed.get(index)) {
+                        table.set(row, column, value);
+                    }
+                }
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Writes the value in the binary form of the type of the column.
+     *
+     * @param out    the output
+     * @param column the column
+     * @param value  the value
+     * @throws IOException when the value could not be written
+     */
+    @SuppressWarnings("unchecked")
+    private static void writeValue(final DataOutputStream out, final Column column, final Object value)
+            throws IOException {
+        if (column instanceof IntegerColumn) {
+            out.writeInt((Integer) value);
+        } else if (column instanceof FloatColumn) {
+            out.writeFloat((Float) value);
+        } else if (column instanceof DoubleColumn) {
+            out.writeDouble((Double) value);
+        } else if (column instanceof BooleanColumn) {
+            out.writeBoolean((Boolean) value);
+        } else if (column instanceof DateColumn) {
+            out.writeLong(((Date) value).getTime());
+        } else if (column instanceof LocalDateColumn) {
+            out.writeLong(((LocalDate) value).toEpochDay());
+        } else {
+            String string = column instanceof StringColumn ? (String) value : column.asString(value);
+            byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(utf8.length);
+            out.write(utf8);
+        }
+    }
+
+    /**
+     * Reads a value written by writeValue.
+     *
+     * @param in     the input
+     * @param column the column
+     * @return the value
+     * @throws IOException when the value could not be read
+     */
+    private static Object readValue(final DataInputStream in, final Column column) throws IOException {
+        if (column instanceof IntegerColumn) {
+            return in.readInt();
+        } else if (column instanceof FloatColumn) {
+            return in.readFloat();
+        } else if (column instanceof DoubleColumn) {
+            return in.readDouble();
+        } else if (column instanceof BooleanColumn) {
+            return in.readBoolean();
+        } else if (column instanceof DateColumn) {
+            return new Date(in.readLong());
+        } else if (column instanceof LocalDateColumn) {
+            return LocalDate.ofEpochDay(in.readLong());
+        }
+        byte[] utf8 = new byte[in.readInt()];
+        in.readFully(utf8);
+        String string = new String(utf8, StandardCharsets.UTF_8);
+        return column instanceof StringColumn ? string : column.parse(string);
+    }
+
+    /**
+     * Appends the bytes to the file, creating it the first time.
+     *
+     * @param bytes the bytes
+     * @return the offset of the bytes
+     */
+    private long append(final byte[] bytes) {
+        try {
+            if (channel == null) {
+                file = File.createTempFile("csv", ".pages");
+                file.deleteOnExit();
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            long offset = end;
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, offset + buffer.position());
+            }
+            end += bytes.length;
+            return offset;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the columns and the encoded bytes of each page.
+     *
+     * @param out the stream
+     * @throws IOException when the pages could not be written
+     */
+    private void writeObject(final ObjectOutputStream out) throws IOException {
+        byte[][] encoded = new byte[pages.size()][];
+        for (int x = 0; x < encoded.length; x++) {
+            Page page = pages.get(x);
+            if (page.table == null) {
+                encoded[x] = new byte[page.length];
+                ByteBuffer buffer = ByteBuffer.wrap(encoded[x]);
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, page.offset + buffer.position()) < 0) {
+                        throw new IOException("Page " + page.index + " is truncated");
+                    }
+                }
+            } else {
+                encoded[x] = encode(page.table);
+            }
+        }
+        out.defaultWriteObject();
+        out.writeInt(encoded.length);
+        for (byte[] bytes : encoded) {
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Reads the columns and writes the pages to a new file, leaving them to be read when used.
+     *
+     * @param in the stream
+     * @throws IOException            when the pages could not be read
+     * @throws ClassNotFoundException when a class is not found
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        pages = new ArrayList<>();
+        resident = new LinkedHashMap<>(16, 0.75f, true);
+        int count = in.readInt();
+        for (int x = 0; x < count; x++) {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            Page page = new Page(x);
+            page.offset = append(bytes);
+            page.length = bytes.length;
+            pages.add(page);
+        }
+    }
+
+    /**
+     * A page of rows, in memory or in the file or both.
+     */
+    private static final class Page {
+
+        /**
+         * The index of the page.
+         */
+        private final int index;
+        /**
+         * The rows of the page or null when only in the file.
+         */
+        private ColumnTable table;
+        /**
+         * Whether the rows have changed since written to the file.
+         */
+        private boolean dirty;
+        /**
+         * The offset of the page in the file.
+         */
+        private long offset;
+        /**
+         * The amount of bytes of the page in the file or -1 when never written.
+         */
+        private int length = -1;
+
+        /**
+         * Creates a page.
+         *
+         * @param index the index of the page
+         */
+        Page(final int index) {
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2015 Laukviks Bedrifter.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package no.laukvik.csv.storage;
+
+import no.laukvik.csv.columns.StringDictionary;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the values of a StringColumn as dictionary codes in an int array, or as Strings once the dictionary has
+ * switched itself off.
+ *
+ * <p>The dictionary of the column is used when it has one, so values interned while reading are found by
+ * identity. Columns without a dictionary get one of their own. When a value can not be added to the dictionary,
+ * because it is full or most values are distinct, the codes are replaced by the Strings they stand for.</p>
+ */
+final class StringStore extends ColumnStore {
+
+    /**
+     * The dictionary of the codes.
+     */
+    private final StringDictionary dictionary;
+    /**
+     * The codes or null when the values are kept as Strings.
+     */
+    private int[] codes = new int[0];
+    /**
+     * The values or null when the values are kept as codes.
+     */
+    private String[] values;
+
+    /**
+     * Creates a store.
+     *
+     * @param dictionary the dictionary of the column or null to create one
+     */
+    StringStore(final StringDictionary dictionary) {
+        this.dictionary = dictionary == null ? new StringDictionary() : dictionary;
+    }
+
+    /**
+     * Returns whether the values are kept as dictionary codes.
+     *
+     * @return true when the values are codes
+     */
+    boolean isEncoded() {
+        return codes != null;
+    }
+
+    /**
+     * Returns the value of a row that has a value.
+     *
+     * @param row the row
+     * @return the value
+     */
+    @Override
+    Object getValue(final int row) {
+        return codes == null ? values[row] : dictionary.getValue(codes[row]);
+    }
+
+    /**
+     * Stores the value of the row, growing the array when needed.
+     *
+     * @param row   the row
+     * @param value the value
+     */
+    @Override
+    void setValue(final int row, final Object value) {
+        String string = (String) value;
+        if (codes != null) {
+            int code = dictionary.codeOf(string);
+            if (code < 0 && dictionary.isEnabled()) {
+                code = dictionary.codeOf(dictionary.intern(string));
+            }
+            if (code >= 0) {
+                if (row >= codes.length) {
+                    codes = Arrays.copyOf(codes, grow(codes.length, row));
+                }
+                codes[row] = code;
+                return;
+            }
+            decode();
+        }
+        if (row >= values.length) {
+            values = Arrays.copyOf(values, grow(values.length, row));
+        }
+        values[row] = string;
+    }
+
+    /**
+     * Replaces the codes by the Strings they stand for.
+     */
+    private void decode() {
+        values = new String[codes.length];
+        for (int row = 0; row < codes.length; row++) {
+            if (!isNull(row)) {
+                values[row] = dictionary.getValue(codes[row]);
+            }
+        }
+        codes = null;
+    }
+
+    /**
+     * Removes all values.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        codes = new int[0];
+        values = null;
+    }
+}
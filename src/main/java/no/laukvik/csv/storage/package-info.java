@@ -0,0 +1,28 @@
+/**
+ * <p>Contains the columnar storage of rows, which keeps the values of each column in one typed array instead of a
+ * map in each row, on the heap, in direct memory or in pages spilled to disk.</p>
+ * <pre>{@code
+ * CSV csv = new CSV();
+ * csv.setColumnar(true);
+ * csv.readFile(new File("very_large.csv"));
+ * }</pre>
+ * <pre>{@code
+ * CSV csv = new CSV();
+ * csv.setOffHeap(true);
+ * try {
+ *     csv.readFile(new File("larger_than_heap.csv"));
+ * } finally {
+ *     csv.releaseStorage();
+ * }
+ * }</pre>
+ * <pre>{@code
+ * CSV csv = new CSV();
+ * csv.setMemoryBudget(512 * 1024 * 1024);
+ * try {
+ *     csv.readFile(new File("larger_than_memory.csv"));
+ * } finally {
+ *     csv.releaseStorage();
+ * }
+ * }</pre>
+ */
+package no.laukvik.csv.storage;
@@ -16,11 +16,17 @@
 package no.laukvik.csv;
 
 import no.laukvik.csv.columns.*;
+import no.laukvik.csv.io.Checkpoint;
+import no.laukvik.csv.io.CsvReader;
 import no.laukvik.csv.io.CsvReaderException;
 import no.laukvik.csv.io.CsvWriterException;
+import no.laukvik.csv.query.Query;
 import no.laukvik.csv.query.StringInMatcher;
 import no.laukvik.csv.query.ValueMatcher;
+import no.laukvik.csv.report.Report;
+import no.laukvik.csv.report.Sum;
 import no.laukvik.csv.statistics.FrequencyDistribution;
+import no.laukvik.csv.storage.ColumnTable;
 import org.json.simple.JSONArray;
 import org.json.simple.parser.JSONParser;
 import org.junit.Assert;
@@ -38,10 +44,16 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
@@ -70,6 +82,283 @@ public class CSVTest {
         assertEquals(88, count);
     }
 
+    @Test
+    public void appendFileFromCheckpoint() throws CsvReaderException, IOException {
+        File file = File.createTempFile("checkpoint", ".csv");
+        file.deleteOnExit();
+        Files.write(file.toPath(), "Name;City\r\nÅse;Tromsø\r\n\"Bj, ørn\";Bodø\r\n".getBytes(StandardCharsets.UTF_8));
+        CSV csv = new CSV();
+        CsvReader reader = new CsvReader(StandardCharsets.UTF_8, null, null);
+        reader.readFile(file, csv);
+        Checkpoint checkpoint = reader.getCheckpoint();
+        assertEquals(2, csv.getRowCount());
+        assertEquals(file.length(), checkpoint.getOffset());
+        assertEquals(3, checkpoint.getLineNumber());
+        assertEquals(Character.valueOf(';'), checkpoint.getSeparator());
+
+        Files.write(file.toPath(), "Æsa;Ålesund\r\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        checkpoint = csv.appendFile(file, checkpoint);
+        assertEquals(3, csv.getRowCount());
+        assertEquals("Æsa", csv.getRow(2).getRaw(csv.getColumn("Name")));
+        assertEquals("Ålesund", csv.getRow(2).getRaw(csv.getColumn("City")));
+        assertEquals(file.length(), checkpoint.getOffset());
+        assertEquals(4, checkpoint.getLineNumber());
+
+        checkpoint = csv.appendFile(file, checkpoint);
+        assertEquals(3, csv.getRowCount());
+        assertEquals(file.length(), checkpoint.getOffset());
+    }
+
+    @Test
+    public void appendFileFromCheckpointWithinCharacter() throws CsvReaderException, IOException {
+        File file = File.createTempFile("checkpoint", ".csv");
+        file.deleteOnExit();
+        Files.write(file.toPath(), new byte[]{'n', 'a', 'm', 'e', '\n', 'f', 'i', 'r', 's', 't', '\n',
+                's', 'e', 'c', 'o', 'n', 'd', '\n', (byte) 0xc3});
+        CSV csv = new CSV();
+        CsvReader reader = new CsvReader(StandardCharsets.UTF_8, null, null);
+        reader.readFile(file, csv);
+        Checkpoint checkpoint = reader.getCheckpoint();
+        assertEquals(18, checkpoint.getOffset());
+        assertTrue(checkpoint.hasPartialRow());
+
+        Files.write(file.toPath(), new byte[]{(byte) 0xa5, '\n'}, StandardOpenOption.APPEND);
+        checkpoint = csv.appendFile(file, checkpoint);
+        assertEquals(3, csv.getRowCount());
+        assertEquals("second", csv.getRow(1).getRaw(csv.getColumn("name")));
+        assertEquals("\u00e5", csv.getRow(2).getRaw(csv.getColumn("name")));
+        assertEquals(file.length(), checkpoint.getOffset());
+        assertFalse(checkpoint.hasPartialRow());
+    }
+
+    @Test
+    public void appendFileFromCheckpointBeforePartialRecord() throws CsvReaderException, IOException {
+        File file = File.createTempFile("checkpoint", ".csv");
+        file.deleteOnExit();
+        Files.write(file.toPath(), "a,b\n1,2\n3,".getBytes(StandardCharsets.UTF_8));
+        CSV csv = new CSV();
+        CsvReader reader = new CsvReader(StandardCharsets.UTF_8, null, null);
+        reader.readFile(file, csv);
+        Checkpoint checkpoint = reader.getCheckpoint();
+        assertEquals(2, csv.getRowCount());
+        assertEquals(8, checkpoint.getOffset());
+        assertEquals(2, checkpoint.getLineNumber());
+        assertTrue(checkpoint.hasPartialRow());
+
+        Files.write(file.toPath(), "4\n5,\"ø\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        checkpoint = csv.appendFile(file, checkpoint);
+        assertEquals(3, csv.getRowCount());
+        assertEquals("3", csv.getRow(1).getRaw(csv.getColumn("a")));
+        assertEquals("4", csv.getRow(1).getRaw(csv.getColumn("b")));
+        assertEquals(file.length() - "5,\"ø\n".getBytes(StandardCharsets.UTF_8).length, checkpoint.getOffset());
+        assertEquals(3, checkpoint.getLineNumber());
+        assertTrue(checkpoint.hasPartialRow());
+
+        Files.write(file.toPath(), "6\"\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        checkpoint = csv.appendFile(file, checkpoint);
+        assertEquals(3, csv.getRowCount());
+        assertEquals("ø\n6", csv.getRow(2).getRaw(csv.getColumn("b")));
+        assertEquals(file.length(), checkpoint.getOffset());
+        assertEquals(4, checkpoint.getLineNumber());
+        assertFalse(checkpoint.hasPartialRow());
+    }
+
+    @Test
+    public void readFileStream() throws CsvReaderException {
+        CSV csv = new CSV();
+        try (Stream<Row> rows = csv.readFileStream(getResource("presidents.csv"))) {
+            StringColumn party = csv.getStringColumn("Party");
+            assertEquals(9, csv.getColumnCount());
+            assertEquals(0, csv.getRowCount());
+            assertEquals(5, rows.filter(r -> "Democratic".equals(r.get(party))).count());
+        }
+    }
+
+    @Test
+    public void readFileWithProjection() throws CsvReaderException {
+        CSV csv = new CSV();
+        csv.readFile(getResource("presidents.csv"), Arrays.asList("Party", "Presidency"));
+        assertEquals(2, csv.getColumnCount());
+        assertEquals(44, csv.getRowCount());
+        assertEquals("Presidency", csv.getColumn(0).getName());
+        assertEquals("Party", csv.getColumn(1).getName());
+        assertEquals("Federalist ", csv.getRow(1).getRaw(csv.getColumn(1)));
+
+        csv.readFile(getResource("presidents.csv"), 1, 8);
+        assertEquals(2, csv.getColumnCount());
+        assertEquals("President", csv.getColumn(0).getName());
+        assertEquals("Home State", csv.getColumn(1).getName());
+        assertEquals("Massachusetts", csv.getRow(1).getRaw(csv.getColumn(1)));
+    }
+
+    @Test
+    public void readFileWithQuery() throws CsvReaderException {
+        IntegerColumn presidency = new IntegerColumn("Presidency");
+        Query query = new Query().isBetween(presidency, 10, 14).descending(presidency);
+        CSV csv = new CSV();
+        csv.readFile(getResource("metadata.csv"), query);
+        assertEquals(12, csv.getColumnCount());
+        assertEquals(5, csv.getRowCount());
+        assertEquals("14", csv.getRow(0).getRaw(csv.getColumn("Presidency")));
+        assertEquals("10", csv.getRow(4).getRaw(csv.getColumn("Presidency")));
+    }
+
+    @Test
+    public void readFileLazy() throws CsvReaderException {
+        CSV expected = new CSV();
+        expected.readFile(getResource("metadata.csv"));
+        CSV csv = new CSV();
+        csv.readFileLazy(getResource("metadata.csv"));
+        assertEquals(expected.getColumnCount(), csv.getColumnCount());
+        assertEquals(expected.getRowCount(), csv.getRowCount());
+        for (int y = 0; y < csv.getRowCount(); y++) {
+            for (int x = 0; x < csv.getColumnCount(); x++) {
+                assertEquals(expected.getRow(y).getObject(expected.getColumn(x)),
+                        csv.getRow(y).getObject(csv.getColumn(x)));
+            }
+        }
+    }
+
+    @Test
+    public void readFileLazyFromManyThreads() throws CsvReaderException {
+        CSV expected = new CSV();
+        expected.readFile(getResource("metadata.csv"));
+        CSV csv = new CSV();
+        csv.readFileLazy(getResource("metadata.csv"));
+        Row row = csv.getRow(0);
+        IntStream.range(0, 1000).parallel().forEach(i -> {
+            int x = i % csv.getColumnCount();
+            assertEquals(expected.getRow(0).getObject(expected.getColumn(x)), row.getObject(csv.getColumn(x)));
+        });
+    }
+
+    @Test
+    public void readFileLeniently() throws CsvReaderException {
+        CSV expected = new CSV();
+        expected.readFile(getResource("metadata.csv"));
+        CSV csv = new CSV();
+        assertTrue(csv.readFileLeniently(getResource("metadata.csv"), 0).isEmpty());
+        assertEquals(expected.getRowCount(), csv.getRowCount());
+    }
+
+    @Test
+    public void readFileOffHeap() throws CsvReaderException {
+        CSV expected = new CSV();
+        expected.readFile(getResource("metadata.csv"));
+        CSV csv = new CSV();
+        csv.setOffHeap(true);
+        csv.readFile(getResource("metadata.csv"));
+        assertTrue(csv.isOffHeap());
+        assertTrue(csv.isColumnar());
+        for (int y = 0; y < csv.getRowCount(); y++) {
+            for (int x = 0; x < csv.getColumnCount(); x++) {
+                assertEquals(expected.getRow(y).getObject(expected.getColumn(x)),
+                        csv.getRow(y).getObject(csv.getColumn(x)));
+            }
+        }
+        IntegerColumn presidency = (IntegerColumn) csv.getColumn("Presidency");
+        assertEquals(4, csv.findRowsByQuery(new Query().isGreaterThan(presidency, 40)).size());
+        Report report = new Report();
+        report.addGroup(csv.getColumn("Party"));
+        report.addColumn(new Sum(presidency));
+        Report expectedReport = new Report();
+        expectedReport.addGroup(expected.getColumn("Party"));
+        expectedReport.addColumn(new Sum((IntegerColumn) expected.getColumn("Presidency")));
+        assertEquals(expectedReport.buildReport(expected).getRowCount(), report.buildReport(csv).getRowCount());
+
+        csv.setOffHeap(false);
+        assertFalse(csv.isOffHeap());
+        assertTrue(csv.isColumnar());
+        assertEquals(expected.getRow(3).getObject(expected.getColumn(1)),
+                csv.getRow(3).getObject(csv.getColumn(1)));
+        csv.setOffHeap(true);
+        csv.releaseStorage();
+        assertEquals(0, csv.getRowCount());
+        csv.addRow().set(presidency, 45);
+        assertEquals((Integer) 45, csv.getRow(0).get(presidency));
+        csv.releaseStorage();
+    }
+
+    @Test
+    public void spillRowsOverMemoryBudget() {
+        CSV csv = new CSV();
+        IntegerColumn id = csv.addIntegerColumn("id");
+        StringColumn name = csv.addStringColumn("name");
+        csv.addRow().set(id, -1).set(name, "first");
+        csv.setMemoryBudget(100000);
+        assertEquals(100000, csv.getMemoryBudget());
+        for (int i = 0; i < 3 * ColumnTable.DEFAULT_PAGE_SIZE; i++) {
+            csv.addRow().set(id, i).set(name, "name" + (i % 10));
+        }
+        assertEquals("first", csv.getRow(0).get(name));
+        assertEquals(3 * ColumnTable.DEFAULT_PAGE_SIZE - 1, csv.getInts(id).max().getAsInt());
+        Query query = new Query().isGreaterThan(id, 3 * ColumnTable.DEFAULT_PAGE_SIZE - 11);
+        assertEquals(10, csv.findRowsByQuery(query).size());
+        csv.setColumnar(false);
+        assertEquals(-1, csv.getMemoryBudget());
+        int last = 3 * ColumnTable.DEFAULT_PAGE_SIZE - 1;
+        assertEquals("name" + last % 10, csv.getRow(csv.getRowCount() - 1).get(name));
+    }
+
+    @Test
+    public void keepNoRowObjectsWhenColumnar() {
+        CSV csv = new CSV();
+        csv.setColumnar(true);
+        IntegerColumn id = csv.addIntegerColumn("id");
+        for (int i = 0; i < 5; i++) {
+            csv.addRow().set(id, i);
+        }
+        assertNotSame(csv.getRow(2), csv.getRow(2));
+        assertEquals(csv.getRow(2), csv.getRow(2));
+        assertEquals(2, csv.indexOf(csv.getRow(2)));
+        csv.swapRows(0, 4);
+        csv.removeRow(1);
+        csv.addRow(1).set(id, 10);
+        assertEquals(4, csv.indexOf(csv.getRow(4)));
+        int[] expected = {4, 10, 2, 3, 0};
+        for (int y = 0; y < expected.length; y++) {
+            assertEquals(expected[y], csv.getRow(y).getInt(id, -1));
+        }
+        csv.findRows().sort((a, b) -> Integer.compare(a.getInt(id, 0), b.getInt(id, 0)));
+        assertEquals(0, csv.getRow(0).getInt(id, -1));
+        assertEquals(10, csv.getRow(4).getInt(id, -1));
+        csv.removeRowsBetween(0, 1);
+        assertEquals(3, csv.getRowCount());
+        assertEquals(3, csv.getRow(0).getInt(id, -1));
+        csv.setColumnar(false);
+        assertSame(csv.getRow(0), csv.getRow(0));
+        assertEquals(3, csv.getRow(0).getInt(id, -1));
+    }
+
+    @Test
+    public void readFileColumnar() throws CsvReaderException {
+        CSV expected = new CSV();
+        expected.readFile(getResource("metadata.csv"));
+        CSV csv = new CSV();
+        csv.setColumnar(true);
+        csv.readFile(getResource("metadata.csv"));
+        assertTrue(csv.isColumnar());
+        assertEquals(expected.getRowCount(), csv.getRowCount());
+        for (int y = 0; y < csv.getRowCount(); y++) {
+            for (int x = 0; x < csv.getColumnCount(); x++) {
+                assertEquals(expected.getRow(y).getObject(expected.getColumn(x)),
+                        csv.getRow(y).getObject(csv.getColumn(x)));
+            }
+        }
+        IntegerColumn presidency = (IntegerColumn) csv.getColumn("Presidency");
+        IntegerColumn expectedPresidency = (IntegerColumn) expected.getColumn("Presidency");
+        assertEquals(expected.findRowsByQuery(new Query().isGreaterThan(expectedPresidency, 10)).size(),
+                csv.findRowsByQuery(new Query().isGreaterThan(presidency, 10)).size());
+
+        csv.setColumnar(false);
+        assertFalse(csv.isColumnar());
+        assertEquals(expected.getRow(3).getObject(expected.getColumn(1)), csv.getRow(3).getObject(csv.getColumn(1)));
+        csv.setColumnar(true);
+        Row row = csv.addRow(new Row().set(presidency, 99));
+        assertEquals((Integer) 99, csv.getRow(csv.getRowCount() - 1).get(presidency));
+        assertEquals(csv.getRowCount() - 1, csv.indexOf(row));
+    }
+
     private static boolean xsd_valid(File file) {
         File schemaFile = new File("src/main/resources/csv.xsd"); // etc.
         Source xmlFile = new StreamSource(file);
@@ -186,10 +475,52 @@ public class CSVTest {
         int cols = csv.getColumnCount();
         csv.removeColumn(presidency);
         assertEquals(cols - 1, csv.getColumnCount());
+        assertNull(csv.getRow(0).get(presidency));
         csv.removeColumn(2);
         assertEquals(cols - 2, csv.getColumnCount());
     }
 
+    @Test
+    public void removeColumnClearsValues() throws CsvReaderException {
+        CSV csv = new CSV();
+        csv.readFile(getResource("presidents.csv"));
+        StringColumn presidency = (StringColumn) csv.getColumn(0);
+        assertNotNull(csv.getRow(0).get(presidency));
+        csv.removeColumn(presidency);
+        presidency.setCSV(csv);
+        for (Row row : csv.findRows()) {
+            assertNull(row.get(presidency));
+        }
+    }
+
+    @Test
+    public void removeColumnColumnar() throws CsvReaderException {
+        CSV csv = new CSV();
+        csv.setCharset(StandardCharsets.UTF_8);
+        csv.readFile(getResource("presidents.csv"));
+        csv.setColumnar(true);
+        StringColumn presidency = (StringColumn) csv.getColumn(0);
+        StringColumn president = (StringColumn) csv.getColumn(1);
+        String name = csv.getRow(0).get(president);
+        csv.removeColumn(presidency);
+        assertNull(csv.getRow(0).get(presidency));
+        assertEquals(name, csv.getRow(0).get(president));
+    }
+
+    @Test
+    public void getInts() throws CsvReaderException {
+        CSV csv = new CSV();
+        IntegerColumn id = csv.addIntegerColumn("id");
+        DoubleColumn score = csv.addDoubleColumn("score");
+        csv.addRow().set(id, 3).set(score, 1.5);
+        csv.addRow();
+        csv.addRow().set(id, 4).set(score, 2.0);
+        assertEquals(7, csv.getInts(id).sum());
+        csv.setColumnar(true);
+        assertArrayEquals(new int[]{3, 4}, csv.getInts(id).toArray());
+        assertEquals(3.5, csv.getDoubles(score).sum(), 0);
+    }
+
     // ------ Rows ------
 
     @Test
@@ -649,6 +980,25 @@ public class CSVTest {
         assertEquals(3, fd.getKeys().size());
     }
 
+    @Test
+    public void buildFrequencyDistributionWithDictionary() throws Exception {
+        CSV csv = new CSV();
+        CsvReader reader = new CsvReader(null, null, null);
+        reader.setDictionaryEncoding(true);
+        reader.readFile(getResource("presidents.csv"), csv);
+        StringColumn party = (StringColumn) csv.getColumn("Party");
+        assertNotNull(party.getDictionary());
+        assertSame(csv.getRow(6).get(party), csv.getRow(7).get(party));
+        CSV expected = new CSV();
+        expected.readFile(getResource("presidents.csv"));
+        FrequencyDistribution<String> fd = csv.buildFrequencyDistribution(party);
+        FrequencyDistribution<String> expectedFd = expected.buildFrequencyDistribution(expected.getStringColumn("Party"));
+        assertEquals(expectedFd.getKeys(), fd.getKeys());
+        for (String key : fd.getKeys()) {
+            assertEquals(expectedFd.getCount(key), fd.getCount(key));
+        }
+    }
+
     @Test
     public void buildFrequencyDistribution_int() throws Exception {
         CSV csv = new CSV();
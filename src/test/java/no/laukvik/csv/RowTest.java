@@ -19,6 +19,7 @@ import junit.framework.TestCase;
 import no.laukvik.csv.columns.BigDecimalColumn;
 import no.laukvik.csv.columns.BooleanColumn;
 import no.laukvik.csv.columns.ByteColumn;
+import no.laukvik.csv.columns.Column;
 import no.laukvik.csv.columns.DateColumn;
 import no.laukvik.csv.columns.DoubleColumn;
 import no.laukvik.csv.columns.FloatColumn;
@@ -90,6 +91,123 @@ public class RowTest {
 
     }
 
+    @Test
+    public void shouldSetAllColumnsInTable() throws MalformedURLException {
+        CSV csv = new CSV();
+        csv.setColumnar(true);
+        BigDecimalColumn bdc = csv.addBigDecimalColumn("bigDecimal");
+        BooleanColumn bc = csv.addBooleanColumn("boolean");
+        ByteColumn byteC = csv.addByteColumn("byte");
+        DateColumn datec = csv.addDateColumn("date");
+        DoubleColumn dc = csv.addDoubleColumn("double");
+        FloatColumn fc = csv.addFloatColumn("float");
+        IntegerColumn ic = csv.addIntegerColumn("integer");
+        StringColumn sc = csv.addStringColumn("string");
+        UrlColumn uc = csv.addUrlColumn("url");
+        Row empty = csv.addRow();
+        Row r = csv.addRow();
+
+        Date now = new Date();
+        URL url = new URL("http://www.google.com");
+        r.set(bdc, new BigDecimal("123")).set(bc, false).set(byteC, new byte[]{1, 2, 3}).set(datec, now)
+                .set(dc, 178d).set(fc, 99f).set(ic, 64).set(sc, "Bob").set(uc, url);
+
+        assertEquals(new BigDecimal("123"), r.get(bdc));
+        assertEquals(Boolean.FALSE, r.get(bc));
+        assertTrue(Arrays.equals(new byte[]{1, 2, 3}, r.get(byteC)));
+        assertEquals(now, r.get(datec));
+        TestCase.assertEquals(178d, r.get(dc));
+        assertEquals(99f, r.get(fc));
+        assertEquals((Integer) 64, r.get(ic));
+        assertEquals("Bob", r.get(sc));
+        assertEquals(url, r.get(uc));
+        for (Column c : csv.getColumns()) {
+            assertTrue(empty.isNull(c));
+        }
+
+        r.setNull(ic);
+        assertNull(r.get(ic));
+        assertEquals("", r.getRaw(ic));
+        r.setRaw(ic, "12");
+        assertEquals((Integer) 12, r.get(ic));
+    }
+
+    @Test
+    public void shouldKeepValuesWhenColumnsMove() {
+        CSV csv = new CSV();
+        StringColumn first = csv.addStringColumn("first");
+        IntegerColumn salary = csv.addIntegerColumn("salary");
+        Row row = csv.addRow().set(first, "Bill").set(salary, 250000);
+        csv.moveColumn(1, 0);
+        assertEquals(0, first.getOrdinal());
+        assertEquals(1, salary.getOrdinal());
+        assertEquals("Bill", row.get(first));
+        assertEquals(Integer.valueOf(250000), row.get(salary));
+    }
+
+    @Test
+    public void shouldGrowWhenColumnsAreAdded() {
+        CSV csv = new CSV();
+        StringColumn first = csv.addStringColumn("first");
+        Row row = csv.addRow().set(first, "Bill");
+        StringColumn last = csv.addStringColumn("last");
+        assertNull(row.get(last));
+        row.set(last, "Gates");
+        assertEquals("Gates", row.get(last));
+        assertEquals("Bill", row.get(first));
+    }
+
+    @Test
+    public void shouldRemoveValuesOfRemovedColumn() {
+        CSV csv = new CSV();
+        StringColumn first = csv.addStringColumn("first");
+        StringColumn last = csv.addStringColumn("last");
+        Row row = csv.addRow().set(first, "Bill").set(last, "Gates");
+        csv.removeColumn(first);
+        assertEquals(0, first.getOrdinal());
+        assertNull(row.get(first));
+        StringColumn again = csv.addStringColumn("first");
+        assertEquals(2, again.getOrdinal());
+        assertNull(row.get(again));
+        assertEquals("Gates", row.get(last));
+    }
+
+    @Test
+    public void shouldFindValueByColumnOfAnotherCSV() {
+        CSV csv = new CSV();
+        csv.addStringColumn("first");
+        StringColumn last = csv.addStringColumn("last");
+        Row row = csv.addRow().set(last, "Gates");
+        CSV other = new CSV();
+        StringColumn otherLast = other.addStringColumn("last");
+        assertEquals("Gates", row.get(otherLast));
+        StringColumn unknown = new StringColumn("unknown");
+        row.set(unknown, "value");
+        assertEquals("value", row.get(unknown));
+    }
+
+    @Test
+    public void shouldGetUnboxed() {
+        CSV csv = new CSV();
+        IntegerColumn ic = csv.addIntegerColumn("int");
+        FloatColumn fc = csv.addFloatColumn("float");
+        DoubleColumn dc = csv.addDoubleColumn("double");
+        BooleanColumn bc = csv.addBooleanColumn("boolean");
+        Row row = csv.addRow().set(ic, 5).set(fc, 1.5f).set(dc, 2.5).set(bc, true);
+        Row empty = csv.addRow();
+        assertEquals(5, row.getInt(ic, -1));
+        assertEquals(-1, empty.getInt(ic, -1));
+        assertEquals(1.5f, row.getFloat(fc, 0), 0);
+        assertEquals(2.5, row.getDouble(dc, 0), 0);
+        assertTrue(row.getBoolean(bc, false));
+        assertTrue(empty.getBoolean(bc, true));
+        csv.setColumnar(true);
+        assertEquals(5, csv.getRow(0).getInt(ic, -1));
+        assertEquals(-1, csv.getRow(1).getInt(ic, -1));
+        assertEquals(2.5, csv.getRow(0).getDouble(dc, 0), 0);
+        assertTrue(csv.getRow(1).isNull(dc));
+    }
+
     @Test
     public void setBigDecimal() {
         CSV csv = new CSV();
@@ -213,4 +331,24 @@ public class RowTest {
         assertEquals("", r.getRaw(ic2));
     }
 
+    @Test
+    public void readLazyValues() {
+        IntegerColumn ic = new IntegerColumn("integer");
+        StringColumn sc = new StringColumn("string");
+        RecordBlock block = new RecordBlock(new Column[]{ic, sc, null}, 64);
+        char[] chars = "12Bob".toCharArray();
+        Row first = new Row(block, block.add(chars, new int[]{2, 5, 5}, 3));
+        Row second = new Row(block, block.add("7".toCharArray(), new int[]{1}, 1));
+        assertEquals(Integer.valueOf(12), first.get(ic));
+        assertEquals("Bob", first.get(sc));
+        assertEquals("Bob", first.getRaw(new StringColumn("string")));
+        assertEquals(Integer.valueOf(7), second.get(ic));
+        assertNull(second.get(sc));
+        assertNull(first.getObject(new StringColumn("unknown")));
+        first.setNull(sc);
+        assertTrue(first.isNull(sc));
+        first.set(ic, 13);
+        assertEquals(Integer.valueOf(13), first.get(ic));
+    }
+
 }
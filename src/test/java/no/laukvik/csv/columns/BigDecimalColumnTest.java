@@ -32,6 +32,9 @@ public class BigDecimalColumnTest {
     public void parse() throws Exception {
         BigDecimalColumn c = new BigDecimalColumn("column");
         assertEquals(new BigDecimal("153"), c.parse("153"));
+        assertNull(c.parse(""));
+        assertNull(c.parse(null));
+        assertEquals("", c.asString(null));
     }
 
     @Test
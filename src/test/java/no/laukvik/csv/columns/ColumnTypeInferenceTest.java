@@ -0,0 +1,58 @@
+package no.laukvik.csv.columns;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ColumnTypeInferenceTest {
+
+    private static Column infer(String... values) {
+        ColumnTypeInference inference = new ColumnTypeInference();
+        for (String value : values) {
+            inference.add(value);
+        }
+        return inference.createColumn("column");
+    }
+
+    @Test
+    public void inferTypes() {
+        assertTrue(infer("true", "false", "") instanceof BooleanColumn);
+        assertTrue(infer("1", "-20", "") instanceof IntegerColumn);
+        assertTrue(infer("1.5", "-2.25") instanceof DoubleColumn);
+        assertTrue(infer("1", "2.5") instanceof BigDecimalColumn);
+        assertTrue(infer("1.50", "12345678901234567890") instanceof BigDecimalColumn);
+        assertTrue(infer("2016-01-31", "1999-12-01") instanceof LocalDateColumn);
+        assertTrue(infer("2016-01-31T10:00:00", "1999-12-01T23:59") instanceof LocalDateTimeColumn);
+    }
+
+    @Test
+    public void keepStrings() {
+        assertTrue(infer("007") instanceof StringColumn);
+        assertTrue(infer("1", "abc") instanceof StringColumn);
+        assertTrue(infer("TRUE") instanceof StringColumn);
+        assertTrue(infer("1e5") instanceof StringColumn);
+        assertTrue(infer("31/01/2016") instanceof StringColumn);
+        assertTrue(infer("", "") instanceof StringColumn);
+        assertTrue(infer() instanceof StringColumn);
+    }
+
+    @Test
+    public void addChars() {
+        ColumnTypeInference inference = new ColumnTypeInference();
+        char[] chars = "xx42yy".toCharArray();
+        inference.add(chars, 2, 2);
+        inference.add(chars, 0, 0);
+        Column column = inference.createColumn("Answer");
+        assertTrue(column instanceof IntegerColumn);
+        assertEquals("Answer", column.getName());
+    }
+
+    @Test
+    public void keepDefinedTypes() {
+        ColumnTypeInference inference = new ColumnTypeInference();
+        inference.add("12");
+        assertTrue(Column.parseName("Amount(type=VARCHAR)", inference) instanceof StringColumn);
+        assertTrue(Column.parseName("Amount", inference) instanceof IntegerColumn);
+    }
+}
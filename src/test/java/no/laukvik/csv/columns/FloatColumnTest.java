@@ -24,6 +24,15 @@ public class FloatColumnTest {
         assertEquals(null, dc.parse(null));
     }
 
+    @Test
+    public void parseChars() throws Exception {
+        FloatColumn dc = new FloatColumn("quantity");
+        char[] chars = "|512.3|  |".toCharArray();
+        assertEquals((Float) 512.3f, dc.parse(chars, 1, 5));
+        assertEquals(null, dc.parse(chars, 7, 2));
+        assertEquals(dc.parse(""), dc.parse(chars, 0, 0));
+    }
+
     @Test
     public void compare() throws Exception {
         FloatColumn dc = new FloatColumn("quantity");
@@ -27,6 +27,15 @@ public class IntegerColumnTest {
         assertEquals(null, dc.parse(null));
     }
 
+    @Test
+    public void parseChars() throws Exception {
+        IntegerColumn dc = new IntegerColumn("quantity");
+        char[] chars = "|512|  |".toCharArray();
+        assertEquals((Integer) 512, dc.parse(chars, 1, 3));
+        assertEquals(null, dc.parse(chars, 5, 2));
+        assertEquals(dc.parse(""), dc.parse(chars, 0, 0));
+    }
+
     @Test
     public void compare() throws Exception {
         IntegerColumn dc = new IntegerColumn("quantity");
@@ -0,0 +1,128 @@
+package no.laukvik.csv.columns;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class NumberParserTest {
+
+    private static int parseInt(String value) {
+        char[] chars = ("xx" + value + "yy").toCharArray();
+        return NumberParser.parseInt(chars, 2, value.length());
+    }
+
+    private static long parseLong(String value) {
+        char[] chars = ("xx" + value + "yy").toCharArray();
+        return NumberParser.parseLong(chars, 2, value.length());
+    }
+
+    private static double parseDouble(String value) {
+        char[] chars = ("xx" + value + "yy").toCharArray();
+        return NumberParser.parseDouble(chars, 2, value.length());
+    }
+
+    private static float parseFloat(String value) {
+        char[] chars = ("xx" + value + "yy").toCharArray();
+        return NumberParser.parseFloat(chars, 2, value.length());
+    }
+
+    private static void assertSameFloat(String value) {
+        assertEquals(value, Float.floatToRawIntBits(Float.parseFloat(value)), Float.floatToRawIntBits(parseFloat(value)));
+    }
+
+    private static void assertSameDouble(String value) {
+        assertEquals(value, Double.doubleToRawLongBits(Double.parseDouble(value)),
+                Double.doubleToRawLongBits(parseDouble(value)));
+    }
+
+    @Test
+    public void parseIntegers() {
+        assertEquals(0, parseInt("0"));
+        assertEquals(512, parseInt("512"));
+        assertEquals(-512, parseInt("-512"));
+        assertEquals(512, parseInt("+512"));
+        assertEquals(Integer.MAX_VALUE, parseInt("2147483647"));
+        assertEquals(Integer.MIN_VALUE, parseInt("-2147483648"));
+        assertEquals(7, parseInt("0000000007"));
+    }
+
+    @Test
+    public void parseLongs() {
+        assertEquals(0L, parseLong("0"));
+        assertEquals(-123456789012L, parseLong("-123456789012"));
+        assertEquals(Long.MAX_VALUE, parseLong("9223372036854775807"));
+        assertEquals(Long.MIN_VALUE, parseLong("-9223372036854775808"));
+    }
+
+    @Test
+    public void invalidIntegers() {
+        for (String value : new String[]{"", "-", "+", "1a", " 1", "2147483648", "1.0"}) {
+            try {
+                parseInt(value);
+                fail(value);
+            } catch (NumberFormatException e) {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void parseDoubles() {
+        String[] values = {"0", "-0", "0.0", "1", "1.5", "-1.5", ".5", "5.", "3.14159", "1e10", "1E-10", "2.5e+3",
+                "123456789012345", "0.1", "0.30000000000000004", "1.7976931348623157E308", "4.9E-324",
+                "123456789012345678901234567890", "1e400", "1e-400", "NaN", "-Infinity", "0x1p3", "1d", " 2 ",
+                "0.000000000000000000000000000001", "9007199254740993", "1e22", "1e23"};
+        for (String value : values) {
+            assertSameDouble(value);
+        }
+    }
+
+    @Test
+    public void parseRandomDoubles() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            assertSameDouble(Double.toString(Double.longBitsToDouble(random.nextLong())));
+            assertSameDouble(Long.toString(random.nextLong() % 100000000L) + "." + random.nextInt(1000000));
+            assertSameDouble(random.nextInt(1000) + "e" + (random.nextInt(60) - 30));
+            assertSameDouble(Math.abs(random.nextLong() % 1000000000000000000L) + "e" + (random.nextInt(700) - 350));
+        }
+    }
+
+    @Test
+    public void parseDoublesOutsideExactRange() {
+        String[] values = {"2.2250738585072014E-308", "2.2250738585072011E-308", "1e-320", "9007199254740993e10",
+                "123456789012345678", "0.1e-300", "7.1e-10", "3.4028235e38", "1.00000005960464477539062499",
+                "8.988465674311579E307", "179769313486231580793728971405301e276", "4.9406564584124654E-324"};
+        for (String value : values) {
+            assertSameDouble(value);
+            assertSameFloat(value);
+        }
+    }
+
+    @Test
+    public void parseRandomFloats() {
+        Random random = new Random(7);
+        for (int i = 0; i < 100000; i++) {
+            assertSameFloat(Float.toString(Float.intBitsToFloat(random.nextInt())));
+            assertSameFloat(Double.toString(Double.longBitsToDouble(random.nextLong())));
+            assertSameFloat(Long.toString(random.nextLong() % 1000000000000L) + "." + random.nextInt(1000000));
+            assertSameFloat(random.nextInt(100000000) + "e" + (random.nextInt(90) - 45));
+        }
+    }
+
+    @Test
+    public void invalidDoubles() {
+        for (String value : new String[]{"", "-", ".", "e5", "1e", "1e+", "1.2.3", "abc"}) {
+            try {
+                parseDouble(value);
+                fail(value);
+            } catch (NumberFormatException e) {
+                // Expected
+            }
+        }
+    }
+
+}
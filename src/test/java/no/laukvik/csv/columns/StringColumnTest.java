@@ -30,6 +30,15 @@ public class StringColumnTest {
         assertEquals("", c.parse(null));
     }
 
+    @Test
+    public void parseChars() throws Exception {
+        StringColumn c = new StringColumn("hospital");
+        char[] chars = "|Fake road 12|  |".toCharArray();
+        assertEquals("Fake road 12", c.parse(chars, 1, 12));
+        assertEquals("  ", c.parse(chars, 14, 2));
+        assertEquals(c.parse(""), c.parse(chars, 0, 0));
+    }
+
     @Test
     public void compare() throws Exception {
         StringColumn c = new StringColumn("hospital");
@@ -0,0 +1,80 @@
+package no.laukvik.csv.columns;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class StringDictionaryTest {
+
+    private static String intern(StringDictionary dictionary, String value) {
+        char[] chars = ("xx" + value + "yy").toCharArray();
+        return dictionary.intern(chars, 2, value.length());
+    }
+
+    @Test
+    public void shareValues() {
+        StringDictionary dictionary = new StringDictionary();
+        String no = intern(dictionary, "NO");
+        String se = intern(dictionary, "SE");
+        assertEquals("NO", no);
+        assertSame(no, intern(dictionary, "NO"));
+        assertSame(se, intern(dictionary, "SE"));
+        assertSame(no, dictionary.intern(new String("NO")));
+        assertEquals(2, dictionary.size());
+        assertEquals(0, dictionary.codeOf("NO"));
+        assertEquals(1, dictionary.codeOf(new String("SE")));
+        assertEquals(-1, dictionary.codeOf("DK"));
+        assertEquals(-1, dictionary.codeOf(null));
+        assertEquals("SE", dictionary.getValue(1));
+    }
+
+    @Test
+    public void growBeyondInitialCapacity() {
+        StringDictionary dictionary = new StringDictionary();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 500; i++) {
+                intern(dictionary, "value" + (i % 200));
+            }
+        }
+        assertEquals(200, dictionary.size());
+        for (int i = 0; i < 200; i++) {
+            assertEquals("value" + i, dictionary.getValue(dictionary.codeOf("value" + i)));
+        }
+        assertTrue(dictionary.isEnabled());
+    }
+
+    @Test
+    public void switchOffAtMaxSize() {
+        StringDictionary dictionary = new StringDictionary(3);
+        intern(dictionary, "a");
+        intern(dictionary, "b");
+        intern(dictionary, "c");
+        assertFalse(dictionary.isEnabled());
+        assertNotSame(intern(dictionary, "d"), intern(dictionary, "d"));
+        assertEquals(-1, dictionary.codeOf("d"));
+        assertEquals(2, dictionary.codeOf("c"));
+    }
+
+    @Test
+    public void switchOffWhenMostlyDistinct() {
+        StringDictionary dictionary = new StringDictionary();
+        for (int i = 0; i < 5000 && dictionary.isEnabled(); i++) {
+            intern(dictionary, "unique" + i);
+        }
+        assertFalse(dictionary.isEnabled());
+        assertTrue(dictionary.size() < 2000);
+    }
+
+    @Test
+    public void parseWithDictionary() {
+        StringColumn column = new StringColumn("Country");
+        column.setDictionary(new StringDictionary());
+        char[] chars = "NO,NO".toCharArray();
+        assertSame(column.parse(chars, 0, 2), column.parse(chars, 3, 2));
+        assertEquals("", column.parse(chars, 0, 0));
+    }
+}
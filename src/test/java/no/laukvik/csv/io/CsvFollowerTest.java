@@ -0,0 +1,115 @@
+package no.laukvik.csv.io;
+
+import no.laukvik.csv.CSV;
+import no.laukvik.csv.Row;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class CsvFollowerTest {
+
+    private static File createFile(String content) throws IOException {
+        File file = File.createTempFile("follow", ".csv");
+        file.deleteOnExit();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static void append(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+
+    private static CSV createCSV() {
+        CSV csv = new CSV();
+        csv.setCharset(StandardCharsets.UTF_8);
+        return csv;
+    }
+
+    @Test
+    public void pollLeavesPartialRecords() throws IOException, CsvReaderException {
+        File file = createFile("Name;City\r\nÅse;Tromsø\r\nCa");
+        CSV csv = createCSV();
+        List<Row> rows = new ArrayList<>();
+        CsvFollower follower = new CsvFollower(file, csv, null, rows::add);
+        assertEquals(1, follower.poll());
+        assertEquals(2, csv.getColumnCount());
+        assertEquals("Åse", rows.get(0).getRaw(csv.getColumn("Name")));
+        assertEquals(0, follower.poll());
+
+        append(file, "rl;Oslo\r\n\"Multi\nline");
+        assertEquals(1, follower.poll());
+        assertEquals("Carl", rows.get(1).getRaw(csv.getColumn("Name")));
+        assertEquals("Oslo", rows.get(1).getRaw(csv.getColumn("City")));
+
+        append(file, "\";Bergen\r\n");
+        assertEquals(1, follower.poll());
+        assertEquals("Multi\nline", rows.get(2).getRaw(csv.getColumn("Name")));
+        assertEquals("Bergen", rows.get(2).getRaw(csv.getColumn("City")));
+        assertEquals(file.length(), follower.getCheckpoint().getOffset());
+        assertEquals(4, follower.getCheckpoint().getLineNumber());
+        assertEquals(0, csv.getRowCount());
+    }
+
+    @Test
+    public void continueFromCheckpoint() throws IOException, CsvReaderException {
+        File file = createFile("Name,City\nA,B\n");
+        CSV csv = createCSV();
+        CsvFollower follower = new CsvFollower(file, csv, null, row -> { });
+        assertEquals(1, follower.poll());
+        Checkpoint checkpoint = follower.getCheckpoint();
+
+        append(file, "C,D\n");
+        List<Row> rows = new ArrayList<>();
+        assertEquals(1, new CsvFollower(file, csv, checkpoint, rows::add).poll());
+        assertEquals("C", rows.get(0).getRaw(csv.getColumn("Name")));
+        assertEquals(2, csv.getColumnCount());
+    }
+
+    @Test
+    public void readAgainWhenTruncated() throws IOException, CsvReaderException {
+        File file = createFile("Name,City\nA,B\nC,D\n");
+        CSV csv = createCSV();
+        List<Row> rows = new ArrayList<>();
+        CsvFollower follower = new CsvFollower(file, csv, null, rows::add);
+        assertEquals(2, follower.poll());
+        Files.write(file.toPath(), "Name,City\nE,F\n".getBytes(StandardCharsets.UTF_8));
+        assertEquals(1, follower.poll());
+        assertEquals("E", rows.get(2).getRaw(csv.getColumn("Name")));
+        assertEquals(2, csv.getColumnCount());
+    }
+
+    @Test
+    public void followIntoQueue() throws IOException, InterruptedException {
+        File file = createFile("Name,City\n");
+        CSV csv = createCSV();
+        BlockingQueue<Row> queue = new LinkedBlockingQueue<>();
+        try (CsvFollower follower = new CsvFollower(file, csv, null, queue)) {
+            follower.setPollInterval(10);
+            follower.start();
+            append(file, "A,B\n");
+            Row row = queue.poll(10, TimeUnit.SECONDS);
+            assertNotNull(row);
+            assertEquals("A", row.getRaw(csv.getColumn("Name")));
+            append(file, "C,");
+            assertNull(queue.poll(100, TimeUnit.MILLISECONDS));
+            append(file, "D\n");
+            row = queue.poll(10, TimeUnit.SECONDS);
+            assertNotNull(row);
+            assertEquals("D", row.getRaw(csv.getColumn("City")));
+            assertNull(follower.getFailure());
+        }
+    }
+}
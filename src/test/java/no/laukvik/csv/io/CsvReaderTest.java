@@ -16,17 +16,34 @@
 package no.laukvik.csv.io;
 
 import no.laukvik.csv.CSV;
+import no.laukvik.csv.Row;
+import no.laukvik.csv.columns.BigDecimalColumn;
+import no.laukvik.csv.columns.IntegerColumn;
 import no.laukvik.csv.columns.StringColumn;
+import no.laukvik.csv.query.Query;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
 import java.util.SortedMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class CsvReaderTest {
 
@@ -83,6 +100,240 @@ public class CsvReaderTest {
         assertEquals("Column addValue", requiredColumns, csv.getColumnCount());
     }
 
+    @Test
+    public void readFileStream() throws CsvReaderException {
+        CSV csv = new CSV();
+        CsvReader reader = new CsvReader(Charset.forName("utf-8"), null, null);
+        try (Stream<Row> rows = reader.readFileStream(getResource("metadata.csv"), csv)) {
+            IntegerColumn presidency = (IntegerColumn) csv.getColumn("Presidency");
+            List<Row> firstTwo = rows.limit(2).collect(Collectors.toList());
+            assertEquals(Integer.valueOf(2), firstTwo.get(1).get(presidency));
+        }
+        assertEquals(0, csv.getRowCount());
+        assertEquals(12, csv.getColumnCount());
+    }
+
+    @Test
+    public void readWithReadAhead() throws CsvReaderException {
+        CSV expected = new CSV();
+        expected.readFile(getResource("presidents.csv"));
+        CSV csv = new CSV();
+        CsvReader reader = new CsvReader(null, null, null);
+        reader.setReadAhead(true);
+        reader.setReadAheadBuffers(64, 3);
+        reader.readFile(getResource("presidents.csv"), csv);
+        assertEquals(expected.getColumnCount(), csv.getColumnCount());
+        assertEquals(expected.getRowCount(), csv.getRowCount());
+        for (int y = 0; y < csv.getRowCount(); y++) {
+            for (int x = 0; x < csv.getColumnCount(); x++) {
+                assertEquals(expected.getRow(y).getRaw(expected.getColumn(x)), csv.getRow(y).getRaw(csv.getColumn(x)));
+            }
+        }
+        assertTrue(reader.getIoWaitNanos() >= 0);
+        assertTrue(reader.getParseNanos() > 0);
+        assertEquals(getResource("presidents.csv").length(), reader.getCheckpoint().getOffset());
+        assertEquals(45, reader.getCheckpoint().getLineNumber());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void readAheadBuffersMustBePositive() {
+        new CsvReader(null, null, null).setReadAheadBuffers(0, 4);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void lazyReadCanNotBeLenient() {
+        CsvReader reader = new CsvReader(null, null, null);
+        reader.setErrorBudget(10);
+        reader.setLazy(true);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void lenientReadCanNotBeLazy() {
+        CsvReader reader = new CsvReader(null, null, null);
+        reader.setLazy(true);
+        reader.setErrorBudget(0);
+    }
+
+    @Test
+    public void readProjectedColumns() throws CsvReaderException {
+        CSV expected = new CSV();
+        expected.readFile(getResource("presidents.csv"));
+        CSV csv = new CSV();
+        CsvReader reader = new CsvReader(null, null, null);
+        reader.setColumnNames(Arrays.asList("President", "Home State"));
+        reader.readFile(getResource("presidents.csv"), csv);
+        assertEquals(2, csv.getColumnCount());
+        assertEquals("President", csv.getColumn(0).getName());
+        assertEquals("Home State", csv.getColumn(1).getName());
+        assertEquals(44, csv.getRowCount());
+        for (int y = 0; y < csv.getRowCount(); y++) {
+            assertEquals(expected.getRow(y).getRaw(expected.getColumn("President")),
+                    csv.getRow(y).getRaw(csv.getColumn(0)));
+            assertEquals(expected.getRow(y).getRaw(expected.getColumn("Home State")),
+                    csv.getRow(y).getRaw(csv.getColumn(1)));
+        }
+    }
+
+    @Test
+    public void readProjectedIndexes() throws CsvReaderException, IOException {
+        CSV csv = new CSV();
+        CsvReader reader = new CsvReader(null, null, null);
+        reader.setColumnIndexes(0, 2);
+        reader.readFile(getResource("quote_escaped.csv"), csv);
+        CSV expected = new CSV();
+        expected.readFile(getResource("quote_escaped.csv"));
+        assertEquals(2, csv.getColumnCount());
+        assertEquals(expected.getRowCount(), csv.getRowCount());
+        for (int y = 0; y < csv.getRowCount(); y++) {
+            assertEquals(expected.getRow(y).getRaw(expected.getColumn(0)), csv.getRow(y).getRaw(csv.getColumn(0)));
+            assertEquals(expected.getRow(y).getRaw(expected.getColumn(2)), csv.getRow(y).getRaw(csv.getColumn(1)));
+        }
+
+        CsvReader cursorReader = new CsvReader(null, null, null);
+        cursorReader.setColumnIndexes(0, 2);
+        try (RowCursor cursor = cursorReader.readFileCursor(getResource("quote_escaped.csv"), new CSV())) {
+            assertTrue(cursor.next());
+            assertEquals(2, cursor.getFieldCount());
+            assertEquals(expected.getRow(0).getRaw(expected.getColumn(2)), cursor.getString(1));
+            assertEquals(expected.getRow(0).getRaw(expected.getColumn(2)), cursor.getCharSequence(1).toString());
+        }
+    }
+
+    @Test
+    public void readWithQuery() throws CsvReaderException, IOException {
+        StringColumn party = new StringColumn("Party");
+        Query query = new Query().is(party, "Democratic");
+        CsvReader reader = new CsvReader(null, null, null);
+        reader.setQuery(query);
+        reader.setColumnNames(Arrays.asList("President"));
+        CSV csv = new CSV();
+        reader.readFile(getResource("presidents.csv"), csv);
+        assertEquals(1, csv.getColumnCount());
+        assertEquals(5, csv.getRowCount());
+        assertEquals("Franklin D. Roosevelt", csv.getRow(0).getRaw(csv.getColumn(0)));
+
+        try (Stream<Row> rows = reader.readFileStream(getResource("presidents.csv"), new CSV())) {
+            assertEquals(5, rows.count());
+        }
+        int count = 0;
+        try (RowCursor cursor = reader.readFileCursor(getResource("presidents.csv"), new CSV())) {
+            while (cursor.next()) {
+                count++;
+            }
+        }
+        assertEquals(5, count);
+    }
+
+    @Test
+    public void readWithQueryOnMissingColumn() throws CsvReaderException {
+        CsvReader reader = new CsvReader(null, null, null);
+        reader.setQuery(new Query().isEmpty(new StringColumn("Unknown")));
+        CSV csv = new CSV();
+        reader.readFile(getResource("presidents.csv"), csv);
+        assertEquals(44, csv.getRowCount());
+    }
+
+    @Test
+    public void readWithTypeInference() throws CsvReaderException {
+        CSV csv = new CSV();
+        CsvReader reader = new CsvReader(null, null, null);
+        reader.setTypeInference(10);
+        reader.readFile(getResource("planets.csv"), csv);
+        assertTrue(csv.getColumn("rowid") instanceof IntegerColumn);
+        assertTrue(csv.getColumn("pl_hostname") instanceof StringColumn);
+        assertTrue(csv.getColumn("pl_orbper") instanceof BigDecimalColumn);
+        assertTrue(csv.getColumn("ra") instanceof BigDecimalColumn);
+        assertEquals(Integer.valueOf(1), csv.getRow(0).get((IntegerColumn) csv.getColumn("rowid")));
+        assertEquals("326.03000000", csv.getRow(0).getRaw(csv.getColumn("pl_orbper")));
+
+        CSV expected = new CSV();
+        expected.readFile(getResource("planets.csv"));
+        assertEquals(expected.getRowCount(), csv.getRowCount());
+        assertEquals(expected.getColumnCount(), csv.getColumnCount());
+    }
+
+    @Test
+    public void readInputStream() throws CsvReaderException, IOException {
+        CSV expected = new CSV();
+        expected.readFile(getResource("presidents.csv"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+        bytes.write(Files.readAllBytes(getResource("presidents.csv").toPath()));
+        CSV csv = new CSV();
+        new CsvReader(null, null, null).read(new ByteArrayInputStream(bytes.toByteArray()), csv);
+        assertEquals(BOM.UTF8.getCharset(), csv.getCharset());
+        assertEquals("Presidency", csv.getColumn(0).getName());
+        assertEquals(expected.getRowCount(), csv.getRowCount());
+        for (int y = 0; y < csv.getRowCount(); y++) {
+            for (int x = 0; x < csv.getColumnCount(); x++) {
+                assertEquals(expected.getRow(y).getRaw(expected.getColumn(x)), csv.getRow(y).getRaw(csv.getColumn(x)));
+            }
+        }
+    }
+
+    @Test
+    public void readChannel() throws CsvReaderException, IOException {
+        CSV csv = new CSV();
+        try (FileChannel channel = FileChannel.open(getResource("presidents.csv").toPath())) {
+            new CsvReader(null, null, null).read(channel, csv);
+        }
+        assertEquals(44, csv.getRowCount());
+        assertEquals(9, csv.getColumnCount());
+    }
+
+    @Test
+    public void readGzipStream() throws CsvReaderException, IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(Files.readAllBytes(getResource("presidents.csv").toPath()));
+        }
+        CSV csv = new CSV();
+        CsvReader reader = new CsvReader(null, null, null);
+        try (Stream<Row> rows = reader.readStream(new ByteArrayInputStream(bytes.toByteArray()), csv)) {
+            assertEquals(44, rows.count());
+        }
+        assertEquals("Presidency", csv.getColumn(0).getName());
+    }
+
+    @Test
+    public void readCursorFromStream() throws CsvReaderException, IOException {
+        byte[] bytes = "Name,Count\nA,1\nB,2\n".getBytes(StandardCharsets.UTF_8);
+        CSV csv = new CSV();
+        long sum = 0;
+        try (RowCursor cursor = new CsvReader(null, null, null).readCursor(new ByteArrayInputStream(bytes), csv)) {
+            while (cursor.next()) {
+                sum += cursor.getInt(1);
+            }
+        }
+        assertEquals(3, sum);
+    }
+
+    @Test
+    public void readGzip() throws CsvReaderException, IOException {
+        File file = File.createTempFile("presidents", ".csv.gz");
+        file.deleteOnExit();
+        try (OutputStream out = new GZIPOutputStream(new FileOutputStream(file))) {
+            out.write(new byte[]{(byte) 0xEF, (byte) 0xBB, (byte) 0xBF});
+            out.write(Files.readAllBytes(getResource("presidents.csv").toPath()));
+        }
+        CSV expected = new CSV();
+        expected.readFile(getResource("presidents.csv"));
+        CSV csv = new CSV();
+        new CsvReader(null, null, null).readFile(file, csv);
+        assertEquals(BOM.UTF8.getCharset(), csv.getCharset());
+        assertEquals("Presidency", csv.getColumn(0).getName());
+        assertEquals(expected.getColumnCount(), csv.getColumnCount());
+        assertEquals(expected.getRowCount(), csv.getRowCount());
+        for (int y = 0; y < csv.getRowCount(); y++) {
+            for (int x = 0; x < csv.getColumnCount(); x++) {
+                assertEquals(expected.getRow(y).getRaw(expected.getColumn(x)), csv.getRow(y).getRaw(csv.getColumn(x)));
+            }
+        }
+        CSV mapped = new CSV();
+        mapped.readFile(file, new MappedCsvReader(null, null, null));
+        assertEquals(expected.getRowCount(), mapped.getRowCount());
+    }
+
     @Test
     public void readAcid() throws CsvReaderException {
         readFile("acid.csv", 5, 4, "us-ascii");
@@ -193,4 +444,63 @@ public class CsvReaderTest {
         assertEquals((Character) CSV.COMMA, findSeparator("separator_comma.csv"));
     }
 
+    private static ByteArrayInputStream malformed() {
+        String content = "Id(type=INT),Name\n1,A\nx,B\n3\n4,C,extra\n5,\"E,e\"\n6,F\n";
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void readLeniently() throws CsvReaderException {
+        CSV csv = new CSV();
+        CsvReader reader = new CsvReader(StandardCharsets.UTF_8, null, null);
+        reader.setErrorBudget(3);
+        reader.read(malformed(), csv);
+        assertEquals(3, csv.getRowCount());
+        IntegerColumn id = (IntegerColumn) csv.getColumn("Id");
+        assertEquals((Integer) 1, csv.getRow(0).get(id));
+        assertEquals("E,e", csv.getRow(1).getRaw(csv.getColumn("Name")));
+        assertEquals((Integer) 6, csv.getRow(2).get(id));
+        List<MalformedRow> rows = reader.getMalformedRows();
+        assertEquals(3, rows.size());
+        assertEquals(3, rows.get(0).getLineNumber());
+        assertEquals("x,B", rows.get(0).getText());
+        assertTrue(rows.get(0).getReason(), rows.get(0).getReason().contains("NumberFormatException"));
+        assertEquals(4, rows.get(1).getLineNumber());
+        assertEquals("Expected 2 fields but found 1", rows.get(1).getReason());
+        assertEquals(5, rows.get(2).getLineNumber());
+        assertEquals("4,C,extra", rows.get(2).getText());
+    }
+
+    @Test
+    public void keepMalformedRecordAsInFile() throws CsvReaderException {
+        String content = "Id(type=INT),Name\r\n\"x\",\"B\r\nb\"\r\n2,C\r\n";
+        CSV csv = new CSV();
+        CsvReader reader = new CsvReader(StandardCharsets.UTF_8, null, null);
+        reader.setErrorBudget(1);
+        reader.read(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), csv);
+        assertEquals(1, csv.getRowCount());
+        List<MalformedRow> rows = reader.getMalformedRows();
+        assertEquals(1, rows.size());
+        assertEquals("\"x\",\"B\r\nb\"", rows.get(0).getText());
+    }
+
+    @Test(expected = CsvReaderException.class)
+    public void readLenientlyOverBudget() throws CsvReaderException {
+        CsvReader reader = new CsvReader(StandardCharsets.UTF_8, null, null);
+        reader.setErrorBudget(2);
+        reader.read(malformed(), new CSV());
+    }
+
+    @Test
+    public void streamLeniently() throws CsvReaderException {
+        CSV csv = new CSV();
+        CsvReader reader = new CsvReader(StandardCharsets.UTF_8, null, null);
+        reader.setErrorBudget(10);
+        try (Stream<Row> rows = reader.readStream(malformed(), csv)) {
+            assertEquals(3, rows.count());
+        }
+        assertEquals(0, csv.getRowCount());
+        assertEquals(3, reader.getMalformedRows().size());
+    }
+
 }
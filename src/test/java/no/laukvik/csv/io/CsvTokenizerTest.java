@@ -0,0 +1,113 @@
+package no.laukvik.csv.io;
+
+import no.laukvik.csv.CSV;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class CsvTokenizerTest {
+
+    private static List<String> nextRecord(CsvTokenizer tokenizer) throws IOException {
+        assertTrue(tokenizer.next());
+        List<String> values = new ArrayList<>();
+        for (int x = 0; x < tokenizer.getFieldCount(); x++) {
+            values.add(tokenizer.getString(x));
+        }
+        return values;
+    }
+
+    private static CsvTokenizer build(String content, int blockSize) {
+        return new CsvTokenizer(new StringReader(content), CSV.QUOTE_DOUBLE, null, blockSize);
+    }
+
+    @Test
+    public void shouldSplitFields() throws IOException {
+        CsvTokenizer tokenizer = build("First,Last\nSteve,Jobs\n", CsvTokenizer.DEFAULT_BLOCK_SIZE);
+        assertEquals(List.of("First", "Last"), nextRecord(tokenizer));
+        assertEquals(List.of("Steve", "Jobs"), nextRecord(tokenizer));
+        assertFalse(tokenizer.next());
+        assertEquals((Character) CSV.COMMA, tokenizer.getSeparator());
+    }
+
+    @Test
+    public void shouldReadMarkedRecordsAgain() throws IOException {
+        CsvTokenizer tokenizer = build("a,b\n1,2\n\"3\",4\n5,6\n", 4);
+        nextRecord(tokenizer);
+        tokenizer.mark();
+        assertEquals(List.of("1", "2"), nextRecord(tokenizer));
+        assertEquals(List.of("3", "4"), nextRecord(tokenizer));
+        tokenizer.reset();
+        assertEquals(List.of("1", "2"), nextRecord(tokenizer));
+        assertEquals(List.of("3", "4"), nextRecord(tokenizer));
+        assertEquals(List.of("5", "6"), nextRecord(tokenizer));
+        assertFalse(tokenizer.next());
+        assertEquals(4, tokenizer.getLineCounter());
+    }
+
+    @Test
+    public void shouldHandleQuotes() throws IOException {
+        CsvTokenizer tokenizer = build("a,b\n\"ac, abs\",\"Venture \"\"Extended\"\"\"\n", 3);
+        nextRecord(tokenizer);
+        assertEquals(List.of("ac, abs", "Venture \"Extended\""), nextRecord(tokenizer));
+    }
+
+    @Test
+    public void shouldKeepLineBreaksWithinQuotes() throws IOException {
+        CsvTokenizer tokenizer = build("a,b\r\n\"MUST\r\nSELL\",4799\r\n", 2);
+        assertEquals(List.of("a", "b"), nextRecord(tokenizer));
+        assertEquals(List.of("MUST\r\nSELL", "4799"), nextRecord(tokenizer));
+        assertFalse(tokenizer.next());
+    }
+
+    @Test
+    public void shouldKeepRecordAsInStream() throws IOException {
+        for (int blockSize = 1; blockSize < 8; blockSize++) {
+            CsvTokenizer tokenizer = build("a,b\r\n\"1\",\"x\r\ny\"\r\n2,3", blockSize);
+            tokenizer.next();
+            assertEquals("a,b", tokenizer.getRecord());
+            tokenizer.mark();
+            tokenizer.next();
+            assertEquals("\"1\",\"x\r\ny\"", tokenizer.getRecord());
+            tokenizer.reset();
+            tokenizer.next();
+            assertEquals("\"1\",\"x\r\ny\"", tokenizer.getRecord());
+            tokenizer.next();
+            assertEquals("2,3", tokenizer.getRecord());
+        }
+    }
+
+    @Test
+    public void shouldReadLastLineWithoutLinefeed() throws IOException {
+        CsvTokenizer tokenizer = build("a;b\n1;\"2\"", 1);
+        nextRecord(tokenizer);
+        assertEquals(List.of("1", "2"), nextRecord(tokenizer));
+        assertEquals((Character) CSV.SEMICOLON, tokenizer.getSeparator());
+        assertEquals(2, tokenizer.getLineCounter());
+    }
+
+    @Test
+    public void shouldSkipByteOrderMark() throws IOException {
+        CsvTokenizer tokenizer = build("\uFEFFHeading1|Heading2\n", CsvTokenizer.DEFAULT_BLOCK_SIZE);
+        tokenizer.skipByteOrderMark();
+        assertEquals(List.of("Heading1", "Heading2"), nextRecord(tokenizer));
+    }
+
+    @Test
+    public void shouldExposeFieldOffsets() throws IOException {
+        CsvTokenizer tokenizer = build("abc,de\n", CsvTokenizer.DEFAULT_BLOCK_SIZE);
+        assertTrue(tokenizer.next());
+        assertEquals(0, tokenizer.getStart(0));
+        assertEquals(3, tokenizer.getEnd(0));
+        assertEquals(3, tokenizer.getStart(1));
+        assertEquals(5, tokenizer.getEnd(1));
+        assertEquals("de", new String(tokenizer.getChars(), 3, 2));
+    }
+
+}
@@ -20,8 +20,14 @@ import no.laukvik.csv.columns.StringColumn;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -55,6 +61,52 @@ public class CsvWriterTest {
         assertEquals("Gates", csv2.getRow(0).get(last));
     }
 
+    @Test
+    public void writeAndReadStream() throws IOException, CsvReaderException {
+        CSV csv = new CSV();
+        csv.setCharset(StandardCharsets.UTF_8);
+        StringColumn first = csv.addStringColumn("First");
+        StringColumn last = csv.addStringColumn("Last");
+        csv.addRow().setRaw(first, "Åse").setRaw(last, "\"Quoted\"");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new CsvWriter().writeCSV(csv, out);
+
+        CSV csv2 = new CSV();
+        new CsvReader(StandardCharsets.UTF_8, null, null).read(new ByteArrayInputStream(out.toByteArray()), csv2);
+        assertEquals(1, csv2.getRowCount());
+        assertEquals("Åse", csv2.getRow(0).getRaw(csv2.getColumn("First")));
+        assertEquals("\"Quoted\"", csv2.getRow(0).getRaw(csv2.getColumn("Last")));
+    }
+
+    @Test
+    public void writeChannel() throws IOException {
+        CSV csv = new CSV();
+        StringColumn first = csv.addStringColumn("First");
+        csv.addRow().setRaw(first, "Bill");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WritableByteChannel channel = Channels.newChannel(out);
+        new CsvWriter().writeCSV(csv, channel);
+        assertTrue(channel.isOpen());
+        assertEquals("\"First\"\r\n\"Bill\"\r\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+        out.reset();
+        new HtmlWriter().writeCSV(csv, channel);
+        assertTrue(new String(out.toByteArray(), StandardCharsets.UTF_8).contains("<td>Bill</td>"));
+    }
+
+    @Test
+    public void fileOnlyWriterWritesStream() throws IOException {
+        DatasetFileWriter writer = (file, csv) -> {
+            try {
+                Files.write(file.toPath(), "a,b\n".getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                throw new CsvWriterException(file, e);
+            }
+        };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeCSV(new CSV(), out);
+        assertEquals("a,b\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
     @Test
     public void shouldByDigitsOnly() {
         assertTrue(CsvWriter.isDigitsOnly("123"));
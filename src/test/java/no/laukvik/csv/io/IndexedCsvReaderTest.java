@@ -0,0 +1,89 @@
+package no.laukvik.csv.io;
+
+import no.laukvik.csv.CSV;
+import no.laukvik.csv.Row;
+import no.laukvik.csv.columns.Column;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class IndexedCsvReaderTest {
+
+    private static File createFile(int rows) throws IOException {
+        StringBuilder b = new StringBuilder("Id;Text\r\n");
+        for (int i = 0; i < rows; i++) {
+            b.append(i).append(';');
+            if (i % 7 == 0) {
+                b.append("\"Line\n").append(i).append(";\"\"x\"\"\"");
+            } else {
+                b.append("Tekst ").append(i).append('ø');
+            }
+            b.append("\r\n");
+        }
+        File file = File.createTempFile("indexed", ".csv");
+        file.deleteOnExit();
+        RowIndex.getSidecar(file).deleteOnExit();
+        Files.write(file.toPath(), b.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static CSV createCSV() {
+        CSV csv = new CSV();
+        csv.setCharset(StandardCharsets.UTF_8);
+        return csv;
+    }
+
+    @Test
+    public void readAnyRow() throws IOException, CsvReaderException {
+        File file = createFile(1000);
+        CSV expected = createCSV();
+        expected.readFile(file);
+        CSV csv = createCSV();
+        IndexedCsvReader reader = new IndexedCsvReader(file, csv, 32);
+        assertEquals(2, csv.getColumnCount());
+        assertEquals(1000, reader.getRowCount());
+        assertEquals(0, csv.getRowCount());
+        Column text = csv.getColumn("Text");
+        for (int i : new int[]{0, 1, 7, 31, 32, 33, 500, 998, 999}) {
+            Row row = reader.getRow(i);
+            assertEquals(expected.getRow(i).getRaw(expected.getColumn("Text")), row.getRaw(text));
+            assertEquals(String.valueOf(i), row.getRaw(csv.getColumn("Id")));
+        }
+        List<Row> page = reader.getRows(990, 50);
+        assertEquals(10, page.size());
+        assertEquals("990", page.get(0).getRaw(csv.getColumn("Id")));
+    }
+
+    @Test
+    public void rebuildWhenAppended() throws IOException, CsvReaderException {
+        File file = createFile(100);
+        CSV csv = createCSV();
+        IndexedCsvReader reader = new IndexedCsvReader(file, csv, 10);
+        assertEquals(100, reader.getRowCount());
+        Files.write(file.toPath(), "100;Last\r\n".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        assertEquals(101, reader.getRowCount());
+        assertEquals("Last", reader.getRow(100).getRaw(csv.getColumn("Text")));
+    }
+
+    @Test
+    public void appendFromCheckpoint() throws IOException, CsvReaderException {
+        File file = createFile(100);
+        CSV csv = createCSV();
+        IndexedCsvReader reader = new IndexedCsvReader(file, csv, 10);
+        csv.appendFile(file, reader.getCheckpoint(95));
+        assertEquals(10, csv.getRowCount());
+        assertEquals("90", csv.getRow(0).getRaw(csv.getColumn("Id")));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rowOutsideFile() throws IOException, CsvReaderException {
+        new IndexedCsvReader(createFile(10), createCSV()).getRow(10);
+    }
+}
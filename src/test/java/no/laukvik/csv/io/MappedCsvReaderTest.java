@@ -0,0 +1,123 @@
+package no.laukvik.csv.io;
+
+import no.laukvik.csv.CSV;
+import no.laukvik.csv.Row;
+import no.laukvik.csv.columns.BooleanColumn;
+import no.laukvik.csv.columns.DoubleColumn;
+import no.laukvik.csv.columns.FloatColumn;
+import no.laukvik.csv.columns.IntegerColumn;
+import no.laukvik.csv.columns.StringColumn;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class MappedCsvReaderTest {
+
+    private static File getResource(String filename) {
+        ClassLoader classLoader = MappedCsvReaderTest.class.getClassLoader();
+        return new File(classLoader.getResource(filename).getFile());
+    }
+
+    private static void assertSameAsCsvReader(String filename, int windowSize) throws CsvReaderException {
+        CSV expected = new CSV();
+        new CsvReader(null, null, null).readFile(getResource(filename), expected);
+        CSV csv = new CSV();
+        MappedCsvReader reader = new MappedCsvReader(null, null, null);
+        reader.setWindowSize(windowSize);
+        csv.readFile(getResource(filename), reader);
+        assertEquals(expected.getColumnCount(), csv.getColumnCount());
+        assertEquals(expected.getRowCount(), csv.getRowCount());
+        assertEquals(expected.getSeparatorChar(), csv.getSeparatorChar());
+        assertEquals(expected.getCharset(), csv.getCharset());
+        for (int y = 0; y < csv.getRowCount(); y++) {
+            for (int x = 0; x < csv.getColumnCount(); x++) {
+                assertEquals(expected.getRow(y).getRaw(expected.getColumn(x)),
+                        csv.getRow(y).getRaw(csv.getColumn(x)));
+            }
+        }
+    }
+
+    @Test
+    public void readAcid() throws CsvReaderException {
+        assertSameAsCsvReader("acid.csv", MappedCsvReader.DEFAULT_WINDOW_SIZE);
+    }
+
+    @Test
+    public void readWithSmallWindows() throws CsvReaderException {
+        assertSameAsCsvReader("acid.csv", 7);
+        assertSameAsCsvReader("quote_escaped.csv", 5);
+        assertSameAsCsvReader("presidents.csv", 64);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void windowSizeMustBePositive() {
+        new MappedCsvReader(null, null, null).setWindowSize(0);
+    }
+
+    @Test
+    public void detectSeparators() throws CsvReaderException {
+        assertSameAsCsvReader("separator_pipe.csv", 16);
+        assertSameAsCsvReader("separator_semi.csv", 16);
+        assertSameAsCsvReader("separator_tab.csv", 16);
+    }
+
+    @Test
+    public void readUtf8WithBom() throws CsvReaderException {
+        assertSameAsCsvReader("charset_utf_8.csv", MappedCsvReader.DEFAULT_WINDOW_SIZE);
+    }
+
+    @Test
+    public void fallbackForUtf16() throws CsvReaderException {
+        CSV csv = new CSV();
+        csv.readFile(getResource("charset_utf_16_be.csv"), new MappedCsvReader(null, null, null));
+        assertEquals(BOM.UTF16BE.getCharset(), csv.getCharset());
+        assertEquals("Heading1", csv.getColumn(0).getName());
+    }
+
+    @Test
+    public void readIntegers() throws CsvReaderException {
+        CSV csv = new CSV();
+        csv.readFile(getResource("metadata.csv"), new MappedCsvReader(Charset.forName("utf-8"), null, null));
+        assertEquals(44, csv.getRowCount());
+        IntegerColumn presidency = (IntegerColumn) csv.getColumn("Presidency");
+        StringColumn president = (StringColumn) csv.getColumn("President");
+        assertEquals(Integer.valueOf(1), csv.getRow(0).get(presidency));
+        assertEquals("George Washington", csv.getRow(0).get(president));
+    }
+
+    @Test
+    public void parseFieldsFromBytes() throws CsvReaderException, IOException {
+        File file = File.createTempFile("mapped", ".csv");
+        file.deleteOnExit();
+        Files.write(file.toPath(), ("id(type=int),price(type=double),ratio(type=float),active(type=boolean),name\n"
+                + "-12,1.25,0.5,TRUE,Åse\n"
+                + ",,,no,\"Bj, ørn\"\n").getBytes(StandardCharsets.UTF_8));
+        CSV csv = new CSV();
+        csv.readFile(file, new MappedCsvReader(StandardCharsets.UTF_8, null, null));
+        IntegerColumn id = (IntegerColumn) csv.getColumn("id");
+        DoubleColumn price = (DoubleColumn) csv.getColumn("price");
+        FloatColumn ratio = (FloatColumn) csv.getColumn("ratio");
+        BooleanColumn active = (BooleanColumn) csv.getColumn("active");
+        StringColumn name = (StringColumn) csv.getColumn("name");
+        Row first = csv.getRow(0);
+        assertEquals(Integer.valueOf(-12), first.get(id));
+        assertEquals(Double.valueOf(1.25), first.get(price));
+        assertEquals(Float.valueOf(0.5f), first.get(ratio));
+        assertEquals(Boolean.TRUE, first.get(active));
+        assertEquals("Åse", first.get(name));
+        Row second = csv.getRow(1);
+        assertNull(second.get(id));
+        assertNull(second.get(price));
+        assertNull(second.get(ratio));
+        assertEquals(Boolean.FALSE, second.get(active));
+        assertEquals("Bj, ørn", second.get(name));
+    }
+
+}
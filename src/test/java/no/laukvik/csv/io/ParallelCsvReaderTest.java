@@ -0,0 +1,87 @@
+package no.laukvik.csv.io;
+
+import no.laukvik.csv.CSV;
+import no.laukvik.csv.columns.StringColumn;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelCsvReaderTest {
+
+    private static File getResource(String filename) {
+        ClassLoader classLoader = ParallelCsvReaderTest.class.getClassLoader();
+        return new File(classLoader.getResource(filename).getFile());
+    }
+
+    private static void assertSameAsCsvReader(File file, long chunkSize) throws CsvReaderException {
+        CSV expected = new CSV();
+        new CsvReader(null, null, null).readFile(file, expected);
+        CSV csv = new CSV();
+        ParallelCsvReader reader = new ParallelCsvReader(null, null, null, new ForkJoinPool(4));
+        reader.setChunkSize(chunkSize);
+        csv.readFile(file, reader);
+        assertEquals(expected.getColumnCount(), csv.getColumnCount());
+        assertEquals(expected.getRowCount(), csv.getRowCount());
+        assertEquals(expected.getSeparatorChar(), csv.getSeparatorChar());
+        for (int y = 0; y < csv.getRowCount(); y++) {
+            for (int x = 0; x < csv.getColumnCount(); x++) {
+                assertEquals(expected.getRow(y).getRaw(expected.getColumn(x)),
+                        csv.getRow(y).getRaw(csv.getColumn(x)));
+            }
+        }
+    }
+
+    @Test
+    public void readInSmallChunks() throws CsvReaderException {
+        for (int chunkSize = 1; chunkSize < 40; chunkSize++) {
+            assertSameAsCsvReader(getResource("acid.csv"), chunkSize);
+            assertSameAsCsvReader(getResource("quote_escaped.csv"), chunkSize);
+        }
+        assertSameAsCsvReader(getResource("presidents.csv"), 100);
+        assertSameAsCsvReader(getResource("separator_tab.csv"), 3);
+        assertSameAsCsvReader(getResource("charset_utf_8.csv"), 5);
+    }
+
+    @Test
+    public void splitWithinQuotedFields() throws IOException, CsvReaderException {
+        File file = File.createTempFile("parallel", ".csv");
+        file.deleteOnExit();
+        StringBuilder content = new StringBuilder("id,text\n");
+        for (int i = 0; i < 500; i++) {
+            content.append(i).append(",\"line ").append(i).append("\nwith \"\"quotes\"\", and commas\"\n");
+        }
+        Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+        assertSameAsCsvReader(file, 17);
+
+        CSV csv = new CSV();
+        ParallelCsvReader reader = new ParallelCsvReader(null, null, null);
+        reader.setChunkSize(64);
+        csv.readFile(file, reader);
+        assertEquals(500, csv.getRowCount());
+        StringColumn text = (StringColumn) csv.getColumn("text");
+        assertEquals("line 499\nwith \"quotes\", and commas", csv.getRow(499).get(text));
+    }
+
+    @Test
+    public void readFileParallel() throws CsvReaderException {
+        CSV csv = new CSV();
+        csv.readFileParallel(getResource("presidents.csv"));
+        assertEquals(44, csv.getRowCount());
+        assertEquals(getResource("presidents.csv"), csv.getFile());
+    }
+
+    @Test
+    public void fallbackForUtf16() throws CsvReaderException {
+        CSV csv = new CSV();
+        csv.readFile(getResource("charset_utf_16_le.csv"), new ParallelCsvReader(null, null, null));
+        assertEquals(BOM.UTF16LE.getCharset(), csv.getCharset());
+        assertEquals("Heading1", csv.getColumn(0).getName());
+    }
+
+}
@@ -0,0 +1,106 @@
+package no.laukvik.csv.io;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReadAheadInputStreamTest {
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(1).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] readAll(InputStream input, int chunk) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[chunk];
+        int count;
+        while ((count = input.read(buffer, 0, chunk)) != -1) {
+            out.write(buffer, 0, count);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void readSameBytes() throws IOException {
+        byte[] bytes = randomBytes(100000);
+        for (int size : new int[]{1, 7, 4096}) {
+            for (boolean direct : new boolean[]{false, true}) {
+                ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(bytes));
+                try (ReadAheadInputStream input = new ReadAheadInputStream(channel, size, 3, direct, "test")) {
+                    assertArrayEquals(bytes, readAll(input, 1000));
+                    assertEquals(-1, input.read());
+                    assertTrue(input.getReadNanos() >= 0);
+                    assertTrue(input.getWaitNanos() >= 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void readSingleBytes() throws IOException {
+        byte[] bytes = {1, -2, 3};
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(bytes));
+        try (ReadAheadInputStream input = new ReadAheadInputStream(channel, 2, 1, false, "test")) {
+            assertEquals(1, input.read());
+            assertEquals(254, input.read());
+            assertEquals(3, input.read());
+            assertEquals(-1, input.read());
+        }
+    }
+
+    @Test
+    public void failureIsRethrown() throws IOException {
+        ReadableByteChannel channel = new ReadableByteChannel() {
+            private int reads;
+
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                if (reads++ > 2) {
+                    throw new IOException("broken");
+                }
+                dst.put((byte) 1);
+                return 1;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try (ReadAheadInputStream input = new ReadAheadInputStream(channel, 1, 2, false, "test")) {
+            readAll(input, 10);
+            fail();
+        } catch (IOException e) {
+            assertEquals("broken", e.getMessage());
+        }
+    }
+
+    @Test
+    public void closeWhileReadingAhead() throws IOException {
+        byte[] bytes = randomBytes(1000000);
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(bytes));
+        ReadAheadInputStream input = new ReadAheadInputStream(channel, 16, 2, false, "test");
+        assertEquals(bytes[0] & 0xFF, input.read());
+        input.close();
+        input.close();
+    }
+
+}
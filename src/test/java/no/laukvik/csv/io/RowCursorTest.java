@@ -0,0 +1,107 @@
+package no.laukvik.csv.io;
+
+import no.laukvik.csv.CSV;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RowCursorTest {
+
+    private static File getResource(String filename) {
+        ClassLoader classLoader = RowCursorTest.class.getClassLoader();
+        return new File(classLoader.getResource(filename).getFile());
+    }
+
+    private static File createFile(int rows) throws IOException {
+        File file = File.createTempFile("cursor", ".csv");
+        file.deleteOnExit();
+        StringBuilder content = new StringBuilder("id,amount,text\n");
+        for (int i = 0; i < rows; i++) {
+            content.append(i).append(',').append(i).append('.').append(i % 100).append(",text ").append(i)
+                    .append('\n');
+        }
+        Files.write(file.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void readSameAsCsvReader() throws CsvReaderException, IOException {
+        File file = getResource("presidents.csv");
+        CSV expected = new CSV();
+        expected.readFile(file);
+        CSV csv = new CSV();
+        try (RowCursor cursor = new CsvReader(null, null, null).readFileCursor(file, csv)) {
+            assertEquals(expected.getColumnCount(), csv.getColumnCount());
+            int y = 0;
+            while (cursor.next()) {
+                for (int x = 0; x < cursor.getFieldCount(); x++) {
+                    String value = expected.getRow(y).getRaw(expected.getColumn(x));
+                    assertEquals(value, cursor.getString(x));
+                    assertEquals(value, cursor.getCharSequence(x).toString());
+                }
+                assertEquals(Integer.parseInt(expected.getRow(y).getRaw(expected.getColumn(0))), cursor.getInt(0));
+                y++;
+            }
+            assertEquals(44, y);
+        }
+    }
+
+    @Test
+    public void typedGetters() throws CsvReaderException, IOException {
+        File file = createFile(100);
+        try (RowCursor cursor = new CsvReader(null, null, null).readFileCursor(file, new CSV())) {
+            assertTrue(cursor.next());
+            assertTrue(cursor.next());
+            assertEquals(1, cursor.getInt(0));
+            assertEquals(1L, cursor.getLong(0));
+            assertEquals(1.1, cursor.getDouble(1), 0);
+            CharSequence text = cursor.getCharSequence(2);
+            assertEquals("text 1", text.toString());
+            assertEquals('t', text.charAt(0));
+            assertEquals("ext", text.subSequence(1, 4));
+            assertFalse(cursor.isEmpty(2));
+            assertTrue(cursor.isEmpty(3));
+            assertTrue(cursor.next());
+            assertEquals("text 2", text.toString());
+        }
+    }
+
+    @Test
+    public void scanWithoutAllocating() throws CsvReaderException, IOException {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        File file = createFile(20000);
+        for (int run = 0; run < 5; run++) {
+            try (RowCursor cursor = new CsvReader(null, null, null).readFileCursor(file, new CSV())) {
+                for (int i = 0; i < 1000 && cursor.next(); i++) {
+                    cursor.getInt(0);
+                }
+                long before = bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+                long sum = 0;
+                double total = 0;
+                int length = 0;
+                int rows = 0;
+                while (cursor.next()) {
+                    sum += cursor.getInt(0);
+                    total += cursor.getDouble(1);
+                    length += cursor.getCharSequence(2).length();
+                    rows++;
+                }
+                long allocated = bean.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+                assertEquals(19000, rows);
+                assertTrue(sum > 0 && total > 0 && length > 0);
+                if (run == 4) {
+                    assertTrue("Allocated " + allocated + " bytes", allocated < rows);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,92 @@
+package no.laukvik.csv.io;
+
+import no.laukvik.csv.CSV;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RowIndexTest {
+
+    private static File createFile(String content) throws IOException {
+        File file = File.createTempFile("index", ".csv");
+        file.deleteOnExit();
+        RowIndex.getSidecar(file).deleteOnExit();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void findOffsets() throws IOException {
+        String content = "Name,City\r\nÅse,Tromsø\r\n\"Multi\nline\",Oslo\r\nCarl,Bergen";
+        File file = createFile(content);
+        RowIndex index = RowIndex.build(file, StandardCharsets.UTF_8, CSV.QUOTE_DOUBLE, 2);
+        assertEquals(3, index.getRowCount());
+        assertEquals(11, index.getHeaderEnd());
+        assertEquals(11, index.getOffset(1));
+        assertEquals(0, index.getIndexedRow(1));
+        assertEquals(2, index.getIndexedRow(2));
+        int offset = content.substring(0, content.indexOf("Carl")).getBytes(StandardCharsets.UTF_8).length;
+        assertEquals(offset, index.getOffset(2));
+        try {
+            index.getOffset(3);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void emptyFile() throws IOException {
+        RowIndex index = RowIndex.build(createFile(""), StandardCharsets.UTF_8, CSV.QUOTE_DOUBLE, 10);
+        assertEquals(0, index.getRowCount());
+        assertEquals(0, index.getHeaderEnd());
+        index = RowIndex.build(createFile("Name\n"), StandardCharsets.UTF_8, CSV.QUOTE_DOUBLE, 10);
+        assertEquals(0, index.getRowCount());
+        assertEquals(5, index.getHeaderEnd());
+    }
+
+    @Test
+    public void writeAndLoad() throws IOException {
+        StringBuilder b = new StringBuilder("Id\n");
+        for (int i = 0; i < 10000; i++) {
+            b.append(i * 997).append('\n');
+        }
+        File file = createFile(b.toString());
+        RowIndex index = RowIndex.open(file, StandardCharsets.UTF_8, CSV.QUOTE_DOUBLE, 64);
+        File sidecar = RowIndex.getSidecar(file);
+        assertTrue(sidecar.exists());
+        assertTrue(sidecar.length() < 1000);
+        RowIndex loaded = RowIndex.load(sidecar);
+        assertEquals(index.getRowCount(), loaded.getRowCount());
+        assertEquals(64, loaded.getInterval());
+        for (int row = 0; row < index.getRowCount(); row += 63) {
+            assertEquals(index.getOffset(row), loaded.getOffset(row));
+        }
+        assertTrue(loaded.isCurrent(file));
+        Files.write(file.toPath(), "1\n".getBytes(StandardCharsets.UTF_8), java.nio.file.StandardOpenOption.APPEND);
+        assertFalse(loaded.isCurrent(file));
+        assertEquals(10001, RowIndex.open(file, StandardCharsets.UTF_8, CSV.QUOTE_DOUBLE, 64).getRowCount());
+        assertEquals(10001, RowIndex.load(sidecar).getRowCount());
+    }
+
+    @Test
+    public void rebuildCorruptSidecar() throws IOException {
+        File file = createFile("Id\n1\n2\n");
+        Files.write(RowIndex.getSidecar(file).toPath(), new byte[]{1, 2, 3});
+        assertEquals(2, RowIndex.open(file, StandardCharsets.UTF_8, CSV.QUOTE_DOUBLE, 10).getRowCount());
+        assertEquals(2, RowIndex.load(RowIndex.getSidecar(file)).getRowCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectWideCharset() throws IOException {
+        RowIndex.build(createFile("Id\n1\n"), StandardCharsets.UTF_16, CSV.QUOTE_DOUBLE, 10);
+    }
+}
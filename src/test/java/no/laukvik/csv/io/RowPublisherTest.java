@@ -0,0 +1,174 @@
+package no.laukvik.csv.io;
+
+import no.laukvik.csv.CSV;
+import no.laukvik.csv.Row;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class RowPublisherTest {
+
+    private static File getResource(String filename) {
+        ClassLoader classLoader = RowPublisherTest.class.getClassLoader();
+        return new File(classLoader.getResource(filename).getFile());
+    }
+
+    private static final class TestSubscriber implements Flow.Subscriber<Row> {
+
+        private final List<Row> rows = new ArrayList<>();
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private final long batch;
+        private Flow.Subscription subscription;
+        private volatile boolean completed;
+        private volatile Throwable error;
+
+        TestSubscriber(long batch) {
+            this.batch = batch;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(Row item) {
+            rows.add(item);
+            if (batch > 0 && rows.size() % batch == 0) {
+                subscription.request(batch);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            finished.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            finished.countDown();
+        }
+    }
+
+    private static Stream<Row> rows(int count, AtomicInteger parsed, AtomicBoolean closed) {
+        return Stream.iterate(0, i -> i + 1).limit(count).map(i -> {
+            parsed.incrementAndGet();
+            return new Row();
+        }).onClose(() -> closed.set(true));
+    }
+
+    @Test
+    public void publishOnlyRequestedRows() {
+        AtomicInteger parsed = new AtomicInteger();
+        AtomicBoolean closed = new AtomicBoolean();
+        AtomicInteger opened = new AtomicInteger();
+        RowPublisher publisher = new RowPublisher(() -> {
+            opened.incrementAndGet();
+            return rows(10, parsed, closed);
+        });
+        TestSubscriber subscriber = new TestSubscriber(0);
+        publisher.subscribe(subscriber);
+        assertEquals(0, opened.get());
+        subscriber.subscription.request(3);
+        assertEquals(3, subscriber.rows.size());
+        assertEquals(3, parsed.get());
+        subscriber.subscription.request(4);
+        assertEquals(7, subscriber.rows.size());
+        assertEquals(7, parsed.get());
+        assertFalse(subscriber.completed);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(10, subscriber.rows.size());
+        assertTrue(subscriber.completed);
+        assertTrue(closed.get());
+        assertEquals(1, opened.get());
+    }
+
+    @Test
+    public void requestWhilePublishing() {
+        AtomicInteger parsed = new AtomicInteger();
+        AtomicBoolean closed = new AtomicBoolean();
+        RowPublisher publisher = new RowPublisher(() -> rows(100000, parsed, closed));
+        TestSubscriber subscriber = new TestSubscriber(1);
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(1);
+        assertEquals(100000, subscriber.rows.size());
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    public void cancelClosesStream() {
+        AtomicInteger parsed = new AtomicInteger();
+        AtomicBoolean closed = new AtomicBoolean();
+        RowPublisher publisher = new RowPublisher(() -> rows(10, parsed, closed));
+        TestSubscriber subscriber = new TestSubscriber(0);
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(2);
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(2);
+        assertTrue(closed.get());
+        assertEquals(2, subscriber.rows.size());
+        assertFalse(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void signalFailures() {
+        RowPublisher publisher = new RowPublisher(() -> {
+            throw new CsvReaderException(new IOException("Broken"));
+        });
+        TestSubscriber subscriber = new TestSubscriber(0);
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(1);
+        assertTrue(subscriber.error instanceof CsvReaderException);
+
+        TestSubscriber second = new TestSubscriber(0);
+        publisher.subscribe(second);
+        assertTrue(second.error instanceof IllegalStateException);
+
+        AtomicBoolean closed = new AtomicBoolean();
+        TestSubscriber invalid = new TestSubscriber(0);
+        new RowPublisher(() -> rows(10, new AtomicInteger(), closed)).subscribe(invalid);
+        invalid.subscription.request(1);
+        invalid.subscription.request(0);
+        assertTrue(invalid.error instanceof IllegalArgumentException);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    public void publishFileInExecutor() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CSV csv = new CSV();
+            CsvReader reader = new CsvReader(null, null, null);
+            TestSubscriber subscriber = new TestSubscriber(5);
+            reader.readFilePublisher(getResource("presidents.csv"), csv, executor).subscribe(subscriber);
+            subscriber.subscription.request(5);
+            assertTrue(subscriber.finished.await(10, TimeUnit.SECONDS));
+            assertTrue(subscriber.completed);
+            assertEquals(44, subscriber.rows.size());
+            assertEquals(0, csv.getRowCount());
+            assertEquals("George Washington", subscriber.rows.get(0).getRaw(csv.getColumn("President")));
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package no.laukvik.csv.io;
+
+import no.laukvik.csv.CSV;
+import no.laukvik.csv.columns.Column;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ShardedCsvReaderTest {
+
+    private static File createDirectory(int shards, int rows) throws IOException {
+        File directory = Files.createTempDirectory("shards").toFile();
+        directory.deleteOnExit();
+        for (int s = 0; s < shards; s++) {
+            StringBuilder b = new StringBuilder("Id;Shard\r\n");
+            for (int r = 0; r < rows; r++) {
+                b.append(s * rows + r).append(";\"part ").append(s).append("\"\r\n");
+            }
+            write(new File(directory, String.format("part-%04d.csv", s)), b.toString());
+        }
+        write(new File(directory, "README.txt"), "Not a shard");
+        return directory;
+    }
+
+    private static void write(File file, String content) throws IOException {
+        file.deleteOnExit();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void readInFileOrder() throws IOException, CsvReaderException {
+        File directory = createDirectory(12, 250);
+        CSV csv = new CSV();
+        csv.setCharset(StandardCharsets.UTF_8);
+        csv.readFiles(directory, "part-*.csv");
+        assertEquals(2, csv.getColumnCount());
+        assertEquals(';', (char) csv.getSeparatorChar());
+        assertEquals(3000, csv.getRowCount());
+        Column id = csv.getColumn("Id");
+        for (int y = 0; y < csv.getRowCount(); y++) {
+            assertEquals(String.valueOf(y), csv.getRow(y).getRaw(id));
+        }
+        assertEquals("part 11", csv.getRow(2999).getRaw(csv.getColumn("Shard")));
+    }
+
+    @Test
+    public void readInAnyOrder() throws IOException, CsvReaderException {
+        File directory = createDirectory(8, 100);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            ShardedCsvReader reader = new ShardedCsvReader(StandardCharsets.UTF_8, null, null, executor);
+            reader.setPreserveOrder(false);
+            CSV csv = new CSV();
+            csv.readFile(directory, reader);
+            assertEquals(800, csv.getRowCount());
+            Set<String> ids = new HashSet<>();
+            for (int y = 0; y < csv.getRowCount(); y++) {
+                ids.add(csv.getRow(y).getRaw(csv.getColumn("Id")));
+            }
+            assertEquals(800, ids.size());
+            assertFalse(executor.isShutdown());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void rejectOtherHeader() throws IOException {
+        File directory = createDirectory(3, 10);
+        write(new File(directory, "part-0002.csv"), "Id;Name\r\n1;x\r\n");
+        try {
+            new CSV().readFiles(directory, "part-*.csv");
+            fail();
+        } catch (CsvReaderException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("part-0002.csv"));
+        }
+    }
+
+    @Test
+    public void readShardWithByteOrderMark() throws IOException, CsvReaderException {
+        File directory = createDirectory(2, 10);
+        write(new File(directory, "part-0001.csv"), "\uFEFFId;Shard\r\n10;x\r\n");
+        CSV csv = new CSV();
+        csv.setCharset(StandardCharsets.UTF_8);
+        csv.readFiles(directory, "part-*.csv");
+        assertEquals(11, csv.getRowCount());
+        assertEquals("x", csv.getRow(10).getRaw(csv.getColumn("Shard")));
+    }
+
+    @Test
+    public void readEmptyDirectory() throws IOException, CsvReaderException {
+        File directory = Files.createTempDirectory("shards").toFile();
+        directory.deleteOnExit();
+        CSV csv = new CSV();
+        csv.readFiles(directory, "*.csv");
+        assertEquals(0, csv.getColumnCount());
+        assertEquals(0, csv.getRowCount());
+    }
+}
@@ -36,6 +36,8 @@ public class IntegerBetweenMatcherTest {
         assertFalse(m.matches(5));
         assertFalse(m.matches(5));
         assertFalse(m.matches(null));
+        assertTrue(m.matchesInt(4));
+        assertFalse(m.matchesInt(0));
     }
 
 }
\ No newline at end of file
@@ -105,6 +105,16 @@ public class QueryTest {
         assertEquals(4, rows.size());
     }
 
+    @Test
+    public void isGreaterThanColumnar() {
+        csv.setColumnar(true);
+        Query q = new Query();
+        q.isGreaterThan(presidency, 40);
+        assertEquals(4, csv.findRowsByQuery(q).size());
+        q.isBetween(presidency, 42, 43);
+        assertEquals(2, csv.findRowsByQuery(q).size());
+    }
+
     @Test
     public void lessThan() {
         Query q = new Query();
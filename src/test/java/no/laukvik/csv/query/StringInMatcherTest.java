@@ -2,8 +2,10 @@ package no.laukvik.csv.query;
 
 import no.laukvik.csv.CSV;
 import no.laukvik.csv.columns.StringColumn;
+import no.laukvik.csv.columns.StringDictionary;
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -30,4 +32,20 @@ public class StringInMatcherTest {
         assertFalse(m.matches(null));
     }
 
+    @Test
+    public void matchesCodes() throws Exception {
+        CSV csv = new CSV();
+        StringColumn country = csv.addStringColumn("country");
+        StringDictionary dictionary = new StringDictionary();
+        country.setDictionary(dictionary);
+        StringInMatcher m = new StringInMatcher(country, "NO", "SE");
+        char[] chars = "NO,DK,SE".toCharArray();
+        assertTrue(m.matches(country.parse(chars, 0, 2)));
+        assertFalse(m.matches(country.parse(chars, 3, 2)));
+        assertTrue(m.matches(country.parse(chars, 6, 2)));
+        assertTrue(m.matches(new String("SE")));
+        assertFalse(m.matches("FI"));
+        assertEquals(3, dictionary.size());
+    }
+
 }
\ No newline at end of file
@@ -36,6 +36,18 @@ public class SumTest {
     public void getValue() throws Exception {
     }
 
+    @Test
+    public void sumBeyondLong() throws Exception {
+        CSV csv = new CSV();
+        IntegerColumn ic = csv.addIntegerColumn("int");
+        csv.setColumnar(true);
+        Sum sum = new Sum(ic);
+        for (int i = 0; i < 10; i++) {
+            sum.aggregate(csv.addRow().set(ic, Integer.MAX_VALUE));
+        }
+        assertEquals(BigDecimal.valueOf(Integer.MAX_VALUE).multiply(BigDecimal.TEN), sum.getValue());
+    }
+
     @Test
     public void string() throws Exception {
         Sum sum = new Sum(new IntegerColumn("int"));
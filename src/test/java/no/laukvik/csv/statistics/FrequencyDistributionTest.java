@@ -51,4 +51,15 @@ public class FrequencyDistributionTest {
         assertEquals(1, fd.getNullCount());
     }
 
+    @Test
+    public void addValueCount() throws Exception {
+        StringColumn c = new StringColumn("first");
+        FrequencyDistribution<String> fd = new FrequencyDistribution<>(c);
+        fd.addValue("James");
+        fd.addValue("James", 3);
+        fd.addValue(null, 2);
+        assertEquals((Integer) 4, fd.getCount("James"));
+        assertEquals(2, fd.getNullCount());
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+package no.laukvik.csv.storage;
+
+import no.laukvik.csv.columns.BooleanColumn;
+import no.laukvik.csv.columns.DoubleColumn;
+import no.laukvik.csv.columns.FloatColumn;
+import no.laukvik.csv.columns.IntegerColumn;
+import no.laukvik.csv.columns.LocalDateColumn;
+import no.laukvik.csv.columns.StringColumn;
+import no.laukvik.csv.columns.StringDictionary;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDate;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ColumnTableTest {
+
+    @Test
+    public void storeByType() {
+        ColumnTable table = new ColumnTable();
+        IntegerColumn id = new IntegerColumn("id");
+        BooleanColumn active = new BooleanColumn("active");
+        LocalDateColumn born = new LocalDateColumn("born");
+        for (int i = 0; i < 5000; i++) {
+            int row = table.addRow();
+            if (i % 3 != 0) {
+                table.set(row, id, i);
+            }
+            table.set(row, active, i % 2 == 0);
+            table.set(row, born, LocalDate.of(2000, 1, 1).plusDays(i));
+        }
+        assertEquals(5000, table.getRowCount());
+        assertTrue(table.getStore(id) instanceof IntStore);
+        assertTrue(table.getStore(active) instanceof BooleanStore);
+        assertTrue(table.getStore(born) instanceof LocalDateStore);
+        assertNull(table.get(3, id));
+        assertEquals(4, table.get(4, id));
+        assertEquals(Boolean.TRUE, table.get(4, active));
+        assertEquals(Boolean.FALSE, table.get(3, active));
+        assertEquals(LocalDate.of(2000, 1, 1).plusDays(4999), table.get(4999, born));
+        assertNull(table.get(9999, id));
+        table.set(4, id, null);
+        assertTrue(table.getStore(id).isNull(4));
+        assertEquals(5, table.get(5, new IntegerColumn("id")));
+        table.clear();
+        assertEquals(0, table.getRowCount());
+        assertNull(table.getStore(id));
+    }
+
+    @Test
+    public void readUnboxed() {
+        ColumnTable table = new ColumnTable();
+        IntegerColumn id = new IntegerColumn("id");
+        FloatColumn weight = new FloatColumn("weight");
+        DoubleColumn score = new DoubleColumn("score");
+        BooleanColumn active = new BooleanColumn("active");
+        table.set(table.addRow(), id, 7);
+        table.set(0, weight, 1.5f);
+        table.set(0, score, 2.25);
+        table.set(0, active, true);
+        table.addRow();
+        ((IntStore) table.getStore(id)).setInt(1, 8);
+        assertEquals(7, table.getInt(0, id, -1));
+        assertEquals(8, table.getInt(1, id, -1));
+        assertEquals(1.5f, table.getFloat(0, weight, 0), 0);
+        assertEquals(-1f, table.getFloat(1, weight, -1), 0);
+        assertEquals(2.25, table.getDouble(0, score, 0), 0);
+        assertEquals(-1.0, table.getDouble(1, score, -1), 0);
+        assertTrue(table.getBoolean(0, active, false));
+        assertTrue(table.getBoolean(1, active, true));
+        assertTrue(table.isNull(1, active));
+        assertFalse(table.isNull(1, id));
+        assertTrue(table.isNull(0, new IntegerColumn("unknown")));
+    }
+
+    @Test
+    public void storeOffHeap() {
+        ColumnTable table = new ColumnTable(true);
+        IntegerColumn id = new IntegerColumn("id");
+        DoubleColumn score = new DoubleColumn("score");
+        StringColumn name = new StringColumn("name");
+        for (int i = 0; i < 300000; i++) {
+            int row = table.addRow();
+            table.set(row, id, i);
+            table.set(row, score, i / 2.0);
+            if (i % 7 != 0) {
+                table.set(row, name, "navn\u00e6" + i);
+            }
+        }
+        assertTrue(table.isOffHeap());
+        assertTrue(table.getStore(name) instanceof DirectStringStore);
+        assertEquals(299999, table.getInt(299999, id, -1));
+        assertEquals(149999.5, table.getDouble(299999, score, 0), 0);
+        assertEquals("navn\u00e6299998", table.get(299998, name));
+        assertNull(table.get(7, name));
+        table.set(8, name, "again");
+        assertEquals("again", table.get(8, name));
+        table.close();
+        assertEquals(0, table.getRowCount());
+        assertNull(table.get(0, id));
+        table.set(table.addRow(), id, 1);
+        assertEquals(1, table.getInt(0, id, -1));
+    }
+
+    @Test
+    public void growDirectMemoryWithRows() {
+        DirectBuffer buffer = new DirectBuffer();
+        buffer.ensure(Integer.BYTES);
+        assertEquals(4096, buffer.capacity());
+        buffer.putInt(0, 7);
+        buffer.ensure(5000);
+        assertEquals(8192, buffer.capacity());
+        assertEquals(7, buffer.getInt(0));
+        buffer.ensure(3 << 20);
+        assertEquals(3 << 20, buffer.capacity());
+        assertEquals(7, buffer.getInt(0));
+        buffer.putLong((2 << 20) + 8, 11);
+        assertEquals(11, buffer.getLong((2 << 20) + 8));
+        buffer.close();
+        assertEquals(0, buffer.capacity());
+    }
+
+    @Test
+    public void serializeOffHeap() throws Exception {
+        ColumnTable table = new ColumnTable(true);
+        IntegerColumn id = new IntegerColumn("id");
+        StringColumn name = new StringColumn("name");
+        table.set(table.addRow(), id, 42);
+        table.set(0, name, "Bob");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(table);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            ColumnTable copy = (ColumnTable) in.readObject();
+            assertEquals(42, copy.getInt(0, id, -1));
+            assertEquals("Bob", copy.get(0, name));
+            copy.close();
+        }
+        table.close();
+    }
+
+    @Test
+    public void encodeStrings() {
+        ColumnTable table = new ColumnTable();
+        StringColumn party = new StringColumn("party");
+        StringDictionary dictionary = new StringDictionary();
+        party.setDictionary(dictionary);
+        String whig = dictionary.intern("Whig");
+        table.set(table.addRow(), party, whig);
+        table.set(table.addRow(), party, new String("Whig"));
+        table.set(table.addRow(), party, "Democratic");
+        StringStore store = (StringStore) table.getStore(party);
+        assertTrue(store.isEncoded());
+        assertSame(whig, table.get(1, party));
+        assertEquals("Democratic", table.get(2, party));
+        assertEquals(2, dictionary.size());
+    }
+
+    @Test
+    public void decodeDistinctStrings() {
+        ColumnTable table = new ColumnTable();
+        StringColumn name = new StringColumn("name");
+        for (int i = 0; i < 5000; i++) {
+            table.set(table.addRow(), name, i % 10 == 0 ? null : "name" + i);
+        }
+        StringStore store = (StringStore) table.getStore(name);
+        assertFalse(store.isEncoded());
+        for (int i = 0; i < 5000; i++) {
+            assertEquals(i % 10 == 0 ? null : "name" + i, table.get(i, name));
+        }
+    }
+}
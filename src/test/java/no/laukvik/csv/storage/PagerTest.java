@@ -0,0 +1,118 @@
+package no.laukvik.csv.storage;
+
+import no.laukvik.csv.columns.DateColumn;
+import no.laukvik.csv.columns.IntegerColumn;
+import no.laukvik.csv.columns.StringColumn;
+import no.laukvik.csv.columns.UrlColumn;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.URL;
+import java.util.Date;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PagerTest {
+
+    private ColumnTable buildTable(final IntegerColumn id, final StringColumn name, final DateColumn date,
+                                   final UrlColumn url) throws Exception {
+        ColumnTable table = new ColumnTable(1, 100);
+        for (int i = 0; i < 1000; i++) {
+            int row = table.addRow();
+            table.set(row, id, i);
+            if (i % 3 != 0) {
+                table.set(row, name, "name" + i);
+            }
+            table.set(row, date, new Date(i * 1000L));
+            table.set(row, url, new URL("http://example.com/" + i));
+        }
+        return table;
+    }
+
+    @Test
+    public void spillPages() throws Exception {
+        IntegerColumn id = new IntegerColumn("id");
+        StringColumn name = new StringColumn("name");
+        DateColumn date = new DateColumn("date", "yyyy");
+        UrlColumn url = new UrlColumn("url");
+        ColumnTable table = buildTable(id, name, date, url);
+        assertTrue(table.isPaged());
+        assertEquals(10, table.getPageCount());
+        assertEquals(1, table.getResidentPageCount());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, table.getInt(i, id, -1));
+            assertEquals(i % 3 == 0 ? null : "name" + i, table.get(i, name));
+            assertEquals(new Date(i * 1000L), table.get(i, date));
+            assertEquals(new URL("http://example.com/" + i), table.get(i, url));
+        }
+        assertEquals(1, table.getResidentPageCount());
+        table.set(5, id, 500);
+        table.getInt(999, id, -1);
+        assertEquals(500, table.getInt(5, id, -1));
+        table.close();
+        assertEquals(0, table.getPageCount());
+    }
+
+    @Test
+    public void readPagesFromManyThreads() throws Exception {
+        IntegerColumn id = new IntegerColumn("id");
+        StringColumn name = new StringColumn("name");
+        ColumnTable table = buildTable(id, name, new DateColumn("date", "yyyy"), new UrlColumn("url"));
+        IntStream.range(0, 20000).parallel().forEach(i -> {
+            int row = i * 7 % 1000;
+            assertEquals(row, table.getInt(row, id, -1));
+            assertEquals(row % 3 == 0 ? null : "name" + row, table.get(row, name));
+        });
+        assertEquals(1, table.getResidentPageCount());
+        table.close();
+    }
+
+    @Test
+    public void keepPagesWithinBudget() throws Exception {
+        IntegerColumn id = new IntegerColumn("id");
+        ColumnTable table = new ColumnTable(Long.MAX_VALUE, 100);
+        for (int i = 0; i < 1000; i++) {
+            table.set(table.addRow(), id, i);
+        }
+        assertEquals(10, table.getResidentPageCount());
+        assertEquals(Long.MAX_VALUE, table.getMemoryBudget());
+        table.close();
+    }
+
+    @Test
+    public void removeSpilledColumn() throws Exception {
+        IntegerColumn id = new IntegerColumn("id");
+        StringColumn name = new StringColumn("name");
+        ColumnTable table = buildTable(id, name, new DateColumn("date", "yyyy"), new UrlColumn("url"));
+        table.remove(name);
+        assertNull(table.get(1, name));
+        assertEquals(1, table.getInt(1, id, -1));
+        table.close();
+    }
+
+    @Test
+    public void serializeSpilledPages() throws Exception {
+        IntegerColumn id = new IntegerColumn("id");
+        StringColumn name = new StringColumn("name");
+        ColumnTable table = buildTable(id, name, new DateColumn("date", "yyyy"), new UrlColumn("url"));
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(table);
+        }
+        table.close();
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            ColumnTable copy = (ColumnTable) in.readObject();
+            assertEquals(1000, copy.getRowCount());
+            assertEquals(0, copy.getResidentPageCount());
+            assertEquals(998, copy.getInt(998, new IntegerColumn("id"), -1));
+            assertEquals("name998", copy.get(998, new StringColumn("name")));
+            copy.close();
+        }
+    }
+}